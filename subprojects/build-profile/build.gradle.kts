@@ -15,8 +15,10 @@ dependencies {
     implementation(libs.guava)
 
     testImplementation(project(":internal-testing"))
+    testImplementation(libs.groovyJson)
 
     integTestImplementation(libs.jsoup)
+    integTestImplementation(libs.groovyJson)
 
     integTestDistributionRuntimeOnly(project(":distributions-full"))
 }
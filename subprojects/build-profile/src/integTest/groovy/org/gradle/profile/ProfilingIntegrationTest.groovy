@@ -15,6 +15,7 @@
  */
 package org.gradle.profile
 
+import groovy.json.JsonSlurper
 import org.gradle.api.Plugin
 import org.gradle.api.initialization.Settings
 import org.gradle.initialization.StartParameterBuildOptions
@@ -52,6 +53,14 @@ allprojects {
         document.text().contains("-x barTask")
         output.contains("See the profiling report at:")
         output.contains("A fine-grained performance profile is available: use the --${StartParameterBuildOptions.BuildScanOption.LONG_OPTION} option.")
+
+        and:
+        def timelineFile = file('build/reports/profile').listFiles().find { it.name ==~ /profile-.+-timeline.json/ }
+        timelineFile && timelineFile.exists()
+        def events = new JsonSlurper().parse(timelineFile).traceEvents
+        events.any { it.ph == "X" && it.name == "Task :a:jar" }
+        events.any { it.ph == "M" && it.name == "thread_name" }
+        output.contains("See the build operation timeline")
     }
 
     @Issue("https://github.com/gradle/gradle/issues/16872")
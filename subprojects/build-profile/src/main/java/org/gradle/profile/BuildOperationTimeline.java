@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.BuildOperationListenerManager;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+import org.gradle.internal.operations.trace.ChromeTraceWriter;
+import org.gradle.util.internal.GFileUtils;
+
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the build operations of a build, to write them as a timeline in the Chrome trace format, which can be opened in Perfetto or {@code chrome://tracing}.
+ *
+ * Each operation is shown in the lane of the thread that started it, nested in the operations that enclose it on that thread.
+ * Operations that are still running when the timeline is written are not included.
+ */
+public class BuildOperationTimeline implements BuildOperationListener {
+    private final BuildOperationListenerManager buildOperationListenerManager;
+    private final Map<OperationIdentifier, RunningOperation> running = new ConcurrentHashMap<>();
+    private final Queue<CompletedOperation> completed = new ConcurrentLinkedQueue<>();
+
+    public BuildOperationTimeline(BuildOperationListenerManager buildOperationListenerManager) {
+        this.buildOperationListenerManager = buildOperationListenerManager;
+    }
+
+    public void start() {
+        buildOperationListenerManager.addListener(this);
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        Thread thread = Thread.currentThread();
+        running.put(buildOperation.getId(), new RunningOperation(thread.getId(), thread.getName(), startEvent.getStartTime()));
+    }
+
+    @Override
+    public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        RunningOperation operation = running.remove(buildOperation.getId());
+        if (operation == null) {
+            // Started before the timeline was started
+            return;
+        }
+        Object details = buildOperation.getDetails();
+        completed.add(new CompletedOperation(
+            buildOperation.getId().getId(),
+            buildOperation.getParentId() == null ? 0 : buildOperation.getParentId().getId(),
+            buildOperation.getDisplayName(),
+            details == null ? null : details.getClass(),
+            operation,
+            finishEvent.getEndTime(),
+            finishEvent.getFailure() != null
+        ));
+    }
+
+    /**
+     * Stops recording and writes the operations completed so far to the given file.
+     */
+    public void writeTo(File file) {
+        buildOperationListenerManager.removeListener(this);
+        GFileUtils.mkdirs(file.getParentFile());
+        try (ChromeTraceWriter writer = new ChromeTraceWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))) {
+            Set<Long> namedThreads = new HashSet<>();
+            for (CompletedOperation operation : completed) {
+                if (namedThreads.add(operation.start.threadId)) {
+                    writer.threadName(operation.start.threadId, operation.start.threadName);
+                }
+                Map<String, Object> args = new LinkedHashMap<>();
+                args.put("id", operation.id);
+                if (operation.parentId != 0) {
+                    args.put("parentId", operation.parentId);
+                }
+                if (operation.detailsType != null) {
+                    args.put("details", operation.detailsType.getName());
+                }
+                if (operation.failed) {
+                    args.put("failed", true);
+                }
+                writer.completeEvent(
+                    operation.displayName,
+                    operation.detailsType == null ? null : operation.detailsType.getSimpleName(),
+                    operation.start.threadId,
+                    operation.start.startTime * 1000,
+                    Math.max(0, operation.endTime - operation.start.startTime) * 1000,
+                    args
+                );
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            running.clear();
+            completed.clear();
+        }
+    }
+
+    private static class RunningOperation {
+        final long threadId;
+        final String threadName;
+        final long startTime;
+
+        RunningOperation(long threadId, String threadName, long startTime) {
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.startTime = startTime;
+        }
+    }
+
+    private static class CompletedOperation {
+        final long id;
+        final long parentId;
+        final String displayName;
+        final Class<?> detailsType;
+        final RunningOperation start;
+        final long endTime;
+        final boolean failed;
+
+        CompletedOperation(long id, long parentId, String displayName, @Nullable Class<?> detailsType, RunningOperation start, long endTime, boolean failed) {
+            this.id = id;
+            this.parentId = parentId;
+            this.displayName = displayName;
+            this.detailsType = detailsType;
+            this.start = start;
+            this.endTime = endTime;
+            this.failed = failed;
+        }
+    }
+}
@@ -18,9 +18,12 @@
 
 import org.gradle.StartParameter;
 import org.gradle.api.internal.BuildDefinition;
+import org.gradle.internal.build.BuildState;
+import org.gradle.internal.build.RootBuildState;
 import org.gradle.internal.buildevents.BuildStartedTime;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
+import org.gradle.internal.operations.BuildOperationListenerManager;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -39,13 +42,21 @@ public void execute(ListenerManager listenerManager) {
                         if (buildDefinition.getStartParameter().isProfile()) {
                             listenerManager.addListener(services.get(ProfileEventAdapter.class));
                             listenerManager.addListener(services.get(ReportGeneratingProfileListener.class));
+                            if (services.get(BuildState.class) instanceof RootBuildState) {
+                                // Build operations are not associated with a build, so record the timeline for the whole build tree with the root build
+                                services.get(BuildOperationTimeline.class).start();
+                            }
                         }
                     }
                 };
             }
 
-            public ReportGeneratingProfileListener createReportGeneratingProfileListener(StyledTextOutputFactory styledTextOutputFactory) {
-                return new ReportGeneratingProfileListener(styledTextOutputFactory);
+            public BuildOperationTimeline createBuildOperationTimeline(BuildOperationListenerManager buildOperationListenerManager) {
+                return new BuildOperationTimeline(buildOperationListenerManager);
+            }
+
+            public ReportGeneratingProfileListener createReportGeneratingProfileListener(StyledTextOutputFactory styledTextOutputFactory, BuildState buildState, BuildOperationTimeline timeline) {
+                return new ReportGeneratingProfileListener(styledTextOutputFactory, buildState instanceof RootBuildState ? timeline : null);
             }
 
             public ProfileEventAdapter createProfileEventAdapter(BuildStartedTime buildStartedTime, Clock clock, ListenerManager listenerManager, StartParameter startParameter) {
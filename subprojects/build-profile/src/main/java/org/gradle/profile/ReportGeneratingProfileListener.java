@@ -23,6 +23,7 @@
 import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -32,10 +33,12 @@
 public class ReportGeneratingProfileListener extends InternalBuildAdapter implements ProfileListener {
     private static final SimpleDateFormat FILE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
     private final StyledTextOutputFactory textOutputFactory;
+    private final BuildOperationTimeline timeline;
     private File buildDir;
 
-    public ReportGeneratingProfileListener(StyledTextOutputFactory textOutputFactory) {
+    public ReportGeneratingProfileListener(StyledTextOutputFactory textOutputFactory, @Nullable BuildOperationTimeline timeline) {
         this.textOutputFactory = textOutputFactory;
+        this.timeline = timeline;
     }
 
     @Override
@@ -46,16 +49,25 @@ public void projectsEvaluated(Gradle gradle) {
     @Override
     public void buildFinished(BuildProfile buildProfile) {
         ProfileReportRenderer renderer = new ProfileReportRenderer();
-        File file = new File(buildDir, "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted())) + ".html");
+        String baseName = "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted()));
+        File file = new File(buildDir, baseName + ".html");
         renderer.writeTo(buildProfile, file);
-        renderReportUrl(file);
+        File timelineFile = null;
+        if (timeline != null) {
+            timelineFile = new File(buildDir, baseName + "-timeline.json");
+            timeline.writeTo(timelineFile);
+        }
+        renderReportUrl(file, timelineFile);
     }
 
-    private void renderReportUrl(File reportFile) {
+    private void renderReportUrl(File reportFile, @Nullable File timelineFile) {
         StyledTextOutput textOutput = textOutputFactory.create(ReportGeneratingProfileListener.class, LogLevel.LIFECYCLE);
         textOutput.println();
-        String reportUrl = new ConsoleRenderer().asClickableFileUrl(reportFile);
-        textOutput.formatln("See the profiling report at: %s", reportUrl);
+        ConsoleRenderer consoleRenderer = new ConsoleRenderer();
+        textOutput.formatln("See the profiling report at: %s", consoleRenderer.asClickableFileUrl(reportFile));
+        if (timelineFile != null) {
+            textOutput.formatln("See the build operation timeline, which can be opened in Perfetto or chrome://tracing, at: %s", consoleRenderer.asClickableFileUrl(timelineFile));
+        }
         textOutput.text("A fine-grained performance profile is available: use the ");
         textOutput.withStyle(UserInput).format("--%s", StartParameterBuildOptions.BuildScanOption.LONG_OPTION);
         textOutput.text(" option.");
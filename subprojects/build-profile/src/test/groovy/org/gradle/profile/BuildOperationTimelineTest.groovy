@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import groovy.json.JsonSlurper
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.BuildOperationListenerManager
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildOperationTimelineTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider(getClass())
+
+    def listenerManager = Mock(BuildOperationListenerManager)
+    def timeline = new BuildOperationTimeline(listenerManager)
+
+    def "writes completed operations in the lane of the thread that started them"() {
+        def file = temp.file("reports/timeline.json")
+        def root = BuildOperationDescriptor.displayName("Run build").details(new StringBuilder()).build(new OperationIdentifier(1), null)
+        def child = BuildOperationDescriptor.displayName("Task :a:jar").build(new OperationIdentifier(2), root.id)
+        def unfinished = BuildOperationDescriptor.displayName("unfinished").build(new OperationIdentifier(3), root.id)
+
+        when:
+        timeline.start()
+        timeline.started(root, new OperationStartEvent(1000))
+        Thread.start("worker") {
+            timeline.started(child, new OperationStartEvent(1100))
+            timeline.started(unfinished, new OperationStartEvent(1100))
+        }.join()
+        Thread.start {
+            timeline.finished(child, new OperationFinishEvent(1100, 1250, new RuntimeException(), null))
+        }.join()
+        timeline.finished(root, new OperationFinishEvent(1000, 2000, null, null))
+        timeline.writeTo(file)
+
+        then:
+        1 * listenerManager.addListener(timeline)
+        1 * listenerManager.removeListener(timeline)
+
+        and:
+        def events = new JsonSlurper().parse(file).traceEvents
+        def threads = events.findAll { it.ph == "M" }.collectEntries { [it.args.name, it.tid] }
+        threads.keySet() == [Thread.currentThread().name, "worker"] as Set
+        def operations = events.findAll { it.ph == "X" }
+        operations.size() == 2
+        with(operations.find { it.name == "Task :a:jar" }) {
+            tid == threads["worker"]
+            ts == 1100000
+            dur == 150000
+            args == [id: 2, parentId: 1, failed: true]
+        }
+        with(operations.find { it.name == "Run build" }) {
+            tid == threads[Thread.currentThread().name]
+            cat == "StringBuilder"
+            args == [id: 1, details: "java.lang.StringBuilder"]
+        }
+    }
+
+    def "ignores operations that started before the timeline was started"() {
+        def file = temp.file("timeline.json")
+        def operation = BuildOperationDescriptor.displayName("early").build(new OperationIdentifier(1), null)
+
+        when:
+        timeline.finished(operation, new OperationFinishEvent(0, 10, null, null))
+        timeline.writeTo(file)
+
+        then:
+        new JsonSlurper().parse(file).traceEvents.empty
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache.serialization.beans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares reflective field access with the cached accessors used by {@link BeanPropertyWriter}
+ * and {@link BeanPropertyReader} when encoding and decoding bean state.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BeanFieldAccessBenchmark {
+
+    private List<RelevantField> relevantFields;
+    private Object[] values;
+    private SampleBean bean;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        relevantFields = BeanSchemaKt.relevantStateOf(SampleBean.class);
+        bean = new SampleBean();
+        values = new Object[relevantFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = relevantFields.get(i).getValue(bean);
+        }
+    }
+
+    @Benchmark
+    public void encodeReflectively(Blackhole bh) throws IllegalAccessException {
+        for (RelevantField relevantField : relevantFields) {
+            bh.consume(relevantField.getField().get(bean));
+        }
+    }
+
+    @Benchmark
+    public void encodeWithAccessors(Blackhole bh) {
+        for (RelevantField relevantField : relevantFields) {
+            bh.consume(relevantField.getValue(bean));
+        }
+    }
+
+    @Benchmark
+    public Object decodeReflectively() throws IllegalAccessException {
+        SampleBean target = new SampleBean();
+        for (int i = 0; i < values.length; i++) {
+            Field field = relevantFields.get(i).getField();
+            field.set(target, values[i]);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public Object decodeWithAccessors() {
+        SampleBean target = new SampleBean();
+        for (int i = 0; i < values.length; i++) {
+            relevantFields.get(i).setValue(target, values[i]);
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unused")
+    private static class SampleBean {
+        private String name = "sample";
+        private String description = "A sample bean";
+        private int priority = 42;
+        private long timeout = 1000L;
+        private boolean enabled = true;
+        private double ratio = 0.5d;
+        private List<String> tags = Arrays.asList("a", "b", "c");
+        private Object payload = new Object();
+        private Integer boxed = 7;
+        private String group = "benchmark";
+        private final String constant = "constant";
+    }
+}
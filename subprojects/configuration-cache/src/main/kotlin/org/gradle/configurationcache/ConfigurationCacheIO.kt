@@ -201,6 +201,7 @@ class ConfigurationCacheIO internal constructor(
 
 internal
 fun writeConfigurationCacheFingerprintHeaderTo(outputStream: OutputStream, header: ConfigurationCacheFingerprint.Header) {
+    outputStream.write(header.stateFileCompression.ordinal)
     val buildRootDirs = header.includedBuildRootDirs
     if (buildRootDirs.isEmpty()) {
         outputStream.writeInt(0)
@@ -215,17 +216,19 @@ fun writeConfigurationCacheFingerprintHeaderTo(outputStream: OutputStream, heade
 
 
 internal
-fun readConfigurationCacheFingerprintHeaderFrom(inputStream: InputStream): ConfigurationCacheFingerprint.Header? {
+fun readConfigurationCacheFingerprintHeaderFrom(inputStream: InputStream): ConfigurationCacheFingerprint.Header {
+    val stateFileCompression = StateFileCompression.fromId(inputStream.read())
     val headerSize = inputStream.readInt()
     if (headerSize == 0) {
-        return null
+        return ConfigurationCacheFingerprint.Header(emptySet(), stateFileCompression)
     }
 
     val headerBytes = ByteArray(headerSize)
     require(inputStream.read(headerBytes) == headerSize)
 
     return ConfigurationCacheFingerprint.Header(
-        readFileSetFrom(ByteArrayInputStream(headerBytes))
+        readFileSetFrom(ByteArrayInputStream(headerBytes)),
+        stateFileCompression
     )
 }
 
@@ -72,7 +72,10 @@ class ConfigurationCacheRepository(
     fun useForStateLoad(cacheKey: String, action: (ConfigurationCacheStateFile) -> Unit) {
         withBaseCacheDirFor(cacheKey) { cacheDir ->
             action(
-                ReadableConfigurationCacheStateFile(cacheDir.stateFile)
+                ReadableConfigurationCacheStateFile(
+                    cacheDir.stateFile,
+                    stateFileCompressionOf(cacheDir.fingerprintFile)
+                )
             )
         }
     }
@@ -84,8 +87,9 @@ class ConfigurationCacheRepository(
             chmod(cacheDir, 448) // octal 0700
             markAccessed(cacheDir)
             val stateFiles = mutableListOf<File>()
-            val rootStateFile = WriteableConfigurationCacheStateFile(cacheDir.stateFile, stateFiles::add)
-            val layout = Layout(cacheDir.fingerprintFile, rootStateFile)
+            val stateFileCompression = startParameter.stateFileCompression
+            val rootStateFile = WriteableConfigurationCacheStateFile(cacheDir.stateFile, stateFileCompression, stateFiles::add)
+            val layout = Layout(cacheDir.fingerprintFile, rootStateFile, stateFileCompression)
             try {
                 action(layout)
             } finally {
@@ -94,13 +98,15 @@ class ConfigurationCacheRepository(
                     .forEach {
                         chmod(it, 384) // octal 0600
                     }
+                logStateFileSizes(stateFiles, stateFileCompression)
             }
         }
     }
 
     class Layout(
         val fingerprint: File,
-        val state: ConfigurationCacheStateFile
+        val state: ConfigurationCacheStateFile,
+        val stateFileCompression: StateFileCompression
     )
 
     override fun stop() {
@@ -109,29 +115,36 @@ class ConfigurationCacheRepository(
 
     private
     inner class ReadableConfigurationCacheStateFile(
-        private val file: File
+        private val file: File,
+        private val compression: StateFileCompression
     ) : ConfigurationCacheStateFile {
 
         override fun outputStream(): OutputStream =
             throw UnsupportedOperationException()
 
         override fun inputStream(): InputStream =
-            file.also(::markAccessed).inputStream()
+            compression.decompressing(
+                file.also(::markAccessed).inputStream()
+            )
 
         override fun stateFileForIncludedBuild(build: BuildDefinition): ConfigurationCacheStateFile =
             ReadableConfigurationCacheStateFile(
-                includedBuildFileFor(file, build)
+                includedBuildFileFor(file, build),
+                compression
             )
     }
 
     private
     inner class WriteableConfigurationCacheStateFile(
         private val file: File,
+        private val compression: StateFileCompression,
         private val onFileAccess: (File) -> Unit
     ) : ConfigurationCacheStateFile {
 
         override fun outputStream(): OutputStream =
-            file.also(onFileAccess).outputStream()
+            compression.compressing(
+                file.also(onFileAccess).outputStream()
+            )
 
         override fun inputStream(): InputStream =
             throw UnsupportedOperationException()
@@ -139,10 +152,29 @@ class ConfigurationCacheRepository(
         override fun stateFileForIncludedBuild(build: BuildDefinition): ConfigurationCacheStateFile =
             WriteableConfigurationCacheStateFile(
                 includedBuildFileFor(file, build),
+                compression,
                 onFileAccess
             )
     }
 
+    private
+    fun stateFileCompressionOf(fingerprintFile: File): StateFileCompression =
+        fingerprintFile.inputStream().use { inputStream ->
+            readConfigurationCacheFingerprintHeaderFrom(inputStream).stateFileCompression
+        }
+
+    /**
+     * Together with the durations of the store and load build operations, this lets users weigh
+     * the disk savings of [StateFileCompression] against its CPU cost.
+     */
+    private
+    fun logStateFileSizes(stateFiles: List<File>, compression: StateFileCompression) {
+        if (logger.isDebugEnabled) {
+            val totalSize = stateFiles.filter(File::isFile).map(File::length).sum()
+            logger.debug("Configuration cache state stored in {} file(s), {} bytes, compression: {}", stateFiles.size, totalSize, compression)
+        }
+    }
+
     private
     fun includedBuildFileFor(parentStateFile: File, build: BuildDefinition) =
         parentStateFile.run {
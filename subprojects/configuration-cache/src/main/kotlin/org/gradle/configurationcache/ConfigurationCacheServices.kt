@@ -36,6 +36,7 @@ import org.gradle.configurationcache.problems.ProblemsListener
 import org.gradle.configurationcache.serialization.beans.BeanConstructors
 import org.gradle.initialization.ConfigurationCache
 import org.gradle.initialization.ConfigurationCacheAwareBuildModelController
+import org.gradle.initialization.ProjectAccessListener
 import org.gradle.initialization.SettingsPreparer
 import org.gradle.initialization.TaskExecutionPreparer
 import org.gradle.initialization.VintageBuildModelController
@@ -114,11 +115,12 @@ class ConfigurationCacheServices : AbstractPluginServiceRegistry() {
 
         fun createCrossProjectModelAccess(
             projectRegistry: ProjectRegistry<ProjectInternal>,
+            projectAccessListener: ProjectAccessListener,
             modelParameters: BuildModelParameters,
             problemsListener: ProblemsListener,
             userCodeApplicationContext: UserCodeApplicationContext
         ): CrossProjectModelAccess {
-            val delegate = DefaultCrossProjectModelAccess(projectRegistry)
+            val delegate = DefaultCrossProjectModelAccess(projectRegistry, projectAccessListener)
             return if (modelParameters.isIsolatedProjects) {
                 ProblemReportingCrossProjectModelAccess(delegate, problemsListener, userCodeApplicationContext)
             } else {
@@ -210,7 +210,7 @@ class DefaultConfigurationCache internal constructor(
         val includedBuildRootDirs = writeConfigurationCacheState(layout.state)
         writeConfigurationCacheFingerprint(
             layout.fingerprint,
-            ConfigurationCacheFingerprint.Header(includedBuildRootDirs)
+            ConfigurationCacheFingerprint.Header(includedBuildRootDirs, layout.stateFileCompression)
         )
     }
 
@@ -260,7 +260,7 @@ class DefaultConfigurationCache internal constructor(
             // Register all included build root directories as watchable hierarchies
             // so we can load the fingerprint for build scripts and other files from included builds
             // without violating file system invariants.
-            readConfigurationCacheFingerprintHeaderFrom(fingerprintInputStream)?.run {
+            readConfigurationCacheFingerprintHeaderFrom(fingerprintInputStream).run {
                 registerWatchableBuildDirectories(includedBuildRootDirs)
             }
             checkFingerprint(fingerprintInputStream)
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheCompressionOption
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
+
+
+/**
+ * The codec used to compress configuration cache state files.
+ *
+ * The codec is recorded in the fingerprint header so entries can be loaded
+ * independently of the compression requested by the current build.
+ */
+internal
+enum class StateFileCompression {
+
+    NONE {
+        override fun compressing(outputStream: OutputStream): OutputStream = outputStream
+        override fun decompressing(inputStream: InputStream): InputStream = inputStream
+    },
+
+    /**
+     * Streaming deflate favouring speed over ratio, since state files are read back on the critical path.
+     */
+    DEFLATE {
+        override fun compressing(outputStream: OutputStream): OutputStream =
+            Deflater(Deflater.BEST_SPEED).let { deflater ->
+                object : DeflaterOutputStream(outputStream, deflater, bufferSize) {
+                    override fun close() {
+                        try {
+                            super.close()
+                        } finally {
+                            deflater.end()
+                        }
+                    }
+                }
+            }
+
+        override fun decompressing(inputStream: InputStream): InputStream =
+            Inflater().let { inflater ->
+                object : InflaterInputStream(inputStream, inflater, bufferSize) {
+                    override fun close() {
+                        try {
+                            super.close()
+                        } finally {
+                            inflater.end()
+                        }
+                    }
+                }
+            }
+    };
+
+    abstract fun compressing(outputStream: OutputStream): OutputStream
+
+    abstract fun decompressing(inputStream: InputStream): InputStream
+
+    companion object {
+
+        fun of(option: ConfigurationCacheCompressionOption.Value) = when (option) {
+            ConfigurationCacheCompressionOption.Value.NONE -> NONE
+            ConfigurationCacheCompressionOption.Value.DEFLATE -> DEFLATE
+        }
+
+        fun fromId(id: Int): StateFileCompression =
+            values().getOrNull(id) ?: throw IllegalStateException("Unknown configuration cache state compression '$id'.")
+    }
+}
+
+
+private
+const val bufferSize = 64 * 1024
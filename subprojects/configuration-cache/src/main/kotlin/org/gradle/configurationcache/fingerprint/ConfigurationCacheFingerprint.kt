@@ -19,6 +19,7 @@ package org.gradle.configurationcache.fingerprint
 import org.gradle.api.internal.file.FileCollectionInternal
 import org.gradle.api.internal.provider.ValueSourceProviderFactory
 import org.gradle.api.provider.ValueSourceParameters
+import org.gradle.configurationcache.StateFileCompression
 import org.gradle.internal.hash.HashCode
 import java.io.File
 
@@ -27,7 +28,8 @@ internal
 sealed class ConfigurationCacheFingerprint {
 
     data class Header(
-        val includedBuildRootDirs: Set<File>
+        val includedBuildRootDirs: Set<File>,
+        val stateFileCompression: StateFileCompression
     )
 
     data class GradleEnvironment(
@@ -18,6 +18,7 @@ package org.gradle.configurationcache.initialization
 
 import org.gradle.StartParameter
 import org.gradle.api.internal.StartParameterInternal
+import org.gradle.configurationcache.StateFileCompression
 import org.gradle.configurationcache.extensions.unsafeLazy
 import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheProblemsOption
 import org.gradle.initialization.layout.BuildLayout
@@ -52,6 +53,10 @@ class ConfigurationCacheStartParameter(
     val recreateCache: Boolean
         get() = startParameter.isConfigurationCacheRecreateCache
 
+    internal
+    val stateFileCompression: StateFileCompression
+        get() = StateFileCompression.of(startParameter.configurationCacheCompression)
+
     /**
      * See [StartParameter.getProjectDir].
      */
@@ -30,7 +30,6 @@ import org.gradle.internal.instantiation.InstantiatorFactory
 import org.gradle.internal.reflect.JavaReflectionUtil
 import org.gradle.internal.service.ServiceRegistry
 import java.io.IOException
-import java.lang.reflect.Field
 
 
 class BeanPropertyReader(
@@ -65,16 +64,16 @@ class BeanPropertyReader(
                 reportUnsupportedFieldType(it, "deserialize", fieldName)
             }
             readPropertyValue(PropertyKind.Field, fieldName) { fieldValue ->
-                set(bean, field, fieldValue)
+                set(bean, relevantField, fieldValue)
             }
         }
     }
 
     private
-    fun ReadContext.set(bean: Any, field: Field, value: Any?) {
-        val type = field.type
+    fun ReadContext.set(bean: Any, field: RelevantField, value: Any?) {
+        val type = field.field.type
         if (isAssignableTo(type, value)) {
-            field.set(bean, value)
+            field.setValue(bean, value)
         } else if (value != null) {
             logPropertyProblem("deserialize") {
                 text("value ")
@@ -48,8 +48,8 @@ class BeanPropertyWriter(
             val fieldName = field.name
             val fieldValue =
                 when (val isExplicitValue = relevantField.isExplicitValueField) {
-                    null -> field.get(bean)
-                    else -> conventionValueOf(bean, fieldName, field, isExplicitValue)
+                    null -> relevantField.getValue(bean)
+                    else -> conventionValueOf(bean, fieldName, relevantField, isExplicitValue)
                 }
             relevantField.unsupportedFieldType?.let {
                 reportUnsupportedFieldType(it, "serialize", fieldName, fieldValue)
@@ -61,9 +61,9 @@ class BeanPropertyWriter(
     }
 
     private
-    fun conventionValueOf(bean: Any, fieldName: String, field: Field, isExplicitValue: Field) =
+    fun conventionValueOf(bean: Any, fieldName: String, field: RelevantField, isExplicitValue: Field) =
         bean.uncheckedCast<IConventionAware>().conventionMapping.getConventionValue(
-            field.get(bean),
+            field.getValue(bean),
             fieldName,
             isExplicitValue.get(bean).uncheckedCast()
         )
@@ -32,6 +32,9 @@ import org.gradle.configurationcache.serialization.logUnsupported
 import org.gradle.internal.instantiation.generator.AsmBackedClassGenerator
 import org.gradle.internal.reflect.ClassInspector
 
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
 import java.lang.reflect.AccessibleObject
 import java.lang.reflect.Field
 import java.lang.reflect.Modifier.isStatic
@@ -48,10 +51,21 @@ val unsupportedFieldDeclaredTypes = listOf(
 
 internal
 fun relevantStateOf(beanType: Class<*>): List<RelevantField> =
-    when (IConventionAware::class.java.isAssignableFrom(beanType)) {
-        true -> applyConventionMappingTo(beanType, relevantFieldsOf(beanType))
-        else -> relevantFieldsOf(beanType)
-    }
+    relevantStateCache.get(beanType)
+
+
+/**
+ * The relevant state of a type, including its field accessors, is computed once per type
+ * and shared by every store and load in the daemon.
+ */
+private
+val relevantStateCache = object : ClassValue<List<RelevantField>>() {
+    override fun computeValue(beanType: Class<*>): List<RelevantField> =
+        when (IConventionAware::class.java.isAssignableFrom(beanType)) {
+            true -> applyConventionMappingTo(beanType, relevantFieldsOf(beanType))
+            else -> relevantFieldsOf(beanType)
+        }
+}
 
 
 private
@@ -111,6 +125,59 @@ data class RelevantField(
      * whether a convention mapped property has been explicitly set or not.
      */
     val isExplicitValueField: Field? = null
+) {
+    private
+    val getter: MethodHandle = getterFor(field)
+
+    private
+    val setter: MethodHandle = setterFor(field)
+
+    fun getValue(bean: Any): Any? =
+        getter.invokeExact(bean)
+
+    fun setValue(bean: Any, value: Any?) {
+        setter.invokeExact(bean, value)
+    }
+}
+
+
+/**
+ * Field accessors are method handles adapted to a single erased signature so they can be invoked
+ * exactly, avoiding the argument checks and boxing of [Field.get] and [Field.set].
+ *
+ * Bytecode generated accessors are not an option here since most bean fields are private.
+ */
+private
+fun getterFor(field: Field): MethodHandle =
+    lookup.unreflectGetter(field)
+        .asType(MethodType.methodType(Any::class.java, Any::class.java))
+
+
+private
+fun setterFor(field: Field): MethodHandle =
+    setterHandleFor(field)
+        .asType(MethodType.methodType(Any::class.java, Any::class.java, Any::class.java))
+
+
+private
+fun setterHandleFor(field: Field): MethodHandle =
+    try {
+        lookup.unreflectSetter(field)
+    } catch (e: IllegalAccessException) {
+        // Final fields can only be written reflectively
+        reflectiveFieldSetter.bindTo(field)
+    }
+
+
+private
+val lookup = MethodHandles.lookup()
+
+
+private
+val reflectiveFieldSetter: MethodHandle = lookup.findVirtual(
+    Field::class.java,
+    "set",
+    MethodType.methodType(Void.TYPE, Any::class.java, Any::class.java)
 )
 
 
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache
+
+import org.gradle.configurationcache.fingerprint.ConfigurationCacheFingerprint
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+import kotlin.random.Random
+
+
+class StateFileCompressionTest {
+
+    @Test
+    fun `state round-trips through every compression`() {
+        val state = Random(42).nextBytes(64 * 1024) + ByteArray(256 * 1024) { (it % 7).toByte() }
+        StateFileCompression.values().forEach { compression ->
+            assertThat(
+                compression.toString(),
+                decompress(compression, compress(compression, state)).toList(),
+                equalTo(state.toList())
+            )
+        }
+    }
+
+    @Test
+    fun `deflate shrinks redundant state`() {
+        val state = ByteArray(1024 * 1024) { (it % 16).toByte() }
+        assertThat(
+            compress(StateFileCompression.DEFLATE, state).size < state.size / 10,
+            equalTo(true)
+        )
+    }
+
+    @Test
+    fun `fingerprint header records compression`() {
+        StateFileCompression.values().forEach { compression ->
+            listOf(emptySet(), setOf(File("a"), File("b"))).forEach { includedBuildRootDirs ->
+                val header = ConfigurationCacheFingerprint.Header(includedBuildRootDirs, compression)
+                val bytes = ByteArrayOutputStream().also {
+                    writeConfigurationCacheFingerprintHeaderTo(it, header)
+                }.toByteArray()
+                assertThat(
+                    readConfigurationCacheFingerprintHeaderFrom(ByteArrayInputStream(bytes)),
+                    equalTo(header)
+                )
+            }
+        }
+    }
+
+    private
+    fun compress(compression: StateFileCompression, bytes: ByteArray): ByteArray =
+        ByteArrayOutputStream().also { outputStream ->
+            compression.compressing(outputStream).use { it.write(bytes) }
+        }.toByteArray()
+
+    private
+    fun decompress(compression: StateFileCompression, bytes: ByteArray): ByteArray =
+        compression.decompressing(ByteArrayInputStream(bytes)).use { it.readBytes() }
+}
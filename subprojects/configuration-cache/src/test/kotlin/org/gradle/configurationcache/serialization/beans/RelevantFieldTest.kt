@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configurationcache.serialization.beans
+
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+
+class RelevantFieldTest {
+
+    @Test
+    fun `relevant state is computed once per type`() {
+        assertThat(
+            relevantStateOf(Bean::class.java),
+            sameInstance(relevantStateOf(Bean::class.java))
+        )
+    }
+
+    @Test
+    fun `accessors read and write fields of every kind`() {
+        val source = Bean("name", 42, listOf("a", "b"))
+        val target = Bean()
+
+        relevantStateOf(Bean::class.java).forEach { relevantField ->
+            relevantField.setValue(target, relevantField.getValue(source))
+        }
+
+        assertThat(target, equalTo(source))
+    }
+
+    @Suppress("unused")
+    data class Bean(
+        private var name: String? = null,
+        private var count: Int = 0,
+        private val items: List<String> = emptyList()
+    )
+}
@@ -1,5 +1,6 @@
 plugins {
     id("gradlebuild.distribution.api-java")
+    id("gradlebuild.jmh")
 }
 
 configurations {
@@ -55,6 +56,7 @@ dependencies {
     implementation(libs.groovyTest)
     implementation(libs.groovyXml)
     implementation(libs.ant)
+    implementation(libs.commonsCompress)
     implementation(libs.guava)
     implementation(libs.inject)
     implementation(libs.asm)
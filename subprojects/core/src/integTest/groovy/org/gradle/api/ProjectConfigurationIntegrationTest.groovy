@@ -16,9 +16,15 @@
 
 package org.gradle.api
 
+import org.gradle.execution.ParallelProjectConfigurer
 import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.BuildOperationsFixture
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
 
 class ProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
+    @Rule
+    public final BlockingHttpServer server = new BlockingHttpServer()
 
     def "accessing the task by path from containing project is safe"() {
         buildFile << """
@@ -100,4 +106,88 @@ class ProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
         result.assertHasDescription("A problem occurred evaluating root project 'root'.")
         failure.assertHasCause("Cannot run Project.afterEvaluate(Action) when the project is already evaluated.")
     }
+
+    def "configures subprojects in parallel when enabled"() {
+        def operations = new BuildOperationsFixture(executer, temporaryFolder)
+        settingsFile << """
+            include 'a', 'b', 'a:c'
+        """
+        buildFile << """
+            subprojects {
+                task hello {
+                    doLast { println "hello from \$path" }
+                }
+            }
+        """
+        ['a', 'b', 'a/c'].each { dir ->
+            file("$dir/build.gradle") << """
+                ext.configuredBy = "\$path"
+            """
+        }
+
+        when:
+        executer.withArgument("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_PROPERTY}=true")
+        executer.withArgument("--parallel")
+        run("hello")
+
+        then:
+        outputContains("hello from :a")
+        outputContains("hello from :b")
+        outputContains("hello from :a:c")
+        operations.hasOperation("Configure project ':a' in parallel")
+        operations.hasOperation("Configure project ':b' in parallel")
+        operations.hasOperation("Configure project ':a:c' in parallel")
+    }
+
+    def "decoupled subprojects are configured at the same time"() {
+        server.start()
+        settingsFile << """
+            include 'a', 'b'
+        """
+        buildFile << """
+            subprojects {
+                task hello
+            }
+        """
+        ['a', 'b'].each { name ->
+            file("$name/build.gradle") << """
+                println "configuring \$path"
+                ${server.callFromBuild(name)}
+            """
+        }
+
+        when:
+        server.expectConcurrent('a', 'b')
+        executer.withArgument("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_PROPERTY}=true")
+        executer.withArgument("--parallel")
+        executer.withArgument("--max-workers=2")
+        run("hello")
+
+        then:
+        outputContains("configuring :a")
+        outputContains("configuring :b")
+    }
+
+    def "project that accesses another project during parallel configuration sees it as when configured serially"() {
+        settingsFile << """
+            include 'a', 'b'
+        """
+        file("a/build.gradle") << """
+            ext.message = "configured a"
+        """
+        file("b/build.gradle") << """
+            evaluationDependsOn(':a')
+            println "b sees " + project(':a').message
+        """
+
+        when:
+        executer.withArgument("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_PROPERTY}=true")
+        executer.withArgument("--parallel")
+        executer.withArgument("--info")
+        run("help")
+
+        then:
+        outputContains("b sees configured a")
+        outputContains("Project ':b' accesses project ':a', waiting for the configuration of other projects to complete.")
+    }
 }
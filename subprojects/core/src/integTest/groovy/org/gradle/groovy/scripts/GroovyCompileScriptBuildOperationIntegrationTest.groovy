@@ -17,6 +17,7 @@
 package org.gradle.groovy.scripts
 
 import org.gradle.api.JavaVersion
+import org.gradle.configuration.project.BuildScriptPrecompiler
 import org.gradle.integtests.fixtures.AbstractIntegrationSpec
 import org.gradle.integtests.fixtures.BuildOperationsFixture
 import org.gradle.internal.os.OperatingSystem
@@ -104,6 +105,37 @@ class GroovyCompileScriptBuildOperationIntegrationTest extends AbstractIntegrati
         )
     }
 
+    def "precompiles build scripts of subprojects after configuring root project when enabled"() {
+        given:
+        settingsFile << "include 'a', 'b', 'c'"
+        buildFile << "println 'build.gradle'"
+        file("a/build.gradle") << "println 'a/build.gradle'"
+        file("b/build.gradle") << "println 'b/build.gradle'"
+        file("c/lib/marker.txt") << "marker"
+        file("c/build.gradle") << """
+            buildscript {
+                dependencies { classpath files('lib') }
+            }
+            println 'c/build.gradle'
+        """
+
+        when:
+        succeeds 'help', "-D${BuildScriptPrecompiler.PRECOMPILE_PROPERTY}=true"
+
+        then:
+        outputContains("a/build.gradle")
+        outputContains("b/build.gradle")
+        outputContains("c/build.gradle")
+        ['a', 'b'].each { project ->
+            def precompile = operations.only(~/Precompile build file for project ':$project'/)
+            def compiles = operations.all(CompileScriptBuildOperationType) { it.displayName.contains("${project}${File.separator}build.gradle") }
+            assert compiles.size() == 2
+            assert compiles.every { operations.parentsOf(it).contains(precompile) }
+        }
+        // Compiled again, as the body is compiled against the classpath of the project
+        operations.all(CompileScriptBuildOperationType) { it.displayName.contains("c${File.separator}build.gradle") }.size() == 3
+    }
+
     def "captures shared scripts with same classpath"() {
         given:
         file("shared.gradle") << "println 'shared.gradle'"
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.Action;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares the sequential ZIP writer used by {@link ZipCopyAction} with the {@link ParallelZipWriter}.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ZipWritingBenchmark {
+
+    @Param({"1000"})
+    int entryCount;
+
+    @Param({"65536"})
+    int entrySize;
+
+    private byte[] content;
+    private File archive;
+    private ExecutorService executor;
+    private int parallelism;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // Repetitive, text-like content so deflating takes a realistic amount of work
+        Random random = new Random(42);
+        content = new byte[entrySize];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(16));
+        }
+        archive = File.createTempFile("benchmark", ".zip");
+        parallelism = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        archive.delete();
+    }
+
+    @Benchmark
+    public void sequential() throws IOException {
+        ZipOutputStream outputStream = new ZipOutputStream(archive);
+        try {
+            outputStream.setMethod(ZipOutputStream.DEFLATED);
+            for (int i = 0; i < entryCount; i++) {
+                outputStream.putNextEntry(new ZipEntry("entry" + i));
+                outputStream.write(content);
+                outputStream.closeEntry();
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    @Benchmark
+    public void parallel() throws IOException {
+        ParallelZipWriter writer = new ParallelZipWriter(new ZipArchiveOutputStream(archive), executor, parallelism);
+        try {
+            for (int i = 0; i < entryCount; i++) {
+                writer.putFile("entry" + i, ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES, 0644, content.length, new Action<OutputStream>() {
+                    @Override
+                    public void execute(OutputStream outputStream) {
+                        try {
+                            outputStream.write(content);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+            }
+            writer.finish();
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 import org.gradle.StartParameter;
 import org.gradle.initialization.BuildLayoutParameters;
+import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheCompressionOption;
 import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheProblemsOption;
 import org.gradle.internal.buildoption.BuildOption;
 import org.gradle.internal.buildtree.BuildModelParameters;
@@ -45,6 +46,7 @@ public class StartParameterInternal extends StartParameter {
     private int configurationCacheMaxProblems = 512;
     private boolean configurationCacheRecreateCache;
     private boolean configurationCacheQuiet;
+    private ConfigurationCacheCompressionOption.Value configurationCacheCompression = ConfigurationCacheCompressionOption.Value.NONE;
     private boolean searchUpwards = true;
     private boolean useEmptySettings = false;
 
@@ -77,6 +79,7 @@ protected StartParameterInternal prepareNewBuild(StartParameter startParameter)
         p.configurationCacheMaxProblems = configurationCacheMaxProblems;
         p.configurationCacheRecreateCache = configurationCacheRecreateCache;
         p.configurationCacheQuiet = configurationCacheQuiet;
+        p.configurationCacheCompression = configurationCacheCompression;
         p.searchUpwards = searchUpwards;
         p.useEmptySettings = useEmptySettings;
         return p;
@@ -191,6 +194,14 @@ public void setConfigurationCacheQuiet(boolean configurationCacheQuiet) {
         this.configurationCacheQuiet = configurationCacheQuiet;
     }
 
+    public ConfigurationCacheCompressionOption.Value getConfigurationCacheCompression() {
+        return configurationCacheCompression;
+    }
+
+    public void setConfigurationCacheCompression(ConfigurationCacheCompressionOption.Value configurationCacheCompression) {
+        this.configurationCacheCompression = configurationCacheCompression;
+    }
+
     public boolean addTaskNames(Iterable<String> taskPaths) {
         Set<String> allTasks = newLinkedHashSet(getTaskNames());
         boolean added = allTasks.addAll(
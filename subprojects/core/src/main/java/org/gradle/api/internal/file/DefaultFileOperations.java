@@ -28,6 +28,7 @@
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.file.archive.TarFileTree;
 import org.gradle.api.internal.file.archive.ZipFileTree;
+import org.gradle.api.internal.file.archive.ZipIndexCache;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.FileTreeAdapter;
 import org.gradle.api.internal.file.copy.DefaultCopySpec;
@@ -78,6 +79,7 @@ public class DefaultFileOperations implements FileOperations {
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final FileCollectionFactory fileCollectionFactory;
     private final ProviderFactory providers;
+    private final ZipIndexCache zipIndexCache;
 
     public DefaultFileOperations(
         FileResolver fileResolver,
@@ -92,7 +94,8 @@ public DefaultFileOperations(
         Factory<PatternSet> patternSetFactory,
         Deleter deleter,
         DocumentationRegistry documentationRegistry,
-        ProviderFactory providers) {
+        ProviderFactory providers,
+        ZipIndexCache zipIndexCache) {
         this.fileCollectionFactory = fileCollectionFactory;
         this.fileResolver = fileResolver;
         this.temporaryFileProvider = temporaryFileProvider;
@@ -103,6 +106,7 @@ public DefaultFileOperations(
         this.fileHasher = fileHasher;
         this.patternSetFactory = patternSetFactory;
         this.providers = providers;
+        this.zipIndexCache = zipIndexCache;
         this.fileCopier = new FileCopier(
             deleter,
             directoryFileTreeFactory,
@@ -164,7 +168,7 @@ public ConfigurableFileTree fileTree(Map<String, ?> args) {
     @Override
     public FileTreeInternal zipTree(Object zipPath) {
         Provider<File> fileProvider = asFileProvider(zipPath);
-        return new FileTreeAdapter(new ZipFileTree(fileProvider, getExpandDir(), fileSystem, directoryFileTreeFactory, fileHasher), patternSetFactory);
+        return new FileTreeAdapter(new ZipFileTree(fileProvider, getExpandDir(), fileSystem, directoryFileTreeFactory, fileHasher, zipIndexCache), patternSetFactory);
     }
 
     @Override
@@ -289,6 +293,7 @@ public static DefaultFileOperations createSimple(FileResolver fileResolver, File
         Deleter deleter = services.get(Deleter.class);
         DocumentationRegistry documentationRegistry = services.get(DocumentationRegistry.class);
         ProviderFactory providers = services.get(ProviderFactory.class);
+        ZipIndexCache zipIndexCache = services.get(ZipIndexCache.class);
 
         DefaultResourceHandler.Factory resourceHandlerFactory = DefaultResourceHandler.Factory.from(
             fileResolver,
@@ -310,6 +315,7 @@ public static DefaultFileOperations createSimple(FileResolver fileResolver, File
             patternSetFactory,
             deleter,
             documentationRegistry,
-            providers);
+            providers,
+            zipIndexCache);
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.Zip64RequiredException;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.WorkResults;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * A {@link CopyAction} producing deflated ZIP archives with the same content and entry order as {@link ZipCopyAction},
+ * compressing entries concurrently through a {@link ParallelZipWriter}.
+ */
+public class ParallelZipCopyAction implements CopyAction {
+    /**
+     * Opts into parallel compression for deflated {@link Zip} archives.
+     */
+    public static final String PARALLEL_ZIP_PROPERTY = "org.gradle.internal.archives.parallel-zip";
+
+    private final File zipFile;
+    private final boolean allowZip64;
+    private final ExecutorFactory executorFactory;
+    private final DocumentationRegistry documentationRegistry;
+    private final String encoding;
+    private final boolean preserveFileTimestamps;
+
+    public ParallelZipCopyAction(File zipFile, boolean allowZip64, ExecutorFactory executorFactory, DocumentationRegistry documentationRegistry, String encoding, boolean preserveFileTimestamps) {
+        this.zipFile = zipFile;
+        this.allowZip64 = allowZip64;
+        this.executorFactory = executorFactory;
+        this.documentationRegistry = documentationRegistry;
+        this.encoding = encoding;
+        this.preserveFileTimestamps = preserveFileTimestamps;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PARALLEL_ZIP_PROPERTY);
+    }
+
+    @Override
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        ZipArchiveOutputStream zipOutStr;
+        try {
+            zipOutStr = new ZipArchiveOutputStream(zipFile);
+            zipOutStr.setUseZip64(allowZip64 ? Zip64Mode.AsNeeded : Zip64Mode.Never);
+            zipOutStr.setEncoding(encoding != null ? encoding : Charset.defaultCharset().name());
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ManagedExecutor executor = executorFactory.create("ZIP compression", parallelism);
+        ParallelZipWriter writer = new ParallelZipWriter(zipOutStr, executor, parallelism);
+        try {
+            stream.process(new StreamAction(writer));
+            writer.finish();
+        } catch (Zip64RequiredException e) {
+            throw zip64Required(e);
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not write ZIP '%s'.", zipFile), e);
+        } finally {
+            CompositeStoppable.stoppable(writer, executor).stop();
+        }
+
+        return WorkResults.didWork(true);
+    }
+
+    private GradleException zip64Required(Zip64RequiredException e) {
+        return new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+            String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+        );
+    }
+
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final ParallelZipWriter writer;
+
+        public StreamAction(ParallelZipWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processFile(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                visitDir(details);
+            } else {
+                visitFile(details);
+            }
+        }
+
+        private void visitFile(final FileCopyDetails fileDetails) {
+            try {
+                writer.putFile(
+                    fileDetails.getRelativePath().getPathString(),
+                    getArchiveTimeFor(fileDetails),
+                    UnixStat.FILE_FLAG | fileDetails.getMode(),
+                    fileDetails.getSize(),
+                    new Action<OutputStream>() {
+                        @Override
+                        public void execute(OutputStream outputStream) {
+                            fileDetails.copyTo(outputStream);
+                        }
+                    }
+                );
+            } catch (Zip64RequiredException e) {
+                throw zip64Required(e);
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+            }
+        }
+
+        private void visitDir(FileCopyDetails dirDetails) {
+            try {
+                // Trailing slash in name indicates that entry is a directory
+                writer.putDirectory(
+                    dirDetails.getRelativePath().getPathString() + '/',
+                    getArchiveTimeFor(dirDetails),
+                    UnixStat.DIR_FLAG | dirDetails.getMode()
+                );
+            } catch (Zip64RequiredException e) {
+                throw zip64Required(e);
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", dirDetails, zipFile), e);
+            }
+        }
+    }
+
+    private long getArchiveTimeFor(FileCopyDetails details) {
+        return preserveFileTimestamps ? details.getLastModified() : ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.gradle.api.Action;
+import org.gradle.internal.UncheckedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a deflated ZIP archive, compressing file entries concurrently while keeping them in the order they were added.
+ *
+ * <p>Entry content is read on the calling thread, since the source of a file may only be readable while it is being visited,
+ * and deflated on the given executor. Compressed entries are appended to the archive as raw entries in submission order.
+ * Entries larger than {@link #MAX_BUFFERED_ENTRY_SIZE} are deflated on the calling thread, after all pending entries are written.
+ * The amount of buffered content is bounded by {@link #MAX_BUFFERED_SIZE}.</p>
+ */
+public class ParallelZipWriter implements Closeable {
+    static final long MAX_BUFFERED_ENTRY_SIZE = 8 * 1024 * 1024;
+    static final long MAX_BUFFERED_SIZE = 64 * 1024 * 1024;
+
+    private final ZipArchiveOutputStream outputStream;
+    private final ExecutorService executor;
+    private final int maxPendingEntries;
+    private final Deque<PendingEntry> pendingEntries = new ArrayDeque<PendingEntry>();
+    private long pendingSize;
+
+    public ParallelZipWriter(ZipArchiveOutputStream outputStream, ExecutorService executor, int parallelism) {
+        this.outputStream = outputStream;
+        this.executor = executor;
+        this.maxPendingEntries = parallelism * 4;
+        outputStream.setMethod(ZipArchiveEntry.DEFLATED);
+    }
+
+    public void putDirectory(String path, long time, int unixMode) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(path);
+        entry.setTime(time);
+        entry.setUnixMode(unixMode);
+        enqueue(new DirectoryEntry(entry), 0);
+    }
+
+    public void putFile(String path, long time, int unixMode, long size, Action<OutputStream> content) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(path);
+        entry.setTime(time);
+        entry.setUnixMode(unixMode);
+        if (size > MAX_BUFFERED_ENTRY_SIZE) {
+            flushPendingEntries();
+            outputStream.putArchiveEntry(entry);
+            content.execute(outputStream);
+            outputStream.closeArchiveEntry();
+            return;
+        }
+        BufferedContent bufferedContent = new BufferedContent((int) Math.max(size, 32));
+        content.execute(bufferedContent);
+        enqueue(new DeflatedFileEntry(entry, executor.submit(new DeflateContent(bufferedContent))), bufferedContent.size());
+    }
+
+    private void enqueue(PendingEntry entry, long size) throws IOException {
+        pendingEntries.add(entry);
+        pendingSize += size;
+        while (pendingEntries.size() > maxPendingEntries || pendingSize > MAX_BUFFERED_SIZE) {
+            writeNextPendingEntry();
+        }
+    }
+
+    private void flushPendingEntries() throws IOException {
+        while (!pendingEntries.isEmpty()) {
+            writeNextPendingEntry();
+        }
+    }
+
+    private void writeNextPendingEntry() throws IOException {
+        PendingEntry entry = pendingEntries.remove();
+        pendingSize -= entry.writeTo(outputStream);
+    }
+
+    /**
+     * Writes all pending entries and finishes the archive, without closing the underlying output stream.
+     */
+    public void finish() throws IOException {
+        flushPendingEntries();
+        outputStream.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PendingEntry pendingEntry : pendingEntries) {
+            pendingEntry.cancel();
+        }
+        pendingEntries.clear();
+        outputStream.close();
+    }
+
+    private interface PendingEntry {
+        /**
+         * Writes this entry and returns the number of buffered bytes it released.
+         */
+        long writeTo(ZipArchiveOutputStream outputStream) throws IOException;
+
+        void cancel();
+    }
+
+    private static class DirectoryEntry implements PendingEntry {
+        private final ZipArchiveEntry entry;
+
+        DirectoryEntry(ZipArchiveEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public long writeTo(ZipArchiveOutputStream outputStream) throws IOException {
+            outputStream.putArchiveEntry(entry);
+            outputStream.closeArchiveEntry();
+            return 0;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    private static class DeflatedFileEntry implements PendingEntry {
+        private final ZipArchiveEntry entry;
+        private final Future<DeflatedContent> content;
+
+        DeflatedFileEntry(ZipArchiveEntry entry, Future<DeflatedContent> content) {
+            this.entry = entry;
+            this.content = content;
+        }
+
+        @Override
+        public long writeTo(ZipArchiveOutputStream outputStream) throws IOException {
+            DeflatedContent deflated = getDeflatedContent();
+            entry.setMethod(ZipArchiveEntry.DEFLATED);
+            entry.setSize(deflated.size);
+            entry.setCompressedSize(deflated.bytes.size());
+            entry.setCrc(deflated.crc);
+            outputStream.addRawArchiveEntry(entry, new ByteArrayInputStream(deflated.bytes.buffer(), 0, deflated.bytes.size()));
+            return deflated.size;
+        }
+
+        private DeflatedContent getDeflatedContent() throws IOException {
+            try {
+                return content.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
+        @Override
+        public void cancel() {
+            content.cancel(false);
+        }
+    }
+
+    private static class DeflateContent implements Callable<DeflatedContent> {
+        private final BufferedContent content;
+
+        DeflateContent(BufferedContent content) {
+            this.content = content;
+        }
+
+        @Override
+        public DeflatedContent call() throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(content.buffer(), 0, content.size());
+            BufferedContent deflated = new BufferedContent(Math.max(content.size() / 2, 32));
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(deflated, deflater);
+                deflaterOutputStream.write(content.buffer(), 0, content.size());
+                deflaterOutputStream.finish();
+            } finally {
+                deflater.end();
+            }
+            return new DeflatedContent(deflated, content.size(), crc.getValue());
+        }
+    }
+
+    private static class DeflatedContent {
+        private final BufferedContent bytes;
+        private final long size;
+        private final long crc;
+
+        DeflatedContent(BufferedContent bytes, long size, long crc) {
+            this.bytes = bytes;
+            this.size = size;
+            this.crc = crc;
+        }
+    }
+
+    /**
+     * A byte array output stream that exposes its buffer, to avoid copying entry content.
+     */
+    private static class BufferedContent extends ByteArrayOutputStream {
+        BufferedContent(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streams the content of entries of a {@link ZipIndex} straight from the archive, starting at the data offset recorded in the index.
+ *
+ * <p>Stored and deflated entries are read through positional reads, so several entries can be read at the same time.
+ * Entries using other compression methods are read by opening the archive.</p>
+ */
+class ZipEntryReader implements Closeable {
+    private final File zipFile;
+    private FileChannel channel;
+    private ZipFile zip;
+
+    ZipEntryReader(File zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    public InputStream open(ZipIndex.Entry entry) throws IOException {
+        switch (entry.getMethod()) {
+            case ZipArchiveEntry.STORED:
+                return new EntryDataInputStream(getChannel(), entry.getDataOffset(), entry.getCompressedSize(), false);
+            case ZipArchiveEntry.DEFLATED:
+                final Inflater inflater = new Inflater(true);
+                return new InflaterInputStream(new EntryDataInputStream(getChannel(), entry.getDataOffset(), entry.getCompressedSize(), true), inflater) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            inflater.end();
+                        }
+                    }
+                };
+            default:
+                return getZip().getInputStream(getZip().getEntry(entry.getName()));
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(zipFile.toPath(), StandardOpenOption.READ);
+        }
+        return channel;
+    }
+
+    private ZipFile getZip() throws IOException {
+        if (zip == null) {
+            zip = ZipIndex.open(zipFile);
+        }
+        return zip;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            if (zip != null) {
+                zip.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a range of the archive. Inflating raw deflate data may require an extra dummy byte at the end of the input.
+     */
+    private static class EntryDataInputStream extends InputStream {
+        private final FileChannel channel;
+        private final boolean addDummyByte;
+        private long position;
+        private long remaining;
+        private boolean dummyByteRead;
+
+        EntryDataInputStream(FileChannel channel, long offset, long length, boolean addDummyByte) {
+            this.channel = channel;
+            this.position = offset;
+            this.remaining = length;
+            this.addDummyByte = addDummyByte;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            int count = read(buffer, 0, 1);
+            return count == -1 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                if (addDummyByte && !dummyByteRead) {
+                    dummyByteRead = true;
+                    buffer[offset] = 0;
+                    return 1;
+                }
+                return -1;
+            }
+            int count = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+            if (count == -1) {
+                throw new IOException("Unexpected end of ZIP entry data.");
+            }
+            position += count;
+            remaining -= count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+    }
+}
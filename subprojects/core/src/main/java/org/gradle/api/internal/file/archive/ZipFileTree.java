@@ -15,8 +15,6 @@
  */
 package org.gradle.api.internal.file.archive;
 
-import org.apache.tools.zip.ZipEntry;
-import org.apache.tools.zip.ZipFile;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.UncheckedIOException;
@@ -29,15 +27,13 @@
 import org.gradle.api.provider.Provider;
 import org.gradle.internal.file.Chmod;
 import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Enumeration;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ZipFileTree extends AbstractArchiveFileTree {
@@ -46,17 +42,20 @@ public class ZipFileTree extends AbstractArchiveFileTree {
     private final Chmod chmod;
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final FileHasher fileHasher;
+    private final ZipIndexCache zipIndexCache;
 
     public ZipFileTree(Provider<File> zipFile,
                        File tmpDir,
                        Chmod chmod,
                        DirectoryFileTreeFactory directoryFileTreeFactory,
-                       FileHasher fileHasher) {
+                       FileHasher fileHasher,
+                       ZipIndexCache zipIndexCache) {
         this.fileProvider = zipFile;
         this.tmpDir = tmpDir;
         this.chmod = chmod;
         this.directoryFileTreeFactory = directoryFileTreeFactory;
         this.fileHasher = fileHasher;
+        this.zipIndexCache = zipIndexCache;
     }
 
     @Override
@@ -87,28 +86,22 @@ public void visit(FileVisitor visitor) {
         AtomicBoolean stopFlag = new AtomicBoolean();
 
         try {
-            ZipFile zip = new ZipFile(zipFile);
-            File expandedDir = getExpandedDir();
+            HashCode zipHash = fileHasher.hash(zipFile);
+            ZipIndex index = zipIndexCache.indexOf(zipFile, zipHash);
+            ZipEntryReader reader = new ZipEntryReader(zipFile);
+            File expandedDir = getExpandedDir(zipFile, zipHash);
             try {
-                // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
-                // to us. So, collect the entries in a map and iterate over them in alphabetical order.
-                Map<String, ZipEntry> entriesByName = new TreeMap<String, ZipEntry>();
-                Enumeration entries = zip.getEntries();
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = (ZipEntry) entries.nextElement();
-                    entriesByName.put(entry.getName(), entry);
-                }
-                Iterator<ZipEntry> sortedEntries = entriesByName.values().iterator();
+                Iterator<ZipIndex.Entry> sortedEntries = index.getEntries().iterator();
                 while (!stopFlag.get() && sortedEntries.hasNext()) {
-                    ZipEntry entry = sortedEntries.next();
+                    ZipIndex.Entry entry = sortedEntries.next();
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
+                        visitor.visitDir(new DetailsImpl(zipFile, expandedDir, entry, reader, stopFlag, chmod));
                     } else {
-                        visitor.visitFile(new DetailsImpl(zipFile, expandedDir, entry, zip, stopFlag, chmod));
+                        visitor.visitFile(new DetailsImpl(zipFile, expandedDir, entry, reader, stopFlag, chmod));
                     }
                 }
             } finally {
-                zip.close();
+                reader.close();
             }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
@@ -122,24 +115,28 @@ public Provider<File> getBackingFileProvider() {
 
     private File getExpandedDir() {
         File zipFile = fileProvider.get();
-        String expandedDirName = zipFile.getName() + "_" + fileHasher.hash(zipFile);
+        return getExpandedDir(zipFile, fileHasher.hash(zipFile));
+    }
+
+    private File getExpandedDir(File zipFile, HashCode zipHash) {
+        String expandedDirName = zipFile.getName() + "_" + zipHash;
         return new File(tmpDir, expandedDirName);
     }
 
     private static class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final File originalFile;
         private final File expandedDir;
-        private final ZipEntry entry;
-        private final ZipFile zip;
+        private final ZipIndex.Entry entry;
+        private final ZipEntryReader reader;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(File originalFile, File expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(File originalFile, File expandedDir, ZipIndex.Entry entry, ZipEntryReader reader, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.originalFile = originalFile;
             this.expandedDir = expandedDir;
             this.entry = entry;
-            this.zip = zip;
+            this.reader = reader;
             this.stopFlag = stopFlag;
         }
 
@@ -182,7 +179,7 @@ public long getSize() {
         @Override
         public InputStream open() {
             try {
-                return zip.getInputStream(entry);
+                return reader.open(entry);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable index of the central directory of a ZIP file.
+ *
+ * <p>Entries are sorted by name and record where their data starts in the archive,
+ * so their content can be read without parsing the central directory again.</p>
+ */
+public class ZipIndex {
+    private final ImmutableList<Entry> entries;
+
+    private ZipIndex(ImmutableList<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static ZipIndex read(File zipFile) throws IOException {
+        ZipFile zip = open(zipFile);
+        try {
+            // The iteration order of the central directory isn't much use to us.
+            // So, collect the entries in a map and iterate over them in alphabetical order.
+            Map<String, Entry> entriesByName = new TreeMap<String, Entry>();
+            Enumeration<ZipArchiveEntry> entries = zip.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                entriesByName.put(entry.getName(), new Entry(entry));
+            }
+            return new ZipIndex(ImmutableList.copyOf(entriesByName.values()));
+        } finally {
+            zip.close();
+        }
+    }
+
+    /**
+     * Opens the archive, decoding entry names without the UTF-8 flag using the platform's default charset, as Ant's {@code ZipFile} used to do.
+     */
+    static ZipFile open(File zipFile) throws IOException {
+        return new ZipFile(zipFile, Charset.defaultCharset().name());
+    }
+
+    public ImmutableList<Entry> getEntries() {
+        return entries;
+    }
+
+    public static class Entry {
+        private final String name;
+        private final boolean directory;
+        private final long size;
+        private final long compressedSize;
+        private final long time;
+        private final int unixMode;
+        private final int method;
+        private final long dataOffset;
+
+        private Entry(ZipArchiveEntry entry) {
+            this.name = entry.getName();
+            this.directory = entry.isDirectory();
+            this.size = entry.getSize();
+            this.compressedSize = entry.getCompressedSize();
+            this.time = entry.getTime();
+            this.unixMode = entry.getUnixMode();
+            this.method = entry.getMethod();
+            this.dataOffset = entry.getDataOffset();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public int getUnixMode() {
+            return unixMode;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public long getDataOffset() {
+            return dataOffset;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.service.scopes.Scope;
+import org.gradle.internal.service.scopes.ServiceScope;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Shares the {@link ZipIndex} of archives between all ZIP file trees, keyed by the hash of the archive.
+ *
+ * <p>Builds that visit the same archives from many tasks only read their central directory once.</p>
+ */
+@ServiceScope(Scope.Global.class)
+public class ZipIndexCache {
+    private final CrossBuildInMemoryCache<HashCode, ZipIndex> indexes;
+
+    public ZipIndexCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.indexes = cacheFactory.newCache();
+    }
+
+    public ZipIndex indexOf(File zipFile, HashCode hash) {
+        return indexes.get(hash, key -> {
+            try {
+                return ZipIndex.read(zipFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
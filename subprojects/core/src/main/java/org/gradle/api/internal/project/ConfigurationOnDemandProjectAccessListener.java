@@ -23,4 +23,8 @@ public class ConfigurationOnDemandProjectAccessListener implements ProjectAccess
     public void beforeResolvingProjectDependency(ProjectInternal targetProject) {
         targetProject.getOwner().ensureConfigured();
     }
+
+    @Override
+    public void beforeAccessingProject(ProjectInternal targetProject) {
+    }
 }
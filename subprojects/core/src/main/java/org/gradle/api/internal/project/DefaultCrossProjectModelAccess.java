@@ -16,28 +16,50 @@
 
 package org.gradle.api.internal.project;
 
+import org.gradle.initialization.ProjectAccessListener;
+
 import java.util.Set;
 import java.util.TreeSet;
 
 public class DefaultCrossProjectModelAccess implements CrossProjectModelAccess {
     private final ProjectRegistry<ProjectInternal> projectRegistry;
+    private final ProjectAccessListener projectAccessListener;
 
-    public DefaultCrossProjectModelAccess(ProjectRegistry<ProjectInternal> projectRegistry) {
+    public DefaultCrossProjectModelAccess(ProjectRegistry<ProjectInternal> projectRegistry, ProjectAccessListener projectAccessListener) {
         this.projectRegistry = projectRegistry;
+        this.projectAccessListener = projectAccessListener;
     }
 
     @Override
     public ProjectInternal findProject(ProjectInternal referrer, ProjectInternal relativeTo, String path) {
-        return projectRegistry.getProject(relativeTo.absoluteProjectPath(path));
+        ProjectInternal project = projectRegistry.getProject(relativeTo.absoluteProjectPath(path));
+        if (project != null) {
+            beforeAccessing(referrer, project);
+        }
+        return project;
     }
 
     @Override
     public Set<? extends ProjectInternal> getSubprojects(ProjectInternal referrer, ProjectInternal relativeTo) {
-        return new TreeSet<>(projectRegistry.getSubProjects(relativeTo.getPath()));
+        Set<ProjectInternal> projects = new TreeSet<>(projectRegistry.getSubProjects(relativeTo.getPath()));
+        for (ProjectInternal project : projects) {
+            beforeAccessing(referrer, project);
+        }
+        return projects;
     }
 
     @Override
     public Set<? extends ProjectInternal> getAllprojects(ProjectInternal referrer, ProjectInternal relativeTo) {
-        return new TreeSet<>(projectRegistry.getAllProjects(relativeTo.getPath()));
+        Set<ProjectInternal> projects = new TreeSet<>(projectRegistry.getAllProjects(relativeTo.getPath()));
+        for (ProjectInternal project : projects) {
+            beforeAccessing(referrer, project);
+        }
+        return projects;
+    }
+
+    private void beforeAccessing(ProjectInternal referrer, ProjectInternal project) {
+        if (project != referrer) {
+            projectAccessListener.beforeAccessingProject(project);
+        }
     }
 }
@@ -18,6 +18,7 @@
 import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.ParallelZipCopyAction;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
@@ -25,6 +26,7 @@
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.internal.concurrent.ExecutorFactory;
 
 import javax.annotation.Nullable;
 import java.nio.charset.Charset;
@@ -60,6 +62,10 @@ protected ZipCompressor getCompressor() {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
+        if (entryCompression == ZipEntryCompression.DEFLATED && ParallelZipCopyAction.isEnabled()) {
+            ExecutorFactory executorFactory = getServices().get(ExecutorFactory.class);
+            return new ParallelZipCopyAction(getArchiveFile().get().getAsFile(), allowZip64, executorFactory, documentationRegistry, metadataCharset, isPreserveFileTimestamps());
+        }
         return new ZipCopyAction(getArchiveFile().get().getAsFile(), getCompressor(), documentationRegistry, metadataCharset, isPreserveFileTimestamps());
     }
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import org.gradle.StartParameter;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.instantiation.generator.DelegatingGeneratedClassBytecodeCache;
+import org.gradle.internal.instantiation.generator.GeneratedClassBytecodeCache;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Keeps the bytecode of generated classes in the Gradle user home, so that new daemons can define these classes without generating them again.
+ *
+ * <p>Entries are keyed by the hash of the class loader of the type the class is generated for, so only types loaded by class loaders known to Gradle are cached.
+ * Can be enabled with {@code -Dorg.gradle.internal.persistent-generated-classes=true}.</p>
+ */
+public class DefaultGeneratedClassBytecodeCache implements GeneratedClassBytecodeCache, Closeable {
+    public static final String PERSISTENT_GENERATED_CLASSES_PROPERTY = "org.gradle.internal.persistent-generated-classes";
+
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final DelegatingGeneratedClassBytecodeCache delegatingCache;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, byte[]> bytecode;
+
+    public DefaultGeneratedClassBytecodeCache(CacheRepository cacheRepository, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, DelegatingGeneratedClassBytecodeCache delegatingCache) {
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.delegatingCache = delegatingCache;
+        this.cache = cacheRepository
+            .cache("generated-classes")
+            .withDisplayName("generated classes cache")
+            .withLockOptions(mode(FileLockManager.LockMode.OnDemand)) // Lock on demand
+            .open();
+        this.bytecode = cache.createCache(PersistentIndexedCacheParameters.of("bytecode", new HashCodeSerializer(), BaseSerializerFactory.BYTE_ARRAY_SERIALIZER));
+    }
+
+    public static boolean isEnabled(StartParameter startParameter) {
+        String value = startParameter.getSystemPropertiesArgs().get(PERSISTENT_GENERATED_CLASSES_PROPERTY);
+        if (value == null) {
+            value = System.getProperty(PERSISTENT_GENERATED_CLASSES_PROPERTY);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(Class<?> type, String key) {
+        HashCode hashCode = hash(type, key);
+        return hashCode == null ? null : bytecode.getIfPresent(hashCode);
+    }
+
+    @Override
+    public void put(Class<?> type, String key, byte[] bytecode) {
+        HashCode hashCode = hash(type, key);
+        if (hashCode != null) {
+            this.bytecode.put(hashCode, bytecode);
+        }
+    }
+
+    @Nullable
+    private HashCode hash(Class<?> type, String key) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
+        if (classLoaderHash == null) {
+            // Not a class loader known to Gradle, so the classes it loads may be different in another process
+            return null;
+        }
+        Hasher hasher = Hashing.newHasher();
+        hasher.putHash(classLoaderHash);
+        hasher.putString(key);
+        return hasher.hash();
+    }
+
+    @Override
+    public void close() {
+        delegatingCache.stopUsing(this);
+        cache.close();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.StartParameter;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectScript;
+import org.gradle.configuration.CompileOperationFactory;
+import org.gradle.configuration.ProjectScriptTarget;
+import org.gradle.groovy.scripts.CachingScriptSource;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.internal.FileCacheBackedScriptClassCompiler;
+import org.gradle.internal.Actions;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.scripts.ScriptingLanguages;
+import org.gradle.model.dsl.internal.transform.ClosureCreationInterceptingVerifier;
+import org.gradle.scripts.ScriptingLanguage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles the Groovy build scripts of all projects of a build in parallel, before these projects are configured.
+ *
+ * <p>The compile classpath of a build script depends on the {@code buildscript {}} and {@code plugins {}} blocks of the script and of the scripts of its
+ * parent projects, so it is only known for certain once these have been applied. The scripts are compiled against the classpath of the root project
+ * instead, once it has been configured. This is the classpath of every script whose project and parent projects, other than the root project, do not add to it.
+ * Compiled scripts are only stored in the persistent script cache, so when the guess is wrong or compilation fails, the script is compiled as usual
+ * when its project is configured.</p>
+ *
+ * <p>Can be enabled with {@code -Dorg.gradle.internal.precompile-build-scripts=true}.</p>
+ */
+public class BuildScriptPrecompiler {
+    public static final String PRECOMPILE_PROPERTY = "org.gradle.internal.precompile-build-scripts";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptPrecompiler.class);
+
+    private final FileCacheBackedScriptClassCompiler scriptClassCompiler;
+    private final CompileOperationFactory compileOperationFactory;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean enabled;
+
+    public BuildScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptClassCompiler, CompileOperationFactory compileOperationFactory, BuildOperationExecutor buildOperationExecutor, StartParameter startParameter) {
+        this.scriptClassCompiler = scriptClassCompiler;
+        this.compileOperationFactory = compileOperationFactory;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.enabled = isEnabled(startParameter);
+    }
+
+    private static boolean isEnabled(StartParameter startParameter) {
+        if (startParameter.isConfigureOnDemand()) {
+            // Not all projects are configured
+            return false;
+        }
+        String value = startParameter.getSystemPropertiesArgs().get(PRECOMPILE_PROPERTY);
+        if (value == null) {
+            value = System.getProperty(PRECOMPILE_PROPERTY);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Compiles the build scripts of the projects of the build of the given root project, which must already have been configured.
+     */
+    public void precompileBuildScripts(ProjectInternal rootProject) {
+        if (!enabled) {
+            return;
+        }
+        ClassLoaderScope rootScope = rootProject.getClassLoaderScope();
+        buildOperationExecutor.runAll(queue -> {
+            for (ProjectInternal project : rootProject.getAllprojects(rootProject)) {
+                if (project != rootProject && isGroovyScript(project.getBuildScriptSource())) {
+                    queue.add(new PrecompileBuildScript(project, rootScope));
+                }
+            }
+        });
+    }
+
+    private static boolean isGroovyScript(ScriptSource scriptSource) {
+        String fileName = scriptSource.getFileName();
+        for (ScriptingLanguage scriptingLanguage : ScriptingLanguages.all()) {
+            if (fileName.endsWith(scriptingLanguage.getExtension())) {
+                return scriptingLanguage.getProvider() == null;
+            }
+        }
+        return true;
+    }
+
+    private class PrecompileBuildScript implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final ClassLoaderScope targetScope;
+
+        PrecompileBuildScript(ProjectInternal project, ClassLoaderScope targetScope) {
+            this.project = project;
+            this.targetScope = targetScope;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            ScriptSource source = CachingScriptSource.of(project.getBuildScriptSource());
+            if (!source.getResource().getExists()) {
+                return;
+            }
+            ProjectScriptTarget scriptTarget = new ProjectScriptTarget(project);
+            try {
+                scriptClassCompiler.precompile(source, targetScope, compileOperationFactory.getPluginsBlockCompileOperation(scriptTarget), ProjectScript.class, Actions.doNothing());
+                scriptClassCompiler.precompile(source, targetScope, compileOperationFactory.getScriptCompileOperation(source, scriptTarget), ProjectScript.class, ClosureCreationInterceptingVerifier.INSTANCE);
+            } catch (Exception e) {
+                // The script probably needs classes from its own classpath, it will be compiled when the project is configured
+                LOGGER.debug("Could not precompile {}.", source.getDisplayName(), e);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Precompile build file for " + project.getDisplayName());
+        }
+    }
+}
@@ -26,9 +26,11 @@
 public class BuildScriptProcessor implements ProjectConfigureAction {
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildScriptProcessor.class);
     private final ScriptPluginFactory configurerFactory;
+    private final BuildScriptPrecompiler buildScriptPrecompiler;
 
-    public BuildScriptProcessor(ScriptPluginFactory configurerFactory) {
+    public BuildScriptProcessor(ScriptPluginFactory configurerFactory, BuildScriptPrecompiler buildScriptPrecompiler) {
         this.configurerFactory = configurerFactory;
+        this.buildScriptPrecompiler = buildScriptPrecompiler;
     }
 
     @Override
@@ -40,6 +42,10 @@ public void execute(final ProjectInternal project) {
         try {
             final ScriptPlugin configurer = configurerFactory.create(project.getBuildScriptSource(), project.getBuildscript(), project.getClassLoaderScope(), project.getBaseClassLoaderScope(), true);
             project.getOwner().applyToMutableState(configurer::apply);
+            if (project.getParent() == null) {
+                // The classpath of the root project is now known, so the build scripts of the other projects can be compiled
+                buildScriptPrecompiler.precompileBuildScripts(project);
+            }
         } finally {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Timing: Running the build script took {}", clock.getElapsed());
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution;
+
+import org.apache.commons.lang.StringUtils;
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.initialization.ProjectAccessHandler;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Configures projects concurrently, each one while holding its own project lock.
+ *
+ * <p>Projects are configured depth by depth, so that each project is configured after its parent. The configuration of a project is decoupled as long
+ * as it does not reach into another project, through the cross-project model or a project dependency. The first time it does, it waits for all decoupled
+ * configurations to complete and then continues on its own, before any further configuration starts, as it would when projects are configured one at a time.
+ * When the project it reaches into is itself partially configured by a thread that is waiting in the same way, that configuration completes first.</p>
+ *
+ * <p>Can be enabled with {@code -Dorg.gradle.internal.parallel-configuration=true}, together with {@code --parallel}, with which each project has its own lock.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectAccessHandler {
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.internal.parallel-configuration";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelProjectConfigurer.class);
+
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean enabled;
+    private final ThreadLocal<ProjectInternal> currentProject = new ThreadLocal<>();
+    private final Object lock = new Object();
+    // The following fields are guarded by lock
+    private final Set<ProjectInternal> inProgress = new HashSet<>();
+    private final Map<ProjectInternal, ProjectInternal> waitingFor = new HashMap<>();
+    private int decoupled;
+    private Thread exclusiveOwner;
+
+    public ParallelProjectConfigurer(BuildOperationExecutor buildOperationExecutor, StartParameter startParameter) {
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.enabled = isEnabled(startParameter);
+    }
+
+    private static boolean isEnabled(StartParameter startParameter) {
+        if (startParameter.isConfigureOnDemand()) {
+            // Projects are configured as they are needed
+            return false;
+        }
+        if (!startParameter.isParallelProjectExecutionEnabled()) {
+            // All projects share a single lock, which a waiting configuration would keep from the configurations it waits for
+            return false;
+        }
+        String value = startParameter.getSystemPropertiesArgs().get(PARALLEL_CONFIGURATION_PROPERTY);
+        if (value == null) {
+            value = System.getProperty(PARALLEL_CONFIGURATION_PROPERTY);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Configures the given projects, whose parents must already have been configured or be part of the given projects, using the given action.
+     * Fails with the failure of the first project to fail, in the given order.
+     */
+    public void configure(Collection<? extends Project> projects, Consumer<? super ProjectInternal> configureAction) {
+        Map<Integer, List<ProjectInternal>> projectsByDepth = new TreeMap<>();
+        for (Project project : projects) {
+            projectsByDepth.computeIfAbsent(project.getDepth(), depth -> new ArrayList<>()).add((ProjectInternal) project);
+        }
+        Map<ProjectInternal, RuntimeException> failures = new ConcurrentHashMap<>();
+        for (List<ProjectInternal> sameDepth : projectsByDepth.values()) {
+            buildOperationExecutor.runAllWithAccessToProjectState(queue -> {
+                for (ProjectInternal project : sameDepth) {
+                    queue.add(new ConfigureProject(project, configureAction, failures));
+                }
+            });
+            if (!failures.isEmpty()) {
+                for (Project project : projects) {
+                    RuntimeException failure = failures.get(project);
+                    if (failure != null) {
+                        throw failure;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void beforeResolvingProjectDependency(ProjectInternal dependencyProject) {
+        beforeAccessingProject(dependencyProject);
+    }
+
+    @Override
+    public void beforeAccessingProject(ProjectInternal targetProject) {
+        ProjectInternal project = currentProject.get();
+        if (project == null || project == targetProject) {
+            return;
+        }
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            if (exclusiveOwner != currentThread) {
+                LOGGER.info("{} accesses {}, waiting for the configuration of other projects to complete.", StringUtils.capitalize(project.getDisplayName()), targetProject.getDisplayName());
+                decoupled--;
+            } else if (mustWaitFor(targetProject, project)) {
+                exclusiveOwner = null;
+            } else {
+                return;
+            }
+            lock.notifyAll();
+            waitingFor.put(project, targetProject);
+            try {
+                while (exclusiveOwner != null || decoupled > 0 || mustWaitFor(targetProject, project)) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                // Count as decoupled again, so that completing the configuration of this project is accounted for
+                decoupled++;
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                waitingFor.remove(project);
+            }
+            exclusiveOwner = currentThread;
+        }
+    }
+
+    private void configure(ProjectInternal project, Consumer<? super ProjectInternal> configureAction) {
+        if (!start(project)) {
+            // Already configured, or being configured, as a dependency of another project
+            configureAction.accept(project);
+            return;
+        }
+        currentProject.set(project);
+        try {
+            configureAction.accept(project);
+        } finally {
+            currentProject.remove();
+            finish(project);
+        }
+    }
+
+    private boolean start(ProjectInternal project) {
+        synchronized (lock) {
+            try {
+                while (exclusiveOwner != null) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            if (!project.getState().isUnconfigured()) {
+                return false;
+            }
+            inProgress.add(project);
+            decoupled++;
+            return true;
+        }
+    }
+
+    private void finish(ProjectInternal project) {
+        synchronized (lock) {
+            inProgress.remove(project);
+            if (exclusiveOwner == Thread.currentThread()) {
+                exclusiveOwner = null;
+            } else {
+                decoupled--;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Should the given project wait for the given target project to be configured? It should when the target is partially configured by a thread
+     * that is waiting, unless this thread is waiting (directly or not) for the given project, in which case one of them has to see the other partially configured.
+     */
+    private boolean mustWaitFor(ProjectInternal targetProject, ProjectInternal project) {
+        if (!inProgress.contains(targetProject)) {
+            return false;
+        }
+        for (ProjectInternal waiting = waitingFor.get(targetProject); waiting != null; waiting = waitingFor.get(waiting)) {
+            if (waiting == project) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class ConfigureProject implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final Consumer<? super ProjectInternal> configureAction;
+        private final Map<ProjectInternal, RuntimeException> failures;
+
+        ConfigureProject(ProjectInternal project, Consumer<? super ProjectInternal> configureAction, Map<ProjectInternal, RuntimeException> failures) {
+            this.project = project;
+            this.configureAction = configureAction;
+            this.failures = failures;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            try {
+                configure(project, configureAction);
+            } catch (RuntimeException e) {
+                // Reported once all projects at this depth have been configured
+                failures.put(project, e);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
+}
@@ -23,9 +23,11 @@
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
     private final BuildCancellationToken cancellationToken;
+    private final ParallelProjectConfigurer parallelProjectConfigurer;
 
-    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, ParallelProjectConfigurer parallelProjectConfigurer) {
         this.cancellationToken = cancellationToken;
+        this.parallelProjectConfigurer = parallelProjectConfigurer;
     }
 
     @Override
@@ -53,6 +55,10 @@ public void configureFully(ProjectInternal project) {
     @Override
     public void configureHierarchy(ProjectInternal project) {
         configure(project);
+        if (parallelProjectConfigurer.isEnabled()) {
+            parallelProjectConfigurer.configure(project.getSubprojects(), this::configure);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             configure((ProjectInternal) sub);
         }
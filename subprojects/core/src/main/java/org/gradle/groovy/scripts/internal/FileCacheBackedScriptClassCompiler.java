@@ -19,9 +19,12 @@
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.temp.TemporaryFileProvider;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.CacheScopeMapping;
+import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Pair;
 import org.gradle.internal.classanalysis.AsmConstants;
@@ -38,6 +41,7 @@
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.model.dsl.internal.transform.RuleVisitor;
+import org.gradle.util.internal.GFileUtils;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -64,15 +68,20 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     private final CacheRepository cacheRepository;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
     private final CachedClasspathTransformer classpathTransformer;
+    private final CacheScopeMapping cacheScopeMapping;
+    private final TemporaryFileProvider temporaryFileProvider;
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory, ClassLoaderHierarchyHasher classLoaderHierarchyHasher,
-                                              CachedClasspathTransformer classpathTransformer) {
+                                              CachedClasspathTransformer classpathTransformer, CacheScopeMapping cacheScopeMapping,
+                                              TemporaryFileProvider temporaryFileProvider) {
         this.cacheRepository = cacheRepository;
         this.scriptCompilationHandler = scriptCompilationHandler;
         this.progressLoggerFactory = progressLoggerFactory;
         this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
         this.classpathTransformer = classpathTransformer;
+        this.cacheScopeMapping = cacheScopeMapping;
+        this.temporaryFileProvider = temporaryFileProvider;
     }
 
     @Override
@@ -89,17 +98,8 @@ public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource sou
         ClassLoader classLoader = targetScope.getExportClassLoader();
         HashCode sourceHashCode = source.getResource().getContentHash();
         final String dslId = operation.getId();
-        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
-        if (classLoaderHash == null) {
-            throw new IllegalArgumentException("Unknown classloader: " + classLoader);
-        }
         final RemappingScriptSource remapped = new RemappingScriptSource(source);
-
-        PrimitiveHasher hasher = Hashing.newPrimitiveHasher();
-        hasher.putString(dslId);
-        hasher.putHash(sourceHashCode);
-        hasher.putHash(classLoaderHash);
-        String key = HashUtil.compactStringFor(hasher.hash().toByteArray());
+        String key = cacheKey(dslId, sourceHashCode, classLoader);
 
         // Caching involves 2 distinct caches, so that 2 scripts with the same (hash, classpath) do not get compiled twice
         // 1. First, we look for a cache script which (path, hash) matches. This cache is invalidated when the compile classpath of the script changes
@@ -124,6 +124,63 @@ public <T extends Script, M> CompiledScript<T, M> compile(final ScriptSource sou
         }
     }
 
+    /**
+     * Compiles the given script into the cache, unless it has already been compiled, without loading it.
+     *
+     * <p>Opening a cache is serialized, and {@link #compile} compiles the script while opening the cache. This method compiles the script to a temporary
+     * directory first and only moves the result into the cache while opening it, so that several scripts can be compiled concurrently.</p>
+     */
+    public void precompile(ScriptSource source, ClassLoaderScope targetScope, CompileOperation<?> operation, Class<? extends Script> scriptBaseClass, Action<? super ClassNode> verifier) {
+        assert source.getResource().isContentCached();
+        if (source.getResource().getHasEmptyContent()) {
+            return;
+        }
+
+        ClassLoader classLoader = targetScope.getExportClassLoader();
+        String dslId = operation.getId();
+        RemappingScriptSource remapped = new RemappingScriptSource(source);
+        String key = cacheKey(dslId, source.getResource().getContentHash(), classLoader);
+
+        // Only a hint, the cache could still be in the process of being initialized
+        File cacheDir = cacheScopeMapping.getBaseDirectory(null, "scripts/" + key, VersionStrategy.CachePerVersion);
+        if (new File(cacheDir, operation.getId()).isDirectory()) {
+            return;
+        }
+
+        File tempDir = temporaryFileProvider.createTemporaryDirectory("script", dslId);
+        try {
+            File compiledClassesDir = new File(tempDir, operation.getId());
+            File compiledMetadataDir = new File(tempDir, "metadata");
+            scriptCompilationHandler.compileToDir(remapped, classLoader, compiledClassesDir, compiledMetadataDir, operation, scriptBaseClass, verifier);
+            PersistentCache cache = cacheRepository.cache("scripts/" + key)
+                .withDisplayName(dslId + " generic class cache for " + source.getDisplayName())
+                .withInitializer(initializedCache -> {
+                    GFileUtils.moveDirectory(compiledClassesDir, classesDir(initializedCache, operation));
+                    GFileUtils.moveDirectory(compiledMetadataDir, metadataDir(initializedCache));
+                })
+                .open();
+            try {
+                remapClasses(classesDir(cache, operation), remapped);
+            } finally {
+                cache.close();
+            }
+        } finally {
+            GFileUtils.deleteQuietly(tempDir);
+        }
+    }
+
+    private String cacheKey(String dslId, HashCode sourceHashCode, ClassLoader classLoader) {
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(classLoader);
+        if (classLoaderHash == null) {
+            throw new IllegalArgumentException("Unknown classloader: " + classLoader);
+        }
+        PrimitiveHasher hasher = Hashing.newPrimitiveHasher();
+        hasher.putString(dslId);
+        hasher.putHash(sourceHashCode);
+        hasher.putHash(classLoaderHash);
+        return HashUtil.compactStringFor(hasher.hash().toByteArray());
+    }
+
     private <T extends Script, M> CompiledScript<T, M> emptyCompiledScript(CompileOperation<M> operation) {
         return new EmptyCompiledScript<>(operation);
     }
@@ -24,4 +24,6 @@
 @ServiceScope(Scopes.Build.class)
 public interface ProjectAccessHandler {
     void beforeResolvingProjectDependency(ProjectInternal dependencyProject);
+
+    void beforeAccessingProject(ProjectInternal targetProject);
 }
@@ -21,4 +21,9 @@
 
 public interface ProjectAccessListener {
     void beforeResolvingProjectDependency(ProjectInternal dependencyProject);
+
+    /**
+     * Called before the build logic of some project is given access to another project.
+     */
+    void beforeAccessingProject(ProjectInternal targetProject);
 }
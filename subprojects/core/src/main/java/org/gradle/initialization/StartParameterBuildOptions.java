@@ -79,6 +79,7 @@ public class StartParameterBuildOptions extends BuildOptionSet<StartParameterInt
         options.add(new ConfigurationCacheMaxProblemsOption());
         options.add(new ConfigurationCacheRecreateOption());
         options.add(new ConfigurationCacheQuietOption());
+        options.add(new ConfigurationCacheCompressionOption());
         StartParameterBuildOptions.options = Collections.unmodifiableList(options);
     }
 
@@ -564,4 +565,22 @@ public void applyTo(boolean value, StartParameterInternal settings, Origin origi
             settings.setConfigurationCacheQuiet(value);
         }
     }
+
+    public static class ConfigurationCacheCompressionOption extends EnumBuildOption<ConfigurationCacheCompressionOption.Value, StartParameterInternal> {
+
+        public static final String PROPERTY_NAME = "org.gradle.unsafe.configuration-cache.compression";
+
+        public enum Value {
+            NONE, DEFLATE
+        }
+
+        public ConfigurationCacheCompressionOption() {
+            super(PROPERTY_NAME, Value.class, Value.values(), PROPERTY_NAME);
+        }
+
+        @Override
+        public void applyTo(Value value, StartParameterInternal settings, Origin origin) {
+            settings.setConfigurationCacheCompression(value);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts a trace written by {@link BinaryBuildOperationTraceWriter} to the Chrome trace format.
+ *
+ * <p>The file is a sequence of chunks, each holding records produced by a single thread:</p>
+ *
+ * <pre>
+ * chunk    := threadId:long threadName:utf recordCount:int record*
+ * record   := START    id:long parentId:long startTime:long displayName:utf detailsType:utf
+ *           | PROGRESS id:long time:long detailsType:utf
+ *           | FINISH   id:long endTime:long resultType:utf failed:boolean failure:utf?
+ * </pre>
+ *
+ * <p>Times are in milliseconds since the epoch, a parent id of 0 means no parent and an empty type name means no value.
+ * Operations can finish on a different thread than they started on, so chunks for the start and finish of an operation can appear in
+ * any order. The file is read in a single pass and only operations whose start or finish has not been seen yet are held in memory.</p>
+ */
+public class BinaryBuildOperationTraceReader {
+    private final Map<Long, Start> pendingStarts = new HashMap<>();
+    private final Map<Long, Finish> pendingFinishes = new HashMap<>();
+    private final Set<Long> namedThreads = new HashSet<>();
+    private final ChromeTraceWriter output;
+
+    private BinaryBuildOperationTraceReader(ChromeTraceWriter output) {
+        this.output = output;
+    }
+
+    public static void toChromeTrace(File binaryTrace, File chromeTrace) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(binaryTrace)));
+             ChromeTraceWriter output = new ChromeTraceWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(chromeTrace), StandardCharsets.UTF_8)))) {
+            new BinaryBuildOperationTraceReader(output).convert(input);
+        }
+    }
+
+    private void convert(DataInputStream input) throws IOException {
+        while (true) {
+            long threadId;
+            try {
+                threadId = input.readLong();
+            } catch (EOFException e) {
+                break;
+            }
+            String threadName = input.readUTF();
+            int records = input.readInt();
+            if (namedThreads.add(threadId)) {
+                output.threadName(threadId, threadName);
+            }
+            for (int i = 0; i < records; i++) {
+                readRecord(input, threadId);
+            }
+        }
+        // Operations that did not finish, for example because the build was cancelled, are not included
+    }
+
+    private void readRecord(DataInputStream input, long threadId) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case BinaryBuildOperationTraceWriter.START: {
+                long id = input.readLong();
+                Start start = new Start(threadId, input.readLong(), input.readLong(), input.readUTF(), input.readUTF());
+                Finish finish = pendingFinishes.remove(id);
+                if (finish == null) {
+                    pendingStarts.put(id, start);
+                } else {
+                    write(id, start, finish);
+                }
+                break;
+            }
+            case BinaryBuildOperationTraceWriter.PROGRESS:
+                // Progress events are not shown in the timeline
+                input.readLong();
+                input.readLong();
+                input.readUTF();
+                break;
+            case BinaryBuildOperationTraceWriter.FINISH: {
+                long id = input.readLong();
+                long endTime = input.readLong();
+                String resultType = input.readUTF();
+                String failure = input.readBoolean() ? input.readUTF() : null;
+                Finish finish = new Finish(endTime, resultType, failure);
+                Start start = pendingStarts.remove(id);
+                if (start == null) {
+                    pendingFinishes.put(id, finish);
+                } else {
+                    write(id, start, finish);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unexpected record type " + type + " in build operation trace.");
+        }
+    }
+
+    private void write(long id, Start start, Finish finish) throws IOException {
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("id", id);
+        if (start.parentId != 0) {
+            args.put("parentId", start.parentId);
+        }
+        if (!start.detailsType.isEmpty()) {
+            args.put("details", start.detailsType);
+        }
+        if (!finish.resultType.isEmpty()) {
+            args.put("result", finish.resultType);
+        }
+        if (finish.failure != null) {
+            args.put("failure", finish.failure);
+        }
+        String category = start.detailsType.isEmpty() ? null : simpleName(start.detailsType);
+        output.completeEvent(start.displayName, category, start.threadId, start.startTime * 1000, Math.max(0, finish.endTime - start.startTime) * 1000, args);
+    }
+
+    private static String simpleName(String typeName) {
+        return typeName.substring(Math.max(typeName.lastIndexOf('.'), typeName.lastIndexOf('$')) + 1);
+    }
+
+    private static class Start {
+        final long threadId;
+        final long parentId;
+        final long startTime;
+        final String displayName;
+        final String detailsType;
+
+        Start(long threadId, long parentId, long startTime, String displayName, String detailsType) {
+            this.threadId = threadId;
+            this.parentId = parentId;
+            this.startTime = startTime;
+            this.displayName = displayName;
+            this.detailsType = detailsType;
+        }
+    }
+
+    private static class Finish {
+        final long endTime;
+        final String resultType;
+        final String failure;
+
+        Finish(long endTime, String resultType, @Nullable String failure) {
+            this.endTime = endTime;
+            this.resultType = resultType;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationListener;
+import org.gradle.internal.operations.OperationFinishEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.operations.OperationProgressEvent;
+import org.gradle.internal.operations.OperationStartEvent;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records build operations in a compact binary format, see {@link BinaryBuildOperationTraceReader} for the layout.
+ *
+ * Each thread appends records to its own buffer, without contending with other threads.
+ * Full buffers are written to the output stream by a single background thread.
+ * Only display names and type names are recorded, as converting the details and results of each operation to JSON is what makes the JSON trace expensive.
+ */
+class BinaryBuildOperationTraceWriter implements BuildOperationListener, Stoppable {
+    static final byte START = 1;
+    static final byte PROGRESS = 2;
+    static final byte FINISH = 3;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_STRING_LENGTH = 4096;
+
+    private final OutputStream outputStream;
+    private final ManagedExecutor writer;
+    private final Queue<ThreadBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadBuffer> threadBuffer = ThreadLocal.withInitial(() -> {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+        buffers.add(buffer);
+        return buffer;
+    });
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    BinaryBuildOperationTraceWriter(OutputStream outputStream, ExecutorFactory executorFactory) {
+        this.outputStream = outputStream;
+        this.writer = executorFactory.create("Build operation trace writer", 1);
+    }
+
+    @Override
+    public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
+        OperationIdentifier parentId = buildOperation.getParentId();
+        ThreadBuffer buffer = threadBuffer.get();
+        synchronized (buffer) {
+            try {
+                buffer.out.writeByte(START);
+                buffer.out.writeLong(buildOperation.getId().getId());
+                buffer.out.writeLong(parentId == null ? 0 : parentId.getId());
+                buffer.out.writeLong(startEvent.getStartTime());
+                writeString(buffer.out, buildOperation.getDisplayName());
+                writeClassName(buffer.out, buildOperation.getDetails());
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            buffer.recordAdded();
+        }
+    }
+
+    @Override
+    public void progress(OperationIdentifier operationIdentifier, OperationProgressEvent progressEvent) {
+        ThreadBuffer buffer = threadBuffer.get();
+        synchronized (buffer) {
+            try {
+                buffer.out.writeByte(PROGRESS);
+                buffer.out.writeLong(operationIdentifier.getId());
+                buffer.out.writeLong(progressEvent.getTime());
+                writeClassName(buffer.out, progressEvent.getDetails());
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            buffer.recordAdded();
+        }
+    }
+
+    @Override
+    public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
+        ThreadBuffer buffer = threadBuffer.get();
+        synchronized (buffer) {
+            try {
+                buffer.out.writeByte(FINISH);
+                buffer.out.writeLong(buildOperation.getId().getId());
+                buffer.out.writeLong(finishEvent.getEndTime());
+                writeClassName(buffer.out, finishEvent.getResult());
+                Throwable failure = finishEvent.getFailure();
+                buffer.out.writeBoolean(failure != null);
+                if (failure != null) {
+                    writeString(buffer.out, failure.toString());
+                }
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            buffer.recordAdded();
+        }
+    }
+
+    /**
+     * Writes the records buffered by all threads and waits for the background writer to finish. Does not close the output stream.
+     */
+    @Override
+    public void stop() {
+        for (ThreadBuffer buffer : buffers) {
+            synchronized (buffer) {
+                buffer.submit();
+            }
+        }
+        writer.stop(1, TimeUnit.MINUTES);
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        IOException writeFailure = failure.get();
+        if (writeFailure != null) {
+            throw UncheckedException.throwAsUncheckedException(writeFailure);
+        }
+    }
+
+    private static void writeClassName(DataOutputStream out, @Nullable Object value) throws IOException {
+        out.writeUTF(value == null ? "" : value.getClass().getName());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // writeUTF() is limited to 64KB of encoded data
+        out.writeUTF(value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value);
+    }
+
+    private void writeChunk(byte[] chunk) {
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            outputStream.write(chunk);
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * The records produced by a single thread since its last chunk was submitted. A chunk starts with the thread id, the thread name and the number of records.
+     */
+    private class ThreadBuffer {
+        private final long threadId;
+        private final String threadName;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHUNK_SIZE);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int records;
+
+        ThreadBuffer(Thread thread) {
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+
+        void recordAdded() {
+            records++;
+            if (bytes.size() >= CHUNK_SIZE) {
+                submit();
+            }
+        }
+
+        void submit() {
+            if (records == 0) {
+                return;
+            }
+            ByteArrayOutputStream chunkBytes = new ByteArrayOutputStream(bytes.size() + 64);
+            DataOutputStream chunk = new DataOutputStream(chunkBytes);
+            try {
+                chunk.writeLong(threadId);
+                writeString(chunk, threadName);
+                chunk.writeInt(records);
+                bytes.writeTo(chunk);
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            bytes.reset();
+            records = 0;
+            byte[] data = chunkBytes.toByteArray();
+            writer.execute(() -> writeChunk(data));
+        }
+    }
+}
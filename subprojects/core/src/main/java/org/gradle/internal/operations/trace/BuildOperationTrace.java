@@ -24,6 +24,7 @@
 import groovy.json.JsonSlurper;
 import org.gradle.StartParameter;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationListener;
@@ -74,6 +75,12 @@
  * The «path-base» param is optional.
  * If invoked as `-Dorg.gradle.internal.operations.trace`, a base value of "operations" will be used.
  *
+ * With `-Dorg.gradle.internal.operations.trace.format=binary`, a cheaper trace is written instead, suitable for recording every build.
+ * Only the display name and the type of the details and result of each operation are recorded. Two files are created:
+ *
+ * - «path-base»-trace.bin: the trace in a compact binary format, see {@link BinaryBuildOperationTraceReader}
+ * - «path-base»-trace.json: the trace converted to the Chrome trace format — open in Perfetto or chrome://tracing
+ *
  * The “trace” produced here is different to the trace produced by Gradle Profiler.
  * There, the focus is analyzing the performance profile.
  * Here, the focus is debugging/developing the information structure of build operations.
@@ -83,11 +90,14 @@
 public class BuildOperationTrace implements Stoppable {
 
     public static final String SYSPROP = "org.gradle.internal.operations.trace";
+    public static final String FORMAT_SYSPROP = "org.gradle.internal.operations.trace.format";
+    public static final String BINARY_FORMAT = "binary";
 
     private static final byte[] NEWLINE = "\n".getBytes();
 
     private final String basePath;
     private final OutputStream logOutputStream;
+    private final BinaryBuildOperationTraceWriter binaryWriter;
 
     private final BuildOperationListenerManager buildOperationListenerManager;
 
@@ -108,7 +118,7 @@ public void finished(BuildOperationDescriptor buildOperation, OperationFinishEve
         }
     };
 
-    public BuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager buildOperationListenerManager) {
+    public BuildOperationTrace(StartParameter startParameter, BuildOperationListenerManager buildOperationListenerManager, ExecutorFactory executorFactory) {
         this.buildOperationListenerManager = buildOperationListenerManager;
 
         Map<String, String> sysProps = startParameter.getSystemPropertiesArgs();
@@ -117,14 +127,21 @@ public BuildOperationTrace(StartParameter startParameter, BuildOperationListener
             basePath = System.getProperty(SYSPROP);
         }
 
+        String format = sysProps.get(FORMAT_SYSPROP);
+        if (format == null) {
+            format = System.getProperty(FORMAT_SYSPROP);
+        }
+
         this.basePath = basePath;
         if (this.basePath == null || basePath.equals(Boolean.FALSE.toString())) {
             this.logOutputStream = null;
+            this.binaryWriter = null;
             return;
         }
 
+        boolean binary = BINARY_FORMAT.equals(format);
         try {
-            File logFile = logFile(basePath);
+            File logFile = binary ? binaryTraceFile(basePath) : logFile(basePath);
             GFileUtils.mkdirs(logFile.getParentFile());
             if (logFile.isFile()) {
                 GFileUtils.forceDelete(logFile);
@@ -137,11 +154,31 @@ public BuildOperationTrace(StartParameter startParameter, BuildOperationListener
             throw UncheckedException.throwAsUncheckedException(e);
         }
 
-        buildOperationListenerManager.addListener(listener);
+        if (binary) {
+            this.binaryWriter = new BinaryBuildOperationTraceWriter(logOutputStream, executorFactory);
+            buildOperationListenerManager.addListener(binaryWriter);
+        } else {
+            this.binaryWriter = null;
+            buildOperationListenerManager.addListener(listener);
+        }
     }
 
     @Override
     public void stop() {
+        if (binaryWriter != null) {
+            buildOperationListenerManager.removeListener(binaryWriter);
+            try {
+                try {
+                    binaryWriter.stop();
+                } finally {
+                    logOutputStream.close();
+                }
+                BinaryBuildOperationTraceReader.toChromeTrace(binaryTraceFile(basePath), file(basePath, "-trace.json"));
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return;
+        }
         buildOperationListenerManager.removeListener(listener);
         if (logOutputStream != null) {
             try {
@@ -362,6 +399,10 @@ private static File logFile(String basePath) {
         return file(basePath, "-log.txt");
     }
 
+    private static File binaryTraceFile(String basePath) {
+        return file(basePath, "-trace.bin");
+    }
+
     private static File file(String base, String suffix) {
         return new File((base == null || base.trim().isEmpty() ? "operations" : base) + suffix).getAbsoluteFile();
     }
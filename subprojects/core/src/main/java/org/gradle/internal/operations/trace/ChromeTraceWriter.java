@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes events in the Chrome Trace Event JSON format, as understood by {@code chrome://tracing} and the Perfetto UI.
+ *
+ * Events are written as they are added, so the whole trace never needs to be held in memory.
+ * All events belong to a single process, and each thread is shown as a separate lane.
+ */
+public class ChromeTraceWriter implements Closeable {
+    private static final long PROCESS_ID = 1;
+
+    private final Writer writer;
+    private boolean firstEvent = true;
+
+    public ChromeTraceWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("{\"traceEvents\":[");
+    }
+
+    /**
+     * Names the lane of the given thread.
+     */
+    public void threadName(long threadId, String name) throws IOException {
+        startEvent();
+        writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":");
+        writer.write(Long.toString(PROCESS_ID));
+        writer.write(",\"tid\":");
+        writer.write(Long.toString(threadId));
+        writer.write(",\"args\":{\"name\":");
+        writeString(name);
+        writer.write("}}");
+    }
+
+    /**
+     * Adds an event with the given start time and duration, in microseconds. Events on the same thread that are contained in another event are shown nested.
+     */
+    public void completeEvent(String name, @Nullable String category, long threadId, long startMicros, long durationMicros, Map<String, ?> args) throws IOException {
+        startEvent();
+        writer.write("{\"name\":");
+        writeString(name);
+        if (category != null) {
+            writer.write(",\"cat\":");
+            writeString(category);
+        }
+        writer.write(",\"ph\":\"X\",\"ts\":");
+        writer.write(Long.toString(startMicros));
+        writer.write(",\"dur\":");
+        writer.write(Long.toString(durationMicros));
+        writer.write(",\"pid\":");
+        writer.write(Long.toString(PROCESS_ID));
+        writer.write(",\"tid\":");
+        writer.write(Long.toString(threadId));
+        if (!args.isEmpty()) {
+            writer.write(",\"args\":{");
+            boolean firstArg = true;
+            for (Map.Entry<String, ?> entry : args.entrySet()) {
+                if (!firstArg) {
+                    writer.write(',');
+                }
+                firstArg = false;
+                writeString(entry.getKey());
+                writer.write(':');
+                Object value = entry.getValue();
+                if (value instanceof Number || value instanceof Boolean) {
+                    writer.write(value.toString());
+                } else {
+                    writeString(String.valueOf(value));
+                }
+            }
+            writer.write('}');
+        }
+        writer.write('}');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+        writer.close();
+    }
+
+    private void startEvent() throws IOException {
+        if (!firstEvent) {
+            writer.write(',');
+        }
+        firstEvent = false;
+        writer.write('\n');
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) ch));
+                    } else {
+                        writer.write(ch);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
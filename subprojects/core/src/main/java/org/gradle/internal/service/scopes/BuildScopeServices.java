@@ -78,6 +78,7 @@
 import org.gradle.api.provider.ProviderFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.FileLockManager;
+import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.caching.internal.BuildCacheServices;
 import org.gradle.configuration.BuildOperationFiringProjectsPreparer;
 import org.gradle.configuration.BuildTreePreparingProjectsPreparer;
@@ -90,6 +91,7 @@
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactorySelector;
 import org.gradle.configuration.internal.UserCodeApplicationContext;
+import org.gradle.configuration.project.BuildScriptPrecompiler;
 import org.gradle.configuration.project.BuildScriptProcessor;
 import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
 import org.gradle.configuration.project.DefaultCompileOperationFactory;
@@ -97,6 +99,7 @@
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
 import org.gradle.configuration.project.ProjectEvaluator;
+import org.gradle.execution.ParallelProjectConfigurer;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -217,6 +220,13 @@ public void beforeResolvingProjectDependency(ProjectInternal dependencyProject)
                     handler.beforeResolvingProjectDependency(dependencyProject);
                 }
             }
+
+            @Override
+            public void beforeAccessingProject(ProjectInternal targetProject) {
+                for (ProjectAccessHandler handler : handlers) {
+                    handler.beforeAccessingProject(targetProject);
+                }
+            }
         };
     }
 
@@ -336,10 +346,14 @@ protected BuildLoader createBuildLoader(GradleProperties gradleProperties, Build
         );
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected BuildScriptPrecompiler createBuildScriptPrecompiler(FileCacheBackedScriptClassCompiler scriptClassCompiler, CompileOperationFactory compileOperationFactory, BuildOperationExecutor buildOperationExecutor, BuildDefinition buildDefinition) {
+        return new BuildScriptPrecompiler(scriptClassCompiler, compileOperationFactory, buildOperationExecutor, buildDefinition.getStartParameter());
+    }
+
+    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, BuildScriptPrecompiler buildScriptPrecompiler) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             PluginsProjectConfigureActions.from(cachingServiceLocator),
-            new BuildScriptProcessor(scriptPluginFactory),
+            new BuildScriptProcessor(scriptPluginFactory, buildScriptPrecompiler),
             new DelayedConfigurationActions()
         );
         return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
@@ -367,14 +381,18 @@ protected FileCacheBackedScriptClassCompiler createFileCacheBackedScriptClassCom
         ClassLoaderHierarchyHasher classLoaderHierarchyHasher,
         DefaultScriptCompilationHandler scriptCompilationHandler,
         CachedClasspathTransformer classpathTransformer,
-        ProgressLoggerFactory progressLoggerFactory
+        ProgressLoggerFactory progressLoggerFactory,
+        CacheScopeMapping cacheScopeMapping,
+        TemporaryFileProvider temporaryFileProvider
     ) {
         return new FileCacheBackedScriptClassCompiler(
             cacheRepository,
             new BuildOperationBackedScriptCompilationHandler(scriptCompilationHandler, buildOperationExecutor),
             progressLoggerFactory,
             classLoaderHierarchyHasher,
-            classpathTransformer);
+            classpathTransformer,
+            cacheScopeMapping,
+            temporaryFileProvider);
     }
 
     protected ScriptPluginFactory createScriptPluginFactory(InstantiatorFactory instantiatorFactory, BuildOperationExecutor buildOperationExecutor, UserCodeApplicationContext userCodeApplicationContext) {
@@ -510,6 +528,10 @@ protected ProjectAccessHandler createProjectAccessHandler() {
         return new ConfigurationOnDemandProjectAccessListener();
     }
 
+    protected ParallelProjectConfigurer createParallelProjectConfigurer(BuildOperationExecutor buildOperationExecutor, BuildDefinition buildDefinition) {
+        return new ParallelProjectConfigurer(buildOperationExecutor, buildDefinition.getStartParameter());
+    }
+
     protected PluginRegistry createPluginRegistry(ClassLoaderScopeRegistry scopeRegistry, PluginInspector pluginInspector) {
         return new DefaultPluginRegistry(pluginInspector, scopeRegistry.getCoreAndPluginsScope());
     }
@@ -85,6 +85,7 @@
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.instantiation.InstantiationScheme;
 import org.gradle.internal.instantiation.InstantiatorFactory;
+import org.gradle.internal.instantiation.generator.DelegatingGeneratedClassBytecodeCache;
 import org.gradle.internal.reflect.annotations.TypeAnnotationMetadataStore;
 import org.gradle.internal.reflect.annotations.impl.DefaultTypeAnnotationMetadataStore;
 import org.gradle.internal.scripts.ScriptOrigin;
@@ -128,7 +129,7 @@ AnnotationHandlerRegistar createAnnotationRegistry(List<AnnotationHandlerRegistr
         return builder -> registrations.forEach(registration -> builder.addAll(registration.getAnnotations()));
     }
 
-    TypeAnnotationMetadataStore createAnnotationMetadataStore(CrossBuildInMemoryCacheFactory cacheFactory, AnnotationHandlerRegistar annotationRegistry) {
+    TypeAnnotationMetadataStore createAnnotationMetadataStore(CrossBuildInMemoryCacheFactory cacheFactory, AnnotationHandlerRegistar annotationRegistry, DelegatingGeneratedClassBytecodeCache persistentCache) {
         @SuppressWarnings("deprecation")
         Class<?> deprecatedAbstractTask = org.gradle.api.internal.AbstractTask.class;
         @SuppressWarnings("deprecation")
@@ -179,7 +180,8 @@ TypeAnnotationMetadataStore createAnnotationMetadataStore(CrossBuildInMemoryCach
             ),
             IGNORED_METHOD_ANNOTATIONS,
             method -> method.isAnnotationPresent(Generated.class),
-            cacheFactory);
+            cacheFactory,
+            persistentCache);
     }
 
     InspectionSchemeFactory createInspectionSchemeFactory(
@@ -37,6 +37,7 @@
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.cache.internal.DefaultFileContentCacheFactory;
+import org.gradle.cache.internal.DefaultGeneratedClassBytecodeCache;
 import org.gradle.cache.internal.DefaultGeneratedGradleJarCache;
 import org.gradle.cache.internal.DefaultGlobalCacheLocations;
 import org.gradle.cache.internal.FileContentCacheFactory;
@@ -69,6 +70,7 @@
 import org.gradle.internal.file.FileAccessTimeJournal;
 import org.gradle.internal.hash.ClassLoaderHierarchyHasher;
 import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.instantiation.generator.DelegatingGeneratedClassBytecodeCache;
 import org.gradle.internal.jvm.JavaModuleDetector;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.logging.LoggingManagerInternal;
@@ -228,6 +230,10 @@ protected JavaModuleDetector createJavaModuleDetector(FileContentCacheFactory ca
         return new JavaModuleDetector(cacheFactory, fileCollectionFactory);
     }
 
+    DefaultGeneratedClassBytecodeCache createGeneratedClassBytecodeCache(CacheRepository cacheRepository, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, DelegatingGeneratedClassBytecodeCache delegatingCache) {
+        return new DefaultGeneratedClassBytecodeCache(cacheRepository, classLoaderHierarchyHasher, delegatingCache);
+    }
+
     DefaultGeneratedGradleJarCache createGeneratedGradleJarCache(CacheRepository cacheRepository) {
         String gradleVersion = GradleVersion.current().getVersion();
         return new DefaultGeneratedGradleJarCache(cacheRepository, gradleVersion);
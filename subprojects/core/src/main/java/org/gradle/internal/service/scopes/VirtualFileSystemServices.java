@@ -37,8 +37,16 @@
 import org.gradle.api.internal.changedetection.state.ResourceSnapshotterCacheService;
 import org.gradle.api.internal.changedetection.state.SplitFileHasher;
 import org.gradle.api.internal.changedetection.state.SplitResourceSnapshotterCacheService;
+import org.gradle.api.internal.file.DefaultFileCollectionFactory;
 import org.gradle.api.internal.file.FileCollectionFactory;
+import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.file.collections.DirectoryWalkerStatistics;
+import org.gradle.api.internal.file.collections.SnapshotBackedDirectoryWalker;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
+import org.gradle.api.internal.provider.PropertyHost;
+import org.gradle.api.internal.tasks.DefaultTaskDependencyFactory;
+import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.api.tasks.util.internal.PatternSpecFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.GlobalCacheLocations;
@@ -49,6 +57,7 @@
 import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.initialization.RootBuildLifecycleListener;
 import org.gradle.initialization.layout.ProjectCacheDir;
+import org.gradle.internal.Factory;
 import org.gradle.internal.build.BuildAddedListener;
 import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.event.ListenerManager;
@@ -61,6 +70,7 @@
 import org.gradle.internal.execution.fingerprint.InputFingerprinter;
 import org.gradle.internal.execution.fingerprint.impl.DefaultFileCollectionFingerprinterRegistry;
 import org.gradle.internal.execution.fingerprint.impl.DefaultInputFingerprinter;
+import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.file.Stat;
 import org.gradle.internal.fingerprint.DirectorySensitivity;
 import org.gradle.internal.fingerprint.GenericFileTreeSnapshotter;
@@ -127,6 +137,13 @@ public class VirtualFileSystemServices extends AbstractPluginServiceRegistry {
 
     public static final String MAX_HIERARCHIES_TO_WATCH_PROPERTY = "org.gradle.vfs.watch.hierarchies.max";
 
+    /**
+     * When file system watching is enabled, this system property can be used to make file trees visit the snapshots held by the VFS instead of walking the file system.
+     *
+     * @see org.gradle.api.internal.file.collections.SnapshotBackedDirectoryWalker
+     */
+    public static final String VFS_FILE_TREES_PROPERTY = "org.gradle.vfs.file-trees";
+
     private static final int DEFAULT_MAX_HIERARCHIES_TO_WATCH = 50;
     private static final int FILE_HASHER_MEMORY_CACHE_SIZE = 400000;
 
@@ -135,6 +152,11 @@ public static boolean isDropVfs(StartParameter startParameter) {
         return dropVfs != null && !"false".equalsIgnoreCase(dropVfs);
     }
 
+    public static boolean isVisitFileTreesFromVfs(StartParameter startParameter) {
+        String fileTrees = getSystemProperty(VFS_FILE_TREES_PROPERTY, startParameter.getSystemPropertiesArgs());
+        return fileTrees != null && !"false".equalsIgnoreCase(fileTrees);
+    }
+
     public static int getMaximumNumberOfWatchedHierarchies(StartParameter startParameter) {
         String fromProperty = getSystemProperty(MAX_HIERARCHIES_TO_WATCH_PROPERTY, startParameter.getSystemPropertiesArgs());
         return fromProperty != null && !fromProperty.isEmpty()
@@ -170,6 +192,10 @@ FileHasherStatistics.Collector createCachingFileHasherStatisticsCollector() {
         DirectorySnapshotterStatistics.Collector createDirectorySnapshotterStatisticsCollector() {
             return new DirectorySnapshotterStatistics.Collector();
         }
+
+        DirectoryWalkerStatistics.Collector createDirectoryWalkerStatisticsCollector() {
+            return new DirectoryWalkerStatistics.Collector();
+        }
     }
 
     @VisibleForTesting
@@ -304,6 +330,18 @@ private Optional<FileWatcherRegistryFactory> determineWatcherRegistryFactory(Ope
             return Optional.empty();
         }
 
+        SnapshotBackedDirectoryWalker createSnapshotBackedDirectoryWalker(VirtualFileSystem virtualFileSystem, FileSystem fileSystem, DirectoryWalkerStatistics.Collector statisticsCollector) {
+            return new SnapshotBackedDirectoryWalker(virtualFileSystem, fileSystem, statisticsCollector);
+        }
+
+        DirectoryFileTreeFactory createDirectoryFileTreeFactory(Factory<PatternSet> patternSetFactory, FileSystem fileSystem, SnapshotBackedDirectoryWalker snapshotBackedDirectoryWalker) {
+            return new DefaultDirectoryFileTreeFactory(patternSetFactory, fileSystem, snapshotBackedDirectoryWalker);
+        }
+
+        FileCollectionFactory createFileCollectionFactory(PathToFileResolver fileResolver, Factory<PatternSet> patternSetFactory, DirectoryFileTreeFactory directoryFileTreeFactory, PropertyHost propertyHost, FileSystem fileSystem) {
+            return new DefaultFileCollectionFactory(fileResolver, DefaultTaskDependencyFactory.withNoAssociatedProject(), directoryFileTreeFactory, patternSetFactory, propertyHost, fileSystem);
+        }
+
         GenericFileTreeSnapshotter createGenericFileTreeSnapshotter(FileHasher hasher, StringInterner stringInterner) {
             return new DefaultGenericFileTreeSnapshotter(hasher, stringInterner);
         }
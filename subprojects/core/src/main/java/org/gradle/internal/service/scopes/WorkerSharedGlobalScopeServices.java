@@ -21,6 +21,7 @@
 import org.gradle.api.internal.file.FileFactory;
 import org.gradle.api.internal.file.FilePropertyFactory;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.archive.ZipIndexCache;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
 import org.gradle.api.internal.provider.DefaultPropertyFactory;
 import org.gradle.api.internal.provider.PropertyFactory;
@@ -95,6 +96,10 @@ NamedObjectInstantiator createNamedObjectInstantiator(CrossBuildInMemoryCacheFac
         return new NamedObjectInstantiator(cacheFactory);
     }
 
+    ZipIndexCache createZipIndexCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        return new ZipIndexCache(cacheFactory);
+    }
+
     TaskDependencyFactory createTaskDependencyFactory() {
         return DefaultTaskDependencyFactory.withNoAssociatedProject();
     }
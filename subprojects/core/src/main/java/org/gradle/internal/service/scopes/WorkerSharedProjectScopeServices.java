@@ -32,6 +32,7 @@
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FilePropertyFactory;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.archive.ZipIndexCache;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.file.temp.TemporaryFileProvider;
 import org.gradle.api.internal.model.DefaultObjectFactory;
@@ -92,7 +93,8 @@ protected DefaultFileOperations createFileOperations(
             Factory<PatternSet> patternSetFactory,
             Deleter deleter,
             DocumentationRegistry documentationRegistry,
-            ProviderFactory providers
+            ProviderFactory providers,
+            ZipIndexCache zipIndexCache
     ) {
         return new DefaultFileOperations(
                 fileResolver,
@@ -107,7 +109,8 @@ protected DefaultFileOperations createFileOperations(
                 patternSetFactory,
                 deleter,
                 documentationRegistry,
-                providers);
+                providers,
+                zipIndexCache);
     }
 
     protected FileSystemOperations createFileSystemOperations(Instantiator instantiator, FileOperations fileOperations) {
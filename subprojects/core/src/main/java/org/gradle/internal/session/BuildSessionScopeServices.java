@@ -38,6 +38,7 @@
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.CleanupActionFactory;
+import org.gradle.cache.internal.DefaultGeneratedClassBytecodeCache;
 import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
 import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.deployment.internal.DefaultDeploymentRegistry;
@@ -59,6 +60,7 @@
 import org.gradle.internal.filewatch.PendingChangesManager;
 import org.gradle.internal.hash.ChecksumService;
 import org.gradle.internal.hash.DefaultChecksumService;
+import org.gradle.internal.instantiation.generator.DelegatingGeneratedClassBytecodeCache;
 import org.gradle.internal.isolation.IsolatableFactory;
 import org.gradle.internal.jvm.JavaModuleDetector;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
@@ -73,6 +75,7 @@
 import org.gradle.internal.scopeids.id.UserScopeId;
 import org.gradle.internal.scopeids.id.WorkspaceScopeId;
 import org.gradle.internal.service.ServiceRegistration;
+import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.internal.service.scopes.Scopes;
 import org.gradle.internal.time.Clock;
@@ -123,6 +126,19 @@ void configure(ServiceRegistration registration, List<PluginServiceRegistry> plu
         registration.addProvider(new ScopeIdsServices());
     }
 
+    void configure(ServiceRegistration registration, ServiceRegistry services, DelegatingGeneratedClassBytecodeCache generatedClassBytecodeCache) {
+        // Classes are generated by global services, so point these at the cache in the Gradle user home of this session.
+        // Only look up the persistent cache when enabled, as looking it up opens it
+        DelegatingGeneratedClassBytecodeCache.Usage usage;
+        if (DefaultGeneratedClassBytecodeCache.isEnabled(startParameter)) {
+            usage = generatedClassBytecodeCache.use(services.get(DefaultGeneratedClassBytecodeCache.class));
+        } else {
+            usage = generatedClassBytecodeCache.use(null);
+        }
+        // Register the usage so that it ends when the session ends
+        registration.add(DelegatingGeneratedClassBytecodeCache.Usage.class, usage);
+    }
+
     PendingChangesManager createPendingChangesManager(ListenerManager listenerManager) {
         return new PendingChangesManager(listenerManager);
     }
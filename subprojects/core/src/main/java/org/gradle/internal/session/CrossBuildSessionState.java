@@ -140,8 +140,8 @@ LoggingBuildOperationProgressBroadcaster createLoggingBuildOperationProgressBroa
             return new LoggingBuildOperationProgressBroadcaster(outputEventListenerManager, buildOperationProgressEventEmitter);
         }
 
-        BuildOperationTrace createBuildOperationTrace(BuildOperationListenerManager buildOperationListenerManager) {
-            return new BuildOperationTrace(startParameter, buildOperationListenerManager);
+        BuildOperationTrace createBuildOperationTrace(BuildOperationListenerManager buildOperationListenerManager, ExecutorFactory executorFactory) {
+            return new BuildOperationTrace(startParameter, buildOperationListenerManager, executorFactory);
         }
 
         BuildOperationNotificationBridge createBuildOperationNotificationBridge(BuildOperationListenerManager buildOperationListenerManager, ListenerManager generalListenerManager) {
@@ -155,7 +155,10 @@ public void prepareJavaCommand(long workerId, String displayName, WorkerProcessB
             encoder.writeSmallInt(logLevel.ordinal());
             encoder.writeBoolean(publishProcessInfo);
             encoder.writeString(gradleUserHomeDir.getAbsolutePath());
-            new MultiChoiceAddressSerializer().write(encoder, (MultiChoiceAddress) serverAddress);
+            MultiChoiceAddress multiChoiceAddress = (MultiChoiceAddress) serverAddress;
+            new MultiChoiceAddressSerializer().write(encoder, multiChoiceAddress);
+            File domainSocketFile = multiChoiceAddress.getDomainSocketFile();
+            encoder.writeNullableString(domainSocketFile == null ? null : domainSocketFile.getAbsolutePath());
             encoder.writeSmallLong(workerId);
             encoder.writeString(displayName);
 
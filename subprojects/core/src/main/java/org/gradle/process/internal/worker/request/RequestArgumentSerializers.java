@@ -16,6 +16,7 @@
 
 package org.gradle.process.internal.worker.request;
 
+import org.gradle.internal.Cast;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
 import org.gradle.internal.serialize.Encoder;
@@ -23,16 +24,37 @@
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class RequestArgumentSerializers {
     private final SerializerRegistry registry = new DefaultSerializerRegistry();
+    private final Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
 
     public Serializer<Object> getSerializer(ClassLoader defaultClassLoader) {
         registry.register(Object.class, new JavaObjectSerializer(defaultClassLoader));
         return registry.build(Object.class);
     }
 
+    /**
+     * Registers a serializer for request arguments of the given type. The serializer is also used for results of the given type.
+     */
     public <T> void register(Class<T> type, Serializer<T> serializer) {
         registry.register(type, serializer);
+        serializers.put(type, serializer);
+    }
+
+    /**
+     * Adds the serializers registered with this object to the given registry.
+     */
+    public void registerTo(SerializerRegistry target) {
+        for (Map.Entry<Class<?>, Serializer<?>> entry : serializers.entrySet()) {
+            register(target, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static <T> void register(SerializerRegistry target, Class<T> type, Serializer<?> serializer) {
+        target.register(type, Cast.<Serializer<T>>uncheckedNonnullCast(serializer));
     }
 
     public static class JavaObjectSerializer implements Serializer<Object> {
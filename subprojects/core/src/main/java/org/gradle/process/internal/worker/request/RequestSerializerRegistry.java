@@ -24,6 +24,8 @@ public class RequestSerializerRegistry {
     public static SerializerRegistry create(ClassLoader classLoader, RequestArgumentSerializers argumentSerializers) {
         SerializerRegistry registry = new DefaultSerializerRegistry(false);
         registry.register(Request.class, new RequestSerializer(argumentSerializers.getSerializer(classLoader), false));
+        // Results and other values of a registered type are written using the registered serializer rather than Java serialization
+        argumentSerializers.registerTo(registry);
         return registry;
     }
 
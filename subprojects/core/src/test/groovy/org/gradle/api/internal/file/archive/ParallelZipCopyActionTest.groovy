@@ -0,0 +1,183 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.archive.ZipTestFixture
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.zip.ZipFile
+
+import static org.hamcrest.CoreMatchers.equalTo
+
+class ParallelZipCopyActionTest extends Specification {
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def executorFactory = new DefaultExecutorFactory()
+    ParallelZipCopyAction visitor
+    TestFile zipFile
+
+    def setup() {
+        zipFile = tmpDir.getTestDirectory().file("test.zip")
+        visitor = new ParallelZipCopyAction(zipFile, false, executorFactory, new DocumentationRegistry(), 'UTF-8', false)
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    void createsZipFile() {
+        given:
+        zip(dir("dir"), file("dir/file1"), file("file2"))
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("file2").assertContents(equalTo("contents of file2"))
+    }
+
+    void keepsEntriesInSubmissionOrder() {
+        given:
+        def paths = (1..200).collect { "file${it}" }
+        zip(paths.collect { file(it, it.length() * 1000) } as FileCopyDetailsInternal[])
+
+        expect:
+        new ZipFile(zipFile).withCloseable { archive ->
+            archive.entries().collect { it.name } == paths
+        }
+    }
+
+    void writesEntriesLargerThanTheBufferLimitInOrder() {
+        given:
+        def largeSize = ParallelZipWriter.MAX_BUFFERED_ENTRY_SIZE + 1
+        zip(file("small1"), file("large", largeSize), file("small2"))
+
+        expect:
+        new ZipFile(zipFile).withCloseable { archive ->
+            assert archive.entries().collect { it.name } == ["small1", "large", "small2"]
+            archive.getEntry("large").size == largeSize
+        }
+    }
+
+    void zipFileContainsExpectedPermissions() {
+        given:
+        zip(dir("dir"), file("file"))
+
+        expect:
+        def zipFixture = new ZipTestFixture(zipFile)
+        zipFixture.assertFileMode("dir/", 2)
+        zipFixture.assertFileMode("file", 1)
+    }
+
+    void usesConstantTimestampsUnlessPreserved() {
+        given:
+        zip(file("file"))
+
+        expect:
+        new ZipFile(zipFile).withCloseable { archive ->
+            archive.getEntry("file").time == ZipCopyAction.CONSTANT_TIME_FOR_ZIP_ENTRIES
+        }
+    }
+
+    void wrapsFailureToAddElement() {
+        given:
+        Throwable failure = new RuntimeException("broken")
+        def brokenFile = brokenFile("dir/file1", failure)
+
+        when:
+        zip(brokenFile)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $brokenFile to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+    }
+
+    private void zip(final FileCopyDetailsInternal... files) {
+        visitor.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                for (FileCopyDetailsInternal f : files) {
+                    action.processFile(f)
+                }
+            }
+        })
+    }
+
+    private FileCopyDetailsInternal file(final String path) {
+        def contents = "contents of $path".bytes
+        file(path, contents.length) { OutputStream out -> out.write(contents) }
+    }
+
+    private FileCopyDetailsInternal file(final String path, long size) {
+        file(path, size) { OutputStream out ->
+            byte[] chunk = new byte[8192]
+            Arrays.fill(chunk, (byte) path.hashCode())
+            long remaining = size
+            while (remaining > 0) {
+                int count = (int) Math.min(remaining, chunk.length)
+                out.write(chunk, 0, count)
+                remaining -= count
+            }
+        }
+    }
+
+    private FileCopyDetailsInternal file(final String path, long size, Closure content) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.getSize() >> size
+        mock.copyTo(_ as OutputStream) >> { OutputStream out -> content(out) }
+        mock
+    }
+
+    private FileCopyDetailsInternal dir(final String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> true
+        mock.getMode() >> 2
+        mock
+    }
+
+    private FileCopyDetailsInternal brokenFile(final String path, final Throwable failure) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            failure.fillInStackTrace()
+            throw failure
+        }
+        mock
+    }
+}
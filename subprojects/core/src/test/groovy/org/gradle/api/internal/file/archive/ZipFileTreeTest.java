@@ -15,6 +15,9 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipFile;
+import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.test.fixtures.file.TestFile;
@@ -24,8 +27,11 @@
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.gradle.api.file.FileVisitorUtil.*;
@@ -33,6 +39,8 @@
 import static org.gradle.api.tasks.AntBuilderAwareUtil.assertSetContainsForAllTypes;
 import static org.gradle.util.internal.WrapUtil.toList;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -42,7 +50,8 @@ public class ZipFileTreeTest {
     private final TestFile zipFile = tmpDir.getTestDirectory().file("test.zip");
     private final TestFile rootDir = tmpDir.getTestDirectory().file("root");
     private final TestFile expandDir = tmpDir.getTestDirectory().file("tmp");
-    private final ZipFileTree tree = new ZipFileTree(TestUtil.providerFactory().provider(()->zipFile), expandDir, fileSystem(), directoryFileTreeFactory(), fileHasher());
+    private final ZipIndexCache zipIndexCache = zipIndexCache();
+    private final ZipFileTree tree = new ZipFileTree(TestUtil.providerFactory().provider(()->zipFile), expandDir, fileSystem(), directoryFileTreeFactory(), fileHasher(), zipIndexCache);
 
     @Test
     public void displayName() {
@@ -68,6 +77,56 @@ public void canStopVisitingFiles() {
         assertCanStopVisiting(tree);
     }
 
+    @Test
+    public void readsCentralDirectoryOnceForUnchangedArchive() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+
+        assertVisits(tree, toList("subdir/file1.txt"), toList("subdir"));
+        ZipIndex index = zipIndexCache.indexOf(zipFile, fileHasher().hash(zipFile));
+        assertVisits(tree, toList("subdir/file1.txt"), toList("subdir"));
+        assertThat(zipIndexCache.indexOf(zipFile, fileHasher().hash(zipFile)), sameInstance(index));
+
+        rootDir.file("subdir/file2.txt").write("content");
+        zipFile.delete();
+        rootDir.zipTo(zipFile);
+
+        assertVisits(tree, toList("subdir/file1.txt", "subdir/file2.txt"), toList("subdir"));
+        assertThat(zipIndexCache.indexOf(zipFile, fileHasher().hash(zipFile)), not(sameInstance(index)));
+    }
+
+    @Test
+    public void decodesEntryNamesWithoutUtf8FlagLikeAntZipFile() throws IOException {
+        String encoding = "ISO-8859-1";
+        ZipOutputStream outputStream = new ZipOutputStream(zipFile);
+        try {
+            outputStream.setEncoding(encoding);
+            outputStream.setUseLanguageEncodingFlag(false);
+            outputStream.setCreateUnicodeExtraFields(ZipOutputStream.UnicodeExtraFieldPolicy.NEVER);
+            outputStream.putNextEntry(new ZipEntry("caf\u00e9.txt"));
+            outputStream.write("content".getBytes(encoding));
+            outputStream.closeEntry();
+        } finally {
+            outputStream.close();
+        }
+
+        List<String> namesReadByAnt = new ArrayList<String>();
+        ZipFile antZipFile = new ZipFile(zipFile);
+        try {
+            for (Enumeration<ZipEntry> entries = antZipFile.getEntries(); entries.hasMoreElements(); ) {
+                namesReadByAnt.add(entries.nextElement().getName());
+            }
+        } finally {
+            antZipFile.close();
+        }
+
+        List<String> names = new ArrayList<String>();
+        for (ZipIndex.Entry entry : ZipIndex.read(zipFile).getEntries()) {
+            names.add(entry.getName());
+        }
+        assertThat(names, equalTo(namesReadByAnt));
+    }
+
     @Test
     public void failsWhenZipFileDoesNotExist() {
         try {
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.internal.hash.ClassLoaderHierarchyHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.instantiation.generator.DelegatingGeneratedClassBytecodeCache
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.TestInMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultGeneratedClassBytecodeCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def cacheRepository = new DefaultCacheRepository(new DefaultCacheScopeMapping(tmpDir.file("user-home"), tmpDir.file("build-dir"), GradleVersion.current()), new TestInMemoryCacheFactory())
+    def classLoaderHierarchyHasher = Mock(ClassLoaderHierarchyHasher)
+    def delegatingCache = new DelegatingGeneratedClassBytecodeCache()
+    def otherClassLoader = new GroovyClassLoader(getClass().classLoader)
+    def otherType = otherClassLoader.parseClass("class Thing {}")
+    def cache = new DefaultGeneratedClassBytecodeCache(cacheRepository, classLoaderHierarchyHasher, delegatingCache)
+
+    def cleanup() {
+        cache.close()
+    }
+
+    def "returns bytecode for a class generated before"() {
+        given:
+        classLoaderHierarchyHasher.getClassLoaderHash(getClass().classLoader) >> HashCode.fromInt(1)
+        cache.put(getClass(), "Thing_Decorated", [1, 2, 3] as byte[])
+
+        expect:
+        cache.get(getClass(), "Thing_Decorated") == [1, 2, 3] as byte[]
+    }
+
+    def "returns null for a class not generated before"() {
+        given:
+        classLoaderHierarchyHasher.getClassLoaderHash(getClass().classLoader) >> HashCode.fromInt(1)
+        cache.put(getClass(), "Thing_Decorated", [1, 2, 3] as byte[])
+
+        expect:
+        cache.get(getClass(), "Thing_Inject") == null
+    }
+
+    def "keeps the bytecode for types from different class loader hierarchies apart"() {
+        given:
+        classLoaderHierarchyHasher.getClassLoaderHash(getClass().classLoader) >> HashCode.fromInt(1)
+        classLoaderHierarchyHasher.getClassLoaderHash(otherClassLoader) >> HashCode.fromInt(2)
+        cache.put(getClass(), "Thing_Decorated", [1, 2, 3] as byte[])
+
+        expect:
+        cache.get(otherType, "Thing_Decorated") == null
+
+        when:
+        cache.put(otherType, "Thing_Decorated", [4, 5] as byte[])
+
+        then:
+        cache.get(getClass(), "Thing_Decorated") == [1, 2, 3] as byte[]
+        cache.get(otherType, "Thing_Decorated") == [4, 5] as byte[]
+    }
+
+    def "does not keep the bytecode for types from class loaders unknown to Gradle"() {
+        given:
+        classLoaderHierarchyHasher.getClassLoaderHash(otherClassLoader) >> null
+
+        when:
+        cache.put(otherType, "Thing_Decorated", [1, 2, 3] as byte[])
+
+        then:
+        cache.get(otherType, "Thing_Decorated") == null
+    }
+
+    def "does not keep the bytecode for types from the bootstrap class loader"() {
+        when:
+        cache.put(String, "String_Decorated", [1, 2, 3] as byte[])
+
+        then:
+        cache.get(String, "String_Decorated") == null
+        0 * classLoaderHierarchyHasher._
+    }
+
+    def "class generation stops using the cache when it is closed"() {
+        given:
+        classLoaderHierarchyHasher.getClassLoaderHash(getClass().classLoader) >> HashCode.fromInt(1)
+        delegatingCache.use(cache)
+
+        when:
+        delegatingCache.put(getClass(), "Thing_Decorated", [1, 2, 3] as byte[])
+
+        then:
+        delegatingCache.get(getClass(), "Thing_Decorated") == [1, 2, 3] as byte[]
+
+        when:
+        cache.close()
+
+        then:
+        delegatingCache.get(getClass(), "Thing_Decorated") == null
+    }
+}
@@ -35,7 +35,8 @@ class BuildScriptProcessorTest extends Specification {
     def targetScope = Mock(ClassLoaderScope)
     def baseScope = Mock(ClassLoaderScope)
     def projectState = Mock(ProjectState)
-    def buildScriptProcessor = new BuildScriptProcessor(configurerFactory)
+    def precompiler = Mock(BuildScriptPrecompiler)
+    def buildScriptProcessor = new BuildScriptProcessor(configurerFactory, precompiler)
     def scriptHandler = Mock(ScriptHandlerInternal)
 
     def "setup"() {
@@ -55,4 +56,31 @@ class BuildScriptProcessorTest extends Specification {
         1 * configurerFactory.create(scriptSource, scriptHandler, targetScope, baseScope, true) >> scriptPlugin
         1 * scriptPlugin.apply(project)
     }
+
+    def "precompiles build scripts of other projects after configuring root project"() {
+        when:
+        buildScriptProcessor.execute(project)
+
+        then:
+        1 * configurerFactory.create(scriptSource, scriptHandler, targetScope, baseScope, true) >> scriptPlugin
+
+        then:
+        1 * scriptPlugin.apply(project)
+
+        then:
+        1 * precompiler.precompileBuildScripts(project)
+    }
+
+    def "does not precompile build scripts after configuring child project"() {
+        given:
+        project.getParent() >> Mock(ProjectInternal)
+
+        when:
+        buildScriptProcessor.execute(project)
+
+        then:
+        1 * configurerFactory.create(scriptSource, scriptHandler, targetScope, baseScope, true) >> scriptPlugin
+        1 * scriptPlugin.apply(project)
+        0 * precompiler._
+    }
 }
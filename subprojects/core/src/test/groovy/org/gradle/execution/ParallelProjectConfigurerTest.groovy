@@ -0,0 +1,155 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.api.internal.StartParameterInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import spock.lang.Specification
+
+import java.util.function.Consumer
+
+class ParallelProjectConfigurerTest extends Specification {
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def startParameter = new StartParameterInternal()
+
+    def "is enabled by system property with parallel execution unless configure on demand is used"() {
+        expect:
+        !configurer().enabled
+
+        when:
+        startParameter.systemPropertiesArgs = [(ParallelProjectConfigurer.PARALLEL_CONFIGURATION_PROPERTY): "true"]
+
+        then:
+        !configurer().enabled
+
+        when:
+        startParameter.parallelProjectExecutionEnabled = true
+
+        then:
+        configurer().enabled
+
+        when:
+        startParameter.configureOnDemand = true
+
+        then:
+        !configurer().enabled
+    }
+
+    def "configures projects depth by depth"() {
+        def a = project(":a", 1)
+        def b = project(":a:b", 2)
+        def c = project(":c", 1)
+        def configured = []
+
+        when:
+        configurer().configure([a, b, c], { configured << it } as Consumer)
+
+        then:
+        configured == [a, c, b]
+        buildOperationExecutor.log.records*.descriptor*.displayName == ["Configure project ':a' in parallel", "Configure project ':c' in parallel", "Configure project ':a:b' in parallel"]
+    }
+
+    def "rethrows failure of the first project that fails and does not configure deeper projects"() {
+        def a = project(":a", 1)
+        def b = project(":a:b", 2)
+        def c = project(":c", 1)
+        def failureA = new RuntimeException("a")
+        def failureC = new RuntimeException("c")
+        def configured = []
+
+        when:
+        configurer().configure([a, b, c], { project ->
+            configured << project
+            if (project == a) {
+                throw failureA
+            }
+            if (project == c) {
+                throw failureC
+            }
+        } as Consumer)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failureA)
+        configured == [a, c]
+    }
+
+    def "configuration of a project that accesses another project continues on its own"() {
+        def a = project(":a", 1)
+        def b = project(":b", 1)
+        def c = project(":c", 1)
+        def configurer = configurer()
+        def configured = []
+
+        when:
+        configurer.configure([a, b, c], { project ->
+            if (project == b) {
+                configurer.beforeAccessingProject(a)
+                configurer.beforeAccessingProject(c)
+                configurer.beforeResolvingProjectDependency(c)
+            }
+            configured << project
+        } as Consumer)
+
+        then:
+        configured == [a, b, c]
+    }
+
+    def "ignores access to other projects outside of parallel configuration"() {
+        when:
+        configurer().beforeAccessingProject(project(":a", 1))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "does not track projects that are already configured"() {
+        def a = project(":a", 1)
+        def b = project(":b", 1)
+        def configurer = configurer()
+        a.state.toBeforeEvaluate()
+        def configured = []
+
+        when:
+        configurer.configure([a, b], { project ->
+            if (project == a) {
+                // Not configured in parallel, so is not considered to access other projects
+                configurer.beforeAccessingProject(b)
+            }
+            configured << project
+        } as Consumer)
+
+        then:
+        configured == [a, b]
+    }
+
+    private ParallelProjectConfigurer configurer() {
+        return new ParallelProjectConfigurer(buildOperationExecutor, startParameter)
+    }
+
+    private ProjectInternal project(String path, int depth) {
+        def state = new ProjectStateInternal()
+        def project = Stub(ProjectInternal)
+        project.path >> path
+        project.depth >> depth
+        project.state >> state
+        project.displayName >> "project '$path'"
+        return project
+    }
+}
@@ -25,7 +25,8 @@ import spock.lang.Specification
 class TaskPathProjectEvaluatorTest extends Specification {
     private cancellationToken = Mock(BuildCancellationToken)
     private project = Mock(ProjectInternal)
-    private evaluator = new TaskPathProjectEvaluator(cancellationToken)
+    private parallelProjectConfigurer = Mock(ParallelProjectConfigurer)
+    private evaluator = new TaskPathProjectEvaluator(cancellationToken, parallelProjectConfigurer)
 
     def "project configuration fails when cancelled"() {
         given:
@@ -65,4 +66,23 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1State.ensureConfigured()
         0 * child2._
     }
+
+    def "configures subprojects in parallel when enabled"() {
+        def projectState = Mock(ProjectState)
+        def subprojects = [Mock(ProjectInternal), Mock(ProjectInternal)]
+
+        given:
+        project.subprojects >> subprojects
+        parallelProjectConfigurer.enabled >> true
+
+        when:
+        evaluator.configureHierarchy(project)
+
+        then:
+        1 * project.owner >> projectState
+        1 * projectState.ensureConfigured()
+        1 * parallelProjectConfigurer.configure(subprojects, _)
+        0 * subprojects[0]._
+        0 * subprojects[1]._
+    }
 }
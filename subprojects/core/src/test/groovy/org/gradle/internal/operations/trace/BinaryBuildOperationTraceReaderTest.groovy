@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import groovy.json.JsonSlurper
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationDescriptor
+import org.gradle.internal.operations.OperationFinishEvent
+import org.gradle.internal.operations.OperationIdentifier
+import org.gradle.internal.operations.OperationProgressEvent
+import org.gradle.internal.operations.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BinaryBuildOperationTraceReaderTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def "converts binary trace to chrome trace"() {
+        def binaryTrace = tmpDir.file("trace.bin")
+        def chromeTrace = tmpDir.file("trace.json")
+        def root = BuildOperationDescriptor.displayName("root").details("details").build(new OperationIdentifier(1), null)
+
+        when:
+        binaryTrace.withOutputStream { outputStream ->
+            def writer = new BinaryBuildOperationTraceWriter(outputStream, new DefaultExecutorFactory())
+            writer.started(root, new OperationStartEvent(100))
+            def threads = (1..4).collect { thread ->
+                Thread.start("worker $thread") {
+                    (1..100).each {
+                        def child = BuildOperationDescriptor.displayName("child $thread:$it").build(new OperationIdentifier(thread * 1000 + it), root.id)
+                        writer.started(child, new OperationStartEvent(200))
+                        writer.progress(child.id, new OperationProgressEvent(250, "progress"))
+                        writer.finished(child, new OperationFinishEvent(200, 300, it == 1 ? new RuntimeException("broken") : null, 12))
+                    }
+                }
+            }
+            threads*.join()
+            // Finish on a different thread to the one that started the operation
+            Thread.start { writer.finished(root, new OperationFinishEvent(100, 500, null, null)) }.join()
+            writer.stop()
+        }
+        BinaryBuildOperationTraceReader.toChromeTrace(binaryTrace, chromeTrace)
+
+        then:
+        def events = new JsonSlurper().parse(chromeTrace).traceEvents
+        def operations = events.findAll { it.ph == "X" }
+        operations.size() == 401
+        events.findAll { it.ph == "M" }*.args.name.containsAll((1..4).collect { "worker $it" })
+
+        def rootEvent = operations.find { it.name == "root" }
+        rootEvent.ts == 100000
+        rootEvent.dur == 400000
+        rootEvent.cat == "String"
+        rootEvent.args == [id: 1, details: "java.lang.String"]
+
+        def failedEvent = operations.find { it.name == "child 2:1" }
+        failedEvent.dur == 100000
+        failedEvent.args == [id: 2001, parentId: 1, result: "java.lang.Integer", failure: "java.lang.RuntimeException: broken"]
+    }
+}
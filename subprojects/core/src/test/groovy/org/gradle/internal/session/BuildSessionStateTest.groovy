@@ -23,6 +23,7 @@ import org.gradle.initialization.BuildEventConsumer
 import org.gradle.initialization.BuildRequestMetaData
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.instantiation.generator.DelegatingGeneratedClassBytecodeCache
 import org.gradle.internal.invocation.BuildAction
 import org.gradle.internal.service.DefaultServiceRegistry
 import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry
@@ -45,7 +46,9 @@ class BuildSessionStateTest extends Specification {
     BuildSessionState state
 
     def setup() {
-        _ * userHomeServiceRegistry.getServicesFor(_) >> new DefaultServiceRegistry()
+        def userHomeServices = new DefaultServiceRegistry()
+        userHomeServices.add(DelegatingGeneratedClassBytecodeCache, new DelegatingGeneratedClassBytecodeCache())
+        _ * userHomeServiceRegistry.getServicesFor(_) >> userHomeServices
         def services = new DefaultServiceRegistry()
         services.add(BuildSessionActionExecutor, actionExecutor)
         services.add(listenerManager)
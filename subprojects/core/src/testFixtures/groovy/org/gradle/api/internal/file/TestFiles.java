@@ -17,6 +17,7 @@
 
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.archive.ZipIndexCache;
 import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.file.temp.DefaultTemporaryFileProvider;
@@ -28,6 +29,7 @@
 import org.gradle.api.internal.tasks.TaskDependencyFactory;
 import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.api.tasks.util.internal.PatternSets;
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.file.Deleter;
@@ -171,7 +173,8 @@ public static FileOperations fileOperations(File basedDir, @Nullable TemporaryFi
             getPatternSetFactory(),
             deleter(),
             documentationRegistry(),
-            providerFactory());
+            providerFactory(),
+            zipIndexCache());
     }
 
     public static ApiTextResourceAdapter.Factory textResourceAdapterFactory(@Nullable TemporaryFileProvider temporaryFileProvider) {
@@ -187,6 +190,10 @@ public static DefaultStreamHasher streamHasher() {
         return new DefaultStreamHasher();
     }
 
+    public static ZipIndexCache zipIndexCache() {
+        return new ZipIndexCache(new TestCrossBuildInMemoryCacheFactory());
+    }
+
     public static DefaultFileHasher fileHasher() {
         return new DefaultFileHasher(streamHasher());
     }
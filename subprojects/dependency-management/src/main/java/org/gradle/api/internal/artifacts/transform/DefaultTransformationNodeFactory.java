@@ -22,11 +22,24 @@
 import org.gradle.internal.model.CalculatedValueContainerFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 
+import javax.annotation.concurrent.ThreadSafe;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
+/**
+ * Creates the transformation nodes for the artifacts of a project, and reuses a node for the same transformation step applied to the same artifact.
+ *
+ * <p>The same artifact is often part of several variants of its project, such as the API and runtime elements, so each consuming configuration would
+ * otherwise schedule its own node for it. Nodes for steps that require the dependencies of the artifact are not reused, as the dependencies are
+ * specific to the consuming configuration.</p>
+ */
+@ThreadSafe
 public class DefaultTransformationNodeFactory implements TransformationNodeFactory {
     private final BuildOperationExecutor buildOperationExecutor;
     private final CalculatedValueContainerFactory calculatedValueContainerFactory;
+    private final ConcurrentMap<NodeKey, TransformationNode> nodes = new ConcurrentHashMap<>();
 
     public DefaultTransformationNodeFactory(BuildOperationExecutor buildOperationExecutor, CalculatedValueContainerFactory calculatedValueContainerFactory) {
         this.buildOperationExecutor = buildOperationExecutor;
@@ -39,18 +52,65 @@ public Collection<TransformationNode> create(ResolvedArtifactSet artifactSet, Tr
         artifactSet.visitTransformSources(new ResolvedArtifactSet.TransformSourceVisitor() {
             @Override
             public void visitArtifact(ResolvableArtifact artifact) {
-                TransformUpstreamDependencies upstreamDependencies = dependenciesResolver.dependenciesFor(transformationStep);
-                TransformationNode transformationNode = TransformationNode.initial(transformationStep, artifact, upstreamDependencies, buildOperationExecutor, calculatedValueContainerFactory);
+                TransformationNode transformationNode = locateOrCreate(transformationStep, artifact.getId(), () -> {
+                    TransformUpstreamDependencies upstreamDependencies = dependenciesResolver.dependenciesFor(transformationStep);
+                    return TransformationNode.initial(transformationStep, artifact, upstreamDependencies, buildOperationExecutor, calculatedValueContainerFactory);
+                });
                 builder.add(transformationNode);
             }
 
             @Override
             public void visitTransform(TransformationNode source) {
-                TransformUpstreamDependencies upstreamDependencies = dependenciesResolver.dependenciesFor(transformationStep);
-                TransformationNode transformationNode = TransformationNode.chained(transformationStep, source, upstreamDependencies, buildOperationExecutor, calculatedValueContainerFactory);
+                TransformationNode transformationNode = locateOrCreate(transformationStep, source, () -> {
+                    TransformUpstreamDependencies upstreamDependencies = dependenciesResolver.dependenciesFor(transformationStep);
+                    return TransformationNode.chained(transformationStep, source, upstreamDependencies, buildOperationExecutor, calculatedValueContainerFactory);
+                });
                 builder.add(transformationNode);
             }
         });
         return builder.build();
     }
+
+    private TransformationNode locateOrCreate(TransformationStep transformationStep, Object source, Supplier<TransformationNode> factory) {
+        if (transformationStep.requiresDependencies()) {
+            return factory.get();
+        }
+        NodeKey key = new NodeKey(transformationStep, source);
+        TransformationNode node = nodes.get(key);
+        if (node == null) {
+            TransformationNode newNode = factory.get();
+            node = nodes.putIfAbsent(key, newNode);
+            if (node == null) {
+                node = newNode;
+            }
+        }
+        return node;
+    }
+
+    private static class NodeKey {
+        private final TransformationStep transformationStep;
+        private final Object source;
+
+        NodeKey(TransformationStep transformationStep, Object source) {
+            this.transformationStep = transformationStep;
+            this.source = source;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(transformationStep) ^ source.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            NodeKey other = (NodeKey) obj;
+            return transformationStep == other.transformationStep && source.equals(other.source);
+        }
+    }
 }
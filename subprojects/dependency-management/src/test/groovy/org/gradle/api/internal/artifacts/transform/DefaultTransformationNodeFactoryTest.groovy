@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.transform
+
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactSet
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+class DefaultTransformationNodeFactoryTest extends Specification {
+    def factory = new DefaultTransformationNodeFactory(Stub(BuildOperationExecutor), TestUtil.calculatedValueContainerFactory())
+    def step = Stub(TransformationStep)
+    def dependenciesResolver = Stub(TransformUpstreamDependenciesResolver) {
+        dependenciesFor(_) >> { Stub(TransformUpstreamDependencies) }
+    }
+
+    def "reuses the node for the same step and artifact"() {
+        def id = Stub(ComponentArtifactIdentifier)
+        def artifact1 = artifact(id)
+        def artifact2 = artifact(id)
+        def other = artifact(Stub(ComponentArtifactIdentifier))
+
+        when:
+        def nodes1 = factory.create(artifacts(artifact1, other), step, dependenciesResolver)
+        def nodes2 = factory.create(artifacts(artifact2), step, dependenciesResolver)
+        def nodes3 = factory.create(artifacts(artifact2), Stub(TransformationStep), dependenciesResolver)
+
+        then:
+        nodes1.size() == 2
+        nodes2[0].is(nodes1[0])
+        !nodes3[0].is(nodes1[0])
+        !nodes1[1].is(nodes1[0])
+    }
+
+    def "reuses the node for the same step and previous node"() {
+        def previous = factory.create(artifacts(artifact(Stub(ComponentArtifactIdentifier))), step, dependenciesResolver)[0]
+        def nextStep = Stub(TransformationStep)
+
+        when:
+        def nodes1 = factory.create(transforms(previous), nextStep, dependenciesResolver)
+        def nodes2 = factory.create(transforms(previous), nextStep, dependenciesResolver)
+
+        then:
+        nodes2[0].is(nodes1[0])
+        nodes1[0] instanceof TransformationNode.ChainedTransformationNode
+    }
+
+    def "does not reuse nodes for steps that require dependencies"() {
+        def id = Stub(ComponentArtifactIdentifier)
+        def step = Stub(TransformationStep) {
+            requiresDependencies() >> true
+        }
+
+        when:
+        def nodes1 = factory.create(artifacts(artifact(id)), step, dependenciesResolver)
+        def nodes2 = factory.create(artifacts(artifact(id)), step, dependenciesResolver)
+
+        then:
+        !nodes2[0].is(nodes1[0])
+    }
+
+    private ResolvableArtifact artifact(ComponentArtifactIdentifier id) {
+        return Stub(ResolvableArtifact) {
+            getId() >> id
+        }
+    }
+
+    private ResolvedArtifactSet artifacts(ResolvableArtifact... artifacts) {
+        return Stub(ResolvedArtifactSet) {
+            visitTransformSources(_) >> { ResolvedArtifactSet.TransformSourceVisitor visitor -> artifacts.each { visitor.visitArtifact(it) } }
+        }
+    }
+
+    private ResolvedArtifactSet transforms(TransformationNode... nodes) {
+        return Stub(ResolvedArtifactSet) {
+            visitTransformSources(_) >> { ResolvedArtifactSet.TransformSourceVisitor visitor -> nodes.each { visitor.visitTransform(it) } }
+        }
+    }
+}
@@ -10,6 +10,7 @@ dependencies {
     implementation(project(":model-core"))
     implementation(project(":logging"))
     implementation(project(":native"))
+    implementation(project(":snapshots"))
 
     implementation(libs.slf4jApi)
     implementation(libs.groovy)
@@ -18,7 +19,6 @@ dependencies {
 
     testImplementation(project(":process-services"))
     testImplementation(project(":resources"))
-    testImplementation(project(":snapshots"))
     testImplementation(testFixtures(project(":core")))
     testImplementation(testFixtures(project(":core-api")))
     testImplementation(testFixtures(project(":model-core")))
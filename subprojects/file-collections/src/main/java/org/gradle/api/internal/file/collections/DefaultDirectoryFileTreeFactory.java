@@ -21,11 +21,13 @@
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.nativeintegration.services.FileSystems;
 
+import javax.annotation.Nullable;
 import java.io.File;
 
 public class DefaultDirectoryFileTreeFactory implements DirectoryFileTreeFactory {
     private final Factory<PatternSet> patternSetFactory;
     private final FileSystem fileSystem;
+    private final SnapshotBackedDirectoryWalker snapshotBackedDirectoryWalker;
 
     public DefaultDirectoryFileTreeFactory() {
         this.patternSetFactory = new Factory<PatternSet>() {
@@ -35,20 +37,26 @@ public PatternSet create() {
             }
         };
         this.fileSystem = FileSystems.getDefault();
+        this.snapshotBackedDirectoryWalker = null;
     }
 
     public DefaultDirectoryFileTreeFactory(Factory<PatternSet> patternSetFactory, FileSystem fileSystem) {
+        this(patternSetFactory, fileSystem, null);
+    }
+
+    public DefaultDirectoryFileTreeFactory(Factory<PatternSet> patternSetFactory, FileSystem fileSystem, @Nullable SnapshotBackedDirectoryWalker snapshotBackedDirectoryWalker) {
         this.patternSetFactory = patternSetFactory;
         this.fileSystem = fileSystem;
+        this.snapshotBackedDirectoryWalker = snapshotBackedDirectoryWalker;
     }
 
     @Override
     public DirectoryFileTree create(File directory) {
-        return new DirectoryFileTree(directory, patternSetFactory.create(), fileSystem);
+        return new DirectoryFileTree(directory, patternSetFactory.create(), fileSystem, false, snapshotBackedDirectoryWalker);
     }
 
     @Override
     public DirectoryFileTree create(File directory, PatternSet patternSet) {
-        return new DirectoryFileTree(directory, patternSet, fileSystem);
+        return new DirectoryFileTree(directory, patternSet, fileSystem, false, snapshotBackedDirectoryWalker);
     }
 }
@@ -35,6 +35,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -55,6 +56,7 @@ public class DirectoryFileTree implements MinimalFileTree, PatternFilterableFile
     private final PatternSet patternSet;
     private final boolean postfix;
     private final FileSystem fileSystem;
+    private final SnapshotBackedDirectoryWalker snapshotBackedDirectoryWalker;
 
     public DirectoryFileTree(File dir, PatternSet patternSet, FileSystem fileSystem) {
         this(dir, patternSet, fileSystem, false);
@@ -62,10 +64,18 @@ public DirectoryFileTree(File dir, PatternSet patternSet, FileSystem fileSystem)
 
     @VisibleForTesting
     public DirectoryFileTree(File dir, PatternSet patternSet, FileSystem fileSystem, boolean postfix) {
+        this(dir, patternSet, fileSystem, postfix, null);
+    }
+
+    /**
+     * Creates a tree that is visited using the given walker while it is enabled.
+     */
+    public DirectoryFileTree(File dir, PatternSet patternSet, FileSystem fileSystem, boolean postfix, @Nullable SnapshotBackedDirectoryWalker snapshotBackedDirectoryWalker) {
         this.patternSet = patternSet;
         this.dir = dir;
         this.fileSystem = fileSystem;
         this.postfix = postfix;
+        this.snapshotBackedDirectoryWalker = snapshotBackedDirectoryWalker;
     }
 
     @Override
@@ -94,7 +104,7 @@ public File getDir() {
     public DirectoryFileTree filter(PatternFilterable patterns) {
         PatternSet patternSet = this.patternSet.intersect();
         patternSet.copyFrom(patterns);
-        return new DirectoryFileTree(dir, patternSet, fileSystem, postfix);
+        return new DirectoryFileTree(dir, patternSet, fileSystem, postfix, snapshotBackedDirectoryWalker);
     }
 
     @Override
@@ -140,8 +150,11 @@ private void processSingleFile(File file, FileVisitor visitor, Spec<FileTreeElem
     }
 
     private void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag) {
+        boolean reproducibleOrder = visitor instanceof ReproducibleFileVisitor && ((ReproducibleFileVisitor) visitor).isReproducibleFileOrder();
         DirectoryWalker directoryWalker;
-        if (visitor instanceof ReproducibleFileVisitor && ((ReproducibleFileVisitor) visitor).isReproducibleFileOrder()) {
+        if (snapshotBackedDirectoryWalker != null && snapshotBackedDirectoryWalker.isEnabled()) {
+            directoryWalker = reproducibleOrder ? snapshotBackedDirectoryWalker.withReproducibleOrder() : snapshotBackedDirectoryWalker;
+        } else if (reproducibleOrder) {
             directoryWalker = REPRODUCIBLE_DIRECTORY_WALKER;
         } else {
             directoryWalker = DEFAULT_DIRECTORY_WALKER;
@@ -162,7 +175,7 @@ public DirectoryFileTree postfix() {
         if (postfix) {
             return this;
         }
-        return new DirectoryFileTree(dir, patternSet, fileSystem, true);
+        return new DirectoryFileTree(dir, patternSet, fileSystem, true, snapshotBackedDirectoryWalker);
     }
 
     public PatternSet getPatternSet() {
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+public interface DirectoryWalkerStatistics {
+    /**
+     * The number of directories listed from snapshots held by the virtual file system.
+     */
+    long getDirectoriesFromSnapshots();
+
+    /**
+     * The number of directories listed from the file system, because no snapshot was available.
+     */
+    long getDirectoriesFromFileSystem();
+
+    class Collector {
+        private final AtomicLong snapshotCount = new AtomicLong();
+        private final AtomicLong fileSystemCount = new AtomicLong();
+
+        public void recordDirectoryFromSnapshot() {
+            snapshotCount.incrementAndGet();
+        }
+
+        public void recordDirectoryFromFileSystem() {
+            fileSystemCount.incrementAndGet();
+        }
+
+        public DirectoryWalkerStatistics collect() {
+            long snapshotCount = this.snapshotCount.getAndSet(0);
+            long fileSystemCount = this.fileSystemCount.getAndSet(0);
+
+            return new DirectoryWalkerStatistics() {
+                @Override
+                public long getDirectoriesFromSnapshots() {
+                    return snapshotCount;
+                }
+
+                @Override
+                public long getDirectoriesFromFileSystem() {
+                    return fileSystemCount;
+                }
+
+                @Override
+                public String toString() {
+                    return MessageFormat.format("Listed {0,number,integer} directories from snapshots (hits) and {1,number,integer} directories from the file system (misses)",
+                        snapshotCount, fileSystemCount);
+                }
+            };
+        }
+    }
+}
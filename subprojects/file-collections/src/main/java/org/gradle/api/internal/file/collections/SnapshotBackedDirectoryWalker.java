@@ -0,0 +1,203 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections;
+
+import org.apache.commons.io.comparator.PathFileComparator;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.snapshot.DirectorySnapshot;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.vfs.VirtualFileSystem;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Visits the snapshots held by the virtual file system instead of the file system, for the directories the virtual file system has a complete snapshot of.
+ * Directories without a snapshot are listed from the file system one at a time, so that the snapshots of their subdirectories can still be used.
+ *
+ * A snapshot is only used for a directory when the names in it match the names on disk. Build logic can write files the virtual file system has not
+ * been told about, for example from configuration code, {@code project.copy()} or a task action writing outside of the task's outputs, and the file
+ * system watcher only reports these changes after a delay. Such directories are listed from the file system instead. The size and last modified time of
+ * files are always read from the file system, as the contents of a file can change without changing the names in its directory.
+ *
+ * Like {@link ReproducibleDirectoryWalker}, all files in a directory are visited before its subdirectories. The entries of a directory are only sorted
+ * when a reproducible order is requested.
+ */
+public class SnapshotBackedDirectoryWalker implements DirectoryWalker {
+    private final VirtualFileSystem virtualFileSystem;
+    private final FileSystem fileSystem;
+    private final DirectoryWalkerStatistics.Collector statisticsCollector;
+    private final boolean reproducibleOrder;
+    private final AtomicBoolean enabled;
+    private final SnapshotBackedDirectoryWalker reproducibleWalker;
+
+    public SnapshotBackedDirectoryWalker(VirtualFileSystem virtualFileSystem, FileSystem fileSystem, DirectoryWalkerStatistics.Collector statisticsCollector) {
+        this(virtualFileSystem, fileSystem, statisticsCollector, false, new AtomicBoolean());
+    }
+
+    private SnapshotBackedDirectoryWalker(VirtualFileSystem virtualFileSystem, FileSystem fileSystem, DirectoryWalkerStatistics.Collector statisticsCollector, boolean reproducibleOrder, AtomicBoolean enabled) {
+        this.virtualFileSystem = virtualFileSystem;
+        this.fileSystem = fileSystem;
+        this.statisticsCollector = statisticsCollector;
+        this.reproducibleOrder = reproducibleOrder;
+        this.enabled = enabled;
+        this.reproducibleWalker = reproducibleOrder ? this : new SnapshotBackedDirectoryWalker(virtualFileSystem, fileSystem, statisticsCollector, true, enabled);
+    }
+
+    /**
+     * Should directory trees be visited using this walker? Only the case while the virtual file system is kept up to date by watching the file system.
+     */
+    public boolean isEnabled() {
+        return enabled.get();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled.set(enabled);
+    }
+
+    /**
+     * Returns a walker that visits the entries of each directory sorted by path.
+     */
+    public SnapshotBackedDirectoryWalker withReproducibleOrder() {
+        return reproducibleWalker;
+    }
+
+    @Override
+    public void walkDir(File file, RelativePath path, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        FileSystemLocationSnapshot snapshot = virtualFileSystem.getSnapshot(file.getAbsolutePath()).orElse(null);
+        walkDir(file, snapshot instanceof DirectorySnapshot ? (DirectorySnapshot) snapshot : null, path, visitor, spec, stopFlag, postfix);
+    }
+
+    private void walkDir(File file, @Nullable DirectorySnapshot snapshot, RelativePath path, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        List<Entry> entries = snapshot == null ? null : getChildren(file, snapshot);
+        if (entries == null) {
+            statisticsCollector.recordDirectoryFromFileSystem();
+            entries = getChildren(file);
+        } else {
+            statisticsCollector.recordDirectoryFromSnapshot();
+        }
+
+        List<Entry> dirs = new ArrayList<>();
+        for (int i = 0; !stopFlag.get() && i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            entry.details = entry.createDetails(path, stopFlag, fileSystem);
+            if (DirectoryFileTree.isAllowed(entry.details, spec)) {
+                if (entry.isFile) {
+                    visitor.visitFile(entry.details);
+                } else {
+                    dirs.add(entry);
+                }
+            }
+        }
+
+        // now handle dirs
+        for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
+            Entry dir = dirs.get(i);
+            if (postfix) {
+                walkSubDir(dir, visitor, spec, stopFlag, postfix);
+                visitor.visitDir(dir.details);
+            } else {
+                visitor.visitDir(dir.details);
+                walkSubDir(dir, visitor, spec, stopFlag, postfix);
+            }
+        }
+    }
+
+    private void walkSubDir(Entry dir, FileVisitor visitor, Spec<? super FileTreeElement> spec, AtomicBoolean stopFlag, boolean postfix) {
+        if (dir.snapshot != null) {
+            walkDir(dir.file, (DirectorySnapshot) dir.snapshot, dir.details.getRelativePath(), visitor, spec, stopFlag, postfix);
+        } else {
+            // Check whether a snapshot of the subdirectory has been captured on its own
+            walkDir(dir.file, dir.details.getRelativePath(), visitor, spec, stopFlag, postfix);
+        }
+    }
+
+    /**
+     * Returns the entries of the given directory snapshot, or {@code null} when the snapshot contains missing files, such as broken symbolic links,
+     * which are reported the same way as when walking the file system, or when the snapshot does not match the names in the directory on disk.
+     */
+    @Nullable
+    private List<Entry> getChildren(File dir, DirectorySnapshot snapshot) {
+        List<FileSystemLocationSnapshot> children = snapshot.getChildren();
+        String[] names = dir.list();
+        if (names == null || names.length != children.size()) {
+            return null;
+        }
+        Set<String> namesOnDisk = new HashSet<>(Arrays.asList(names));
+        List<Entry> entries = new ArrayList<>(children.size());
+        for (FileSystemLocationSnapshot child : children) {
+            if (child.getType() == FileType.Missing || !namesOnDisk.contains(child.getName())) {
+                return null;
+            }
+            entries.add(new Entry(new File(dir, child.getName()), child.getType() == FileType.RegularFile, child));
+        }
+        if (reproducibleOrder) {
+            entries.sort((left, right) -> PathFileComparator.PATH_COMPARATOR.compare(left.file, right.file));
+        }
+        return entries;
+    }
+
+    private List<Entry> getChildren(File dir) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            if (dir.isDirectory() && !dir.canRead()) {
+                throw new GradleException(String.format("Could not list contents of directory '%s' as it is not readable.", dir));
+            }
+            // else, might be a link which points to nothing, or has been removed while we're visiting, or ...
+            throw new GradleException(String.format("Could not list contents of '%s'.", dir));
+        }
+        if (reproducibleOrder) {
+            Arrays.sort(children, PathFileComparator.PATH_COMPARATOR);
+        }
+        List<Entry> entries = new ArrayList<>(children.length);
+        for (File child : children) {
+            entries.add(new Entry(child, child.isFile(), null));
+        }
+        return entries;
+    }
+
+    private static class Entry {
+        final File file;
+        final boolean isFile;
+        final FileSystemLocationSnapshot snapshot;
+        FileVisitDetails details;
+
+        Entry(File file, boolean isFile, @Nullable FileSystemLocationSnapshot snapshot) {
+            this.file = file;
+            this.isFile = isFile;
+            this.snapshot = snapshot;
+        }
+
+        FileVisitDetails createDetails(RelativePath parentPath, AtomicBoolean stopFlag, FileSystem fileSystem) {
+            return new DefaultFileVisitDetails(file, parentPath.append(isFile, file.getName()), stopFlag, fileSystem, fileSystem);
+        }
+    }
+}
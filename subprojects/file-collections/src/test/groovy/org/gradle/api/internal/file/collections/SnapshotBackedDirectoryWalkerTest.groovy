@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections
+
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.specs.Specs
+import org.gradle.api.tasks.util.PatternSet
+import org.gradle.internal.snapshot.impl.DirectorySnapshotter
+import org.gradle.internal.snapshot.impl.DirectorySnapshotterStatistics
+import org.gradle.internal.vfs.VirtualFileSystem
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.UsesNativeServices
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+@UsesNativeServices
+class SnapshotBackedDirectoryWalkerTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def virtualFileSystem = Mock(VirtualFileSystem)
+    def statisticsCollector = new DirectoryWalkerStatistics.Collector()
+    def walker = new SnapshotBackedDirectoryWalker(virtualFileSystem, TestFiles.fileSystem(), statisticsCollector)
+    def directorySnapshotter = new DirectorySnapshotter(TestFiles.fileHasher(), new StringInterner(), [], Stub(DirectorySnapshotterStatistics.Collector))
+
+    def "visits snapshot held by the virtual file system"() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("b.txt") << "bb"
+        rootDir.file("a/c.txt") << "ccc"
+        def snapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, new AtomicBoolean())
+
+        when:
+        def visited = walk(walker.withReproducibleOrder(), rootDir)
+
+        then:
+        1 * virtualFileSystem.getSnapshot(rootDir.absolutePath) >> Optional.of(snapshot)
+        0 * virtualFileSystem._
+
+        visited*.relativePath*.pathString == ["b.txt", "a", "a/c.txt"]
+        visited.find { it.name == "c.txt" }.size == 3
+        def statistics = statisticsCollector.collect()
+        statistics.directoriesFromSnapshots == 2
+        statistics.directoriesFromFileSystem == 0
+    }
+
+    def "lists directories without a snapshot from the file system and uses snapshots of their subdirectories"() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("b.txt") << "bb"
+        def subDir = rootDir.file("a")
+        subDir.file("c.txt") << "ccc"
+        subDir.file("d/e.txt") << "e"
+        def subDirSnapshot = directorySnapshotter.snapshot(subDir.absolutePath, null, new AtomicBoolean())
+
+        when:
+        def visited = walk(walker.withReproducibleOrder(), rootDir)
+
+        then:
+        1 * virtualFileSystem.getSnapshot(rootDir.absolutePath) >> Optional.empty()
+        1 * virtualFileSystem.getSnapshot(subDir.absolutePath) >> Optional.of(subDirSnapshot)
+        0 * virtualFileSystem._
+
+        visited*.relativePath*.pathString == ["b.txt", "a", "a/c.txt", "a/d", "a/d/e.txt"]
+        def statistics = statisticsCollector.collect()
+        statistics.directoriesFromSnapshots == 2
+        statistics.directoriesFromFileSystem == 1
+    }
+
+    def "lists directories from the file system when files were written after the snapshot was taken"() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("b.txt") << "bb"
+        rootDir.file("a/c.txt") << "ccc"
+        def snapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, new AtomicBoolean())
+        rootDir.file("a/d.txt") << "dddd"
+        rootDir.file("b.txt") << "b"
+
+        when:
+        def visited = walk(walker.withReproducibleOrder(), rootDir)
+
+        then:
+        1 * virtualFileSystem.getSnapshot(rootDir.absolutePath) >> Optional.of(snapshot)
+        0 * virtualFileSystem._
+
+        visited*.relativePath*.pathString == ["b.txt", "a", "a/c.txt", "a/d.txt"]
+        visited.find { it.name == "b.txt" }.size == 3
+        def statistics = statisticsCollector.collect()
+        statistics.directoriesFromSnapshots == 1
+        statistics.directoriesFromFileSystem == 1
+    }
+
+    def "visits files from the file system when there is no snapshot"() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("a/c.txt") << "ccc"
+
+        when:
+        def visited = walk(walker, rootDir)
+
+        then:
+        _ * virtualFileSystem.getSnapshot(_) >> Optional.empty()
+
+        visited*.relativePath*.pathString as Set == ["a", "a/c.txt"] as Set
+        def statistics = statisticsCollector.collect()
+        statistics.directoriesFromSnapshots == 0
+        statistics.directoriesFromFileSystem == 2
+    }
+
+    def "directory tree only uses the walker while it is enabled"() {
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("a.txt") << "a"
+        def snapshot = directorySnapshotter.snapshot(rootDir.absolutePath, null, new AtomicBoolean())
+        def tree = new DirectoryFileTree(rootDir, new PatternSet(), TestFiles.fileSystem(), false, walker)
+
+        when:
+        def visited = visit(tree)
+
+        then:
+        0 * virtualFileSystem._
+        visited*.relativePath*.pathString == ["a.txt"]
+
+        when:
+        walker.enabled = true
+        visited = visit(tree.filter(new PatternSet()))
+
+        then:
+        1 * virtualFileSystem.getSnapshot(rootDir.absolutePath) >> Optional.of(snapshot)
+        visited*.relativePath*.pathString == ["a.txt"]
+
+        when:
+        walker.enabled = false
+        visit(tree)
+
+        then:
+        0 * virtualFileSystem._
+    }
+
+    private static List<FileVisitDetails> visit(DirectoryFileTree tree) {
+        def visited = []
+        def visitClosure = { visited << it }
+        tree.visit([visitFile: visitClosure, visitDir: visitClosure] as FileVisitor)
+        return visited
+    }
+
+    private static List<FileVisitDetails> walk(DirectoryWalker walker, File rootDir) {
+        def visited = []
+        def visitClosure = { visited << it }
+        def fileVisitor = [visitFile: visitClosure, visitDir: visitClosure] as FileVisitor
+        walker.walkDir(rootDir, RelativePath.EMPTY_ROOT, fileVisitor, Specs.satisfyAll(), new AtomicBoolean(), false)
+        return visited
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares matching paths against the default excludes plus additional excludes, one pattern at a time and with the patterns compiled into a single matcher.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PatternMatcherBenchmark {
+    // The default excludes of Ant
+    private static final List<String> DEFAULT_EXCLUDES = Arrays.asList(
+        "**/%*%", "**/.#*", "**/._*", "**/#*#", "**/*~", "**/.DS_Store",
+        "**/CVS", "**/CVS/**", "**/.cvsignore",
+        "**/SCCS", "**/SCCS/**",
+        "**/.bzr", "**/.bzr/**", "**/.bzrignore",
+        "**/vssver.scc",
+        "**/.hg", "**/.hg/**", "**/.hgtags", "**/.hgignore", "**/.hgsubstate", "**/.hgsub",
+        "**/.svn", "**/.svn/**",
+        "**/.git", "**/.git/**", "**/.gitignore", "**/.gitmodules", "**/.gitattributes"
+    );
+
+    private static final String[] SEGMENTS = {"src", "main", "java", "org", "gradle", "internal", "impl", "build", "test", "resources", "generated"};
+    private static final String[] FILE_NAMES = {"Foo.java", "Bar.class", "Baz.groovy", "README.md", "file.txt~", ".DS_Store", "config.properties"};
+
+    @Param({"0", "100"})
+    int additionalExcludes;
+
+    @Param({"true", "false"})
+    boolean caseSensitive;
+
+    PatternMatcher separateMatcher;
+    PatternMatcher compiledMatcher;
+    String[][] paths;
+
+    @Setup
+    public void setup() {
+        List<String> patterns = new ArrayList<String>(DEFAULT_EXCLUDES);
+        for (int i = 0; i < additionalExcludes; i++) {
+            switch (i % 4) {
+                case 0:
+                    patterns.add("**/generated-" + i + "/**");
+                    break;
+                case 1:
+                    patterns.add("**/*.ext" + i);
+                    break;
+                case 2:
+                    patterns.add("src/module" + i + "/**");
+                    break;
+                default:
+                    patterns.add("**/tmp" + i + "*/file?.txt");
+            }
+        }
+
+        PatternMatcher matcher = PatternMatcher.MATCH_ALL;
+        for (String pattern : patterns) {
+            PatternMatcher patternMatcher = PatternMatcherFactory.getPatternMatcher(false, caseSensitive, pattern);
+            matcher = matcher == PatternMatcher.MATCH_ALL ? patternMatcher : matcher.or(patternMatcher);
+        }
+        separateMatcher = matcher;
+        compiledMatcher = new CompiledPatternsMatcher(false, caseSensitive, patterns);
+
+        Random random = new Random(1234);
+        paths = new String[1000][];
+        for (int i = 0; i < paths.length; i++) {
+            String[] path = new String[2 + random.nextInt(8)];
+            for (int j = 0; j < path.length - 1; j++) {
+                path[j] = SEGMENTS[random.nextInt(SEGMENTS.length)];
+            }
+            path[path.length - 1] = FILE_NAMES[random.nextInt(FILE_NAMES.length)];
+            paths[i] = path;
+        }
+    }
+
+    @Benchmark
+    public void matchEachPattern(Blackhole blackhole) {
+        for (String[] path : paths) {
+            blackhole.consume(separateMatcher.test(path, true));
+        }
+    }
+
+    @Benchmark
+    public void matchCompiledPatterns(Blackhole blackhole) {
+        for (String[] path : paths) {
+            blackhole.consume(compiledMatcher.test(path, true));
+        }
+    }
+}
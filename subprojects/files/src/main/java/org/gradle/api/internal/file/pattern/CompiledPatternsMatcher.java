@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Matches a path against a set of patterns in a single pass over the segments of the path, instead of matching each pattern separately.
+ *
+ * <p>The patterns are compiled into a trie of steps, where patterns with a common prefix share their nodes and {@code **} is a node that loops on any segment.
+ * Steps without wildcards are looked up by name, so that patterns only differing in a literal segment, like most default excludes, cost a single lookup per segment.
+ * The trie is matched as a non-deterministic automaton: matching stops as soon as no node is reached, or a node is reached that matches any remaining segments.</p>
+ */
+class CompiledPatternsMatcher extends PatternMatcher {
+    private static final Splitter PATH_SPLITTER = Splitter.on(CharMatcher.anyOf("\\/")).omitEmptyStrings();
+
+    private final boolean partialMatchDirs;
+    private final List<Node> initialNodes;
+
+    CompiledPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Iterable<String> patterns) {
+        this.partialMatchDirs = partialMatchDirs;
+        Node root = new Node(caseSensitive);
+        for (String pattern : patterns) {
+            add(root, pattern);
+        }
+        this.initialNodes = new ArrayList<Node>();
+        addWithClosure(root, initialNodes);
+    }
+
+    private static void add(Node root, String pattern) {
+        // trailing / or \ assumes **, as for PatternMatcherFactory.compile()
+        if (pattern.endsWith("/") || pattern.endsWith("\\")) {
+            pattern = pattern + "**";
+        }
+        Node node = root;
+        for (String part : PATH_SPLITTER.split(pattern)) {
+            if (part.equals("**")) {
+                node = node.greedyChild();
+            } else if (part.indexOf('*') < 0 && part.indexOf('?') < 0) {
+                node = node.literalChild(part);
+            } else {
+                node = node.wildcardChild(part);
+            }
+        }
+        node.terminal = true;
+    }
+
+    @Override
+    public boolean test(String[] segments, boolean isFile) {
+        boolean prefix = !isFile && partialMatchDirs;
+        List<Node> current = initialNodes;
+        if (anyMatchesAnything(current)) {
+            return true;
+        }
+        if (segments.length == 0) {
+            return prefix ? anyHasTransitions(current) : anyTerminal(current);
+        }
+        for (String segment : segments) {
+            List<Node> next = new ArrayList<Node>(current.size() + 1);
+            for (Node node : current) {
+                node.step(segment, next);
+            }
+            if (next.isEmpty()) {
+                // No pattern can match this path or any path below it
+                return false;
+            }
+            if (anyMatchesAnything(next)) {
+                return true;
+            }
+            current = next;
+        }
+        return prefix || anyTerminal(current);
+    }
+
+    private static boolean anyMatchesAnything(List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.loop && node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean anyTerminal(List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean anyHasTransitions(List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node.hasTransitions()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given node and the nodes reachable from it without consuming a segment, that is by matching {@code **} with no segments.
+     */
+    private static void addWithClosure(Node node, List<Node> nodes) {
+        for (Node existing : nodes) {
+            if (existing == node) {
+                return;
+            }
+        }
+        nodes.add(node);
+        if (node.greedyChild != null) {
+            addWithClosure(node.greedyChild, nodes);
+        }
+    }
+
+    private static class Node {
+        private final boolean caseSensitive;
+        private final boolean loop;
+        private boolean terminal;
+        private Map<String, Node> literalChildren;
+        private Map<String, WildcardEdge> wildcardChildren;
+        private Node greedyChild;
+
+        Node(boolean caseSensitive) {
+            this(caseSensitive, false);
+        }
+
+        private Node(boolean caseSensitive, boolean loop) {
+            this.caseSensitive = caseSensitive;
+            this.loop = loop;
+        }
+
+        Node greedyChild() {
+            if (loop) {
+                // ** following ** is the same as a single **
+                return this;
+            }
+            if (greedyChild == null) {
+                greedyChild = new Node(caseSensitive, true);
+            }
+            return greedyChild;
+        }
+
+        Node literalChild(String part) {
+            if (literalChildren == null) {
+                // Consistent with String.equalsIgnoreCase(), as used by FixedPatternStep
+                literalChildren = caseSensitive ? new HashMap<String, Node>() : new TreeMap<String, Node>(String.CASE_INSENSITIVE_ORDER);
+            }
+            Node child = literalChildren.get(part);
+            if (child == null) {
+                child = new Node(caseSensitive);
+                literalChildren.put(part, child);
+            }
+            return child;
+        }
+
+        Node wildcardChild(String part) {
+            if (wildcardChildren == null) {
+                wildcardChildren = new LinkedHashMap<String, WildcardEdge>();
+            }
+            WildcardEdge edge = wildcardChildren.get(part);
+            if (edge == null) {
+                edge = new WildcardEdge(PatternStepFactory.getStep(part, caseSensitive), new Node(caseSensitive));
+                wildcardChildren.put(part, edge);
+            }
+            return edge.target;
+        }
+
+        boolean hasTransitions() {
+            return loop || literalChildren != null || wildcardChildren != null || greedyChild != null;
+        }
+
+        void step(String segment, List<Node> next) {
+            if (loop) {
+                addWithClosure(this, next);
+            }
+            if (literalChildren != null) {
+                Node child = literalChildren.get(segment);
+                if (child != null) {
+                    addWithClosure(child, next);
+                }
+            }
+            if (wildcardChildren != null) {
+                for (WildcardEdge edge : wildcardChildren.values()) {
+                    if (edge.step.matches(segment)) {
+                        addWithClosure(edge.target, next);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class WildcardEdge {
+        private final PatternStep step;
+        private final Node target;
+
+        WildcardEdge(PatternStep step, Node target) {
+            this.step = step;
+            this.target = target;
+        }
+    }
+}
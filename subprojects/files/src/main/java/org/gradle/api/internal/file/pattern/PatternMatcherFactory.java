@@ -19,6 +19,7 @@
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class PatternMatcherFactory {
@@ -26,15 +27,19 @@ public class PatternMatcherFactory {
     private static final EndOfPathMatcher END_OF_PATH_MATCHER = new EndOfPathMatcher();
     private static final Splitter PATH_SPLITTER = Splitter.on(CharMatcher.anyOf("\\/")).omitEmptyStrings();
 
+    /**
+     * Returns a matcher for any of the given patterns. Multiple patterns are compiled into a single matcher, so that each path is only traversed once.
+     */
     public static PatternMatcher getPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Iterable<String> patterns) {
-        PatternMatcher matcher = PatternMatcher.MATCH_ALL;
-        for (String pattern : patterns) {
-            PatternMatcher patternMatcher = getPatternMatcher(partialMatchDirs, caseSensitive, pattern);
-            matcher = matcher == PatternMatcher.MATCH_ALL
-                ? patternMatcher
-                : matcher.or(patternMatcher);
+        Iterator<String> iterator = patterns.iterator();
+        if (!iterator.hasNext()) {
+            return PatternMatcher.MATCH_ALL;
         }
-        return matcher;
+        String first = iterator.next();
+        if (!iterator.hasNext()) {
+            return getPatternMatcher(partialMatchDirs, caseSensitive, first);
+        }
+        return new CompiledPatternsMatcher(partialMatchDirs, caseSensitive, patterns);
     }
 
     public static PatternMatcher getPatternMatcher(boolean partialMatchDirs, boolean caseSensitive, String pattern) {
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+@Unroll
+class CompiledPatternsMatcherTest extends Specification {
+    static final List<String> PATTERNS = ["**/.git/**", "**/.git", "**/*~", "**/CVS/", "a/b", "a/*/c", "a/**/d*", "A/x?y", "**/**/e", "", "f/**/**/g"]
+    static final List<List<String>> PATHS = [
+        [], ["a"], ["A"], ["a", "b"], ["a", "B"], ["a", "b", "c"], ["a", "x", "c"], ["a", "x", "y", "d1"], ["a", "d"], ["A", "xzy"], ["a", "xzy"],
+        [".git"], ["x", ".git", "config"], ["x", "file~"], ["CVS"], ["x", "CVS", "y"], ["e"], ["x", "y", "e"], ["f", "g"], ["f", "x", "g"], ["f", "x"], ["g"]
+    ]
+
+    def "matches like the individual patterns (partialMatchDirs: #partialMatchDirs, caseSensitive: #caseSensitive)"() {
+        def compiled = new CompiledPatternsMatcher(partialMatchDirs, caseSensitive, PATTERNS)
+        def individual = PATTERNS.collect { PatternMatcherFactory.getPatternMatcher(partialMatchDirs, caseSensitive, it) }
+
+        expect:
+        for (List<String> path : PATHS) {
+            String[] segments = path as String[]
+            for (boolean isFile : [true, false]) {
+                assert compiled.test(segments, isFile) == individual.any { it.test(segments, isFile) }
+            }
+        }
+
+        where:
+        partialMatchDirs | caseSensitive
+        true             | true
+        true             | false
+        false            | true
+        false            | false
+    }
+
+    def "does not match paths that no pattern matches"() {
+        def compiled = new CompiledPatternsMatcher(false, true, ["a/b", "c/d"])
+
+        expect:
+        !compiled.test(["x", "a", "b"] as String[], true)
+        !compiled.test(["a", "c", "d"] as String[], true)
+        compiled.test(["c", "d"] as String[], true)
+    }
+
+    def "matches any path below a directory matched by a trailing **"() {
+        def compiled = new CompiledPatternsMatcher(false, true, ["**/build/**", "**/*.tmp"])
+
+        expect:
+        compiled.test(["build"] as String[], false)
+        compiled.test(["x", "build", "y", "z.txt"] as String[], true)
+        compiled.test(["x", "z.tmp"] as String[], true)
+        !compiled.test(["x", "z.txt"] as String[], true)
+    }
+
+    def "is used for multiple patterns"() {
+        expect:
+        PatternMatcherFactory.getPatternsMatcher(true, true, []) == PatternMatcher.MATCH_ALL
+        PatternMatcherFactory.getPatternsMatcher(true, true, ["a"]) instanceof PatternMatcherFactory.DefaultPatternMatcher
+        PatternMatcherFactory.getPatternsMatcher(true, true, ["a", "b"]) instanceof CompiledPatternsMatcher
+    }
+}
@@ -26,7 +26,6 @@
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectStateRegistry;
 import org.gradle.api.invocation.Gradle;
-import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.TaskDependency;
 import org.gradle.internal.build.IncludedBuildState;
 import org.gradle.internal.service.ServiceRegistry;
@@ -70,7 +69,6 @@
 import org.gradle.tooling.model.eclipse.EclipseWorkspace;
 import org.gradle.tooling.model.eclipse.EclipseWorkspaceProject;
 import org.gradle.tooling.provider.model.ParameterizedToolingModelBuilder;
-import org.gradle.util.internal.CollectionUtils;
 import org.gradle.util.internal.GUtil;
 
 import java.io.File;
@@ -81,21 +79,31 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Builds the Eclipse models of all projects of a build at once.
+ *
+ * <p>The models are kept until the task graph of the build is ready, so that clients requesting the model of each project,
+ * as IDEs do when they synchronize, only build the models of the whole build once per build phase. Models requested once tasks have run,
+ * such as from a build finished action, are built again. The models are also rebuilt when a different model type or workspace is requested,
+ * as these change the models.</p>
+ */
 public class EclipseModelBuilder implements ParameterizedToolingModelBuilder<EclipseRuntime> {
     private final GradleProjectBuilder gradleProjectBuilder;
     private final EclipseModelAwareUniqueProjectNameProvider uniqueProjectNameProvider;
 
     private boolean projectDependenciesOnly;
-    private DefaultEclipseProject result;
-    private List<DefaultEclipseProject> eclipseProjects;
+    private Map<String, DefaultEclipseProject> eclipseProjects;
     private TasksFactory tasksFactory;
     private DefaultGradleProject rootGradleProject;
-    private Project currentProject;
     private EclipseRuntime eclipseRuntime;
     private Map<String, Boolean> projectOpenStatus = new HashMap<>();
+    private final Map<ModelKey, Map<String, DefaultEclipseProject>> builtModels = new ConcurrentHashMap<>();
+    private final Set<Gradle> watchedBuilds = ConcurrentHashMap.newKeySet();
 
     @VisibleForTesting
     public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services, EclipseModelAwareUniqueProjectNameProvider uniqueProjectNameProvider) {
@@ -141,23 +149,41 @@ public static boolean isProjectOpen(EclipseWorkspaceProject project) {
 
     @Override
     public DefaultEclipseProject buildAll(String modelName, Project project) {
+        Project root = project.getRootProject();
+        List<String> reservedProjectNames = calculateReservedProjectNames(root, eclipseRuntime);
+        ModelKey key = new ModelKey(modelName, root, reservedProjectNames, projectOpenStatus);
+        Map<String, DefaultEclipseProject> models = builtModels.get(key);
+        if (models == null) {
+            models = buildModels(modelName, root, reservedProjectNames);
+            forgetModelsWhenTaskGraphIsReady(root.getGradle());
+            builtModels.put(key, models);
+        }
+        return models.get(project.getPath());
+    }
+
+    private void forgetModelsWhenTaskGraphIsReady(Gradle gradle) {
+        // Tasks run once the task graph is ready and may change the models, so models built before that cannot be used afterwards
+        if (watchedBuilds.add(gradle)) {
+            gradle.getTaskGraph().whenReady(graph -> builtModels.clear());
+        }
+    }
+
+    private Map<String, DefaultEclipseProject> buildModels(String modelName, Project root, List<String> reservedProjectNames) {
         boolean includeTasks = modelName.equals("org.gradle.tooling.model.eclipse.EclipseProject");
         tasksFactory = new TasksFactory(includeTasks);
         projectDependenciesOnly = modelName.equals("org.gradle.tooling.model.eclipse.HierarchicalEclipseProject");
-        currentProject = project;
-        eclipseProjects = Lists.newArrayList();
-        Project root = project.getRootProject();
-        rootGradleProject = gradleProjectBuilder.buildAll(project);
+        eclipseProjects = new HashMap<>();
+        rootGradleProject = gradleProjectBuilder.buildAll(root);
         tasksFactory.collectTasks(root);
         applyEclipsePlugin(root, new ArrayList<>());
-        deduplicateProjectNames(root);
+        deduplicateProjectNames(root, reservedProjectNames);
         buildHierarchy(root);
         populate(root);
-        return result;
+        return eclipseProjects;
     }
 
-    private void deduplicateProjectNames(Project root) {
-        uniqueProjectNameProvider.setReservedProjectNames(calculateReservedProjectNames(root, eclipseRuntime));
+    private void deduplicateProjectNames(Project root, List<String> reservedProjectNames) {
+        uniqueProjectNameProvider.setReservedProjectNames(reservedProjectNames);
         for (Project project : root.getAllprojects()) {
             EclipseModel eclipseModel = project.getExtensions().findByType(EclipseModel.class);
             if (eclipseModel != null) {
@@ -199,17 +225,10 @@ private DefaultEclipseProject buildHierarchy(Project project) {
         for (DefaultEclipseProject child : children) {
             child.setParent(eclipseProject);
         }
-        addProject(project, eclipseProject);
+        eclipseProjects.put(project.getPath(), eclipseProject);
         return eclipseProject;
     }
 
-    private void addProject(Project project, DefaultEclipseProject eclipseProject) {
-        if (project == currentProject) {
-            result = eclipseProject;
-        }
-        eclipseProjects.add(eclipseProject);
-    }
-
     private void populate(Project project) {
         EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
 
@@ -217,7 +236,7 @@ private void populate(Project project) {
 
         ClasspathElements classpathElements = gatherClasspathElements(projectOpenStatus, eclipseModel.getClasspath(), projectDependenciesOnly);
 
-        DefaultEclipseProject eclipseProject = findEclipseProject(project);
+        DefaultEclipseProject eclipseProject = eclipseProjects.get(project.getPath());
 
         eclipseProject.setClasspath(classpathElements.getExternalDependencies());
         eclipseProject.setProjectDependencies(classpathElements.getProjectDependencies());
@@ -348,15 +367,6 @@ private static void populateEclipseProjectJdt(DefaultEclipseProject eclipseProje
         }
     }
 
-    private DefaultEclipseProject findEclipseProject(final Project project) {
-        return CollectionUtils.findFirst(eclipseProjects, new Spec<DefaultEclipseProject>() {
-            @Override
-            public boolean isSatisfiedBy(DefaultEclipseProject element) {
-                return element.getGradleProject().getPath().equals(project.getPath());
-            }
-        });
-    }
-
     private static List<DefaultClasspathAttribute> createAttributes(AbstractClasspathEntry classpathEntry) {
         List<DefaultClasspathAttribute> result = Lists.newArrayList();
         Map<String, Object> attributes = classpathEntry.getEntryAttributes();
@@ -471,6 +481,40 @@ private static String convertGString(CharSequence original) {
         return original.toString();
     }
 
+    private static class ModelKey {
+        private final String modelName;
+        private final Project rootProject;
+        private final List<String> reservedProjectNames;
+        private final Map<String, Boolean> projectOpenStatus;
+
+        ModelKey(String modelName, Project rootProject, List<String> reservedProjectNames, Map<String, Boolean> projectOpenStatus) {
+            this.modelName = modelName;
+            this.rootProject = rootProject;
+            this.reservedProjectNames = reservedProjectNames;
+            this.projectOpenStatus = projectOpenStatus;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ModelKey other = (ModelKey) o;
+            return modelName.equals(other.modelName)
+                && rootProject == other.rootProject
+                && reservedProjectNames.equals(other.reservedProjectNames)
+                && projectOpenStatus.equals(other.projectOpenStatus);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modelName, System.identityHashCode(rootProject), reservedProjectNames, projectOpenStatus);
+        }
+    }
+
     public static class ClasspathElements {
         private final List<DefaultEclipseExternalDependency> externalDependencies = new ArrayList<>();
         private final List<DefaultEclipseProjectDependency> projectDependencies = new ArrayList<>();
@@ -87,6 +87,53 @@ class EclipseModelBuilderTest extends AbstractProjectBuilderSpec {
         eclipseModel.children[1].projectNatures.collect { it.id } == ['nature.for.child2']
     }
 
+    def "builds the models of all projects of the build once"() {
+        setup:
+        child1.eclipse.project.natures = ['nature.for.child1']
+        def modelBuilder = createEclipseModelBuilder()
+
+        when:
+        def eclipseModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", project)
+        def child1Model = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", child1)
+        def child2Model = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", child2)
+
+        then:
+        child1Model.is(eclipseModel.children[0])
+        child1Model.projectNatures.collect { it.id } == ['nature.for.child1']
+        child2Model.is(eclipseModel.children[1])
+        child2Model.parent.is(eclipseModel)
+    }
+
+    def "builds the models again once the task graph is ready"() {
+        setup:
+        child1.eclipse.project.natures = ['nature.for.child1']
+        def modelBuilder = createEclipseModelBuilder()
+
+        when:
+        def eclipseModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", project)
+        child1.eclipse.project.natures = ['changed.nature']
+        project.gradle.taskGraph.graphListeners.source.graphPopulated(project.gradle.taskGraph)
+        def child1Model = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", child1)
+
+        then:
+        !child1Model.is(eclipseModel.children[0])
+        child1Model.projectNatures.collect { it.id } == ['changed.nature']
+    }
+
+    def "builds the models again for a different model type"() {
+        setup:
+        def modelBuilder = createEclipseModelBuilder()
+
+        when:
+        def eclipseModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", project)
+        def hierarchicalModel = modelBuilder.buildAll("org.gradle.tooling.model.eclipse.HierarchicalEclipseProject", project)
+
+        then:
+        !hierarchicalModel.is(eclipseModel)
+        !eclipseModel.tasks.empty
+        hierarchicalModel.tasks.empty
+    }
+
     def "can read build commands"() {
         setup:
         project.eclipse.project.buildCommands = [
@@ -56,6 +56,8 @@ static JvmInstallationMetadata failure(File javaHome, Exception cause) {
 
     JvmVendor getVendor();
 
+    String getImplementationName();
+
     Path getJavaHome();
 
     String getDisplayName();
@@ -114,6 +116,11 @@ public JvmVendor getVendor() {
             return JvmVendor.fromString(vendor);
         }
 
+        @Override
+        public String getImplementationName() {
+            return implementationName;
+        }
+
         @Override
         public Path getJavaHome() {
             return javaHome;
@@ -218,6 +225,11 @@ public JvmVendor getVendor() {
             throw unsupportedOperation();
         }
 
+        @Override
+        public String getImplementationName() {
+            throw unsupportedOperation();
+        }
+
         @Override
         public Path getJavaHome() {
             return javaHome.toPath();
@@ -59,6 +59,9 @@ protected DaemonForkOptions toDaemonForkOptions(JavaCompileSpec spec) {
         JavaForkOptions javaForkOptions = new BaseForkOptionsConverter(forkOptionsFactory).transform(forkOptions);
         javaForkOptions.setWorkingDir(daemonWorkingDir);
         javaForkOptions.setExecutable(findSuitableExecutable(spec));
+        if (Boolean.getBoolean(StandardJavaFileManagerPool.REUSE_FILE_MANAGERS_PROPERTY)) {
+            javaForkOptions.systemProperty(StandardJavaFileManagerPool.REUSE_FILE_MANAGERS_PROPERTY, "true");
+        }
 
         ClassPath compilerClasspath = classPathRegistry.getClassPath("JAVA-COMPILER");
         FlatClassLoaderStructure classLoaderStructure = new FlatClassLoaderStructure(new VisitableURLClassLoader.Spec("compiler", compilerClasspath.getAsURLs()));
@@ -21,17 +21,23 @@
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.Factory;
 import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import java.io.Closeable;
+import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -50,20 +56,35 @@ public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
         ApiCompilerResult result = new ApiCompilerResult();
-        JavaCompiler.CompilationTask task = createCompileTask(spec, result);
+        StandardJavaFileManagerPool fileManagerPool = StandardJavaFileManagerPool.getInstanceIfEnabled();
+        Timer timer = Time.startTimer();
+        JavaCompiler.CompilationTask task = createCompileTask(spec, result, fileManagerPool);
         boolean success = task.call();
+        if (fileManagerPool != null) {
+            LOGGER.info("Compilation took {}. {}", timer.getElapsed(), fileManagerPool.getStatistics());
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
         return result;
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, ApiCompilerResult result) {
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, ApiCompilerResult result, @Nullable StandardJavaFileManagerPool fileManagerPool) {
         List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
         JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
         MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
         Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, charset);
+        StandardJavaFileManager standardFileManager;
+        Closeable fileManagerResource;
+        if (fileManagerPool != null) {
+            StandardJavaFileManagerPool.Lease lease = fileManagerPool.acquire(compiler, charset, classpathOf(spec), options);
+            LOGGER.info("Compiling with {} javac file manager.", lease.isReused() ? "a reused" : "a new");
+            standardFileManager = lease.getFileManager();
+            fileManagerResource = lease;
+        } else {
+            standardFileManager = compiler.getStandardFileManager(null, null, charset);
+            fileManagerResource = null;
+        }
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSourceFiles());
         boolean hasEmptySourcepaths = JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options);
         JavaFileManager fileManager = GradleStandardJavaFileManager.wrap(standardFileManager, DefaultClassPath.of(spec.getAnnotationProcessorPath()), hasEmptySourcepaths);
@@ -73,10 +94,16 @@ private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, Api
         }
         Set<AnnotationProcessorDeclaration> annotationProcessors = spec.getEffectiveAnnotationProcessors();
         task = new AnnotationProcessingCompileTask(task, annotationProcessors, spec.getAnnotationProcessorPath(), result.getAnnotationProcessingResult());
-        task = new ResourceCleaningCompilationTask(task, fileManager);
+        task = new ResourceCleaningCompilationTask(task, fileManagerResource != null ? fileManagerResource : fileManager);
         return task;
     }
 
+    private static List<File> classpathOf(JavaCompileSpec spec) {
+        List<File> classpath = new ArrayList<>(spec.getCompileClasspath());
+        classpath.addAll(spec.getModulePath());
+        return classpath;
+    }
+
     private static boolean emptySourcepathIn(List<String> options) {
         Iterator<String> optionsIter = options.iterator();
         while (optionsIter.hasNext()) {
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.JavaVersion;
+import org.gradle.internal.concurrent.CompositeStoppable;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the standard file managers of javac across compilations in this process, so that the jars on the classpath are not opened and indexed again by each compilation.
+ *
+ * <p>A file manager is only used by one compilation at a time, and is reused for a compilation with the same compiler, encoding, classpath and
+ * platform options, such as {@code --release} or {@code -bootclasspath}, which select the archives that the file manager opens. The locations that
+ * javac sets for each compilation, such as the class and source output directories, are cleared when a file manager is leased and when it is returned.
+ * Jars are identified by their length and timestamp, so that a changed jar is read by a new file manager. Idle file managers keep their jars open,
+ * which prevents the jars from being replaced on Windows, so reusing file managers is opt-in. It is only available from Java 9, as the file manager of Java 8
+ * shares its jar indexes with other file managers, and these are cleared after each compilation.</p>
+ */
+class StandardJavaFileManagerPool {
+    static final String REUSE_FILE_MANAGERS_PROPERTY = "org.gradle.java.compile.reuse-file-managers";
+    private static final int MAX_IDLE_FILE_MANAGERS = 4;
+    private static final Set<String> PLATFORM_OPTIONS = ImmutableSet.of(
+        "--release", "--system", "-bootclasspath", "--boot-class-path", "-extdirs", "-endorseddirs", "--module-path", "-p", "--upgrade-module-path"
+    );
+    private static final List<StandardLocation> COMPILATION_LOCATIONS = ImmutableList.of(
+        StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_OUTPUT, StandardLocation.NATIVE_HEADER_OUTPUT, StandardLocation.SOURCE_PATH
+    );
+    private static final StandardJavaFileManagerPool INSTANCE = new StandardJavaFileManagerPool();
+
+    private final Map<Key, StandardJavaFileManager> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private int requests;
+    private int reuses;
+
+    @Nullable
+    static StandardJavaFileManagerPool getInstanceIfEnabled() {
+        return Boolean.getBoolean(REUSE_FILE_MANAGERS_PROPERTY) && JavaVersion.current().isJava9Compatible() ? INSTANCE : null;
+    }
+
+    /**
+     * Returns a file manager for the given compilation, which is returned to the pool when the lease is closed.
+     */
+    Lease acquire(JavaCompiler compiler, @Nullable Charset charset, List<File> classpath, List<String> options) {
+        Key key = new Key(compiler.getClass(), charset, classpath, platformOptionsOf(options));
+        StandardJavaFileManager fileManager;
+        synchronized (this) {
+            requests++;
+            fileManager = idle.remove(key);
+            if (fileManager != null) {
+                reuses++;
+            }
+        }
+        if (fileManager != null && !clearCompilationLocations(fileManager)) {
+            CompositeStoppable.stoppable(fileManager).stop();
+            fileManager = null;
+        }
+        boolean reused = fileManager != null;
+        if (fileManager == null) {
+            fileManager = compiler.getStandardFileManager(null, null, charset);
+        }
+        return new Lease(key, fileManager, reused);
+    }
+
+    synchronized String getStatistics() {
+        return String.format("Javac file manager reused for %s of %s compilations in this process.", reuses, requests);
+    }
+
+    private static List<String> platformOptionsOf(List<String> options) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        Iterator<String> iterator = options.iterator();
+        while (iterator.hasNext()) {
+            String option = iterator.next();
+            if (option.startsWith("-Xbootclasspath")) {
+                builder.add(option);
+            } else if (PLATFORM_OPTIONS.contains(option) && iterator.hasNext()) {
+                builder.add(option, iterator.next());
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean clearCompilationLocations(StandardJavaFileManager fileManager) {
+        try {
+            for (StandardLocation location : COMPILATION_LOCATIONS) {
+                fileManager.setLocation(location, null);
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void release(Key key, StandardJavaFileManager fileManager) {
+        if (!clearCompilationLocations(fileManager)) {
+            CompositeStoppable.stoppable(fileManager).stop();
+            return;
+        }
+        StandardJavaFileManager discarded;
+        synchronized (this) {
+            discarded = idle.put(key, fileManager);
+            if (discarded == null && idle.size() > MAX_IDLE_FILE_MANAGERS) {
+                Iterator<StandardJavaFileManager> eldest = idle.values().iterator();
+                discarded = eldest.next();
+                eldest.remove();
+            }
+        }
+        if (discarded != null) {
+            CompositeStoppable.stoppable(discarded).stop();
+        }
+    }
+
+    class Lease implements Closeable {
+        private final Key key;
+        private final StandardJavaFileManager fileManager;
+        private final boolean reused;
+
+        private Lease(Key key, StandardJavaFileManager fileManager, boolean reused) {
+            this.key = key;
+            this.fileManager = fileManager;
+            this.reused = reused;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        boolean isReused() {
+            return reused;
+        }
+
+        @Override
+        public void close() {
+            release(key, fileManager);
+        }
+    }
+
+    private static class Key {
+        private final Class<?> compilerType;
+        private final Charset charset;
+        private final List<ClasspathEntry> classpath;
+        private final List<String> platformOptions;
+
+        Key(Class<?> compilerType, @Nullable Charset charset, List<File> classpath, List<String> platformOptions) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.platformOptions = platformOptions;
+            ImmutableList.Builder<ClasspathEntry> builder = ImmutableList.builderWithExpectedSize(classpath.size());
+            for (File file : classpath) {
+                builder.add(new ClasspathEntry(file));
+            }
+            this.classpath = builder.build();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return compilerType.equals(key.compilerType) && Objects.equals(charset, key.charset) && classpath.equals(key.classpath) && platformOptions.equals(key.platformOptions);
+        }
+
+        @Override
+        public int hashCode() {
+            return compilerType.hashCode() ^ classpath.hashCode();
+        }
+    }
+
+    private static class ClasspathEntry {
+        private final String path;
+        private final long length;
+        private final long lastModified;
+
+        ClasspathEntry(File file) {
+            this.path = file.getAbsolutePath();
+            // The contents of directories are not cached by the file manager
+            boolean isFile = file.isFile();
+            this.length = isFile ? file.length() : 0;
+            this.lastModified = isFile ? file.lastModified() : 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClasspathEntry that = (ClasspathEntry) o;
+            return length == that.length && lastModified == that.lastModified && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+}
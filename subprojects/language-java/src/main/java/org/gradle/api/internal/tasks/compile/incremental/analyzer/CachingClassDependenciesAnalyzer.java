@@ -34,4 +34,9 @@ public CachingClassDependenciesAnalyzer(ClassDependenciesAnalyzer analyzer, Cach
     public ClassAnalysis getClassAnalysis(final HashCode classFileHash, final FileTreeElement classFile) {
         return cache.get(classFileHash, () -> analyzer.getClassAnalysis(classFileHash, classFile));
     }
+
+    @Override
+    public ClassAnalysis getClassAnalysis(HashCode classFileHash, byte[] classFileContent) {
+        return cache.get(classFileHash, () -> analyzer.getClassAnalysis(classFileHash, classFileContent));
+    }
 }
@@ -16,38 +16,58 @@
 package org.gradle.api.internal.tasks.compile.incremental.classpath;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.file.archive.ZipEntry;
+import org.gradle.api.internal.file.archive.ZipInput;
+import org.gradle.api.internal.file.archive.impl.FileZipInput;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
-import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.StreamHasher;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.InputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Analyzes the classes of a jar or directory.
+ *
+ * <p>The entries of a jar are read from the jar in one pass, and the classes read are analyzed in parallel, in batches of limited size.
+ * The analyses are added to the result in the order of the entries, as when analyzing the classes one after the other.</p>
+ */
 public class DefaultClassSetAnalyzer implements ClassSetAnalyzer {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultClassSetAnalyzer.class);
+    private static final int MAX_BATCH_BYTES = 16 * 1024 * 1024;
+    private static final int CLASSES_PER_OPERATION = 200;
 
     private final FileHasher fileHasher;
     private final StreamHasher hasher;
     private final ClassDependenciesAnalyzer analyzer;
     private final FileOperations fileOperations;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public DefaultClassSetAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations) {
+    public DefaultClassSetAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer analyzer, FileOperations fileOperations, BuildOperationExecutor buildOperationExecutor) {
         this.fileHasher = fileHasher;
         this.hasher = streamHasher;
         this.analyzer = analyzer;
         this.fileOperations = fileOperations;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public ClassSetAnalysisData analyzeClasspathEntry(File classpathEntry) {
@@ -73,85 +93,145 @@ private ClassSetAnalysisData analyze(File classSet, boolean abiOnly) {
         return accumulator.getAnalysis();
     }
 
-    private void visit(File classpathEntry, ClassDependentsAccumulator accumulator, boolean abiOnly) {
+    private void visit(File classpathEntry, ClassDependentsAccumulator accumulator, boolean abiOnly) throws IOException {
         if (hasExtension(classpathEntry, ".jar")) {
-            fileOperations.zipTree(classpathEntry).visit(new JarEntryVisitor(accumulator, abiOnly));
+            visitJar(classpathEntry, accumulator, abiOnly);
         }
         if (classpathEntry.isDirectory()) {
             fileOperations.fileTree(classpathEntry).visit(new DirectoryEntryVisitor(accumulator, abiOnly));
         }
     }
 
-    private abstract class EntryVisitor implements FileVisitor {
-        private final ClassDependentsAccumulator accumulator;
-        private final boolean abiOnly;
+    private void visitJar(File jar, ClassDependentsAccumulator accumulator, boolean abiOnly) throws IOException {
+        List<JarClass> batch = new ArrayList<>();
+        int batchBytes = 0;
+        try (ZipInput entries = FileZipInput.create(jar)) {
+            for (ZipEntry entry : entries) {
+                if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
+                    continue;
+                }
+                byte[] content = entry.getContent();
+                batch.add(new JarClass(entry.getName(), hasher.hash(new ByteArrayInputStream(content)), content));
+                batchBytes += content.length;
+                if (batchBytes >= MAX_BATCH_BYTES) {
+                    analyzeBatch(jar, batch, accumulator, abiOnly);
+                    batch.clear();
+                    batchBytes = 0;
+                }
+            }
+        }
+        analyzeBatch(jar, batch, accumulator, abiOnly);
+    }
 
-        public EntryVisitor(ClassDependentsAccumulator accumulator, boolean abiOnly) {
-            this.accumulator = accumulator;
-            this.abiOnly = abiOnly;
+    private void analyzeBatch(File jar, List<JarClass> batch, ClassDependentsAccumulator accumulator, boolean abiOnly) {
+        if (batch.size() <= CLASSES_PER_OPERATION) {
+            for (JarClass jarClass : batch) {
+                jarClass.analyze();
+            }
+        } else {
+            buildOperationExecutor.runAll(queue -> {
+                for (List<JarClass> classes : Lists.partition(batch, CLASSES_PER_OPERATION)) {
+                    queue.add(new AnalyzeJarClasses(jar, classes));
+                }
+            });
+        }
+        for (JarClass jarClass : batch) {
+            if (jarClass.analysis != null) {
+                accumulator.addClass(maybeStripToAbi(jarClass.analysis, abiOnly), jarClass.hash);
+            } else {
+                fullRebuildNeeded(accumulator, jarClass.name, jarClass.failure);
+            }
         }
+    }
 
-        @Override
-        public void visitDir(FileVisitDetails dirDetails) {
+    private static ClassAnalysis maybeStripToAbi(ClassAnalysis analysis, boolean abiOnly) {
+        if (abiOnly) {
+            return new ClassAnalysis(analysis.getClassName(), ImmutableSet.of(), analysis.getAccessibleClassDependencies(), analysis.getDependencyToAllReason(), analysis.getConstants());
+        } else {
+            return analysis;
         }
+    }
 
-        @Override
-        public void visitFile(FileVisitDetails fileDetails) {
-            if (!fileDetails.getName().endsWith(".class")) {
-                return;
-            }
+    private static void fullRebuildNeeded(ClassDependentsAccumulator accumulator, String classFileName, Exception failure) {
+        accumulator.fullRebuildNeeded(classFileName + " could not be analyzed for incremental compilation. See the debug log for more details");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Could not analyze " + classFileName + " for incremental compilation", failure);
+        }
+    }
 
-            HashCode classFileHash = getHashCode(fileDetails);
+    private class JarClass {
+        private final String name;
+        private final HashCode hash;
+        private byte[] content;
+        private ClassAnalysis analysis;
+        private Exception failure;
+
+        JarClass(String name, HashCode hash, byte[] content) {
+            this.name = name;
+            this.hash = hash;
+            this.content = content;
+        }
 
+        void analyze() {
             try {
-                ClassAnalysis analysis = maybeStripToAbi(analyzer.getClassAnalysis(classFileHash, fileDetails));
-                accumulator.addClass(analysis, classFileHash);
+                analysis = analyzer.getClassAnalysis(hash, content);
             } catch (Exception e) {
-                accumulator.fullRebuildNeeded(fileDetails.getName() + " could not be analyzed for incremental compilation. See the debug log for more details");
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Could not analyze " + fileDetails.getName() + " for incremental compilation", e);
-                }
-            }
-        }
-
-        private ClassAnalysis maybeStripToAbi(ClassAnalysis analysis) {
-            if (abiOnly) {
-                return new ClassAnalysis(analysis.getClassName(), ImmutableSet.of(), analysis.getAccessibleClassDependencies(), analysis.getDependencyToAllReason(), analysis.getConstants());
-            } else {
-                return analysis;
+                failure = e;
+            } finally {
+                content = null;
             }
         }
-
-        protected abstract HashCode getHashCode(FileVisitDetails fileDetails);
     }
 
-    private class JarEntryVisitor extends EntryVisitor {
+    private static class AnalyzeJarClasses implements RunnableBuildOperation {
+        private final File jar;
+        private final List<JarClass> classes;
 
-        public JarEntryVisitor(ClassDependentsAccumulator accumulator, boolean abiOnly) {
-            super(accumulator, abiOnly);
+        AnalyzeJarClasses(File jar, List<JarClass> classes) {
+            this.jar = jar;
+            this.classes = classes;
         }
 
         @Override
-        protected HashCode getHashCode(FileVisitDetails fileDetails) {
-            InputStream inputStream = fileDetails.open();
-            try {
-                return hasher.hash(inputStream);
-            } finally {
-                IoActions.closeQuietly(inputStream);
+        public void run(BuildOperationContext context) {
+            for (JarClass jarClass : classes) {
+                jarClass.analyze();
             }
         }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Analyze " + classes.size() + " classes of " + jar);
+        }
     }
 
-    private class DirectoryEntryVisitor extends EntryVisitor {
+    private class DirectoryEntryVisitor implements FileVisitor {
+        private final ClassDependentsAccumulator accumulator;
+        private final boolean abiOnly;
 
         public DirectoryEntryVisitor(ClassDependentsAccumulator accumulator, boolean abiOnly) {
-            super(accumulator, abiOnly);
+            this.accumulator = accumulator;
+            this.abiOnly = abiOnly;
         }
 
         @Override
-        protected HashCode getHashCode(FileVisitDetails fileDetails) {
-            return fileHasher.hash(fileDetails.getFile(), fileDetails.getSize(), fileDetails.getLastModified());
+        public void visitDir(FileVisitDetails dirDetails) {
         }
-    }
 
+        @Override
+        public void visitFile(FileVisitDetails fileDetails) {
+            if (!fileDetails.getName().endsWith(".class")) {
+                return;
+            }
+
+            HashCode classFileHash = fileHasher.hash(fileDetails.getFile(), fileDetails.getSize(), fileDetails.getLastModified());
+
+            try {
+                ClassAnalysis analysis = maybeStripToAbi(analyzer.getClassAnalysis(classFileHash, fileDetails), abiOnly);
+                accumulator.addClass(analysis, classFileHash);
+            } catch (Exception e) {
+                fullRebuildNeeded(accumulator, fileDetails.getName(), e);
+            }
+        }
+    }
 }
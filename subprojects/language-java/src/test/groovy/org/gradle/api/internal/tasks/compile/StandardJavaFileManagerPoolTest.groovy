@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import java.nio.charset.StandardCharsets
+
+class StandardJavaFileManagerPoolTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def pool = new StandardJavaFileManagerPool()
+    def compiler = Mock(JavaCompiler)
+    def jar = tmpDir.createFile("lib.jar")
+    def classes = tmpDir.createDir("classes")
+    def options = ["-d", "build/classes", "-classpath", "lib.jar"]
+
+    def "reuses file manager for the same classpath once it is released"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def lease1 = pool.acquire(compiler, StandardCharsets.UTF_8, [jar, classes], options)
+        lease1.close()
+        def lease2 = pool.acquire(compiler, StandardCharsets.UTF_8, [jar, classes], options)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8) >> fileManager
+        !lease1.reused
+        lease2.reused
+        lease2.fileManager.is(fileManager)
+        0 * fileManager.close()
+    }
+
+    def "does not share file manager between concurrent compilations"() {
+        when:
+        def lease1 = pool.acquire(compiler, null, [jar], options)
+        def lease2 = pool.acquire(compiler, null, [jar], options)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [Mock(StandardJavaFileManager), Mock(StandardJavaFileManager)]
+        !lease2.reused
+        !lease2.fileManager.is(lease1.fileManager)
+    }
+
+    def "uses new file manager when a jar has changed"() {
+        when:
+        pool.acquire(compiler, null, [jar], options).close()
+        jar << "changed"
+        def lease = pool.acquire(compiler, null, [jar], options)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        !lease.reused
+    }
+
+    def "reuses file manager when the contents of a classes directory have changed"() {
+        when:
+        pool.acquire(compiler, null, [classes], options).close()
+        classes.createFile("Thing.class")
+        def lease = pool.acquire(compiler, null, [classes], options)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        lease.reused
+    }
+
+    def "closes least recently used file manager when too many are idle"() {
+        def fileManagers = (0..4).collect { Mock(StandardJavaFileManager) }
+        compiler.getStandardFileManager(null, null, null) >>> fileManagers
+
+        when:
+        5.times { pool.acquire(compiler, null, [tmpDir.createFile("lib${it}.jar")], options).close() }
+
+        then:
+        1 * fileManagers[0].close()
+        0 * fileManagers[1].close()
+        0 * fileManagers[4].close()
+    }
+
+    def "uses new file manager when the platform options differ in #option"() {
+        when:
+        pool.acquire(compiler, null, [jar], options + firstValue).close()
+        def lease = pool.acquire(compiler, null, [jar], options + secondValue)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        !lease.reused
+
+        where:
+        option            | firstValue                          | secondValue
+        "--release"       | ["--release", "8"]                  | ["--release", "11"]
+        "--release"       | ["--release", "8"]                  | []
+        "--system"        | ["--system", "jdk-a"]               | ["--system", "jdk-b"]
+        "-bootclasspath"  | ["-bootclasspath", "rt.jar"]        | ["-bootclasspath", "other-rt.jar"]
+        "-Xbootclasspath" | ["-Xbootclasspath/p:patch.jar"]     | []
+    }
+
+    def "reuses file manager when the options differ in #option"() {
+        when:
+        pool.acquire(compiler, null, [jar], options + firstValue).close()
+        def lease = pool.acquire(compiler, null, [jar], options + secondValue)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        lease.reused
+
+        where:
+        option        | firstValue                                      | secondValue
+        "-s"          | ["-s", "build/generated/sources/annotations/a"] | ["-s", "build/generated/sources/annotations/b"]
+        "-s"          | ["-s", "build/generated/sources/annotations/a"] | []
+        "-h"          | ["-h", "build/headers"]                         | []
+        "-sourcepath" | ["-sourcepath", "src"]                          | ["-sourcepath", ""]
+        "-g"          | ["-g"]                                          | []
+    }
+
+    def "clears the locations of a compilation when the file manager is leased and returned"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        def lease = pool.acquire(compiler, null, [jar], options)
+
+        then:
+        0 * fileManager.setLocation(_, _)
+
+        when:
+        lease.close()
+
+        then:
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.NATIVE_HEADER_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_PATH, null)
+
+        when:
+        pool.acquire(compiler, null, [jar], options)
+
+        then:
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.NATIVE_HEADER_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_PATH, null)
+    }
+
+    def "closes file manager whose locations cannot be cleared"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.acquire(compiler, null, [jar], options).close()
+        def lease = pool.acquire(compiler, null, [jar], options)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        fileManager.setLocation(StandardLocation.SOURCE_PATH, null) >> { throw new IOException("broken") }
+        1 * fileManager.close()
+        !lease.reused
+    }
+
+    def "reuses file manager for the same options"() {
+        when:
+        pool.acquire(compiler, null, [jar], options + ["--release", "8"]).close()
+        def lease = pool.acquire(compiler, null, [jar], options + ["--release", "8"])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        lease.reused
+    }
+}
@@ -37,6 +37,7 @@ import org.gradle.api.internal.tasks.compile.incremental.test.SomeClass
 import org.gradle.api.internal.tasks.compile.incremental.test.SomeOtherClass
 import org.gradle.api.internal.tasks.compile.incremental.test.UsedByNonPrivateConstantsClass
 import org.gradle.api.internal.tasks.compile.incremental.test.YetAnotherClass
+import org.gradle.internal.hash.HashCode
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -136,6 +137,18 @@ class DefaultClassDependenciesAnalyzerTest extends Specification {
         analyze(SomeSourceAnnotation).dependencyToAllReason
     }
 
+    def "analyzes class file content the same as a class file stream"() {
+        when:
+        def fromStream = analyze(SomeOtherClass)
+        def fromContent = analyzer.getClassAnalysis(HashCode.fromInt(1), classStream(SomeOtherClass).bytes)
+
+        then:
+        fromContent.className == fromStream.className
+        fromContent.privateClassDependencies == fromStream.privateClassDependencies
+        fromContent.accessibleClassDependencies == fromStream.accessibleClassDependencies
+        fromContent.constants == fromStream.constants
+    }
+
     InputStream classStream(Class aClass) {
         aClass.classLoader.getResourceAsStream(aClass.getName().replace(".", "/") + ".class")
     }
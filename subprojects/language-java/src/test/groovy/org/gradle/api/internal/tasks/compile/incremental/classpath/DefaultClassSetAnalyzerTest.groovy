@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.classpath
+
+import com.google.common.collect.ImmutableSet
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class DefaultClassSetAnalyzerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def streamHasher = TestFiles.streamHasher()
+    def classAnalyzer = new DefaultClassDependenciesAnalyzer(new StringInterner())
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def analyzer = new DefaultClassSetAnalyzer(Stub(FileHasher), streamHasher, classAnalyzer, Stub(FileOperations), buildOperationExecutor)
+
+    def "analyzes the classes of a large jar in batches with the same result as analyzing them one after the other"() {
+        def classes = (0..<250).collect { classFile(it) }
+        def jar = jar(classes)
+
+        when:
+        def analysis = analyzer.analyzeClasspathEntry(jar)
+
+        then:
+        buildOperationExecutor.operations*.displayName == ["Analyze 200 classes of $jar", "Analyze 50 classes of $jar"]*.toString()
+
+        and:
+        def expected = analyzeSequentially(classes)
+        analysis.fullRebuildCause == null
+        analysis.classHashes == expected.classHashes
+        analysis.classesToConstants.keySet() as List == expected.classesToConstants.keySet() as List
+        analysis.classesToConstants == expected.classesToConstants
+        analysis.dependents.keySet() == expected.dependents.keySet()
+        analysis.dependents.each { className, dependents ->
+            assert dependents.accessibleDependentClasses == expected.dependents[className].accessibleDependentClasses
+            assert dependents.privateDependentClasses == expected.dependents[className].privateDependentClasses
+        }
+    }
+
+    def "requires a full rebuild when a class of a large jar cannot be analyzed"() {
+        def classes = (0..<250).collect { classFile(it) }
+        classes.add(100, new ClassFile("p/Broken.class", [1, 2, 3] as byte[]))
+        def jar = jar(classes)
+
+        when:
+        def analysis = analyzer.analyzeClasspathEntry(jar)
+
+        then:
+        noExceptionThrown()
+        analysis.fullRebuildCause == "p/Broken.class could not be analyzed for incremental compilation. See the debug log for more details"
+        analysis.classHashes.isEmpty()
+    }
+
+    private ClassSetAnalysisData analyzeSequentially(List<ClassFile> classes) {
+        def accumulator = new ClassDependentsAccumulator()
+        classes.each { classFile ->
+            def hash = streamHasher.hash(new ByteArrayInputStream(classFile.content))
+            def analysis = classAnalyzer.getClassAnalysis(hash, classFile.content)
+            accumulator.addClass(new ClassAnalysis(analysis.className, ImmutableSet.of(), analysis.accessibleClassDependencies, analysis.dependencyToAllReason, analysis.constants), hash)
+        }
+        return accumulator.analysis
+    }
+
+    private TestFile jar(List<ClassFile> classes) {
+        def jar = tmpDir.file("lib.jar")
+        jar.withOutputStream { outputStream ->
+            def zip = new ZipOutputStream(outputStream)
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"))
+            zip.write("Manifest-Version: 1.0\n".bytes)
+            classes.each { classFile ->
+                zip.putNextEntry(new ZipEntry(classFile.name))
+                zip.write(classFile.content)
+            }
+            zip.finish()
+        }
+        return jar
+    }
+
+    private static ClassFile classFile(int index) {
+        def className = "p/C$index"
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, className, null, index == 0 ? "java/lang/Object" : "p/C${index - 1}", null)
+        writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "VALUE", "I", null, index).visitEnd()
+        writer.visitField(Opcodes.ACC_PRIVATE, "helper", "Lp/Helper$index;", null, null).visitEnd()
+        writer.visitEnd()
+        return new ClassFile("${className}.class", writer.toByteArray())
+    }
+
+    private static class ClassFile {
+        final String name
+        final byte[] content
+
+        ClassFile(String name, byte[] content) {
+            this.name = name
+            this.content = content
+        }
+    }
+}
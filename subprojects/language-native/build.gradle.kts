@@ -1,5 +1,6 @@
 plugins {
     id("gradlebuild.distribution.api-java")
+    id("gradlebuild.jmh")
 }
 
 dependencies {
@@ -52,6 +53,9 @@ dependencies {
     testImplementation(testFixtures(project(":messaging")))
     testImplementation(testFixtures(project(":snapshots")))
 
+    jmhImplementation(testFixtures(project(":core")))
+    jmhImplementation(libs.commonsIo)
+
     integTestImplementation(project(":native"))
     integTestImplementation(project(":resources"))
     integTestImplementation(libs.nativePlatform)
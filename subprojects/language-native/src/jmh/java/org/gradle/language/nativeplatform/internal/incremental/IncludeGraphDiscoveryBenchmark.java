@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.vfs.FileSystemAccess;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.RegexBackedCSourceParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Discovers the include file graphs of the source files of a synthetic project with a deep header tree, one source file at a time and from several threads.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class IncludeGraphDiscoveryBenchmark {
+    private static final int HEADER_LEVELS = 8;
+    private static final int HEADERS_PER_LEVEL = 100;
+    private static final int INCLUDES_PER_FILE = 5;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1000"})
+    int sourceFileCount;
+
+    @Param({"4"})
+    int threads;
+
+    File projectDir;
+    File includeDir;
+    List<File> sourceFiles;
+    FileSystemAccess fileSystemAccess;
+    ExecutorService executor;
+
+    @Setup
+    public void setup() throws IOException {
+        projectDir = Files.createTempDirectory("include-graph").toFile();
+        includeDir = new File(projectDir, "include");
+        Random random = new Random(42);
+        for (int level = 0; level < HEADER_LEVELS; level++) {
+            for (int i = 0; i < HEADERS_PER_LEVEL; i++) {
+                StringBuilder content = new StringBuilder();
+                String guard = "HEADER_" + level + "_" + i;
+                content.append("#ifndef ").append(guard).append("\n#define ").append(guard).append("\n");
+                if (level < HEADER_LEVELS - 1) {
+                    appendIncludes(content, level + 1, random);
+                }
+                content.append("int function_").append(level).append("_").append(i).append("();\n#endif\n");
+                write(new File(includeDir, header(level, i)), content);
+            }
+        }
+        sourceFiles = new ArrayList<File>(sourceFileCount);
+        for (int i = 0; i < sourceFileCount; i++) {
+            StringBuilder content = new StringBuilder();
+            appendIncludes(content, 0, random);
+            content.append("int main_").append(i).append("() { return 0; }\n");
+            File sourceFile = new File(projectDir, "src/source" + i + ".cpp");
+            write(sourceFile, content);
+            sourceFiles.add(sourceFile);
+        }
+        fileSystemAccess = TestFiles.fileSystemAccess();
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        FileUtils.deleteDirectory(projectDir);
+    }
+
+    @Benchmark
+    public IncrementalCompilation discoverSequentially() {
+        IncrementalCompileSourceProcessor processor = newProcessor();
+        List<File> toRecompile = new ArrayList<File>();
+        for (File sourceFile : sourceFiles) {
+            if (processor.processSource(sourceFile)) {
+                toRecompile.add(sourceFile);
+            }
+        }
+        return processor.getResult(toRecompile);
+    }
+
+    @Benchmark
+    public IncrementalCompilation discoverInParallel() throws Exception {
+        IncrementalCompileSourceProcessor processor = newProcessor();
+        List<Future<List<File>>> batches = new ArrayList<Future<List<File>>>();
+        for (int start = 0; start < sourceFiles.size(); start += BATCH_SIZE) {
+            List<File> batch = sourceFiles.subList(start, Math.min(start + BATCH_SIZE, sourceFiles.size()));
+            batches.add(executor.submit(() -> {
+                List<File> toRecompile = new ArrayList<File>();
+                for (File sourceFile : batch) {
+                    if (processor.processSource(sourceFile)) {
+                        toRecompile.add(sourceFile);
+                    }
+                }
+                return toRecompile;
+            }));
+        }
+        List<File> toRecompile = new ArrayList<File>();
+        for (Future<List<File>> batch : batches) {
+            toRecompile.addAll(batch.get());
+        }
+        return processor.getResult(toRecompile);
+    }
+
+    private IncrementalCompileSourceProcessor newProcessor() {
+        // A new resolver and processor for each build, as for a compile task
+        DefaultSourceIncludesParser sourceIncludesParser = new DefaultSourceIncludesParser(new RegexBackedCSourceParser(), true);
+        DefaultSourceIncludesResolver sourceIncludesResolver = new DefaultSourceIncludesResolver(Collections.singletonList(includeDir), fileSystemAccess);
+        return new IncrementalCompileFilesFactory(IncludeDirectives.EMPTY, sourceIncludesParser, sourceIncludesResolver, fileSystemAccess).files(null);
+    }
+
+    private static void appendIncludes(StringBuilder content, int level, Random random) {
+        for (int i = 0; i < INCLUDES_PER_FILE; i++) {
+            content.append("#include <").append(header(level, random.nextInt(HEADERS_PER_LEVEL))).append(">\n");
+        }
+    }
+
+    private static String header(int level, int index) {
+        return "level" + level + "/header" + index + ".h";
+    }
+
+    private static void write(File file, CharSequence content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
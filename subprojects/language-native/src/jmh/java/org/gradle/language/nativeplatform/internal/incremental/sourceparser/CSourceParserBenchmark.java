@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Compares parsing a large generated header, line by line through a reader and by scanning its bytes for directive lines.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    @Param({"100", "10000"})
+    int declarations;
+
+    RegexBackedCSourceParser parser;
+    File header;
+
+    @Setup
+    public void setup() throws IOException {
+        parser = new RegexBackedCSourceParser();
+        StringBuilder content = new StringBuilder();
+        content.append("/*\n * A generated header.\n */\n#ifndef GENERATED_H\n#define GENERATED_H\n#include <stddef.h>\n#include \"config.h\"\n");
+        for (int i = 0; i < declarations; i++) {
+            content.append("// Declaration ").append(i).append("\n");
+            content.append("extern int generated_function_").append(i).append("(const char *name, size_t length); /* \"generated\" */\n");
+            if (i % 100 == 0) {
+                content.append("#define GENERATED_").append(i).append(" \"generated_").append(i).append(".h\"\n");
+                content.append("#include GENERATED_").append(i).append("\n");
+            }
+        }
+        content.append("#endif\n");
+        header = File.createTempFile("generated", ".h");
+        Files.write(header.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        header.delete();
+    }
+
+    @Benchmark
+    public IncludeDirectives readLines() throws IOException {
+        try (Reader reader = new FileReader(header)) {
+            return parser.parseSource(reader);
+        }
+    }
+
+    @Benchmark
+    public IncludeDirectives scanDirectiveLines() {
+        return parser.parseSource(header);
+    }
+}
@@ -18,12 +18,12 @@
 import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BuildableCompilationState {
-    private final Map<File, SourceFileState> sourceFileStates = new HashMap<File, SourceFileState>();
+    private final Map<File, SourceFileState> sourceFileStates = new ConcurrentHashMap<File, SourceFileState>();
 
     public Set<File> getSourceInputs() {
         return sourceFileStates.keySet();
@@ -34,17 +34,17 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private static final MissingIncludeFile MISSING_INCLUDE_FILE = new MissingIncludeFile();
     private final FileSystemAccess fileSystemAccess;
-    private final Map<File, DirectoryContents> includeRoots = new HashMap<File, DirectoryContents>();
+    private final Map<File, DirectoryContents> includeRoots = new ConcurrentHashMap<File, DirectoryContents>();
     private final FixedIncludePath includePath;
 
     public DefaultSourceIncludesResolver(List<File> includePaths, FileSystemAccess fileSystemAccess) {
@@ -259,12 +259,7 @@ public IncludeFile resolveInclude(@Nullable File sourceFile, String includePath)
     }
 
     private DirectoryContents toDir(File includeDir) {
-        DirectoryContents directoryContents = includeRoots.get(includeDir);
-        if (directoryContents == null) {
-            directoryContents = new DirectoryContents(includeDir);
-            includeRoots.put(includeDir, directoryContents);
-        }
-        return directoryContents;
+        return includeRoots.computeIfAbsent(includeDir, DirectoryContents::new);
     }
 
     private IncludePath prependSourceDir(File sourceFile, FixedIncludePath includePaths) {
@@ -303,7 +298,7 @@ IncludeFile searchForDependency(String includePath, boolean quotedPath) {
 
     private static class FixedIncludePath extends IncludePath {
         private final List<DirectoryContents> directories;
-        private final Map<String, CachedIncludeFile> cachedLookups = new HashMap<String, CachedIncludeFile>();
+        private final Map<String, CachedIncludeFile> cachedLookups = new ConcurrentHashMap<String, CachedIncludeFile>();
 
         FixedIncludePath(List<DirectoryContents> directories) {
             this.directories = directories;
@@ -323,6 +318,7 @@ IncludeFile searchForDependency(String includePath, boolean quotedPath) {
                 if (includeFile == null) {
                     includeFile = MISSING_INCLUDE_FILE;
                 }
+                // Lookups may race, in which case both find the same file
                 cachedLookups.put(includePath, includeFile);
             }
             if (includeFile.getType() == FileType.RegularFile) {
@@ -338,20 +334,26 @@ public boolean startsWith(File sourceDir) {
 
     private class DirectoryContents {
         private final File searchDir;
-        private final Map<String, CachedIncludeFile> contents = new HashMap<String, CachedIncludeFile>();
+        private final Map<String, CachedIncludeFile> contents = new ConcurrentHashMap<String, CachedIncludeFile>();
 
         DirectoryContents(File searchDir) {
             this.searchDir = searchDir;
         }
 
         CachedIncludeFile get(String includePath) {
-            return contents.computeIfAbsent(includePath,
-                key -> {
-                    File candidate = normalizeIncludePath(searchDir, includePath);
-                    return fileSystemAccess.readRegularFileContentHash(candidate.getAbsolutePath(),
-                            contentHash -> (CachedIncludeFile) new SystemIncludeFile(candidate, key, contentHash)
-                        ).orElse(MISSING_INCLUDE_FILE);
-                });
+            CachedIncludeFile includeFile = contents.get(includePath);
+            if (includeFile == null) {
+                // Not computed while holding the lock of the map, as this may snapshot the file
+                File candidate = normalizeIncludePath(searchDir, includePath);
+                includeFile = fileSystemAccess.readRegularFileContentHash(candidate.getAbsolutePath(),
+                        contentHash -> (CachedIncludeFile) new SystemIncludeFile(candidate, includePath, contentHash)
+                    ).orElse(MISSING_INCLUDE_FILE);
+                CachedIncludeFile existing = contents.putIfAbsent(includePath, includeFile);
+                if (existing != null) {
+                    includeFile = existing;
+                }
+            }
+            return includeFile;
         }
     }
 
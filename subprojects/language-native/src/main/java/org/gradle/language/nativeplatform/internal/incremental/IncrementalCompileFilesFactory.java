@@ -36,6 +36,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class IncrementalCompileFilesFactory {
 
@@ -63,31 +64,21 @@ public IncrementalCompileSourceProcessor files(CompilationState previousCompileS
     private class DefaultIncrementalCompileSourceProcessor implements IncrementalCompileSourceProcessor {
         private final CompilationState previous;
         private final BuildableCompilationState current = new BuildableCompilationState();
-        private final List<File> toRecompile = new ArrayList<File>();
-        private final Set<File> existingHeaders = new HashSet<File>();
-        private final Map<File, FileDetails> visitedFiles = new HashMap<File, FileDetails>();
-        private boolean hasUnresolvedHeaders;
+        private final Set<File> existingHeaders = ConcurrentHashMap.newKeySet();
+        private final Map<File, FileDetails> visitedFiles = new ConcurrentHashMap<File, FileDetails>();
+        private volatile boolean hasUnresolvedHeaders;
 
         DefaultIncrementalCompileSourceProcessor(CompilationState previousCompileState) {
             this.previous = previousCompileState == null ? new CompilationState() : previousCompileState;
         }
 
         @Override
-        public IncrementalCompilation getResult() {
+        public IncrementalCompilation getResult(List<File> toRecompile) {
             return new DefaultIncrementalCompilation(current.snapshot(), toRecompile, getRemovedSources(), existingHeaders, hasUnresolvedHeaders);
         }
 
         @Override
-        public void processSource(File sourceFile) {
-            if (visitSourceFile(sourceFile)) {
-                toRecompile.add(sourceFile);
-            }
-        }
-
-        /**
-         * @return true if this source file requires recompilation, false otherwise.
-         */
-        private boolean visitSourceFile(File sourceFile) {
+        public boolean processSource(File sourceFile) {
             return fileSystemAccess.readRegularFileContentHash(sourceFile.getAbsolutePath(),
                 fileContent -> {
                     SourceFileState previousState = previous.getState(sourceFile);
@@ -176,7 +167,11 @@ private FileVisitResult visitFile(File file, HashCode newHash, CollectingMacroLo
             if (fileDetails == null) {
                 IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
                 fileDetails = new FileDetails(includeDirectives);
-                visitedFiles.put(file, fileDetails);
+                FileDetails existing = visitedFiles.putIfAbsent(file, fileDetails);
+                if (existing != null) {
+                    // Parsed concurrently for another source file
+                    fileDetails = existing;
+                }
             }
 
             CollectingMacroLookup includedFileDirectives = new CollectingMacroLookup();
@@ -235,13 +230,13 @@ private enum IncludeFileResolutionResult {
     }
 
     /**
-     * Details of a file that are independent of where the file appears in the file include graph.
+     * Details of a file that are independent of where the file appears in the file include graph. Shared by the source files being processed.
      */
     private static class FileDetails {
         final IncludeDirectives directives;
         // Non-null when the result of visiting this file can be reused
         @Nullable
-        FileVisitResult results;
+        volatile FileVisitResult results;
 
         FileDetails(IncludeDirectives directives) {
             this.directives = directives;
@@ -296,7 +291,10 @@ void collectFilesInto(Collection<IncludeFileEdge> files, Set<File> seen) {
         public void collectInto(CollectingMacroLookup lookup) {
             if (includeDirectives != null) {
                 lookup.append(file, includeDirectives);
-                includeFileDirectives.appendTo(lookup);
+                // The directives are collected lazily, and a reusable result can be collected by several source files at the same time
+                synchronized (includeFileDirectives) {
+                    includeFileDirectives.appendTo(lookup);
+                }
             }
         }
     }
@@ -15,24 +15,43 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.cache.PersistentStateCache;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.CallableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
+/**
+ * Calculates which source files need to be recompiled, based on their include file graphs.
+ *
+ * <p>The include file graphs of the source files can be calculated in parallel, in batches, with {@code -Dorg.gradle.internal.native.headers.parallel=true}.
+ * The batches share the results for the header files they have in common.</p>
+ */
 public class IncrementalCompileProcessor {
+    private static final String PARALLEL_PROPERTY_NAME = "org.gradle.internal.native.headers.parallel";
+    private static final int BATCH_SIZE = 100;
+
     private final PersistentStateCache<CompilationState> previousCompileStateCache;
     private final IncrementalCompileFilesFactory incrementalCompileFilesFactory;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final boolean parallel;
 
     public IncrementalCompileProcessor(PersistentStateCache<CompilationState> previousCompileStateCache, IncrementalCompileFilesFactory incrementalCompileFilesFactory, BuildOperationExecutor buildOperationExecutor) {
+        this(previousCompileStateCache, incrementalCompileFilesFactory, buildOperationExecutor, Boolean.getBoolean(PARALLEL_PROPERTY_NAME));
+    }
+
+    IncrementalCompileProcessor(PersistentStateCache<CompilationState> previousCompileStateCache, IncrementalCompileFilesFactory incrementalCompileFilesFactory, BuildOperationExecutor buildOperationExecutor, boolean parallel) {
         this.previousCompileStateCache = previousCompileStateCache;
         this.incrementalCompileFilesFactory = incrementalCompileFilesFactory;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.parallel = parallel;
     }
 
     public IncrementalCompilation processSourceFiles(final Collection<File> sourceFiles) {
@@ -41,10 +60,27 @@ public IncrementalCompilation processSourceFiles(final Collection<File> sourceFi
             public IncrementalCompilation call(BuildOperationContext context) {
                 CompilationState previousCompileState = previousCompileStateCache.get();
                 IncrementalCompileSourceProcessor processor = incrementalCompileFilesFactory.files(previousCompileState);
-                for (File sourceFile : sourceFiles) {
-                    processor.processSource(sourceFile);
+                List<File> orderedSourceFiles = ImmutableList.copyOf(sourceFiles);
+                boolean[] recompile = new boolean[orderedSourceFiles.size()];
+                if (parallel && orderedSourceFiles.size() > BATCH_SIZE) {
+                    buildOperationExecutor.runAll(queue -> {
+                        for (int start = 0; start < orderedSourceFiles.size(); start += BATCH_SIZE) {
+                            queue.add(new ProcessSourceFilesBatch(processor, orderedSourceFiles, start, Math.min(start + BATCH_SIZE, orderedSourceFiles.size()), recompile));
+                        }
+                    });
+                } else {
+                    for (int i = 0; i < orderedSourceFiles.size(); i++) {
+                        recompile[i] = processor.processSource(orderedSourceFiles.get(i));
+                    }
+                }
+                // Keep the source files to recompile in the order they were given, however they were processed
+                List<File> toRecompile = new ArrayList<File>();
+                for (int i = 0; i < orderedSourceFiles.size(); i++) {
+                    if (recompile[i]) {
+                        toRecompile.add(orderedSourceFiles.get(i));
+                    }
                 }
-                return processor.getResult();
+                return processor.getResult(toRecompile);
             }
 
             @Override
@@ -69,4 +105,31 @@ public int getSourceFileCount() {
         });
     }
 
+    private static class ProcessSourceFilesBatch implements RunnableBuildOperation {
+        private final IncrementalCompileSourceProcessor processor;
+        private final List<File> sourceFiles;
+        private final int start;
+        private final int end;
+        private final boolean[] recompile;
+
+        ProcessSourceFilesBatch(IncrementalCompileSourceProcessor processor, List<File> sourceFiles, int start, int end, boolean[] recompile) {
+            this.processor = processor;
+            this.sourceFiles = sourceFiles;
+            this.start = start;
+            this.end = end;
+            this.recompile = recompile;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            for (int i = start; i < end; i++) {
+                recompile[i] = processor.processSource(sourceFiles.get(i));
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Processing source files " + (start + 1) + " to " + end);
+        }
+    }
 }
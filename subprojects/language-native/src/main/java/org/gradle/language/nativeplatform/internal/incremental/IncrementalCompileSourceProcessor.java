@@ -17,9 +17,15 @@
 package org.gradle.language.nativeplatform.internal.incremental;
 
 import java.io.File;
+import java.util.List;
 
 public interface IncrementalCompileSourceProcessor {
-    void processSource(File sourceFile);
+    /**
+     * Calculates the include file graph of the given source file. May be called concurrently for different source files.
+     *
+     * @return true if this source file requires recompilation, false otherwise.
+     */
+    boolean processSource(File sourceFile);
 
-    IncrementalCompilation getResult();
+    IncrementalCompilation getResult(List<File> toRecompile);
 }
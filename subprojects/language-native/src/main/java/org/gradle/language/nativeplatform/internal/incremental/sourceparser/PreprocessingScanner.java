@@ -0,0 +1,218 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A byte oriented equivalent of {@link PreprocessingReader}, that only collects the lines that may be preprocessor directives.
+ *
+ * <p>Comments and line continuations are handled exactly as by {@link PreprocessingReader}, so the state carried from one line to the next is the same.
+ * A line is collected when its first character, after whitespace, is a {@code #} or a non-ASCII character, and is collected from that character.
+ * Other lines are skipped without decoding them. This relies on the encoding of the content leaving the ASCII characters unchanged and not using their
+ * bytes for any other character, which {@link #canScan(Charset)} checks.</p>
+ */
+public class PreprocessingScanner {
+    private final byte[] content;
+    private final Charset charset;
+    private int pos;
+    private byte[] line = new byte[128];
+    private int lineLength;
+
+    /**
+     * Whether or not the scanner is currently in the middle of a string literal.
+     */
+    private boolean inString;
+
+    /**
+     * Whether or not the last char has been a backslash.
+     */
+    private boolean quoted;
+
+    public PreprocessingScanner(byte[] content, Charset charset) {
+        this.content = content;
+        this.charset = charset;
+    }
+
+    /**
+     * Can content in the given encoding be scanned?
+     */
+    public static boolean canScan(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Collects the next line that may be a directive into the given buffer, starting from its first character that is not whitespace. Does not include the line separators.
+     *
+     * @return true if such a line is available, false when end of content reached.
+     */
+    public boolean readNextDirectiveLine(StringBuilder buffer) {
+        while (true) {
+            lineLength = 0;
+            boolean leading = true;
+            boolean collect = false;
+            boolean endOfLine = false;
+            int ch;
+            while ((ch = read()) >= 0) {
+                if (ch == '\n') {
+                    endOfLine = true;
+                    break;
+                }
+                if (ch == '\r') {
+                    int next = next();
+                    if (next != '\n') {
+                        pushBack();
+                    }
+                    endOfLine = true;
+                    break;
+                }
+                if (leading) {
+                    if (isAsciiWhitespace(ch)) {
+                        continue;
+                    }
+                    leading = false;
+                    // Whether a non-ASCII character is whitespace is left to the parser
+                    collect = ch == '#' || ch >= 0x80;
+                }
+                if (collect) {
+                    append(ch);
+                }
+            }
+            if (collect) {
+                decodeLineInto(buffer);
+                return true;
+            }
+            if (!endOfLine) {
+                // End of content
+                return false;
+            }
+        }
+    }
+
+    private static boolean isAsciiWhitespace(int ch) {
+        // Same as Character.isWhitespace() for ASCII characters, plus the null character, as skipped by RegexBackedCSourceParser
+        return ch == ' ' || (ch >= 0x09 && ch <= 0x0d) || (ch >= 0x1c && ch <= 0x1f) || ch == 0;
+    }
+
+    private void append(int ch) {
+        if (lineLength == line.length) {
+            byte[] newLine = new byte[line.length * 2];
+            System.arraycopy(line, 0, newLine, 0, lineLength);
+            line = newLine;
+        }
+        line[lineLength++] = (byte) ch;
+    }
+
+    private void decodeLineInto(StringBuilder buffer) {
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] < 0) {
+                buffer.append(new String(line, 0, lineLength, charset));
+                return;
+            }
+        }
+        // ASCII only, so no need to decode
+        for (int i = 0; i < lineLength; i++) {
+            buffer.append((char) line[i]);
+        }
+    }
+
+    /**
+     * Returns the next character in the filtered content, see {@link PreprocessingReader}.
+     */
+    private int read() {
+        int ch = next();
+
+        if (ch == '\\') {
+            if (discardNewLine()) {
+                return read();
+            }
+        }
+
+        if (ch == '"' && !quoted) {
+            inString = !inString;
+            quoted = false;
+        } else if (ch == '\\') {
+            quoted = !quoted;
+        } else {
+            quoted = false;
+            if (!inString) {
+                if (ch == '/') {
+                    ch = next();
+                    if (ch == '/') {
+                        while (ch != '\n' && ch != -1 && ch != '\r') {
+                            ch = next();
+                        }
+                    } else if (ch == '*') {
+                        while (ch != -1) {
+                            ch = next();
+                            if (ch == '*') {
+                                ch = next();
+                                while (ch == '*') {
+                                    ch = next();
+                                }
+
+                                if (ch == '/') {
+                                    ch = ' ';
+                                    break;
+                                }
+                            }
+                        }
+                    } else {
+                        pushBack();
+                        ch = '/';
+                    }
+                }
+            }
+        }
+
+        return ch;
+    }
+
+    private boolean discardNewLine() {
+        int nextChar = next();
+        if (nextChar == '\n') {
+            return true; // '\\\n' discarded from content
+        } else if (nextChar == '\r') {
+            int followingChar = next();
+            if (followingChar == '\n') {
+                return true; // '\\\r\n' discarded from content
+            }
+            pushBack();
+            pushBack();
+            return false;
+        } else {
+            pushBack();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the next byte, or -1 past the end of the content. Always advances, so that {@link #pushBack()} can step back over the end of the content.
+     */
+    private int next() {
+        int index = pos++;
+        return index < content.length ? content[index] & 0xff : -1;
+    }
+
+    /**
+     * Pushes back the last byte returned by {@link #next()}. Characters are only ever pushed back in the order they were read.
+     */
+    private void pushBack() {
+        pos--;
+    }
+}
@@ -33,6 +33,8 @@
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -47,23 +49,35 @@
 public class RegexBackedCSourceParser implements CSourceParser {
     @Override
     public IncludeDirectives parseSource(File sourceFile) {
-        try (Reader fileReader = new FileReader(sourceFile)) {
-            return parseSource(fileReader);
+        try {
+            // The encoding used by FileReader
+            Charset charset = Charset.defaultCharset();
+            if (PreprocessingScanner.canScan(charset)) {
+                // Only decode the lines that may be directives
+                PreprocessingScanner scanner = new PreprocessingScanner(Files.readAllBytes(sourceFile.toPath()), charset);
+                return parseLines(scanner::readNextDirectiveLine);
+            }
+            try (Reader fileReader = new FileReader(sourceFile)) {
+                return parseSource(fileReader);
+            }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not extract includes from source file %s.", sourceFile), e);
         }
     }
 
     protected IncludeDirectives parseSource(Reader sourceReader) throws IOException {
+        PreprocessingReader lineReader = new PreprocessingReader(new BufferedReader(sourceReader));
+        return parseLines(lineReader::readNextLine);
+    }
+
+    private IncludeDirectives parseLines(LineSource lineSource) throws IOException {
         Set<Include> includes = Sets.newLinkedHashSet();
         List<Macro> macros = Lists.newArrayList();
         List<MacroFunction> macroFunctions = Lists.newArrayList();
-        BufferedReader reader = new BufferedReader(sourceReader);
-        PreprocessingReader lineReader = new PreprocessingReader(reader);
         Buffer buffer = new Buffer();
         while (true) {
             buffer.reset();
-            if (!lineReader.readNextLine(buffer.value)) {
+            if (!lineSource.readNextLine(buffer.value)) {
                 break;
             }
             buffer.consumeWhitespace();
@@ -505,6 +519,15 @@ private static int consumeWhitespace(CharSequence value, int startOffset) {
         return pos;
     }
 
+    private interface LineSource {
+        /**
+         * Collects the next line, or at least the next line that may be a directive, into the given buffer.
+         *
+         * @return true if a line is available, false when end of input reached.
+         */
+        boolean readNextLine(StringBuilder buffer) throws IOException;
+    }
+
     private static class Buffer {
         final StringBuilder value = new StringBuilder();
         int pos = 0;
@@ -382,6 +382,33 @@ class IncrementalCompileProcessorTest extends Specification {
         result.unresolvedHeaders
     }
 
+    def "processes source files in batches and reports them in order"() {
+        given:
+        def buildOperationExecutor = new TestBuildOperationExecutor()
+        incrementalCompileProcessor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(IncludeDirectives.EMPTY, includesParser, dependencyResolver, fileSystemAccess), buildOperationExecutor, true)
+        sourceFiles = (1..250).collect { sourceFile("parallel${it}") }
+        sourceFiles.each {
+            graph[it] = [dep1]
+        }
+        graph.keySet().each {
+            parse(it)
+        }
+
+        when:
+        def result = state
+
+        then:
+        result.recompile == sourceFiles
+        result.existingHeaders == [dep1, dep3] as Set
+        buildOperationExecutor.log.records*.descriptor*.displayName.findAll { it.startsWith("Processing source files ") } == ["Processing source files 1 to 100", "Processing source files 101 to 200", "Processing source files 201 to 250"]
+
+        when:
+        modified(sourceFiles[150])
+
+        then:
+        checkCompile recompiled: [sourceFiles[150]], removed: []
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with(state) {
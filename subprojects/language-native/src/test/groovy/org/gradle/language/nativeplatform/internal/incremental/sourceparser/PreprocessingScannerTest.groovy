@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets
+
+class PreprocessingScannerTest extends Specification {
+    private static final List<String> FRAGMENTS = [
+        "#include <a.h>", "#include \"b.h\"", "#import <c.h>", "#include MACRO", "#include FUNC(x)",
+        "#define MACRO \"d.h\"", "#define FUNC(p) <p.h>", "  #  define OTHER MACRO",
+        "/*", "*/", "//", "\"", "\\", "\r", "\n", "\r\n", "\\\n", "\\\r\n", " ", "\t", "\0",
+        "#", "x", "/", "*", "(", ")", "\u00e9", "\u3000", "\uFEFF"
+    ]
+
+    @Rule
+    final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider(getClass())
+
+    def "collects lines that may be directives"() {
+        expect:
+        directiveLines(" #include <a.h>\nint x;\n\t# define X\n/* comment */#import <b.h>\n\u00e9\n#") == ["#include <a.h>", "# define X", "#import <b.h>", "\u00e9", "#"]
+    }
+
+    def "carries comments, strings and line continuations over to the next line"() {
+        expect:
+        directiveLines("/*\n#include <a.h>\n*/#include <b.h>\nchar *s = \"\\\n#include <c.h>\";\n#define A \\\n  B") == ["#include <b.h>", "#define A   B"]
+    }
+
+    def "handles all line separators"() {
+        expect:
+        directiveLines("#include <a.h>${eol}x${eol}#include <b.h>${eol}") == ["#include <a.h>", "#include <b.h>"]
+
+        where:
+        eol << ['\n', '\r', '\r\n']
+    }
+
+    def "decodes lines with non-ASCII characters"() {
+        expect:
+        directiveLines("#include <\u00e9.h>\n#include <a.h>", charset) == ["#include <\u00e9.h>", "#include <a.h>"]
+
+        where:
+        charset << [StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1]
+    }
+
+    def "only scans encodings that leave ASCII characters unchanged"() {
+        expect:
+        PreprocessingScanner.canScan(StandardCharsets.UTF_8)
+        PreprocessingScanner.canScan(StandardCharsets.US_ASCII)
+        PreprocessingScanner.canScan(StandardCharsets.ISO_8859_1)
+        !PreprocessingScanner.canScan(StandardCharsets.UTF_16)
+    }
+
+    def "parses the same directives as the reader based parser"() {
+        def parser = new RegexBackedCSourceParser()
+        def random = new Random(42)
+        def sourceFile = temporaryFolder.testDirectory.file("source.c")
+
+        expect:
+        1000.times {
+            def text = new StringBuilder()
+            random.nextInt(40).times {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.size())])
+            }
+            sourceFile.bytes = text.toString().getBytes(Charset.defaultCharset())
+            def expected = parser.parseSource(new StringReader(new String(sourceFile.bytes, Charset.defaultCharset())))
+            assert describe(parser.parseSource(sourceFile)) == describe(expected)
+        }
+    }
+
+    private static List<String> directiveLines(String text, Charset charset = StandardCharsets.UTF_8) {
+        def scanner = new PreprocessingScanner(text.getBytes(charset), charset)
+        def lines = []
+        def line = new StringBuilder()
+        while (scanner.readNextDirectiveLine(line)) {
+            lines << line.toString()
+            line.setLength(0)
+        }
+        return lines
+    }
+
+    private static List<String> describe(IncludeDirectives directives) {
+        return directives.all*.asSourceText + directives.allMacros*.asSourceText + directives.allMacroFunctions.collect { it.toString() + "/" + it.parameterCount }
+    }
+}
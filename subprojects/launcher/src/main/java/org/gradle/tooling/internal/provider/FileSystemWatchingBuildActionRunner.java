@@ -19,6 +19,8 @@
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.StartParameterInternal;
 import org.gradle.api.internal.changedetection.state.FileHasherStatistics;
+import org.gradle.api.internal.file.collections.DirectoryWalkerStatistics;
+import org.gradle.api.internal.file.collections.SnapshotBackedDirectoryWalker;
 import org.gradle.internal.file.StatStatistics;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.buildtree.BuildActionRunner;
@@ -59,6 +61,7 @@ public Result run(BuildAction action, BuildTreeLifecycleController buildControll
         StatStatistics.Collector statStatisticsCollector = services.get(StatStatistics.Collector.class);
         FileHasherStatistics.Collector fileHasherStatisticsCollector = services.get(FileHasherStatistics.Collector.class);
         DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector = services.get(DirectorySnapshotterStatistics.Collector.class);
+        DirectoryWalkerStatistics.Collector directoryWalkerStatisticsCollector = services.get(DirectoryWalkerStatistics.Collector.class);
         BuildOperationRunner buildOperationRunner = services.get(BuildOperationRunner.class);
 
         WatchMode watchFileSystemMode = startParameter.getWatchFileSystemMode();
@@ -74,7 +77,7 @@ public Result run(BuildAction action, BuildTreeLifecycleController buildControll
             dropVirtualFileSystemIfRequested(startParameter, virtualFileSystem);
         }
         if (verboseVfsLogging == VfsLogging.VERBOSE) {
-            logVfsStatistics("since last build", statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector);
+            logVfsStatistics("since last build", statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector, directoryWalkerStatisticsCollector);
         }
 
         boolean actuallyWatching = virtualFileSystem.afterBuildStarted(watchFileSystemMode, verboseVfsLogging, debugWatchLogging, buildOperationRunner);
@@ -86,13 +89,24 @@ public boolean isEnabled() {
             }
         });
 
+        boolean visitFileTreesFromVfs = actuallyWatching && VirtualFileSystemServices.isVisitFileTreesFromVfs(startParameter);
+        SnapshotBackedDirectoryWalker snapshotBackedDirectoryWalker = services.get(SnapshotBackedDirectoryWalker.class);
+        if (visitFileTreesFromVfs) {
+            // Only while watching, as the VFS is then kept up to date with changes made to the file system during the build
+            LOGGER.info("Visiting file trees using the virtual file system");
+            snapshotBackedDirectoryWalker.setEnabled(true);
+        }
+
         try {
             return delegate.run(action, buildController);
         } finally {
+            if (visitFileTreesFromVfs) {
+                snapshotBackedDirectoryWalker.setEnabled(false);
+            }
             int maximumNumberOfWatchedHierarchies = VirtualFileSystemServices.getMaximumNumberOfWatchedHierarchies(startParameter);
             virtualFileSystem.beforeBuildFinished(watchFileSystemMode, verboseVfsLogging, debugWatchLogging, buildOperationRunner, maximumNumberOfWatchedHierarchies);
             if (verboseVfsLogging == VfsLogging.VERBOSE) {
-                logVfsStatistics("during current build", statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector);
+                logVfsStatistics("during current build", statStatisticsCollector, fileHasherStatisticsCollector, directorySnapshotterStatisticsCollector, directoryWalkerStatisticsCollector);
             }
         }
     }
@@ -101,12 +115,14 @@ private static void logVfsStatistics(
         String title,
         StatStatistics.Collector statStatisticsCollector,
         FileHasherStatistics.Collector fileHasherStatisticsCollector,
-        DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector
+        DirectorySnapshotterStatistics.Collector directorySnapshotterStatisticsCollector,
+        DirectoryWalkerStatistics.Collector directoryWalkerStatisticsCollector
     ) {
         LOGGER.warn("VFS> Statistics {}:", title);
         LOGGER.warn("VFS> > Stat: {}", statStatisticsCollector.collect());
         LOGGER.warn("VFS> > FileHasher: {}", fileHasherStatisticsCollector.collect());
         LOGGER.warn("VFS> > DirectorySnapshotter: {}", directorySnapshotterStatisticsCollector.collect());
+        LOGGER.warn("VFS> > DirectoryWalker: {}", directoryWalkerStatisticsCollector.collect());
     }
 
     private static void dropVirtualFileSystemIfRequested(StartParameterInternal startParameter, BuildLifecycleAwareVirtualFileSystem virtualFileSystem) {
@@ -63,6 +63,7 @@
 import org.gradle.tooling.internal.protocol.InternalBuildCancelledException;
 import org.gradle.tooling.internal.protocol.InternalBuildProgressListener;
 import org.gradle.tooling.internal.protocol.InternalPhasedAction;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.internal.protocol.PhasedActionResultListener;
@@ -164,8 +165,14 @@ public Object runClientAction(Object clientAction, BuildCancellationToken cancel
         Parameters params = initParams(providerParameters);
         StartParameterInternal startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.buildLayout, params.properties);
         ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters, consumerVersion);
-        BuildAction action = new ClientProvidedBuildAction(startParameter, serializedAction, tasks != null, listenerConfig.clientSubscriptions);
-        return run(action, cancellationToken, listenerConfig, listenerConfig.buildEventConsumer, providerParameters, params);
+        InternalStreamedValueListener streamedValueListener = providerParameters.getStreamedValueListener(null);
+        BuildAction action = new ClientProvidedBuildAction(startParameter, serializedAction, tasks != null, streamedValueListener != null, listenerConfig.clientSubscriptions);
+        StreamedValueEventConsumer streamedValueConsumer = new StreamedValueEventConsumer(streamedValueListener, payloadSerializer, listenerConfig.buildEventConsumer);
+        try {
+            return run(action, cancellationToken, listenerConfig, streamedValueConsumer, providerParameters, params);
+        } finally {
+            streamedValueConsumer.rethrowErrors();
+        }
     }
 
     public Object runPhasedAction(InternalPhasedAction clientPhasedAction,
@@ -178,12 +185,15 @@ public Object runPhasedAction(InternalPhasedAction clientPhasedAction,
         StartParameterInternal startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.buildLayout, params.properties);
         FailsafePhasedActionResultListener failsafePhasedActionResultListener = new FailsafePhasedActionResultListener(resultListener);
         ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters, consumerVersion);
-        BuildAction action = new ClientProvidedPhasedAction(startParameter, serializedAction, tasks != null, listenerConfig.clientSubscriptions);
+        InternalStreamedValueListener streamedValueListener = providerParameters.getStreamedValueListener(null);
+        BuildAction action = new ClientProvidedPhasedAction(startParameter, serializedAction, tasks != null, streamedValueListener != null, listenerConfig.clientSubscriptions);
+        StreamedValueEventConsumer streamedValueConsumer = new StreamedValueEventConsumer(streamedValueListener, payloadSerializer, listenerConfig.buildEventConsumer);
         try {
-            return run(action, cancellationToken, listenerConfig, new PhasedActionEventConsumer(failsafePhasedActionResultListener, payloadSerializer, listenerConfig.buildEventConsumer),
+            return run(action, cancellationToken, listenerConfig, new PhasedActionEventConsumer(failsafePhasedActionResultListener, payloadSerializer, streamedValueConsumer),
                 providerParameters, params);
         } finally {
             failsafePhasedActionResultListener.rethrowErrors();
+            streamedValueConsumer.rethrowErrors();
         }
     }
 
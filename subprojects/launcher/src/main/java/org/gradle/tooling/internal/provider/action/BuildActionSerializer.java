@@ -23,6 +23,7 @@
 import org.gradle.api.logging.configuration.ConsoleOutput;
 import org.gradle.api.logging.configuration.ShowStacktrace;
 import org.gradle.api.logging.configuration.WarningMode;
+import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheCompressionOption;
 import org.gradle.initialization.StartParameterBuildOptions.ConfigurationCacheProblemsOption;
 import org.gradle.internal.DefaultTaskExecutionRequest;
 import org.gradle.internal.build.event.BuildEventSubscriptions;
@@ -139,6 +140,7 @@ public void write(Encoder encoder, StartParameterInternal startParameter) throws
             encoder.writeSmallInt(startParameter.getConfigurationCacheMaxProblems());
             encoder.writeBoolean(startParameter.isConfigurationCacheRecreateCache());
             encoder.writeBoolean(startParameter.isConfigurationCacheQuiet());
+            encoder.writeString(startParameter.getConfigurationCacheCompression().name());
             encoder.writeBoolean(startParameter.isConfigureOnDemand());
             encoder.writeBoolean(startParameter.isContinuous());
             encoder.writeBoolean(startParameter.isBuildScan());
@@ -218,6 +220,7 @@ public StartParameterInternal read(Decoder decoder) throws Exception {
             startParameter.setConfigurationCacheMaxProblems(decoder.readSmallInt());
             startParameter.setConfigurationCacheRecreateCache(decoder.readBoolean());
             startParameter.setConfigurationCacheQuiet(decoder.readBoolean());
+            startParameter.setConfigurationCacheCompression(ConfigurationCacheCompressionOption.Value.valueOf(decoder.readString()));
             startParameter.setConfigureOnDemand(decoder.readBoolean());
             startParameter.setContinuous(decoder.readBoolean());
             startParameter.setBuildScan(decoder.readBoolean());
@@ -295,6 +298,7 @@ public void write(Encoder encoder, ClientProvidedBuildAction value) throws Excep
             startParameterSerializer.write(encoder, value.getStartParameter());
             payloadSerializer.write(encoder, value.getAction());
             encoder.writeBoolean(value.isRunTasks());
+            encoder.writeBoolean(value.isStreamValues());
             buildEventSubscriptionsSerializer.write(encoder, value.getClientSubscriptions());
         }
 
@@ -303,8 +307,9 @@ public ClientProvidedBuildAction read(Decoder decoder) throws Exception {
             StartParameterInternal startParameter = startParameterSerializer.read(decoder);
             SerializedPayload action = payloadSerializer.read(decoder);
             boolean runTasks = decoder.readBoolean();
+            boolean streamValues = decoder.readBoolean();
             BuildEventSubscriptions buildEventSubscriptions = buildEventSubscriptionsSerializer.read(decoder);
-            return new ClientProvidedBuildAction(startParameter, action, runTasks, buildEventSubscriptions);
+            return new ClientProvidedBuildAction(startParameter, action, runTasks, streamValues, buildEventSubscriptions);
         }
     }
 
@@ -318,6 +323,7 @@ public void write(Encoder encoder, ClientProvidedPhasedAction value) throws Exce
             startParameterSerializer.write(encoder, value.getStartParameter());
             payloadSerializer.write(encoder, value.getPhasedAction());
             encoder.writeBoolean(value.isRunTasks());
+            encoder.writeBoolean(value.isStreamValues());
             buildEventSubscriptionsSerializer.write(encoder, value.getClientSubscriptions());
         }
 
@@ -326,8 +332,9 @@ public ClientProvidedPhasedAction read(Decoder decoder) throws Exception {
             StartParameterInternal startParameter = startParameterSerializer.read(decoder);
             SerializedPayload action = payloadSerializer.read(decoder);
             boolean runTasks = decoder.readBoolean();
+            boolean streamValues = decoder.readBoolean();
             BuildEventSubscriptions buildEventSubscriptions = buildEventSubscriptionsSerializer.read(decoder);
-            return new ClientProvidedPhasedAction(startParameter, action, runTasks, buildEventSubscriptions);
+            return new ClientProvidedPhasedAction(startParameter, action, runTasks, streamValues, buildEventSubscriptions);
         }
     }
 
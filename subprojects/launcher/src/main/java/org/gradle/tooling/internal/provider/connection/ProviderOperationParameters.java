@@ -18,6 +18,7 @@
 import org.gradle.api.logging.LogLevel;
 import org.gradle.tooling.internal.protocol.InternalBuildProgressListener;
 import org.gradle.tooling.internal.protocol.InternalLaunchable;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
 import org.gradle.tooling.internal.protocol.ProgressListenerVersion1;
 
 import javax.annotation.Nullable;
@@ -149,6 +150,13 @@ public interface ProviderOperationParameters {
     @Nullable
     InternalBuildProgressListener getBuildProgressListener();
 
+    /**
+     * @return When null, discard the values streamed by the build action.
+     * @since 7.2
+     */
+    @Nullable
+    InternalStreamedValueListener getStreamedValueListener(@Nullable InternalStreamedValueListener defaultValue);
+
     /**
      * @return When null, assume no arguments.
      */
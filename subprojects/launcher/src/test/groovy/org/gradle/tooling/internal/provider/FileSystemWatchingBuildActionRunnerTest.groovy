@@ -19,6 +19,8 @@ package org.gradle.tooling.internal.provider
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.StartParameterInternal
 import org.gradle.api.internal.changedetection.state.FileHasherStatistics
+import org.gradle.api.internal.file.collections.DirectoryWalkerStatistics
+import org.gradle.api.internal.file.collections.SnapshotBackedDirectoryWalker
 import org.gradle.internal.file.StatStatistics
 import org.gradle.internal.invocation.BuildAction
 import org.gradle.internal.buildtree.BuildActionRunner
@@ -50,6 +52,8 @@ class FileSystemWatchingBuildActionRunnerTest extends Specification {
                 get(FileHasherStatistics.Collector) >> Stub(FileHasherStatistics.Collector)
                 get(StatStatistics.Collector) >> Stub(StatStatistics.Collector)
                 get(DirectorySnapshotterStatistics.Collector) >> Stub(DirectorySnapshotterStatistics.Collector)
+                get(DirectoryWalkerStatistics.Collector) >> Stub(DirectoryWalkerStatistics.Collector)
+                get(SnapshotBackedDirectoryWalker) >> Stub(SnapshotBackedDirectoryWalker)
             }
         }
     }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider
+
+import org.gradle.initialization.BuildEventConsumer
+import org.gradle.internal.event.ListenerNotificationException
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener
+import org.gradle.tooling.internal.provider.serialization.PayloadSerializer
+import org.gradle.tooling.internal.provider.serialization.SerializedPayload
+import spock.lang.Specification
+
+class StreamedValueEventConsumerTest extends Specification {
+    def listener = Mock(InternalStreamedValueListener)
+    def delegateEventConsumer = Mock(BuildEventConsumer)
+    def payloadSerializer = Stub(PayloadSerializer)
+
+    def eventConsumer = new StreamedValueEventConsumer(listener, payloadSerializer, delegateEventConsumer)
+
+    def "delegates when not a streamed value"() {
+        def event = new Object()
+
+        when:
+        eventConsumer.dispatch(event)
+
+        then:
+        1 * delegateEventConsumer.dispatch(event)
+        0 * listener.onValue(_)
+    }
+
+    def "deserializes values and forwards them in order"() {
+        def serializedValue1 = Stub(SerializedPayload)
+        def serializedValue2 = Stub(SerializedPayload)
+
+        given:
+        payloadSerializer.deserialize(serializedValue1) >> 'value1'
+        payloadSerializer.deserialize(serializedValue2) >> 'value2'
+
+        when:
+        eventConsumer.dispatch(new StreamedValue(serializedValue1))
+        eventConsumer.dispatch(new StreamedValue(serializedValue2))
+
+        then:
+        1 * listener.onValue('value1')
+
+        then:
+        1 * listener.onValue('value2')
+        0 * delegateEventConsumer.dispatch(_)
+    }
+
+    def "discards values when there is no listener"() {
+        def eventConsumer = new StreamedValueEventConsumer(null, payloadSerializer, delegateEventConsumer)
+
+        when:
+        eventConsumer.dispatch(new StreamedValue(Stub(SerializedPayload)))
+        eventConsumer.rethrowErrors()
+
+        then:
+        0 * delegateEventConsumer.dispatch(_)
+    }
+
+    def "rethrows listener failures"() {
+        def failure = new RuntimeException()
+
+        given:
+        listener.onValue(_) >> { throw failure }
+
+        when:
+        eventConsumer.dispatch(new StreamedValue(Stub(SerializedPayload)))
+
+        then:
+        noExceptionThrown()
+
+        when:
+        eventConsumer.rethrowErrors()
+
+        then:
+        def e = thrown(ListenerNotificationException)
+        e.causes == [failure]
+    }
+
+    def "rethrows failures to deserialize a value"() {
+        def failure = new RuntimeException()
+        def serializedValue = Stub(SerializedPayload)
+
+        given:
+        payloadSerializer.deserialize(serializedValue) >> { throw failure }
+
+        when:
+        eventConsumer.dispatch(new StreamedValue(serializedValue))
+
+        then:
+        noExceptionThrown()
+        0 * listener.onValue(_)
+
+        when:
+        eventConsumer.rethrowErrors()
+
+        then:
+        def e = thrown(ListenerNotificationException)
+        e.causes == [failure]
+    }
+}
@@ -83,13 +83,14 @@ class BuildActionSerializerTest extends SerializerSpec {
     def "serializes ClientProvidedBuildAction"() {
         def startParameter = new StartParameterInternal()
         startParameter.taskNames = ['a', 'b']
-        def action = new ClientProvidedBuildAction(startParameter, new SerializedPayload("12", []), true, new BuildEventSubscriptions([OperationType.TASK] as Set))
+        def action = new ClientProvidedBuildAction(startParameter, new SerializedPayload("12", []), true, true, new BuildEventSubscriptions([OperationType.TASK] as Set))
 
         expect:
         def result = serialize(action, BuildActionSerializer.create())
         result instanceof ClientProvidedBuildAction
         result.startParameter.taskNames == ['a', 'b']
         result.action.header == "12"
+        result.streamValues
         result.runTasks
         result.clientSubscriptions.operationTypes == [OperationType.TASK] as Set
     }
@@ -97,13 +98,14 @@ class BuildActionSerializerTest extends SerializerSpec {
     def "serializes ClientProvidedPhasedAction"() {
         def startParameter = new StartParameterInternal()
         startParameter.taskNames = ['a', 'b']
-        def action = new ClientProvidedPhasedAction(startParameter, new SerializedPayload("12", []), true, new BuildEventSubscriptions([OperationType.TASK] as Set))
+        def action = new ClientProvidedPhasedAction(startParameter, new SerializedPayload("12", []), true, true, new BuildEventSubscriptions([OperationType.TASK] as Set))
 
         expect:
         def result = serialize(action, BuildActionSerializer.create())
         result instanceof ClientProvidedPhasedAction
         result.startParameter.taskNames == ['a', 'b']
         result.phasedAction.header == "12"
+        result.streamValues
         result.runTasks
         result.clientSubscriptions.operationTypes == [OperationType.TASK] as Set
     }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.configuration.ConsoleOutput;
+import org.gradle.internal.logging.events.LogEvent;
+import org.gradle.internal.logging.events.ProgressEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.time.Time;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends log and progress events to an {@link OutputEventRenderer} with a plain console attached from many threads, like parallel workers
+ * with verbose test logging do.
+ *
+ * Compares rendering on the producing threads with rendering in batches on a dedicated thread. Queued events are rendered at the end of
+ * each iteration, so the time to render them is included.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(32)
+@State(Scope.Benchmark)
+public class OutputEventRendererBenchmark {
+    private static final String MESSAGE = "Test output written by a test running in a worker process, about as long as a typical line";
+
+    @Param({"false", "true"})
+    boolean async;
+
+    private final AtomicLong operationIds = new AtomicLong();
+    private OutputEventRenderer renderer;
+
+    @State(Scope.Thread)
+    public static class Producer {
+        OperationIdentifier operationId;
+        int count;
+
+        @Setup(Level.Trial)
+        public void assignOperation(OutputEventRendererBenchmark benchmark) {
+            operationId = new OperationIdentifier(benchmark.operationIds.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createRenderer() {
+        renderer = new OutputEventRenderer(Time.clock(), async);
+        renderer.configure(LogLevel.LIFECYCLE);
+        renderer.attachConsole(new DiscardingOutputStream(), new DiscardingOutputStream(), ConsoleOutput.Plain);
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        renderer.flush();
+    }
+
+    @Benchmark
+    public void logEvent(Producer producer) {
+        renderer.onOutput(new LogEvent(System.currentTimeMillis(), "category", LogLevel.LIFECYCLE, MESSAGE, null, producer.operationId));
+    }
+
+    @Benchmark
+    public void progressEvent(Producer producer) {
+        renderer.onOutput(new ProgressEvent(producer.operationId, "> " + (producer.count++), false));
+    }
+
+    private static class DiscardingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
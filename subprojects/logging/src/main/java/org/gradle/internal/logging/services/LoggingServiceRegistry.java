@@ -154,6 +154,16 @@ protected OutputEventRenderer makeOutputEventRenderer() {
         return new OutputEventRenderer(Time.clock());
     }
 
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            // The renderer is not a service, so it is not stopped when the services are closed
+            renderer.stop();
+        }
+    }
+
     private static class CommandLineLogging extends LoggingServiceRegistry {
     }
 
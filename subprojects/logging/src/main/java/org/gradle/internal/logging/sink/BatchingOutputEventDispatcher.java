@@ -0,0 +1,271 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.events.EndOutputEvent;
+import org.gradle.internal.logging.events.FlushOutputEvent;
+import org.gradle.internal.logging.events.LogLevelChangeEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.logging.events.ProgressEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Forwards output events to a listener on a dedicated thread.
+ *
+ * <p>Producers add events to a lock-free queue and do not wait for rendering. The rendering thread takes the queued events in batches,
+ * once per flush interval or earlier when the batch gets large or an event needs prompt handling. Events are forwarded in the order they were
+ * queued, so the ordering of events for a given build operation is kept.</p>
+ *
+ * <p>Within a batch, a run of {@link ProgressEvent}s is coalesced so that only the latest status of each operation is forwarded. When the
+ * queue is full, new progress events are dropped and other producers wait for space. Both coalesced and dropped progress events are counted.</p>
+ *
+ * <p>{@link #flush()} waits until all events queued before it have been forwarded. {@link #stop()} forwards the queued events and stops the
+ * rendering thread, after which events are forwarded on the thread that produces them.</p>
+ */
+@ThreadSafe
+public class BatchingOutputEventDispatcher implements OutputEventListener, Stoppable {
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final OutputEventListener listener;
+    private final long flushIntervalNanos;
+    private final int capacity;
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong coalescedProgressEvents = new AtomicLong();
+    private final AtomicLong droppedProgressEvents = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private final Thread renderThread;
+    private volatile boolean renderNow;
+    private volatile boolean stopped;
+
+    public BatchingOutputEventDispatcher(OutputEventListener listener, int flushIntervalMs, int capacity) {
+        this.listener = listener;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.capacity = capacity;
+        this.renderThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                renderLoop();
+            }
+        }, "Output event renderer");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    @Override
+    public void onOutput(OutputEvent event) {
+        if (stopped) {
+            listener.onOutput(event);
+            return;
+        }
+        if (event instanceof FlushOutputEvent) {
+            flush((FlushOutputEvent) event);
+            return;
+        }
+        boolean onRenderThread = Thread.currentThread() == renderThread;
+        if (!onRenderThread && queued.get() >= capacity) {
+            if (event instanceof ProgressEvent) {
+                droppedProgressEvents.incrementAndGet();
+                return;
+            }
+            waitForSpace();
+        }
+        enqueue(event, event instanceof LogLevelChangeEvent || event instanceof EndOutputEvent);
+    }
+
+    /**
+     * Forwards a {@link FlushOutputEvent} and waits until it has been handled.
+     */
+    public void flush() {
+        flush(new FlushOutputEvent());
+    }
+
+    private void flush(FlushOutputEvent event) {
+        if (Thread.currentThread() == renderThread) {
+            // Called while rendering, so the queued events will be forwarded after the current one
+            listener.onOutput(event);
+            return;
+        }
+        PendingFlush pendingFlush = new PendingFlush(event);
+        enqueue(pendingFlush, true);
+        try {
+            while (!pendingFlush.rendered.await(100, TimeUnit.MILLISECONDS)) {
+                if (stopped && !renderThread.isAlive()) {
+                    // Queued while the dispatcher was stopping
+                    drainQueue();
+                }
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        Throwable renderFailure = failure.getAndSet(null);
+        if (renderFailure != null) {
+            throw UncheckedException.throwAsUncheckedException(renderFailure);
+        }
+    }
+
+    /**
+     * Forwards the queued events and waits for the rendering thread to finish.
+     */
+    @Override
+    public void stop() {
+        if (stopped) {
+            return;
+        }
+        flush();
+        stopped = true;
+        LockSupport.unpark(renderThread);
+        try {
+            renderThread.join();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        // Forward any events queued while stopping
+        drainQueue();
+        Throwable renderFailure = failure.getAndSet(null);
+        if (renderFailure != null) {
+            throw UncheckedException.throwAsUncheckedException(renderFailure);
+        }
+    }
+
+    public long getCoalescedProgressEventCount() {
+        return coalescedProgressEvents.get();
+    }
+
+    public long getDroppedProgressEventCount() {
+        return droppedProgressEvents.get();
+    }
+
+    private void enqueue(Object item, boolean urgent) {
+        int size = queued.incrementAndGet();
+        queue.add(item);
+        if (urgent) {
+            renderNow = true;
+            LockSupport.unpark(renderThread);
+        } else if (size == 1 || size == MAX_BATCH_SIZE) {
+            LockSupport.unpark(renderThread);
+        }
+    }
+
+    private void waitForSpace() {
+        while (queued.get() >= capacity) {
+            renderNow = true;
+            LockSupport.unpark(renderThread);
+            LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void renderLoop() {
+        List<Object> batch = new ArrayList<Object>();
+        while (true) {
+            if (queued.get() == 0) {
+                if (stopped) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            if (!renderNow && queued.get() < MAX_BATCH_SIZE) {
+                // Wait for more events to arrive, so they can be handled together
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            renderNow = false;
+            Object item;
+            while (batch.size() < MAX_BATCH_SIZE && (item = queue.poll()) != null) {
+                batch.add(item);
+            }
+            queued.addAndGet(-batch.size());
+            coalesceProgressEvents(batch);
+            for (Object queuedItem : batch) {
+                if (queuedItem != null) {
+                    render(queuedItem);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void drainQueue() {
+        Object item;
+        while ((item = queue.poll()) != null) {
+            queued.decrementAndGet();
+            render(item);
+        }
+    }
+
+    private void coalesceProgressEvents(List<Object> batch) {
+        Map<OperationIdentifier, Integer> latestProgress = new HashMap<OperationIdentifier, Integer>();
+        for (int i = 0; i < batch.size(); i++) {
+            Object item = batch.get(i);
+            if (item instanceof ProgressEvent) {
+                ProgressEvent progressEvent = (ProgressEvent) item;
+                Integer previous = latestProgress.put(progressEvent.getProgressOperationId(), i);
+                if (previous != null) {
+                    batch.set(previous, null);
+                    coalescedProgressEvents.incrementAndGet();
+                }
+            } else if (!latestProgress.isEmpty()) {
+                latestProgress.clear();
+            }
+        }
+    }
+
+    private void render(Object item) {
+        if (item instanceof PendingFlush) {
+            PendingFlush pendingFlush = (PendingFlush) item;
+            forward(pendingFlush.event);
+            pendingFlush.rendered.countDown();
+        } else {
+            forward((OutputEvent) item);
+        }
+    }
+
+    private void forward(OutputEvent event) {
+        try {
+            listener.onOutput(event);
+        } catch (Throwable t) {
+            // Report the first failure to the next caller of flush()
+            failure.compareAndSet(null, t);
+        }
+    }
+
+    private static class PendingFlush {
+        private final FlushOutputEvent event;
+        private final CountDownLatch rendered = new CountDownLatch(1);
+
+        PendingFlush(FlushOutputEvent event) {
+            this.event = event;
+        }
+    }
+}
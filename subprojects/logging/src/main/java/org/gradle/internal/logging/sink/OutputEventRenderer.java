@@ -21,6 +21,7 @@
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.api.logging.configuration.ConsoleOutput;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.logging.config.LoggingRouter;
 import org.gradle.internal.logging.console.BuildLogLevelFilterRenderer;
@@ -59,14 +60,24 @@
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>By default, events are rendered on the thread that produces them. When the {@value #ASYNC_RENDERING_PROPERTY} system property is set
+ * to {@code true}, events are instead queued and rendered in batches on a dedicated thread, see {@link BatchingOutputEventDispatcher}.</p>
  */
 @ThreadSafe
-public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
+public class OutputEventRenderer implements OutputEventListener, LoggingRouter, Stoppable {
+    public static final String ASYNC_RENDERING_PROPERTY = "org.gradle.internal.logging.async-rendering";
+    private static final String FLUSH_INTERVAL_PROPERTY = "org.gradle.internal.logging.async-rendering.flush-interval";
+    private static final String QUEUE_CAPACITY_PROPERTY = "org.gradle.internal.logging.async-rendering.capacity";
+
     private final Object lock = new Object();
     private final AtomicReference<LogLevel> logLevel = new AtomicReference<LogLevel>(LogLevel.LIFECYCLE);
     private final Clock clock;
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final OutputEventTransformer transformer = new OutputEventTransformer(formatters.getSource());
+    private final OutputEventListener dispatcher;
+    @Nullable
+    private final BatchingOutputEventDispatcher batchingDispatcher;
 
     private ColorMap colourMap;
     private OutputStream originalStdOut;
@@ -79,7 +90,63 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private ListenerBroadcast<StandardOutputListener> userStderrListeners;
 
     public OutputEventRenderer(final Clock clock) {
+        this(clock, Boolean.getBoolean(ASYNC_RENDERING_PROPERTY));
+    }
+
+    OutputEventRenderer(Clock clock, boolean renderAsynchronously) {
         this.clock = clock;
+        OutputEventListener synchronousDispatcher = new OutputEventListener() {
+            @Override
+            public void onOutput(OutputEvent event) {
+                synchronized (lock) {
+                    transformer.onOutput(event);
+                }
+            }
+        };
+        if (renderAsynchronously) {
+            batchingDispatcher = new BatchingOutputEventDispatcher(synchronousDispatcher, Integer.getInteger(FLUSH_INTERVAL_PROPERTY, 10), Integer.getInteger(QUEUE_CAPACITY_PROPERTY, 10000));
+            dispatcher = batchingDispatcher;
+        } else {
+            batchingDispatcher = null;
+            dispatcher = synchronousDispatcher;
+        }
+    }
+
+    /**
+     * Returns the number of progress events that were replaced by a later progress event of the same operation before being rendered.
+     * Always 0 when events are rendered synchronously.
+     */
+    public long getCoalescedProgressEventCount() {
+        return batchingDispatcher == null ? 0 : batchingDispatcher.getCoalescedProgressEventCount();
+    }
+
+    /**
+     * Returns the number of progress events that were discarded because the render queue was full.
+     * Always 0 when events are rendered synchronously.
+     */
+    public long getDroppedProgressEventCount() {
+        return batchingDispatcher == null ? 0 : batchingDispatcher.getDroppedProgressEventCount();
+    }
+
+    /**
+     * Renders any queued events and stops the rendering thread, when events are rendered asynchronously. Events produced afterwards are rendered
+     * on the thread that produces them.
+     */
+    @Override
+    public void stop() {
+        if (batchingDispatcher != null) {
+            batchingDispatcher.stop();
+        }
+    }
+
+    /**
+     * Renders any queued events, so that changes to the set of destinations apply to events produced after the change only.
+     * Must not be called while holding the lock, as rendering requires the lock.
+     */
+    private void renderQueuedEvents() {
+        if (batchingDispatcher != null && !Thread.holdsLock(lock)) {
+            batchingDispatcher.flush();
+        }
     }
 
     @Override
@@ -92,6 +159,7 @@ public Snapshot snapshot() {
 
     @Override
     public void restore(Snapshot state) {
+        renderQueuedEvents();
         synchronized (lock) {
             SnapshotImpl snapshot = (SnapshotImpl) state;
             if (snapshot.logLevel != logLevel.get()) {
@@ -144,6 +212,7 @@ public OutputStream getOriginalStdErr() {
 
     @Override
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
+        renderQueuedEvents();
         synchronized (lock) {
             ConsoleConfigureAction.execute(this, consoleOutput);
         }
@@ -156,6 +225,7 @@ public void attachConsole(OutputStream outputStream, OutputStream errorStream, C
 
     @Override
     public void attachConsole(OutputStream outputStream, OutputStream errorStream, ConsoleOutput consoleOutput, @Nullable ConsoleMetaData consoleMetadata) {
+        renderQueuedEvents();
         synchronized (lock) {
             if (consoleMetadata == null) {
                 consoleMetadata = FallbackConsoleMetaData.NOT_ATTACHED;
@@ -166,6 +236,7 @@ public void attachConsole(OutputStream outputStream, OutputStream errorStream, C
 
     @Override
     public void attachSystemOutAndErr() {
+        renderQueuedEvents();
         addSystemOutAsLoggingDestination();
         addSystemErrAsLoggingDestination();
     }
@@ -222,6 +293,7 @@ private void removeSystemErrAsLoggingDestination() {
 
     @Override
     public void addOutputEventListener(OutputEventListener listener) {
+        renderQueuedEvents();
         synchronized (lock) {
             addChain(listener);
         }
@@ -229,6 +301,7 @@ public void addOutputEventListener(OutputEventListener listener) {
 
     @Override
     public void removeOutputEventListener(OutputEventListener listener) {
+        renderQueuedEvents();
         synchronized (lock) {
             removeChain(listener);
         }
@@ -333,6 +406,7 @@ public void enableUserStandardOutputListeners() {
         // Create all of the pipeline eagerly as soon as this is enabled, to track the state of build operations.
         // All of the pipelines do this, so should instead have a single stage that tracks this for all pipelines and that can replay the current state to new pipelines
         // Then, a pipeline can be added for each listener as required
+        renderQueuedEvents();
         synchronized (lock) {
             if (userStdoutListeners == null) {
                 userStdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
@@ -369,6 +443,7 @@ private void assertUserListenersEnabled() {
 
     @Override
     public void addStandardErrorListener(StandardOutputListener listener) {
+        renderQueuedEvents();
         synchronized (lock) {
             assertUserListenersEnabled();
             userStderrListeners.add(listener);
@@ -377,6 +452,7 @@ public void addStandardErrorListener(StandardOutputListener listener) {
 
     @Override
     public void addStandardOutputListener(StandardOutputListener listener) {
+        renderQueuedEvents();
         synchronized (lock) {
             assertUserListenersEnabled();
             userStdoutListeners.add(listener);
@@ -395,6 +471,7 @@ public void addStandardErrorListener(OutputStream outputStream) {
 
     @Override
     public void removeStandardOutputListener(StandardOutputListener listener) {
+        renderQueuedEvents();
         synchronized (lock) {
             assertUserListenersEnabled();
             userStdoutListeners.remove(listener);
@@ -403,6 +480,7 @@ public void removeStandardOutputListener(StandardOutputListener listener) {
 
     @Override
     public void removeStandardErrorListener(StandardOutputListener listener) {
+        renderQueuedEvents();
         synchronized (lock) {
             assertUserListenersEnabled();
             userStderrListeners.remove(listener);
@@ -427,9 +505,7 @@ public void onOutput(OutputEvent event) {
             }
             this.logLevel.set(newLogLevel);
         }
-        synchronized (lock) {
-            transformer.onOutput(event);
-        }
+        dispatcher.onOutput(event);
     }
 
     private boolean isProgressEvent(OutputEvent event) {
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.sink
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.events.FlushOutputEvent
+import org.gradle.internal.logging.events.LogEvent
+import org.gradle.internal.logging.events.OutputEvent
+import org.gradle.internal.logging.events.OutputEventListener
+import org.gradle.internal.logging.events.ProgressEvent
+import org.gradle.internal.operations.OperationIdentifier
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class BatchingOutputEventDispatcherTest extends Specification {
+    def received = new CopyOnWriteArrayList<OutputEvent>()
+    def renderStarted = new CountDownLatch(1)
+    def releaseRender = new CountDownLatch(1)
+    def gate = log("gate")
+    def listener = new OutputEventListener() {
+        @Override
+        void onOutput(OutputEvent event) {
+            if (event.is(gate)) {
+                renderStarted.countDown()
+                releaseRender.await(10, TimeUnit.SECONDS)
+            }
+            received.add(event)
+        }
+    }
+
+    def "forwards events in order and flush waits for queued events"() {
+        def dispatcher = new BatchingOutputEventDispatcher(listener, 1000, 100)
+        def events = (1..50).collect { log("message $it") }
+
+        when:
+        events.each { dispatcher.onOutput(it) }
+        dispatcher.flush()
+
+        then:
+        received.size() == 51
+        received.subList(0, 50) == events
+        received[50] instanceof FlushOutputEvent
+    }
+
+    def "keeps order of events from multiple threads for each producer"() {
+        def dispatcher = new BatchingOutputEventDispatcher(listener, 1, 100)
+
+        when:
+        def threads = (1..8).collect { producer ->
+            Thread.start {
+                (1..200).each { dispatcher.onOutput(log("$producer:$it")) }
+            }
+        }
+        threads*.join()
+        dispatcher.flush()
+
+        then:
+        def messages = received.findAll { it instanceof LogEvent }*.message
+        messages.size() == 1600
+        (1..8).each { producer ->
+            assert messages.findAll { it.startsWith("$producer:") } == (1..200).collect { "$producer:$it" }
+        }
+    }
+
+    def "coalesces progress events of the same operation within a batch"() {
+        def dispatcher = new BatchingOutputEventDispatcher(listener, 1, 100)
+        def op1 = new OperationIdentifier(1)
+        def op2 = new OperationIdentifier(2)
+
+        when:
+        dispatcher.onOutput(gate)
+        renderStarted.await()
+        dispatcher.onOutput(progress(op1, "1"))
+        dispatcher.onOutput(progress(op1, "2"))
+        dispatcher.onOutput(progress(op2, "3"))
+        dispatcher.onOutput(progress(op1, "4"))
+        releaseRender.countDown()
+        dispatcher.flush()
+
+        then:
+        received.findAll { it instanceof ProgressEvent }*.status == ["3", "4"]
+        dispatcher.coalescedProgressEventCount == 2
+    }
+
+    def "does not coalesce progress events separated by other events"() {
+        def dispatcher = new BatchingOutputEventDispatcher(listener, 1, 100)
+        def op1 = new OperationIdentifier(1)
+
+        when:
+        dispatcher.onOutput(gate)
+        renderStarted.await()
+        dispatcher.onOutput(progress(op1, "1"))
+        dispatcher.onOutput(log("message"))
+        dispatcher.onOutput(progress(op1, "2"))
+        releaseRender.countDown()
+        dispatcher.flush()
+
+        then:
+        received.findAll { it instanceof ProgressEvent }*.status == ["1", "2"]
+        dispatcher.coalescedProgressEventCount == 0
+    }
+
+    def "drops progress events when queue is full"() {
+        def dispatcher = new BatchingOutputEventDispatcher(listener, 1, 2)
+
+        when:
+        dispatcher.onOutput(gate)
+        renderStarted.await()
+        dispatcher.onOutput(log("1"))
+        dispatcher.onOutput(log("2"))
+        dispatcher.onOutput(progress(new OperationIdentifier(1), "dropped"))
+        releaseRender.countDown()
+        dispatcher.flush()
+
+        then:
+        received.findAll { it instanceof LogEvent }*.message == ["gate", "1", "2"]
+        received.findAll { it instanceof ProgressEvent }.empty
+        dispatcher.droppedProgressEventCount == 1
+    }
+
+    def "rethrows rendering failure from flush"() {
+        def failure = new RuntimeException("broken")
+        def dispatcher = new BatchingOutputEventDispatcher({ OutputEvent event ->
+            if (!(event instanceof FlushOutputEvent)) {
+                throw failure
+            }
+        } as OutputEventListener, 1, 100)
+
+        when:
+        dispatcher.onOutput(log("message"))
+        dispatcher.flush()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
+
+    def "stop forwards queued events and stops the rendering thread"() {
+        def dispatcher = new BatchingOutputEventDispatcher(listener, 1000, 100)
+        def events = (1..50).collect { log("message $it") }
+
+        when:
+        events.each { dispatcher.onOutput(it) }
+        dispatcher.stop()
+
+        then:
+        received.findAll { it instanceof LogEvent } == events
+        !dispatcher.@renderThread.alive
+
+        when:
+        def event = log("after stop")
+        dispatcher.onOutput(event)
+
+        then:
+        received.last().is(event)
+    }
+
+    private static LogEvent log(String message) {
+        return new LogEvent(0, "category", LogLevel.LIFECYCLE, message, null)
+    }
+
+    private static ProgressEvent progress(OperationIdentifier id, String status) {
+        return new ProgressEvent(id, status, false)
+    }
+}
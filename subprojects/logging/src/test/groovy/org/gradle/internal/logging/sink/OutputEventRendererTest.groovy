@@ -77,6 +77,22 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdErr.readLines() == ["${tenAmFormatted} [ERROR] [category] error"]
     }
 
+    def stopRendersQueuedEventsWhenRenderingAsynchronously() {
+        def listener = new TestListener()
+        renderer = new OutputEventRenderer(Time.clock(), true)
+        renderer.configure(LogLevel.INFO)
+
+        when:
+        renderer.enableUserStandardOutputListeners()
+        renderer.addStandardOutputListener(listener)
+        renderer.onOutput(event('message 1', LogLevel.INFO))
+        renderer.onOutput(event('message 2', LogLevel.INFO))
+        renderer.stop()
+
+        then:
+        listener.value.readLines() == ['message 1', 'message 2']
+    }
+
     def rendersLogEventsToStdOutListener() {
         def listener = new TestListener()
 
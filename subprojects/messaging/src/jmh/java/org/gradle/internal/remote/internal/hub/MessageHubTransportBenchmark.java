@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.internal.IncomingConnector;
+import org.gradle.internal.remote.internal.OutgoingConnector;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.remote.internal.inet.TcpIncomingConnector;
+import org.gradle.internal.remote.internal.inet.TcpOutgoingConnector;
+import org.gradle.internal.remote.internal.inet.UnixDomainSocketIncomingConnector;
+import org.gradle.internal.remote.internal.inet.UnixDomainSocketOutgoingConnector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends method invocations between two message hubs over a local connection, and waits for the peer to acknowledge each batch.
+ *
+ * A batch size of 1 measures round trip latency, larger batches measure throughput. The {@code unix} transport falls back to TCP where Unix domain sockets are not available.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MessageHubTransportBenchmark {
+    private static final String PAYLOAD = "Test event output emitted by a worker process, about as long as a typical line";
+
+    @Param({"tcp", "unix"})
+    String transport;
+
+    @Param({"1", "1000"})
+    int batchSize;
+
+    private final Semaphore acks = new Semaphore(0);
+    private DefaultExecutorFactory executorFactory;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection serverConnection;
+    private ObjectConnection clientConnection;
+    private EventProtocol events;
+
+    public interface EventProtocol {
+        void event(int indexInBatch, String payload);
+    }
+
+    public interface AckProtocol {
+        void ack(int batchSize);
+    }
+
+    @Setup(Level.Trial)
+    public void connect() throws InterruptedException {
+        executorFactory = new DefaultExecutorFactory();
+        IncomingConnector incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator());
+        OutgoingConnector outgoingConnector = new TcpOutgoingConnector();
+        if (transport.equals("unix")) {
+            incomingConnector = new UnixDomainSocketIncomingConnector(incomingConnector, executorFactory, new File(System.getProperty("java.io.tmpdir")));
+            outgoingConnector = new UnixDomainSocketOutgoingConnector(outgoingConnector);
+        }
+
+        final CountDownLatch serverConnected = new CountDownLatch(1);
+        acceptor = new MessageHubBackedServer(incomingConnector, executorFactory).accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                final AckProtocol ack = connection.addOutgoing(AckProtocol.class);
+                connection.addIncoming(EventProtocol.class, new EventProtocol() {
+                    @Override
+                    public void event(int indexInBatch, String payload) {
+                        if (indexInBatch == batchSize - 1) {
+                            ack.ack(batchSize);
+                        }
+                    }
+                });
+                connection.connect();
+                serverConnection = connection;
+                serverConnected.countDown();
+            }
+        });
+
+        clientConnection = new MessageHubBackedClient(outgoingConnector, executorFactory).getConnection(acceptor.getAddress());
+        events = clientConnection.addOutgoing(EventProtocol.class);
+        clientConnection.addIncoming(AckProtocol.class, new AckProtocol() {
+            @Override
+            public void ack(int batchSize) {
+                acks.release();
+            }
+        });
+        clientConnection.connect();
+        if (!serverConnected.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Server did not accept the connection.");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void disconnect() {
+        CompositeStoppable.stoppable(clientConnection, serverConnection, acceptor, executorFactory).stop();
+    }
+
+    @Benchmark
+    public void sendBatch() throws InterruptedException {
+        for (int i = 0; i < batchSize; i++) {
+            events.event(i, PAYLOAD);
+        }
+        acks.acquire();
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.internal.Cast;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Message;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes method arguments whose declared types have no registered serializer.
+ *
+ * <p>Each argument is written with a tag followed by its value. Strings, boxed primitives, enums, files, byte arrays and the common
+ * collection types are written directly. Values whose runtime type has a serializer in one of the given registries are written using
+ * that serializer. Everything else is written using Java serialization and recorded in the {@link JavaSerializationReport}.</p>
+ *
+ * <p>Class names and short strings are written once and then referred to by an id. The tables are held by this instance, so a new
+ * instance must be used for each reader and each writer of a connection.</p>
+ *
+ * <p>A class name is added to the read table before the class is loaded, so the tables stay in step with the writer when a class
+ * cannot be loaded. An enum constant of such a class is skipped and the failure is thrown once the whole message has been read, so
+ * the connection can carry on. Values that cannot be skipped without their class leave the rest of the stream unreadable, and the
+ * failure is reported as an {@link IllegalStateException} so that the connection is not used any further.</p>
+ */
+class CompactMethodArgsSerializer implements MethodArgsSerializer {
+    private static final Object[] ZERO_ARGS = new Object[0];
+    private static final int MAX_TABLE_SIZE = 4096;
+    private static final int MAX_SHARED_STRING_LENGTH = 256;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INTEGER = 2;
+    private static final int LONG = 3;
+    private static final int BOOLEAN = 4;
+    private static final int SHORT = 5;
+    private static final int BYTE = 6;
+    private static final int CHAR = 7;
+    private static final int FLOAT = 8;
+    private static final int DOUBLE = 9;
+    private static final int ENUM = 10;
+    private static final int FILE = 11;
+    private static final int BYTE_ARRAY = 12;
+    private static final int ARRAY_LIST = 13;
+    private static final int HASH_SET = 14;
+    private static final int LINKED_HASH_SET = 15;
+    private static final int HASH_MAP = 16;
+    private static final int LINKED_HASH_MAP = 17;
+    private static final int REGISTERED = 18;
+    private static final int JAVA_SERIALIZATION = 19;
+
+    private final ClassLoader classLoader;
+    private final List<SerializerRegistry> serializerRegistries;
+    private final JavaSerializationReport report;
+    private final Map<Class<?>, Serializer<Object>> registeredSerializers = new HashMap<Class<?>, Serializer<Object>>();
+    private final Map<Class<?>, Integer> writtenClasses = new HashMap<Class<?>, Integer>();
+    private final List<ReadClass> readClasses = new ArrayList<ReadClass>();
+    private final Map<String, Integer> writtenStrings = new HashMap<String, Integer>();
+    private final List<String> readStrings = new ArrayList<String>();
+    private final Serializer<Object[]> argsSerializer = new ArraySerializer();
+    private ClassNotFoundException skippedValueFailure;
+
+    public CompactMethodArgsSerializer(ClassLoader classLoader, List<SerializerRegistry> serializerRegistries, JavaSerializationReport report) {
+        this.classLoader = classLoader;
+        this.serializerRegistries = serializerRegistries;
+        this.report = report;
+    }
+
+    @Override
+    public Serializer<Object[]> forTypes(Class<?>[] types) {
+        if (types.length == 0) {
+            return new EmptyArraySerializer();
+        }
+        return argsSerializer;
+    }
+
+    private void writeValue(Encoder encoder, Object value) throws Exception {
+        if (value == null) {
+            encoder.writeSmallInt(NULL);
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            encoder.writeSmallInt(STRING);
+            writeSharedString(encoder, (String) value);
+        } else if (type == Integer.class) {
+            encoder.writeSmallInt(INTEGER);
+            encoder.writeInt((Integer) value);
+        } else if (type == Long.class) {
+            encoder.writeSmallInt(LONG);
+            encoder.writeLong((Long) value);
+        } else if (type == Boolean.class) {
+            encoder.writeSmallInt(BOOLEAN);
+            encoder.writeBoolean((Boolean) value);
+        } else if (type == Short.class) {
+            encoder.writeSmallInt(SHORT);
+            encoder.writeInt((Short) value);
+        } else if (type == Byte.class) {
+            encoder.writeSmallInt(BYTE);
+            encoder.writeByte((Byte) value);
+        } else if (type == Character.class) {
+            encoder.writeSmallInt(CHAR);
+            encoder.writeSmallInt((Character) value);
+        } else if (type == Float.class) {
+            encoder.writeSmallInt(FLOAT);
+            encoder.writeInt(Float.floatToIntBits((Float) value));
+        } else if (type == Double.class) {
+            encoder.writeSmallInt(DOUBLE);
+            encoder.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Enum) {
+            encoder.writeSmallInt(ENUM);
+            writeClass(encoder, ((Enum<?>) value).getDeclaringClass());
+            encoder.writeSmallInt(((Enum<?>) value).ordinal());
+        } else if (type == File.class) {
+            encoder.writeSmallInt(FILE);
+            writeSharedString(encoder, ((File) value).getPath());
+        } else if (type == byte[].class) {
+            encoder.writeSmallInt(BYTE_ARRAY);
+            encoder.writeBinary((byte[]) value);
+        } else if (type == ArrayList.class) {
+            encoder.writeSmallInt(ARRAY_LIST);
+            writeElements(encoder, (Collection<?>) value);
+        } else if (type == HashSet.class) {
+            encoder.writeSmallInt(HASH_SET);
+            writeElements(encoder, (Collection<?>) value);
+        } else if (type == LinkedHashSet.class) {
+            encoder.writeSmallInt(LINKED_HASH_SET);
+            writeElements(encoder, (Collection<?>) value);
+        } else if (type == HashMap.class) {
+            encoder.writeSmallInt(HASH_MAP);
+            writeEntries(encoder, (Map<?, ?>) value);
+        } else if (type == LinkedHashMap.class) {
+            encoder.writeSmallInt(LINKED_HASH_MAP);
+            writeEntries(encoder, (Map<?, ?>) value);
+        } else {
+            Serializer<Object> serializer = registeredSerializerFor(type);
+            if (serializer != null) {
+                encoder.writeSmallInt(REGISTERED);
+                writeClass(encoder, type);
+                serializer.write(encoder, value);
+            } else {
+                report.record(type);
+                encoder.writeSmallInt(JAVA_SERIALIZATION);
+                Message.send(value, encoder.getOutputStream());
+            }
+        }
+    }
+
+    private Object readValue(Decoder decoder) throws Exception {
+        int tag = decoder.readSmallInt();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readSharedString(decoder);
+            case INTEGER:
+                return decoder.readInt();
+            case LONG:
+                return decoder.readLong();
+            case BOOLEAN:
+                return decoder.readBoolean();
+            case SHORT:
+                return (short) decoder.readInt();
+            case BYTE:
+                return decoder.readByte();
+            case CHAR:
+                return (char) decoder.readSmallInt();
+            case FLOAT:
+                return Float.intBitsToFloat(decoder.readInt());
+            case DOUBLE:
+                return Double.longBitsToDouble(decoder.readLong());
+            case ENUM:
+                return readEnum(decoder);
+            case FILE:
+                return new File(readSharedString(decoder));
+            case BYTE_ARRAY:
+                return decoder.readBinary();
+            case ARRAY_LIST:
+                return readElements(decoder, new ArrayList<Object>());
+            case HASH_SET:
+                return readElements(decoder, new HashSet<Object>());
+            case LINKED_HASH_SET:
+                return readElements(decoder, new LinkedHashSet<Object>());
+            case HASH_MAP:
+                return readEntries(decoder, new HashMap<Object, Object>());
+            case LINKED_HASH_MAP:
+                return readEntries(decoder, new LinkedHashMap<Object, Object>());
+            case REGISTERED:
+                Class<?> type = readClass(decoder).loadOrFail();
+                Serializer<Object> serializer = registeredSerializerFor(type);
+                if (serializer == null) {
+                    throw new IllegalArgumentException(String.format("Don't know how to deserialize objects of type %s.", type.getName()));
+                }
+                return serializer.read(decoder);
+            case JAVA_SERIALIZATION:
+                Object value;
+                try {
+                    value = Message.receive(decoder.getInputStream(), classLoader);
+                } catch (ClassNotFoundException e) {
+                    throw unreadableStream(e);
+                }
+                if (value != null) {
+                    report.record(value.getClass());
+                }
+                return value;
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected type tag %d found.", tag));
+        }
+    }
+
+    private Object readEnum(Decoder decoder) throws Exception {
+        ReadClass type = readClass(decoder);
+        int ordinal = decoder.readSmallInt();
+        try {
+            return type.load().getEnumConstants()[ordinal];
+        } catch (ClassNotFoundException e) {
+            if (skippedValueFailure == null) {
+                skippedValueFailure = e;
+            }
+            return null;
+        }
+    }
+
+    private static IllegalStateException unreadableStream(ClassNotFoundException e) {
+        return new IllegalStateException("Could not read method arguments, the remaining messages on this connection cannot be read.", e);
+    }
+
+    private void writeElements(Encoder encoder, Collection<?> elements) throws Exception {
+        encoder.writeSmallInt(elements.size());
+        for (Object element : elements) {
+            writeValue(encoder, element);
+        }
+    }
+
+    private <T extends Collection<Object>> T readElements(Decoder decoder, T elements) throws Exception {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            elements.add(readValue(decoder));
+        }
+        return elements;
+    }
+
+    private void writeEntries(Encoder encoder, Map<?, ?> entries) throws Exception {
+        encoder.writeSmallInt(entries.size());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            writeValue(encoder, entry.getKey());
+            writeValue(encoder, entry.getValue());
+        }
+    }
+
+    private <T extends Map<Object, Object>> T readEntries(Decoder decoder, T entries) throws Exception {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            Object key = readValue(decoder);
+            entries.put(key, readValue(decoder));
+        }
+        return entries;
+    }
+
+    private Serializer<Object> registeredSerializerFor(Class<?> type) {
+        if (registeredSerializers.containsKey(type)) {
+            return registeredSerializers.get(type);
+        }
+        Serializer<Object> serializer = null;
+        for (SerializerRegistry serializerRegistry : serializerRegistries) {
+            if (serializerRegistry.canSerialize(type)) {
+                serializer = Cast.uncheckedNonnullCast(serializerRegistry.build(type));
+                break;
+            }
+        }
+        registeredSerializers.put(type, serializer);
+        return serializer;
+    }
+
+    /**
+     * Writes 0 followed by the class name the first time a class is seen, and the class id plus 1 after that.
+     */
+    private void writeClass(Encoder encoder, Class<?> type) throws Exception {
+        Integer id = writtenClasses.get(type);
+        if (id != null) {
+            encoder.writeSmallInt(id + 1);
+            return;
+        }
+        encoder.writeSmallInt(0);
+        encoder.writeString(type.getName());
+        if (writtenClasses.size() < MAX_TABLE_SIZE) {
+            writtenClasses.put(type, writtenClasses.size());
+        }
+    }
+
+    private ReadClass readClass(Decoder decoder) throws Exception {
+        int id = decoder.readSmallInt();
+        if (id > 0) {
+            return readClasses.get(id - 1);
+        }
+        ReadClass type = new ReadClass(decoder.readString());
+        if (readClasses.size() < MAX_TABLE_SIZE) {
+            readClasses.add(type);
+        }
+        return type;
+    }
+
+    /**
+     * Uses the same scheme as {@link #writeClass(Encoder, Class)}. Long strings, such as output messages, are always written in full.
+     */
+    private void writeSharedString(Encoder encoder, String value) throws Exception {
+        Integer id = writtenStrings.get(value);
+        if (id != null) {
+            encoder.writeSmallInt(id + 1);
+            return;
+        }
+        encoder.writeSmallInt(0);
+        encoder.writeString(value);
+        if (value.length() <= MAX_SHARED_STRING_LENGTH && writtenStrings.size() < MAX_TABLE_SIZE) {
+            writtenStrings.put(value, writtenStrings.size());
+        }
+    }
+
+    private String readSharedString(Decoder decoder) throws Exception {
+        int id = decoder.readSmallInt();
+        if (id > 0) {
+            return readStrings.get(id - 1);
+        }
+        String value = decoder.readString();
+        if (value.length() <= MAX_SHARED_STRING_LENGTH && readStrings.size() < MAX_TABLE_SIZE) {
+            readStrings.add(value);
+        }
+        return value;
+    }
+
+    private class ArraySerializer implements Serializer<Object[]> {
+        @Override
+        public Object[] read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            Object[] result = new Object[count];
+            skippedValueFailure = null;
+            for (int i = 0; i < count; i++) {
+                result[i] = readValue(decoder);
+            }
+            if (skippedValueFailure != null) {
+                ClassNotFoundException failure = skippedValueFailure;
+                skippedValueFailure = null;
+                throw failure;
+            }
+            return result;
+        }
+
+        @Override
+        public void write(Encoder encoder, Object[] value) throws Exception {
+            encoder.writeSmallInt(value.length);
+            for (Object arg : value) {
+                writeValue(encoder, arg);
+            }
+        }
+    }
+
+    /**
+     * A class name read from the stream, loaded the first time it is used.
+     */
+    private class ReadClass {
+        private final String name;
+        private Class<?> type;
+
+        ReadClass(String name) {
+            this.name = name;
+        }
+
+        Class<?> load() throws ClassNotFoundException {
+            if (type == null) {
+                type = Class.forName(name, false, classLoader);
+            }
+            return type;
+        }
+
+        Class<?> loadOrFail() {
+            try {
+                return load();
+            } catch (ClassNotFoundException e) {
+                throw unreadableStream(e);
+            }
+        }
+    }
+
+    private static class EmptyArraySerializer implements Serializer<Object[]> {
+        @Override
+        public Object[] read(Decoder decoder) {
+            return ZERO_ARGS;
+        }
+
+        @Override
+        public void write(Encoder encoder, Object[] value) {
+        }
+    }
+}
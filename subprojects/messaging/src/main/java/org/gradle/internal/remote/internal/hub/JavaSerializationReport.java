@@ -0,0 +1,42 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Collects the types of method arguments that were sent or received over a connection using Java serialization.
+ */
+class JavaSerializationReport {
+    private final Set<String> typeNames = new TreeSet<String>();
+
+    public void record(Class<?> type) {
+        synchronized (typeNames) {
+            typeNames.add(type.getName());
+        }
+    }
+
+    /**
+     * Returns the names of the types recorded so far, in alphabetical order.
+     */
+    public Set<String> getTypeNames() {
+        synchronized (typeNames) {
+            return new TreeSet<String>(typeNames);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
+import org.gradle.internal.Factory;
 import org.gradle.internal.classloader.CachingClassLoader;
 import org.gradle.internal.classloader.MultiParentClassLoader;
 import org.gradle.internal.concurrent.CompositeStoppable;
@@ -48,12 +49,14 @@
 public class MessageHubBackedObjectConnection implements ObjectConnection {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageHubBackedObjectConnection.class);
     private final MessageHub hub;
+    private final String displayName;
     private final List<Action<Throwable>> unrecoverableErrorHandlers = new ArrayList<Action<Throwable>>();
     private ConnectCompletion completion;
     private RemoteConnection<InterHubMessage> connection;
     //    private ClassLoader methodParamClassLoader;
     private List<SerializerRegistry> paramSerializers = new ArrayList<SerializerRegistry>();
     private Set<ClassLoader> methodParamClassLoaders = new HashSet<ClassLoader>();
+    private final JavaSerializationReport javaSerializationReport = new JavaSerializationReport();
     private volatile boolean aborted;
 
     public MessageHubBackedObjectConnection(ExecutorFactory executorFactory, ConnectCompletion completion) {
@@ -70,7 +73,8 @@ public void execute(Throwable throwable) {
                 }
             }
         };
-        this.hub = new MessageHub(completion.toString(), executorFactory, errorHandler);
+        this.displayName = completion.toString();
+        this.hub = new MessageHub(displayName, executorFactory, errorHandler);
         this.completion = completion;
         this.addUnrecoverableErrorHandler(new Action<Throwable>() {
             @Override
@@ -125,13 +129,19 @@ public void connect() {
         } else {
             methodParamClassLoader = new CachingClassLoader(new MultiParentClassLoader(methodParamClassLoaders));
         }
-        MethodArgsSerializer argsSerializer = new DefaultMethodArgsSerializer(paramSerializers, new JavaSerializationBackedMethodArgsSerializer(methodParamClassLoader));
+        final ClassLoader argsClassLoader = methodParamClassLoader;
+        Factory<MethodArgsSerializer> argsSerializerFactory = new Factory<MethodArgsSerializer>() {
+            @Override
+            public MethodArgsSerializer create() {
+                return new DefaultMethodArgsSerializer(paramSerializers, new CompactMethodArgsSerializer(argsClassLoader, paramSerializers, javaSerializationReport));
+            }
+        };
 
         StatefulSerializer<InterHubMessage> serializer = new InterHubMessageSerializer(
             new TypeSafeSerializer<MethodInvocation>(MethodInvocation.class,
                 new MethodInvocationSerializer(
                     methodParamClassLoader,
-                    argsSerializer)));
+                    argsSerializerFactory)));
 
         connection = completion.create(serializer);
         hub.addConnection(connection);
@@ -148,6 +158,23 @@ public void requestStop() {
     public void stop() {
         // TODO:ADAM - need to cleanup completion too, if not used
         CompositeStoppable.stoppable(hub, connection).stop();
+        reportJavaSerialization();
+    }
+
+    /**
+     * Returns the names of the method argument types that have been sent or received over this connection using Java serialization.
+     */
+    public Set<String> getJavaSerializedTypes() {
+        return javaSerializationReport.getTypeNames();
+    }
+
+    private void reportJavaSerialization() {
+        if (LOGGER.isDebugEnabled()) {
+            Set<String> typeNames = javaSerializationReport.getTypeNames();
+            if (!typeNames.isEmpty()) {
+                LOGGER.debug("Connection {} used Java serialization for method arguments of types {}.", displayName, typeNames);
+            }
+        }
     }
 
     @Override
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.remote.internal.hub;
 
+import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.*;
 import org.gradle.internal.dispatch.MethodInvocation;
 
@@ -26,21 +27,33 @@
 
 public class MethodInvocationSerializer implements StatefulSerializer<MethodInvocation> {
     private final ClassLoader classLoader;
-    private final MethodArgsSerializer methodArgsSerializer;
+    private final Factory<? extends MethodArgsSerializer> methodArgsSerializerFactory;
 
-    public MethodInvocationSerializer(ClassLoader classLoader, MethodArgsSerializer methodArgsSerializer) {
+    public MethodInvocationSerializer(ClassLoader classLoader, final MethodArgsSerializer methodArgsSerializer) {
+        this(classLoader, new Factory<MethodArgsSerializer>() {
+            @Override
+            public MethodArgsSerializer create() {
+                return methodArgsSerializer;
+            }
+        });
+    }
+
+    /**
+     * Creates a serializer that uses a separate {@link MethodArgsSerializer} for each reader and writer, so that the args serializer can keep per-connection state.
+     */
+    public MethodInvocationSerializer(ClassLoader classLoader, Factory<? extends MethodArgsSerializer> methodArgsSerializerFactory) {
         this.classLoader = classLoader;
-        this.methodArgsSerializer = methodArgsSerializer;
+        this.methodArgsSerializerFactory = methodArgsSerializerFactory;
     }
 
     @Override
     public ObjectReader<MethodInvocation> newReader(Decoder decoder) {
-        return new MethodInvocationReader(decoder, classLoader, methodArgsSerializer);
+        return new MethodInvocationReader(decoder, classLoader, methodArgsSerializerFactory.create());
     }
 
     @Override
     public ObjectWriter<MethodInvocation> newWriter(Encoder encoder) {
-        return new MethodInvocationWriter(encoder, methodArgsSerializer);
+        return new MethodInvocationWriter(encoder, methodArgsSerializerFactory.create());
     }
 
     private static class MethodDetails {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.remote.Address;
+
+import java.io.File;
+
+/**
+ * The path of a Unix domain socket, used to describe the ends of a local socket connection.
+ */
+public class DomainSocketAddress implements Address {
+    private final File socketFile;
+
+    public DomainSocketAddress(File socketFile) {
+        this.socketFile = socketFile;
+    }
+
+    public File getSocketFile() {
+        return socketFile;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "unix:" + socketFile.getPath();
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return socketFile.equals(((DomainSocketAddress) o).socketFile);
+    }
+
+    @Override
+    public int hashCode() {
+        return socketFile.hashCode();
+    }
+}
@@ -16,8 +16,11 @@
 package org.gradle.internal.remote.internal.inet;
 
 import com.google.common.collect.Iterables;
+import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,15 +30,24 @@ public class MultiChoiceAddress implements InetEndpoint {
     private final UUID canonicalAddress;
     private final int port;
     private final List<InetAddress> candidates;
+    private final File domainSocketFile;
 
     public MultiChoiceAddress(UUID canonicalAddress, int port, List<InetAddress> candidates) {
+        this(canonicalAddress, port, candidates, null);
+    }
+
+    private MultiChoiceAddress(UUID canonicalAddress, int port, List<InetAddress> candidates, @Nullable File domainSocketFile) {
         this.canonicalAddress = canonicalAddress;
         this.port = port;
         this.candidates = new ArrayList<InetAddress>(candidates);
+        this.domainSocketFile = domainSocketFile;
     }
 
     @Override
     public String getDisplayName() {
+        if (domainSocketFile != null) {
+            return "[" + canonicalAddress + " port:" + port + ", addresses:" + candidates + ", socket:" + domainSocketFile + "]";
+        }
         return "[" + canonicalAddress + " port:" + port + ", addresses:" + candidates + "]";
     }
 
@@ -53,6 +65,14 @@ public int getPort() {
         return port;
     }
 
+    /**
+     * The Unix domain socket that the endpoint also listens on, if any. Peers that cannot use it connect over TCP instead.
+     */
+    @Nullable
+    public File getDomainSocketFile() {
+        return domainSocketFile;
+    }
+
     @Override
     public String toString() {
         return getDisplayName();
@@ -67,7 +87,7 @@ public boolean equals(Object o) {
             return false;
         }
         MultiChoiceAddress other = (MultiChoiceAddress) o;
-        return other.canonicalAddress.equals(canonicalAddress) && port == other.port && candidates.equals(other.candidates);
+        return other.canonicalAddress.equals(canonicalAddress) && port == other.port && candidates.equals(other.candidates) && Objects.equal(domainSocketFile, other.domainSocketFile);
     }
 
     @Override
@@ -76,6 +96,10 @@ public int hashCode() {
     }
 
     public MultiChoiceAddress addAddresses(Iterable<InetAddress> candidates) {
-        return new MultiChoiceAddress(canonicalAddress, port, Lists.newArrayList(Iterables.concat(candidates, this.candidates)));
+        return new MultiChoiceAddress(canonicalAddress, port, Lists.newArrayList(Iterables.concat(candidates, this.candidates)), domainSocketFile);
+    }
+
+    public MultiChoiceAddress withDomainSocket(@Nullable File domainSocketFile) {
+        return new MultiChoiceAddress(canonicalAddress, port, candidates, domainSocketFile);
     }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.remote.internal.inet;
 
+import org.gradle.internal.remote.Address;
 import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
 import org.gradle.internal.remote.internal.RemoteConnection;
 import org.gradle.internal.serialize.StatefulSerializer;
@@ -25,18 +26,26 @@
 
 class SocketConnectCompletion implements ConnectCompletion {
     private final SocketChannel socket;
+    private final Address localAddress;
+    private final Address remoteAddress;
 
     public SocketConnectCompletion(SocketChannel socket) {
+        this(socket, SocketConnection.localAddressOf(socket), SocketConnection.remoteAddressOf(socket));
+    }
+
+    public SocketConnectCompletion(SocketChannel socket, Address localAddress, Address remoteAddress) {
         this.socket = socket;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
     }
 
     @Override
     public String toString() {
-        return socket.socket().getLocalSocketAddress() + " to " + socket.socket().getRemoteSocketAddress();
+        return localAddress + " to " + remoteAddress;
     }
 
     @Override
     public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer) {
-        return new SocketConnection<T>(socket, new KryoBackedMessageSerializer(), serializer);
+        return new SocketConnection<T>(socket, localAddress, remoteAddress, new KryoBackedMessageSerializer(), serializer);
     }
 }
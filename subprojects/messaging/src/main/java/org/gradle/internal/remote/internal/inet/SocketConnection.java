@@ -20,6 +20,7 @@
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.io.BufferCaster;
+import org.gradle.internal.remote.Address;
 import org.gradle.internal.remote.internal.RecoverableMessageIOException;
 import org.gradle.internal.serialize.FlushableEncoder;
 import org.gradle.internal.serialize.ObjectReader;
@@ -42,8 +43,8 @@
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
     private final SocketChannel socket;
-    private final SocketInetAddress localAddress;
-    private final SocketInetAddress remoteAddress;
+    private final Address localAddress;
+    private final Address remoteAddress;
     private final ObjectWriter<T> objectWriter;
     private final ObjectReader<T> objectReader;
     private final InputStream instr;
@@ -51,7 +52,13 @@
     private final FlushableEncoder encoder;
 
     public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
+        this(socket, localAddressOf(socket), remoteAddressOf(socket), streamSerializer, messageSerializer);
+    }
+
+    public SocketConnection(SocketChannel socket, Address localAddress, Address remoteAddress, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
         this.socket = socket;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
         try {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
@@ -61,15 +68,21 @@ public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
-        InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
-        localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
-        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
-        remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
         objectReader = messageSerializer.newReader(streamSerializer.newDecoder(instr));
         encoder = streamSerializer.newEncoder(outstr);
         objectWriter = messageSerializer.newWriter(encoder);
     }
 
+    static SocketInetAddress localAddressOf(SocketChannel socket) {
+        InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
+        return new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
+    }
+
+    static SocketInetAddress remoteAddressOf(SocketChannel socket) {
+        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+        return new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
+    }
+
     @Override
     public String toString() {
         return "socket connection from " + localAddress + " to " + remoteAddress;
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.remote.Address;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.IncomingConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Accepts local connections over a Unix domain socket as well as over TCP. The TCP endpoint is always available, so that peers that cannot use Unix domain sockets can still connect.
+ */
+public class UnixDomainSocketIncomingConnector implements IncomingConnector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnixDomainSocketIncomingConnector.class);
+    private final IncomingConnector tcpConnector;
+    private final ExecutorFactory executorFactory;
+    private final File socketDir;
+
+    public UnixDomainSocketIncomingConnector(IncomingConnector tcpConnector, ExecutorFactory executorFactory, File socketDir) {
+        this.tcpConnector = tcpConnector;
+        this.executorFactory = executorFactory;
+        this.socketDir = socketDir;
+    }
+
+    @Override
+    public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allowRemote) {
+        final ConnectionAcceptor tcpAcceptor = tcpConnector.accept(action, allowRemote);
+        if (allowRemote || !UnixDomainSockets.isSupported()) {
+            return tcpAcceptor;
+        }
+
+        MultiChoiceAddress tcpAddress = (MultiChoiceAddress) tcpAcceptor.getAddress();
+        final File socketFile = new File(socketDir, "gradle-" + tcpAddress.getCanonicalAddress() + ".sock");
+        if (!UnixDomainSockets.canBindTo(socketFile)) {
+            LOGGER.debug("Path {} is too long for a Unix domain socket, accepting TCP connections only.", socketFile);
+            return tcpAcceptor;
+        }
+        final ServerSocketChannel serverSocket;
+        try {
+            serverSocket = UnixDomainSockets.bind(socketFile);
+        } catch (IOException e) {
+            LOGGER.debug("Could not listen on Unix domain socket {}, accepting TCP connections only.", socketFile, e);
+            return tcpAcceptor;
+        }
+
+        final Address address = tcpAddress.withDomainSocket(socketFile);
+        LOGGER.debug("Listening on {}.", address);
+
+        final ManagedExecutor executor = executorFactory.create("Incoming local Unix domain socket Connector on " + socketFile);
+        executor.execute(new Receiver(serverSocket, socketFile, action));
+
+        return new ConnectionAcceptor() {
+            @Override
+            public Address getAddress() {
+                return address;
+            }
+
+            @Override
+            public void requestStop() {
+                closeAndDelete(serverSocket, socketFile);
+                tcpAcceptor.requestStop();
+            }
+
+            @Override
+            public void stop() {
+                closeAndDelete(serverSocket, socketFile);
+                CompositeStoppable.stoppable(executor, tcpAcceptor).stop();
+            }
+        };
+    }
+
+    private static void closeAndDelete(ServerSocketChannel serverSocket, File socketFile) {
+        CompositeStoppable.stoppable(serverSocket).stop();
+        socketFile.delete();
+    }
+
+    private static class Receiver implements Runnable {
+        private final ServerSocketChannel serverSocket;
+        private final File socketFile;
+        private final Action<ConnectCompletion> action;
+
+        Receiver(ServerSocketChannel serverSocket, File socketFile, Action<ConnectCompletion> action) {
+            this.serverSocket = serverSocket;
+            this.socketFile = socketFile;
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            try {
+                try {
+                    DomainSocketAddress localAddress = new DomainSocketAddress(socketFile);
+                    while (true) {
+                        final SocketChannel socket = serverSocket.accept();
+                        LOGGER.debug("Accepted connection on {}.", localAddress);
+                        try {
+                            action.execute(new SocketConnectCompletion(socket, localAddress, localAddress));
+                        } catch (Throwable t) {
+                            socket.close();
+                            throw t;
+                        }
+                    }
+                } catch (ClosedChannelException e) {
+                    // Ignore
+                } catch (Throwable e) {
+                    LOGGER.error("Could not accept local connection.", e);
+                }
+            } finally {
+                closeAndDelete(serverSocket, socketFile);
+            }
+        }
+    }
+}
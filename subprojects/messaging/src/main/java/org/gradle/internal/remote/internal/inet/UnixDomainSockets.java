@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Access to {@code AF_UNIX} socket channels, which are available from Java 16. The API is used reflectively, as this code runs in worker processes on older Java versions too.
+ */
+final class UnixDomainSockets {
+    /**
+     * Set to {@code false} to use TCP for all local connections.
+     */
+    static final String ENABLED_PROPERTY = "org.gradle.internal.remote.unix-domain-sockets";
+
+    // sun_path is 108 bytes on Linux, including the terminating null byte
+    private static final int MAX_PATH_LENGTH = 107;
+
+    private static final ProtocolFamily UNIX;
+    private static final Method ADDRESS_OF;
+    private static final Method OPEN_SERVER_SOCKET;
+    private static final Method OPEN_SOCKET;
+
+    static {
+        ProtocolFamily unix = null;
+        Method addressOf = null;
+        Method openServerSocket = null;
+        Method openSocket = null;
+        try {
+            unix = StandardProtocolFamily.valueOf("UNIX");
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+            openServerSocket = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+            openSocket = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+        } catch (Exception e) {
+            // Running on Java 15 or earlier
+            addressOf = null;
+        }
+        UNIX = unix;
+        ADDRESS_OF = addressOf;
+        OPEN_SERVER_SOCKET = openServerSocket;
+        OPEN_SOCKET = openSocket;
+    }
+
+    private UnixDomainSockets() {
+    }
+
+    /**
+     * Returns true when Unix domain sockets can be used for local connections from this process.
+     */
+    static boolean isSupported() {
+        return ADDRESS_OF != null
+            && OperatingSystem.current().isLinux()
+            && !"false".equals(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Returns true when the given path is short enough to be used as a socket address.
+     */
+    static boolean canBindTo(File socketFile) {
+        return socketFile.getAbsolutePath().getBytes().length <= MAX_PATH_LENGTH;
+    }
+
+    /**
+     * Creates a socket file at the given path that can only be connected to by the current user, and listens on it.
+     */
+    static ServerSocketChannel bind(File socketFile) throws IOException {
+        ServerSocketChannel channel = (ServerSocketChannel) invoke(OPEN_SERVER_SOCKET, UNIX);
+        try {
+            channel.bind(addressOf(socketFile));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        // Connecting requires write permission on the socket file
+        socketFile.setReadable(false, false);
+        socketFile.setWritable(false, false);
+        socketFile.setReadable(true, true);
+        socketFile.setWritable(true, true);
+        return channel;
+    }
+
+    static SocketChannel connect(File socketFile) throws IOException {
+        SocketChannel channel = (SocketChannel) invoke(OPEN_SOCKET, UNIX);
+        try {
+            channel.connect(addressOf(socketFile));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    private static SocketAddress addressOf(File socketFile) throws IOException {
+        return (SocketAddress) invoke(ADDRESS_OF, socketFile.getAbsolutePath());
+    }
+
+    private static Object invoke(Method method, Object argument) throws IOException {
+        try {
+            return method.invoke(null, argument);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -28,7 +28,10 @@
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
 import org.gradle.internal.remote.internal.inet.TcpIncomingConnector;
 import org.gradle.internal.remote.internal.inet.TcpOutgoingConnector;
+import org.gradle.internal.remote.internal.inet.UnixDomainSocketIncomingConnector;
+import org.gradle.internal.remote.internal.inet.UnixDomainSocketOutgoingConnector;
 
+import java.io.File;
 import java.util.UUID;
 
 /**
@@ -50,14 +53,18 @@ protected InetAddressFactory createInetAddressFactory() {
     }
 
     protected OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+        return new UnixDomainSocketOutgoingConnector(new TcpOutgoingConnector());
     }
 
     protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
-        return new TcpIncomingConnector(
+        return new UnixDomainSocketIncomingConnector(
+                new TcpIncomingConnector(
+                        executorFactory,
+                        inetAddressFactory,
+                        idGenerator
+                ),
                 executorFactory,
-                inetAddressFactory,
-                idGenerator
+                new File(System.getProperty("java.io.tmpdir"))
         );
     }
 
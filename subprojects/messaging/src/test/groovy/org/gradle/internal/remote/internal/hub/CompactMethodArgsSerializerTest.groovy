@@ -0,0 +1,221 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub
+
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.DefaultSerializerRegistry
+import org.gradle.internal.serialize.Encoder
+import org.gradle.internal.serialize.Serializer
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+
+class CompactMethodArgsSerializerTest extends SerializerSpec {
+    def registry = new DefaultSerializerRegistry(false)
+    def report = new JavaSerializationReport()
+    def serializer = new CompactMethodArgsSerializer(getClass().classLoader, [registry], report)
+
+    def "serializes an empty args array"() {
+        expect:
+        def arraySerializer = serializer.forTypes([] as Class[])
+        serialize([] as Object[], arraySerializer).length == 0
+        toBytes([] as Object[], arraySerializer).length == 0
+    }
+
+    def "serializes common value types without using Java serialization"() {
+        def args = ["a", 12, 12L, true, (short) 3, (byte) 4, 'c' as char, 1.5f, 2.5d, Level.INFO, new File("some-file"), null] as Object[]
+
+        expect:
+        def arraySerializer = serializer.forTypes(([Object] * args.length) as Class[])
+        def result = serialize(args, arraySerializer)
+        result == args
+        result.collect { it?.class } == args.collect { it?.class }
+        serialize([[1, 2] as byte[]] as Object[], serializer.forTypes([byte[]] as Class[]))[0] == [1, 2] as byte[]
+        report.typeNames.empty
+    }
+
+    def "serializes collections"() {
+        def list = new ArrayList(["a", 1, null])
+        def set = new LinkedHashSet(["b", "c"])
+        def map = new LinkedHashMap([a: [1L, 2L], b: new HashSet(["d"])])
+
+        expect:
+        def arraySerializer = serializer.forTypes([List, Set, Map] as Class[])
+        def result = serialize([list, set, map] as Object[], arraySerializer)
+        result == [list, set, map] as Object[]
+        result[1] instanceof LinkedHashSet
+        result[2] instanceof LinkedHashMap
+        report.typeNames.empty
+    }
+
+    def "uses registered serializer for runtime type of argument"() {
+        registry.register(Thing, new ThingSerializer())
+
+        expect:
+        def arraySerializer = serializer.forTypes([Object] as Class[])
+        def result = serialize([new Thing("a")] as Object[], arraySerializer)
+        result[0] instanceof Thing
+        result[0].name == "a"
+        report.typeNames.empty
+    }
+
+    def "falls back to Java serialization and reports type"() {
+        expect:
+        def arraySerializer = serializer.forTypes([Object] as Class[])
+        serialize([new SerializableThing(name: "a")] as Object[], arraySerializer)[0].name == "a"
+        report.typeNames == [SerializableThing.name] as Set
+    }
+
+    def "writes class names and short strings only once per connection"() {
+        registry.register(Thing, new ThingSerializer())
+        def writer = new CompactMethodArgsSerializer(getClass().classLoader, [registry], report)
+        def reader = new CompactMethodArgsSerializer(getClass().classLoader, [registry], report)
+        def args1 = ["some value", new Thing("a"), Level.INFO] as Object[]
+        def args2 = ["some value", new Thing("b"), Level.WARN] as Object[]
+        def longString = "x" * 1000
+        def args3 = [longString, longString] as Object[]
+
+        when:
+        def bytesOut = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytesOut)
+        def argsWriter = writer.forTypes([Object, Object, Object] as Class[])
+        argsWriter.write(encoder, args1)
+        encoder.flush()
+        def firstLength = bytesOut.size()
+        argsWriter.write(encoder, args2)
+        encoder.flush()
+        def secondLength = bytesOut.size() - firstLength
+        def pairWriter = writer.forTypes([Object, Object] as Class[])
+        pairWriter.write(encoder, args3)
+        encoder.flush()
+
+        def decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytesOut.toByteArray()))
+        def argsReader = reader.forTypes([Object, Object, Object] as Class[])
+        def result1 = argsReader.read(decoder)
+        def result2 = argsReader.read(decoder)
+        def result3 = reader.forTypes([Object, Object] as Class[]).read(decoder)
+
+        then:
+        secondLength < firstLength / 2
+        result1[0] == "some value"
+        result1[1].name == "a"
+        result1[2] == Level.INFO
+        result2[0] == "some value"
+        result2[1].name == "b"
+        result2[2] == Level.WARN
+        result3 == args3
+    }
+
+    def "keeps reading messages after an enum whose class cannot be loaded"() {
+        registry.register(Thing, new ThingSerializer())
+        def writer = new CompactMethodArgsSerializer(getClass().classLoader, [registry], report)
+        def reader = new CompactMethodArgsSerializer(new HidingClassLoader(getClass().classLoader, Level.name), [registry], report)
+        def argsWriter = writer.forTypes([Object, Object, Object] as Class[])
+        def argsReader = reader.forTypes([Object, Object, Object] as Class[])
+
+        when:
+        def bytesOut = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytesOut)
+        argsWriter.write(encoder, [Level.INFO, "some value", new Thing("a")] as Object[])
+        argsWriter.write(encoder, [new Thing("b"), Level.WARN, "some value"] as Object[])
+        argsWriter.write(encoder, ["some value", new Thing("c"), "other value"] as Object[])
+        encoder.flush()
+        def decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytesOut.toByteArray()))
+        argsReader.read(decoder)
+
+        then:
+        def e = thrown(ClassNotFoundException)
+        e.message.contains(Level.name)
+
+        when:
+        argsReader.read(decoder)
+
+        then:
+        thrown(ClassNotFoundException)
+
+        when:
+        def result = argsReader.read(decoder)
+
+        then:
+        result[0] == "some value"
+        result[1].name == "c"
+        result[2] == "other value"
+    }
+
+    def "fails when a registered value of a class that cannot be loaded is read"() {
+        registry.register(Thing, new ThingSerializer())
+        def writer = new CompactMethodArgsSerializer(getClass().classLoader, [registry], report)
+        def reader = new CompactMethodArgsSerializer(new HidingClassLoader(getClass().classLoader, Thing.name), [registry], report)
+
+        when:
+        def bytesOut = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytesOut)
+        writer.forTypes([Object] as Class[]).write(encoder, [new Thing("a")] as Object[])
+        encoder.flush()
+        reader.forTypes([Object] as Class[]).read(new KryoBackedDecoder(new ByteArrayInputStream(bytesOut.toByteArray())))
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.cause instanceof ClassNotFoundException
+    }
+
+    enum Level {
+        INFO, WARN
+    }
+
+    static class Thing {
+        final String name
+
+        Thing(String name) {
+            this.name = name
+        }
+    }
+
+    static class SerializableThing implements Serializable {
+        String name
+    }
+
+    static class HidingClassLoader extends ClassLoader {
+        final String hiddenName
+
+        HidingClassLoader(ClassLoader parent, String hiddenName) {
+            super(parent)
+            this.hiddenName = hiddenName
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name == hiddenName) {
+                throw new ClassNotFoundException(name)
+            }
+            return super.loadClass(name, resolve)
+        }
+    }
+
+    static class ThingSerializer implements Serializer<Thing> {
+        @Override
+        Thing read(Decoder decoder) throws Exception {
+            return new Thing(BaseSerializerFactory.STRING_SERIALIZER.read(decoder))
+        }
+
+        @Override
+        void write(Encoder encoder, Thing value) throws Exception {
+            BaseSerializerFactory.STRING_SERIALIZER.write(encoder, value.name)
+        }
+    }
+}
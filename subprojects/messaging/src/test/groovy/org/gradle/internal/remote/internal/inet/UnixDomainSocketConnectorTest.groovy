@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.internal.remote.internal.ConnectCompletion
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Serializers
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import spock.lang.Shared
+import spock.lang.Timeout
+
+@Timeout(60)
+class UnixDomainSocketConnectorTest extends ConcurrentSpec {
+    @Shared def serializer = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER)
+    final def socketDir = new File(System.getProperty("java.io.tmpdir"))
+    final def tcpIncomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator())
+    final def incomingConnector = new UnixDomainSocketIncomingConnector(tcpIncomingConnector, executorFactory, socketDir)
+    final def outgoingConnector = new UnixDomainSocketOutgoingConnector(new TcpOutgoingConnector())
+
+    @Requires([TestPrecondition.LINUX, TestPrecondition.JDK16_OR_LATER])
+    def "client connects over unix domain socket when server listens on one"() {
+        Action<ConnectCompletion> action = Mock()
+        def received
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def socketFile = acceptor.address.domainSocketFile
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        connection.dispatch("message")
+        connection.flush()
+        thread.blockUntil.received
+
+        then:
+        socketFile.exists()
+        connection.toString().contains("unix:")
+        1 * action.execute(!null) >> { ConnectCompletion completion ->
+            received = completion.create(serializer).receive()
+            instant.received
+        }
+        received == "message"
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    @Requires([TestPrecondition.LINUX, TestPrecondition.JDK16_OR_LATER])
+    def "client without unix domain socket support can connect over TCP"() {
+        Action<ConnectCompletion> action = Mock()
+
+        when:
+        def acceptor = incomingConnector.accept(action, false)
+        def connection = new TcpOutgoingConnector().connect(acceptor.address).create(serializer)
+        thread.blockUntil.connected
+
+        then:
+        acceptor.address.domainSocketFile != null
+        !connection.toString().contains("unix:")
+        1 * action.execute(!null) >> { instant.connected }
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    @Requires([TestPrecondition.LINUX, TestPrecondition.JDK16_OR_LATER])
+    def "removes socket file when acceptor is stopped"() {
+        when:
+        def acceptor = incomingConnector.accept(Mock(Action), false)
+        def socketFile = acceptor.address.domainSocketFile
+
+        then:
+        socketFile.exists()
+
+        when:
+        acceptor.stop()
+
+        then:
+        !socketFile.exists()
+    }
+
+    def "does not listen on unix domain socket when remote connections are allowed"() {
+        when:
+        def acceptor = incomingConnector.accept(Mock(Action), true)
+
+        then:
+        acceptor.address.domainSocketFile == null
+
+        cleanup:
+        acceptor?.stop()
+    }
+
+    def "falls back to TCP when unix domain socket cannot be connected to"() {
+        Action<ConnectCompletion> action = Mock()
+
+        when:
+        def acceptor = tcpIncomingConnector.accept(action, false)
+        def address = acceptor.address.withDomainSocket(new File(socketDir, "gradle-missing-${UUID.randomUUID()}.sock"))
+        def connection = outgoingConnector.connect(address).create(serializer)
+        thread.blockUntil.connected
+
+        then:
+        connection != null
+        1 * action.execute(!null) >> { instant.connected }
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+}
@@ -40,6 +40,7 @@
 import org.gradle.internal.DisplayName;
 import org.gradle.internal.Pair;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.extensibility.ConventionAwareHelper;
 import org.gradle.internal.instantiation.ClassGenerationException;
 import org.gradle.internal.instantiation.InjectAnnotationHandler;
@@ -80,6 +81,7 @@
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -133,6 +135,8 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
     private final boolean decorate;
     private final String suffix;
     private final int factoryId;
+    private final GeneratedClassBytecodeCache bytecodeCache;
+    private final String cacheKey;
 
     private static final String GET_DISPLAY_NAME_FOR_NEXT_METHOD_NAME = "getDisplayNameForNext";
 
@@ -169,11 +173,24 @@ private AsmBackedClassGenerator(boolean decorate, String suffix,
                                     Collection<Class<? extends Annotation>> enabledInjectAnnotations,
                                     PropertyRoleAnnotationHandler roleHandler,
                                     CrossBuildInMemoryCache<Class<?>, GeneratedClassImpl> generatedClasses,
-                                    int factoryId) {
+                                    int factoryId,
+                                    @Nullable GeneratedClassBytecodeCache bytecodeCache) {
         super(allKnownAnnotations, enabledInjectAnnotations, roleHandler, generatedClasses);
         this.decorate = decorate;
         this.suffix = suffix;
         this.factoryId = factoryId;
+        this.bytecodeCache = bytecodeCache;
+        this.cacheKey = cacheKey(decorate, enabledInjectAnnotations);
+    }
+
+    private static String cacheKey(boolean decorate, Collection<Class<? extends Annotation>> enabledInjectAnnotations) {
+        // The suffix of a generator is assigned by a counter, so also include what it generates
+        List<String> annotationNames = new ArrayList<>(enabledInjectAnnotations.size());
+        for (Class<? extends Annotation> annotation : enabledInjectAnnotations) {
+            annotationNames.add(annotation.getName());
+        }
+        Collections.sort(annotationNames);
+        return (decorate ? "decorate" : "inject") + annotationNames;
     }
 
     /**
@@ -184,6 +201,18 @@ static ClassGenerator decorateAndInject(Collection<? extends InjectAnnotationHan
                                             Collection<Class<? extends Annotation>> enabledInjectAnnotations,
                                             CrossBuildInMemoryCacheFactory cacheFactory,
                                             int factoryId) {
+        return decorateAndInject(allKnownAnnotations, roleHandler, enabledInjectAnnotations, cacheFactory, factoryId, null);
+    }
+
+    /**
+     * Returns a generator that applies DSL mix-in, extensibility and service injection for generated classes, and keeps the bytecode of the classes it generates in the given cache.
+     */
+    static ClassGenerator decorateAndInject(Collection<? extends InjectAnnotationHandler> allKnownAnnotations,
+                                            PropertyRoleAnnotationHandler roleHandler,
+                                            Collection<Class<? extends Annotation>> enabledInjectAnnotations,
+                                            CrossBuildInMemoryCacheFactory cacheFactory,
+                                            int factoryId,
+                                            @Nullable GeneratedClassBytecodeCache bytecodeCache) {
         String suffix;
         CrossBuildInMemoryCache<Class<?>, GeneratedClassImpl> generatedClasses;
         if (enabledInjectAnnotations.isEmpty()) {
@@ -204,7 +233,7 @@ static ClassGenerator decorateAndInject(Collection<? extends InjectAnnotationHan
             generatedClasses = cacheFactory.newClassMap();
         }
 
-        return new AsmBackedClassGenerator(true, suffix, allKnownAnnotations, enabledInjectAnnotations, roleHandler, generatedClasses, factoryId);
+        return new AsmBackedClassGenerator(true, suffix, allKnownAnnotations, enabledInjectAnnotations, roleHandler, generatedClasses, factoryId, bytecodeCache);
     }
 
     /**
@@ -215,10 +244,22 @@ static ClassGenerator injectOnly(Collection<? extends InjectAnnotationHandler> a
                                      Collection<Class<? extends Annotation>> enabledInjectAnnotations,
                                      CrossBuildInMemoryCacheFactory cacheFactory,
                                      int factoryId) {
+        return injectOnly(allKnownAnnotations, roleHandler, enabledInjectAnnotations, cacheFactory, factoryId, null);
+    }
+
+    /**
+     * Returns a generator that applies service injection only for generated classes, and keeps the bytecode of the classes it generates in the given cache.
+     */
+    static ClassGenerator injectOnly(Collection<? extends InjectAnnotationHandler> allKnownAnnotations,
+                                     PropertyRoleAnnotationHandler roleHandler,
+                                     Collection<Class<? extends Annotation>> enabledInjectAnnotations,
+                                     CrossBuildInMemoryCacheFactory cacheFactory,
+                                     int factoryId,
+                                     @Nullable GeneratedClassBytecodeCache bytecodeCache) {
         // TODO - the suffix should be a deterministic function of the known and enabled annotations
         // For now, just assign using a counter
         String suffix = ClassGeneratorSuffixRegistry.assign("$Inject");
-        return new AsmBackedClassGenerator(false, suffix, allKnownAnnotations, enabledInjectAnnotations, roleHandler, cacheFactory.newClassMap(), factoryId);
+        return new AsmBackedClassGenerator(false, suffix, allKnownAnnotations, enabledInjectAnnotations, roleHandler, cacheFactory.newClassMap(), factoryId, bytecodeCache);
     }
 
     @Override
@@ -249,7 +290,7 @@ protected ClassInspectionVisitor start(Class<?> type) {
             formatter.append(" is not a class or interface.");
             throw new ClassGenerationException(formatter.toString());
         }
-        return new ClassInspectionVisitorImpl(type, decorate, suffix, factoryId);
+        return new ClassInspectionVisitorImpl(type, decorate, suffix, factoryId, bytecodeCache, cacheKey);
     }
 
     private static class ClassInspectionVisitorImpl implements ClassInspectionVisitor {
@@ -257,6 +298,8 @@ private static class ClassInspectionVisitorImpl implements ClassInspectionVisito
         private final boolean decorate;
         private final String suffix;
         private final int factoryId;
+        private final GeneratedClassBytecodeCache bytecodeCache;
+        private final String cacheKey;
         private boolean extensible;
         private boolean serviceInjection;
         private boolean conventionAware;
@@ -268,11 +311,13 @@ private static class ClassInspectionVisitorImpl implements ClassInspectionVisito
         private final List<Pair<PropertyMetadata, Boolean>> propertiesToAttach = new ArrayList<>();
         private final List<PropertyMetadata> ineligibleProperties = new ArrayList<>();
 
-        public ClassInspectionVisitorImpl(Class<?> type, boolean decorate, String suffix, int factoryId) {
+        public ClassInspectionVisitorImpl(Class<?> type, boolean decorate, String suffix, int factoryId, @Nullable GeneratedClassBytecodeCache bytecodeCache, String cacheKey) {
             this.type = type;
             this.decorate = decorate;
             this.suffix = suffix;
             this.factoryId = factoryId;
+            this.bytecodeCache = bytecodeCache;
+            this.cacheKey = cacheKey;
         }
 
         @Override
@@ -354,10 +399,39 @@ public ClassGenerationVisitor builder() {
             }
             boolean requiresServicesMethod = (extensible || serviceInjection) && !providesOwnServicesImplementation;
             boolean requiresToString = !providesOwnToStringImplementation;
-            ClassBuilderImpl builder = new ClassBuilderImpl(type, decorate, suffix, factoryId, extensible, conventionAware, managed, providesOwnDynamicObjectImplementation, requiresToString, requiresServicesMethod, requiresFactory, propertiesToAttach, ineligibleProperties);
+
+            String key = null;
+            if (bytecodeCache != null) {
+                key = bytecodeCacheKey(requiresServicesMethod, requiresToString);
+                byte[] bytecode = bytecodeCache.get(type, key);
+                if (bytecode != null) {
+                    return new CachedClassBuilder(type, type.getName() + suffix, bytecode, managed, factoryId);
+                }
+            }
+
+            ClassBuilderImpl builder = new ClassBuilderImpl(type, decorate, suffix, factoryId, extensible, conventionAware, managed, providesOwnDynamicObjectImplementation, requiresToString, requiresServicesMethod, requiresFactory, propertiesToAttach, ineligibleProperties, bytecodeCache, key);
             builder.startClass();
             return builder;
         }
+
+        /**
+         * Describes the class to generate, based on the inspection of the type. The type itself and the classes it references are identified by the cache.
+         */
+        private String bytecodeCacheKey(boolean requiresServicesMethod, boolean requiresToString) {
+            StringBuilder builder = new StringBuilder();
+            builder.append(type.getName()).append(suffix).append(';').append(cacheKey);
+            builder.append(';').append(extensible).append(',').append(conventionAware).append(',').append(managed).append(',').append(serviceInjection);
+            builder.append(',').append(providesOwnDynamicObjectImplementation).append(',').append(requiresToString).append(',').append(requiresServicesMethod).append(',').append(requiresFactory);
+            builder.append(";attach");
+            for (Pair<PropertyMetadata, Boolean> property : propertiesToAttach) {
+                builder.append(',').append(property.left.getName()).append(':').append(property.right);
+            }
+            builder.append(";ineligible");
+            for (PropertyMetadata property : ineligibleProperties) {
+                builder.append(',').append(property.getName());
+            }
+            return builder.toString();
+        }
     }
 
     private static class ClassBuilderImpl implements ClassGenerationVisitor {
@@ -475,6 +549,8 @@ private static class ClassBuilderImpl implements ClassGenerationVisitor {
         private final List<PropertyMetadata> ineligibleProperties;
         private final boolean requiresServicesMethod;
         private final boolean requiresFactory;
+        private final GeneratedClassBytecodeCache bytecodeCache;
+        private final String bytecodeCacheKey;
 
         private ClassBuilderImpl(
             Class<?> type,
@@ -489,7 +565,9 @@ private ClassBuilderImpl(
             boolean requiresServicesMethod,
             boolean requiresFactory,
             List<Pair<PropertyMetadata, Boolean>> propertiesToAttach,
-            List<PropertyMetadata> ineligibleProperties
+            List<PropertyMetadata> ineligibleProperties,
+            @Nullable GeneratedClassBytecodeCache bytecodeCache,
+            @Nullable String bytecodeCacheKey
         ) {
             this.type = type;
             this.factoryId = factoryId;
@@ -507,6 +585,8 @@ private ClassBuilderImpl(
             this.requiresServicesMethod = requiresServicesMethod;
             this.requiresFactory = requiresFactory;
             this.ineligibleProperties = ineligibleProperties;
+            this.bytecodeCache = bytecodeCache;
+            this.bytecodeCacheKey = bytecodeCacheKey;
         }
 
         public void startClass() {
@@ -1822,7 +1902,7 @@ private Object getAnnotationParameterValue(Annotation annotation, Method method)
             }
         }
 
-        private void attachFactoryIdToImplType(Class<?> implClass, int id) {
+        private static void attachFactoryIdToImplType(Class<?> implClass, int id) {
             try {
                 Field factoryField = implClass.getDeclaredField(FACTORY_ID_FIELD);
                 factoryField.setAccessible(true);
@@ -1846,12 +1926,17 @@ public Class<?> generate() {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            Class<?> generatedClass = classGenerator.define();
+            byte[] bytecode = visitor.toByteArray();
+            Class<?> generatedClass = ClassLoaderUtils.defineDecorator(type, type.getClassLoader(), classGenerator.getGeneratedTypeName(), bytecode);
 
             if (managed) {
                 attachFactoryIdToImplType(generatedClass, factoryId);
             }
 
+            if (bytecodeCache != null) {
+                bytecodeCache.put(type, bytecodeCacheKey, bytecode);
+            }
+
             return generatedClass;
         }
 
@@ -1936,6 +2021,35 @@ private static class ObjectCreationDetails {
         }
     }
 
+    /**
+     * Defines a class from bytecode generated by another process, instead of generating it again.
+     */
+    private static class CachedClassBuilder extends NoOpBuilder {
+        private final Class<?> type;
+        private final String generatedTypeName;
+        private final byte[] bytecode;
+        private final boolean managed;
+        private final int factoryId;
+
+        public CachedClassBuilder(Class<?> type, String generatedTypeName, byte[] bytecode, boolean managed, int factoryId) {
+            super(type);
+            this.type = type;
+            this.generatedTypeName = generatedTypeName;
+            this.bytecode = bytecode;
+            this.managed = managed;
+            this.factoryId = factoryId;
+        }
+
+        @Override
+        public Class<?> generate() {
+            Class<?> generatedClass = ClassLoaderUtils.defineDecorator(type, type.getClassLoader(), generatedTypeName, bytecode);
+            if (managed) {
+                ClassBuilderImpl.attachFactoryIdToImplType(generatedClass, factoryId);
+            }
+            return generatedClass;
+        }
+    }
+
     private static class NoOpBuilder implements ClassGenerationVisitor {
         private final Class<?> type;
 
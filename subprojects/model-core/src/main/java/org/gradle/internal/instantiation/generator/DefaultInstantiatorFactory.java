@@ -43,6 +43,7 @@ public class DefaultInstantiatorFactory implements InstantiatorFactory {
     private final CrossBuildInMemoryCacheFactory cacheFactory;
     private final List<InjectAnnotationHandler> annotationHandlers;
     private final PropertyRoleAnnotationHandler roleHandler;
+    private final GeneratedClassBytecodeCache bytecodeCache;
     private final DefaultInstantiationScheme injectOnlyScheme;
     private final DefaultInstantiationScheme injectOnlyLenientScheme;
     private final DefaultInstantiationScheme decoratingScheme;
@@ -50,14 +51,22 @@ public class DefaultInstantiatorFactory implements InstantiatorFactory {
     private final ManagedFactory managedFactory;
 
     public DefaultInstantiatorFactory(CrossBuildInMemoryCacheFactory cacheFactory, List<InjectAnnotationHandler> injectHandlers, PropertyRoleAnnotationHandler roleAnnotationHandler) {
+        this(cacheFactory, injectHandlers, roleAnnotationHandler, null);
+    }
+
+    /**
+     * Creates a factory whose class generators keep the bytecode of the classes they generate in the given cache, and define classes from it when possible.
+     */
+    public DefaultInstantiatorFactory(CrossBuildInMemoryCacheFactory cacheFactory, List<InjectAnnotationHandler> injectHandlers, PropertyRoleAnnotationHandler roleAnnotationHandler, @Nullable GeneratedClassBytecodeCache bytecodeCache) {
         this.cacheFactory = cacheFactory;
         this.annotationHandlers = injectHandlers;
         this.roleHandler = roleAnnotationHandler;
+        this.bytecodeCache = bytecodeCache;
         DefaultServiceRegistry services = new DefaultServiceRegistry();
         services.add(InstantiatorFactory.class, this);
         this.defaultServices = services;
-        ClassGenerator injectOnlyGenerator = AsmBackedClassGenerator.injectOnly(injectHandlers, roleAnnotationHandler, ImmutableSet.of(), cacheFactory, MANAGED_FACTORY_ID);
-        ClassGenerator decoratedGenerator = AsmBackedClassGenerator.decorateAndInject(injectHandlers, roleAnnotationHandler, ImmutableSet.of(), cacheFactory, MANAGED_FACTORY_ID);
+        ClassGenerator injectOnlyGenerator = AsmBackedClassGenerator.injectOnly(injectHandlers, roleAnnotationHandler, ImmutableSet.of(), cacheFactory, MANAGED_FACTORY_ID, bytecodeCache);
+        ClassGenerator decoratedGenerator = AsmBackedClassGenerator.decorateAndInject(injectHandlers, roleAnnotationHandler, ImmutableSet.of(), cacheFactory, MANAGED_FACTORY_ID, bytecodeCache);
         this.managedFactory = new ClassGeneratorBackedManagedFactory(injectOnlyGenerator);
         ConstructorSelector injectOnlyJsr330Selector = new Jsr330ConstructorSelector(injectOnlyGenerator, cacheFactory.newClassCache());
         ConstructorSelector decoratedJsr330Selector = new Jsr330ConstructorSelector(decoratedGenerator, cacheFactory.newClassCache());
@@ -94,7 +103,7 @@ public InstantiationScheme injectScheme(Collection<Class<? extends Annotation>>
             assertKnownAnnotation(annotation);
         }
 
-        ClassGenerator classGenerator = AsmBackedClassGenerator.injectOnly(annotationHandlers, roleHandler, ImmutableSet.copyOf(injectAnnotations), cacheFactory, MANAGED_FACTORY_ID);
+        ClassGenerator classGenerator = AsmBackedClassGenerator.injectOnly(annotationHandlers, roleHandler, ImmutableSet.copyOf(injectAnnotations), cacheFactory, MANAGED_FACTORY_ID, bytecodeCache);
         Jsr330ConstructorSelector constructorSelector = new Jsr330ConstructorSelector(classGenerator, cacheFactory.newClassCache());
         ImmutableSet.Builder<Class<? extends Annotation>> builder = ImmutableSet.builderWithExpectedSize(injectAnnotations.size() + 1);
         builder.addAll(injectAnnotations);
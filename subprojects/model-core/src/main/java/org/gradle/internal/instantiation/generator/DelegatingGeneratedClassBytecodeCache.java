@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.instantiation.generator;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link GeneratedClassBytecodeCache} that forwards to the cache currently in use, if any, and otherwise keeps nothing.
+ *
+ * <p>The class generators live as long as the process, whereas the persistent cache is opened per Gradle user home, so the generators are given this cache and each build session declares which cache it uses.
+ * While sessions that use different caches run at the same time, for example builds with different Gradle user homes run in the same process, no cache is used, so that the classes generated by one session are not kept in the cache of another.</p>
+ */
+public class DelegatingGeneratedClassBytecodeCache implements GeneratedClassBytecodeCache {
+    private final List<Usage> usages = new ArrayList<>();
+    private volatile GeneratedClassBytecodeCache delegate;
+
+    /**
+     * Uses the given cache, or no cache when {@code null}, until the returned usage is closed.
+     */
+    public Usage use(@Nullable GeneratedClassBytecodeCache cache) {
+        Usage usage = new Usage(cache);
+        synchronized (usages) {
+            usages.add(usage);
+            updateDelegate();
+        }
+        return usage;
+    }
+
+    /**
+     * Stops using the given cache, for all usages of it.
+     */
+    public void stopUsing(GeneratedClassBytecodeCache cache) {
+        synchronized (usages) {
+            usages.removeIf(usage -> usage.cache == cache);
+            updateDelegate();
+        }
+    }
+
+    private void updateDelegate() {
+        GeneratedClassBytecodeCache common = null;
+        for (int i = 0; i < usages.size(); i++) {
+            GeneratedClassBytecodeCache cache = usages.get(i).cache;
+            if (i == 0) {
+                common = cache;
+            } else if (cache != common) {
+                common = null;
+                break;
+            }
+        }
+        delegate = common;
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(Class<?> type, String key) {
+        GeneratedClassBytecodeCache cache = delegate;
+        return cache == null ? null : cache.get(type, key);
+    }
+
+    @Override
+    public void put(Class<?> type, String key, byte[] bytecode) {
+        GeneratedClassBytecodeCache cache = delegate;
+        if (cache != null) {
+            cache.put(type, key, bytecode);
+        }
+    }
+
+    /**
+     * The use of a cache by a build session.
+     */
+    public class Usage implements Closeable {
+        private final GeneratedClassBytecodeCache cache;
+
+        private Usage(@Nullable GeneratedClassBytecodeCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void close() {
+            synchronized (usages) {
+                usages.remove(this);
+                updateDelegate();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.instantiation.generator;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the bytecode of the classes generated by {@link AsmBackedClassGenerator} beyond the current process, so that other processes can define these classes without generating them again.
+ * Also keeps other data derived from inspecting a type, such as its type annotation metadata, under keys that cannot clash with those of generated classes.
+ */
+public interface GeneratedClassBytecodeCache {
+    /**
+     * Returns the bytecode of the class generated for the given type, or {@code null} when not available.
+     *
+     * @param key describes how the class is generated, including the name of the generated class.
+     */
+    @Nullable
+    byte[] get(Class<?> type, String key);
+
+    /**
+     * Keeps the bytecode of a class generated for the given type.
+     *
+     * @param key describes how the class is generated, including the name of the generated class.
+     */
+    void put(Class<?> type, String key, byte[] bytecode);
+}
@@ -30,6 +30,7 @@
 import org.gradle.api.Action;
 import org.gradle.cache.internal.CrossBuildInMemoryCache;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.instantiation.generator.GeneratedClassBytecodeCache;
 import org.gradle.internal.reflect.AnnotationCategory;
 import org.gradle.internal.reflect.PropertyAccessorType;
 import org.gradle.internal.reflect.annotations.PropertyAnnotationMetadata;
@@ -40,6 +41,7 @@
 import org.gradle.internal.reflect.validation.ReplayingTypeValidationContext;
 import org.gradle.internal.reflect.validation.TypeValidationContext;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
@@ -55,6 +57,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -95,6 +98,9 @@ public void visitValidationFailures(TypeValidationContext validationContext) {
     private final ImmutableSet<Class<?>> mutableNonFinalClasses;
     private final ImmutableSet<Class<? extends Annotation>> ignoredMethodAnnotations;
     private final Predicate<? super Method> generatedMethodDetector;
+    private final GeneratedClassBytecodeCache persistentCache;
+    private final String persistentCacheKey;
+    private final TypeAnnotationMetadataCodec codec;
 
     /**
      * Constructs the store.
@@ -119,6 +125,25 @@ public DefaultTypeAnnotationMetadataStore(
         Collection<Class<? extends Annotation>> ignoredMethodAnnotations,
         Predicate<? super Method> generatedMethodDetector,
         CrossBuildInMemoryCacheFactory cacheFactory
+    ) {
+        this(recordedTypeAnnotations, propertyAnnotationCategories, ignoredPackagePrefixes, ignoredSuperTypes, ignoreMethodsFromTypes, mutableNonFinalClasses, ignoredMethodAnnotations, generatedMethodDetector, cacheFactory, null);
+    }
+
+    /**
+     * Constructs the store, which also keeps the metadata of types without validation problems in the given persistent cache.
+     * The metadata is kept as the names of annotation types and annotated members, which are looked up again when the metadata is read.
+     */
+    public DefaultTypeAnnotationMetadataStore(
+        Collection<Class<? extends Annotation>> recordedTypeAnnotations,
+        Map<Class<? extends Annotation>, ? extends AnnotationCategory> propertyAnnotationCategories,
+        Collection<String> ignoredPackagePrefixes,
+        Collection<Class<?>> ignoredSuperTypes,
+        Collection<Class<?>> ignoreMethodsFromTypes,
+        Collection<Class<?>> mutableNonFinalClasses,
+        Collection<Class<? extends Annotation>> ignoredMethodAnnotations,
+        Predicate<? super Method> generatedMethodDetector,
+        CrossBuildInMemoryCacheFactory cacheFactory,
+        @Nullable GeneratedClassBytecodeCache persistentCache
     ) {
         this.recordedTypeAnnotations = ImmutableSet.copyOf(recordedTypeAnnotations);
         this.ignoredPackagePrefixes = collectIgnoredPackagePrefixes(ignoredPackagePrefixes);
@@ -129,6 +154,35 @@ public DefaultTypeAnnotationMetadataStore(
         this.mutableNonFinalClasses = ImmutableSet.copyOf(mutableNonFinalClasses);
         this.ignoredMethodAnnotations = ImmutableSet.copyOf(ignoredMethodAnnotations);
         this.generatedMethodDetector = generatedMethodDetector;
+        this.persistentCache = persistentCache;
+        this.persistentCacheKey = persistentCache == null ? null : persistentCacheKey(this.recordedTypeAnnotations, this.propertyAnnotationCategories, this.ignoredPackagePrefixes, ignoredSuperTypes, ignoreMethodsFromTypes, this.mutableNonFinalClasses, this.ignoredMethodAnnotations);
+        this.codec = new TypeAnnotationMetadataCodec(this.propertyAnnotationCategories);
+    }
+
+    /**
+     * Describes what this store records, as stores with different settings produce different metadata for the same type.
+     */
+    private static String persistentCacheKey(
+        Collection<Class<? extends Annotation>> recordedTypeAnnotations,
+        Map<Class<? extends Annotation>, AnnotationCategory> propertyAnnotationCategories,
+        Collection<String> ignoredPackagePrefixes,
+        Collection<Class<?>> ignoredSuperTypes,
+        Collection<Class<?>> ignoreMethodsFromTypes,
+        Collection<Class<?>> mutableNonFinalClasses,
+        Collection<Class<? extends Annotation>> ignoredMethodAnnotations
+    ) {
+        Set<String> categories = new TreeSet<>();
+        propertyAnnotationCategories.forEach((annotationType, category) -> categories.add(annotationType.getName() + "=" + category.getDisplayName()));
+        return "TypeAnnotationMetadata;" + sortedNames(recordedTypeAnnotations) + categories + new TreeSet<>(ignoredPackagePrefixes)
+            + sortedNames(ignoredSuperTypes) + sortedNames(ignoreMethodsFromTypes) + sortedNames(mutableNonFinalClasses) + sortedNames(ignoredMethodAnnotations);
+    }
+
+    private static Set<String> sortedNames(Collection<? extends Class<?>> types) {
+        Set<String> names = new TreeSet<>();
+        for (Class<?> type : types) {
+            names.add(type.getName());
+        }
+        return names;
     }
 
     private static ImmutableSet<String> collectIgnoredPackagePrefixes(Collection<String> ignoredPackagePrefixes) {
@@ -181,22 +235,49 @@ private static ImmutableSet<Equivalence.Wrapper<Method>> allMethodsOf(Iterable<C
 
     @Override
     public TypeAnnotationMetadata getTypeAnnotationMetadata(Class<?> type) {
-        return cache.get(type, () -> createTypeAnnotationMetadata(type));
+        return cache.get(type, () -> loadOrCreateTypeAnnotationMetadata(type));
     }
 
-    private TypeAnnotationMetadata createTypeAnnotationMetadata(Class<?> type) {
-        if (type.isPrimitive() || type.isArray() || type.isAnnotation()) {
+    private TypeAnnotationMetadata loadOrCreateTypeAnnotationMetadata(Class<?> type) {
+        if (isIgnored(type)) {
             return EMPTY_TYPE_ANNOTATION_METADATA;
         }
+        if (persistentCache == null) {
+            return createTypeAnnotationMetadata(type, new ReplayingTypeValidationContext());
+        }
+
+        byte[] persisted = persistentCache.get(type, persistentCacheKey);
+        if (persisted != null) {
+            TypeAnnotationMetadata metadata = codec.read(type, persisted);
+            if (metadata != null) {
+                return metadata;
+            }
+        }
+        ReplayingTypeValidationContext validationContext = new ReplayingTypeValidationContext();
+        TypeAnnotationMetadata metadata = createTypeAnnotationMetadata(type, validationContext);
+        if (validationContext.isEmpty()) {
+            byte[] bytes = codec.write(type, metadata);
+            if (bytes != null) {
+                persistentCache.put(type, persistentCacheKey, bytes);
+            }
+        }
+        return metadata;
+    }
+
+    private boolean isIgnored(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isAnnotation()) {
+            return true;
+        }
 
         Package typePackage = type.getPackage();
         if (typePackage != null) {
             String typePackageName = typePackage.getName();
-            if (ignoredPackagePrefixes.stream().anyMatch(typePackageName::startsWith)) {
-                return EMPTY_TYPE_ANNOTATION_METADATA;
-            }
+            return ignoredPackagePrefixes.stream().anyMatch(typePackageName::startsWith);
         }
+        return false;
+    }
 
+    private TypeAnnotationMetadata createTypeAnnotationMetadata(Class<?> type, ReplayingTypeValidationContext validationContext) {
         ImmutableSet.Builder<Annotation> typeAnnotations = ImmutableSet.builder();
         for (Annotation typeAnnotation : type.getDeclaredAnnotations()) {
             if (recordedTypeAnnotations.contains(typeAnnotation.annotationType())) {
@@ -205,7 +286,6 @@ private TypeAnnotationMetadata createTypeAnnotationMetadata(Class<?> type) {
         }
 
         Map<String, PropertyAnnotationMetadataBuilder> methodBuilders = new HashMap<>();
-        ReplayingTypeValidationContext validationContext = new ReplayingTypeValidationContext();
 
         inheritMethods(type, validationContext, methodBuilders);
 
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.reflect.annotations.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.gradle.internal.reflect.AnnotationCategory;
+import org.gradle.internal.reflect.annotations.PropertyAnnotationMetadata;
+import org.gradle.internal.reflect.annotations.TypeAnnotationMetadata;
+import org.gradle.internal.reflect.validation.ReplayingTypeValidationContext;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes type annotation metadata as the names of the annotation types and of the members that carry the annotations, and reads it back
+ * by looking these up again on the type. Only metadata without validation problems is written, as the problems cannot be written.
+ */
+class TypeAnnotationMetadataCodec {
+    private final Map<Class<? extends Annotation>, ? extends AnnotationCategory> propertyAnnotationCategories;
+
+    TypeAnnotationMetadataCodec(Map<Class<? extends Annotation>, ? extends AnnotationCategory> propertyAnnotationCategories) {
+        this.propertyAnnotationCategories = propertyAnnotationCategories;
+    }
+
+    /**
+     * Returns the metadata of the given type, or {@code null} when it cannot be written.
+     */
+    @Nullable
+    byte[] write(Class<?> type, TypeAnnotationMetadata metadata) {
+        List<Class<?>> hierarchy = hierarchyOf(type);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        encoder.writeSmallInt(metadata.getAnnotations().size());
+        for (Annotation annotation : metadata.getAnnotations()) {
+            encoder.writeString(annotation.annotationType().getName());
+        }
+        encoder.writeSmallInt(metadata.getPropertiesAnnotationMetadata().size());
+        for (PropertyAnnotationMetadata property : metadata.getPropertiesAnnotationMetadata()) {
+            Method getter = property.getMethod();
+            encoder.writeString(property.getPropertyName());
+            encoder.writeString(getter.getDeclaringClass().getName());
+            encoder.writeString(getter.getName());
+            encoder.writeSmallInt(property.getAnnotations().size());
+            for (Annotation annotation : property.getAnnotations().values()) {
+                if (!writeDeclaration(encoder, hierarchy, property.getPropertyName(), getter.getName(), annotation)) {
+                    return null;
+                }
+            }
+        }
+        encoder.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes where an equal annotation is declared on the given getter or on the field of the property, in the type or one of its super types.
+     */
+    private static boolean writeDeclaration(KryoBackedEncoder encoder, List<Class<?>> hierarchy, String propertyName, String getterName, Annotation annotation) {
+        for (Class<?> declaringType : hierarchy) {
+            AnnotatedElement getter = findGetter(declaringType, getterName);
+            if (getter != null && annotation.equals(getter.getDeclaredAnnotation(annotation.annotationType()))) {
+                writeDeclaration(encoder, annotation, false, declaringType, getterName);
+                return true;
+            }
+            AnnotatedElement field = findField(declaringType, propertyName);
+            if (field != null && annotation.equals(field.getDeclaredAnnotation(annotation.annotationType()))) {
+                writeDeclaration(encoder, annotation, true, declaringType, propertyName);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeDeclaration(KryoBackedEncoder encoder, Annotation annotation, boolean field, Class<?> declaringType, String memberName) {
+        encoder.writeString(annotation.annotationType().getName());
+        encoder.writeBoolean(field);
+        encoder.writeString(declaringType.getName());
+        encoder.writeString(memberName);
+    }
+
+    /**
+     * Returns the metadata of the given type, or {@code null} when it no longer matches the type.
+     */
+    @Nullable
+    TypeAnnotationMetadata read(Class<?> type, byte[] bytes) {
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes));
+            ClassLoader classLoader = type.getClassLoader();
+            int typeAnnotationCount = decoder.readSmallInt();
+            List<Annotation> typeAnnotations = new ArrayList<>(typeAnnotationCount);
+            for (int i = 0; i < typeAnnotationCount; i++) {
+                typeAnnotations.add(requireAnnotation(type, annotationType(decoder, classLoader)));
+            }
+            int propertyCount = decoder.readSmallInt();
+            List<PropertyAnnotationMetadata> properties = new ArrayList<>(propertyCount);
+            for (int i = 0; i < propertyCount; i++) {
+                String propertyName = decoder.readString();
+                Method getter = Class.forName(decoder.readString(), false, classLoader).getDeclaredMethod(decoder.readString());
+                int annotationCount = decoder.readSmallInt();
+                ImmutableMap.Builder<AnnotationCategory, Annotation> annotations = ImmutableMap.builderWithExpectedSize(annotationCount);
+                for (int j = 0; j < annotationCount; j++) {
+                    Class<? extends Annotation> annotationType = annotationType(decoder, classLoader);
+                    boolean field = decoder.readBoolean();
+                    Class<?> declaringType = Class.forName(decoder.readString(), false, classLoader);
+                    String memberName = decoder.readString();
+                    AnnotatedElement element = field ? declaringType.getDeclaredField(memberName) : declaringType.getDeclaredMethod(memberName);
+                    AnnotationCategory category = propertyAnnotationCategories.get(annotationType);
+                    if (category == null) {
+                        return null;
+                    }
+                    annotations.put(category, requireAnnotation(element, annotationType));
+                }
+                properties.add(new DefaultPropertyAnnotationMetadata(propertyName, getter, annotations.build()));
+            }
+            return new DefaultTypeAnnotationMetadata(typeAnnotations, properties, new ReplayingTypeValidationContext());
+        } catch (Exception e) {
+            // The type has changed in a way that its class loader hash does not detect, so inspect the type again
+            return null;
+        }
+    }
+
+    private static Class<? extends Annotation> annotationType(Decoder decoder, ClassLoader classLoader) throws Exception {
+        return Class.forName(decoder.readString(), false, classLoader).asSubclass(Annotation.class);
+    }
+
+    private static Annotation requireAnnotation(AnnotatedElement element, Class<? extends Annotation> annotationType) {
+        Annotation annotation = element.getDeclaredAnnotation(annotationType);
+        if (annotation == null) {
+            throw new IllegalStateException(String.format("%s is no longer annotated with %s.", element, annotationType.getName()));
+        }
+        return annotation;
+    }
+
+    @Nullable
+    private static AnnotatedElement findGetter(Class<?> type, String name) {
+        try {
+            return type.getDeclaredMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static AnnotatedElement findField(Class<?> type, String name) {
+        try {
+            return type.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private static List<Class<?>> hierarchyOf(Class<?> type) {
+        Set<Class<?>> seen = new LinkedHashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.removeFirst();
+            if (seen.add(current)) {
+                Collections.addAll(queue, current.getInterfaces());
+                if (current.getSuperclass() != null) {
+                    queue.add(current.getSuperclass());
+                }
+            }
+        }
+        return ImmutableList.copyOf(seen);
+    }
+}
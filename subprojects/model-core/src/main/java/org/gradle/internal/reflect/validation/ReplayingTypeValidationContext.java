@@ -38,6 +38,10 @@ public void visitPropertyProblem(Action<? super PropertyProblemBuilder> problemS
         }));
     }
 
+    public boolean isEmpty() {
+        return problems.isEmpty();
+    }
+
     public void replay(@Nullable String ownerProperty, TypeValidationContext target) {
         problems.forEach(problem -> problem.accept(ownerProperty, target));
     }
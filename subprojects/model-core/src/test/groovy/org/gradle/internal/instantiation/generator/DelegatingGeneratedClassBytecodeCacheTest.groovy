@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.instantiation.generator
+
+import spock.lang.Specification
+
+class DelegatingGeneratedClassBytecodeCacheTest extends Specification {
+    def cache = new DelegatingGeneratedClassBytecodeCache()
+    def userHome1 = Mock(GeneratedClassBytecodeCache)
+    def userHome2 = Mock(GeneratedClassBytecodeCache)
+
+    def "forwards to the cache in use"() {
+        given:
+        cache.use(userHome1)
+
+        when:
+        def result = cache.get(String, "key")
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        result == [2] as byte[]
+        1 * userHome1.get(String, "key") >> ([2] as byte[])
+        1 * userHome1.put(String, "key", [1] as byte[])
+    }
+
+    def "uses no cache while sessions with different caches overlap"() {
+        given:
+        def session1 = cache.use(userHome1)
+        def session2 = cache.use(userHome2)
+
+        when:
+        cache.put(String, "key", [1] as byte[])
+        def result = cache.get(String, "key")
+
+        then:
+        result == null
+        0 * userHome1._
+        0 * userHome2._
+
+        when:
+        session1.close()
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        0 * userHome1._
+        1 * userHome2.put(String, "key", [1] as byte[])
+
+        when:
+        session2.close()
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        0 * userHome1._
+        0 * userHome2._
+    }
+
+    def "uses the cache while sessions with the same cache overlap"() {
+        given:
+        def session1 = cache.use(userHome1)
+        cache.use(userHome1)
+
+        when:
+        session1.close()
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        1 * userHome1.put(String, "key", [1] as byte[])
+    }
+
+    def "uses no cache while a session without a cache overlaps"() {
+        given:
+        cache.use(userHome1)
+        def session2 = cache.use(null)
+
+        when:
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        0 * userHome1._
+
+        when:
+        session2.close()
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        1 * userHome1.put(String, "key", [1] as byte[])
+    }
+
+    def "stops using a cache that is closed"() {
+        given:
+        cache.use(userHome1)
+        cache.use(userHome1)
+
+        when:
+        cache.stopUsing(userHome1)
+        cache.put(String, "key", [1] as byte[])
+
+        then:
+        0 * userHome1._
+    }
+}
@@ -22,6 +22,7 @@ import groovy.transform.PackageScope
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.internal.instantiation.generator.GeneratedClassBytecodeCache
 import org.gradle.internal.reflect.AnnotationCategory
 import org.gradle.internal.reflect.DefaultTypeValidationContext
 import org.gradle.internal.reflect.problems.ValidationProblemId
@@ -781,6 +782,105 @@ class DefaultTypeAnnotationMetadataStoreTest extends Specification implements Va
         assertProperties ArrayList, [:]
     }
 
+    def "reads metadata kept in the persistent cache by another store"() {
+        def persistentCache = new InMemoryPersistentCache()
+        def writingStore = storeWith(persistentCache)
+        def readingStore = storeWith(persistentCache)
+
+        when:
+        def written = writingStore.getTypeAnnotationMetadata(TypeWithPersistedMetadata)
+        def read = readingStore.getTypeAnnotationMetadata(TypeWithPersistedMetadata)
+
+        then:
+        persistentCache.hits == 1
+        !read.is(written)
+        read.annotations == written.annotations
+        read.isAnnotationPresent(TestType)
+        read.propertiesAnnotationMetadata*.propertyName == written.propertiesAnnotationMetadata*.propertyName
+        read.propertiesAnnotationMetadata*.method == written.propertiesAnnotationMetadata*.method
+        read.propertiesAnnotationMetadata*.annotations == written.propertiesAnnotationMetadata*.annotations
+        read.propertiesAnnotationMetadata.find { it.propertyName == "inherited" }.annotations[COLOR].declaredBy() == "base"
+        read.propertiesAnnotationMetadata.find { it.propertyName == "fieldAnnotated" }.isAnnotationPresent(Small)
+    }
+
+    def "inspects the type again when the persisted metadata cannot be read"() {
+        def persistentCache = new InMemoryPersistentCache()
+        storeWith(persistentCache).getTypeAnnotationMetadata(TypeWithPersistedMetadata)
+        persistentCache.entries.keySet().each { persistentCache.entries[it] = [] as byte[] }
+
+        when:
+        def metadata = storeWith(persistentCache).getTypeAnnotationMetadata(TypeWithPersistedMetadata)
+
+        then:
+        // The type and its super type are both read and then inspected again
+        persistentCache.hits == 2
+        metadata.propertiesAnnotationMetadata*.propertyName == ["declared", "fieldAnnotated", "inherited"]
+    }
+
+    def "does not persist the metadata of types with validation problems"() {
+        def persistentCache = new InMemoryPersistentCache()
+
+        when:
+        storeWith(persistentCache).getTypeAnnotationMetadata(TypeWithAnnotatedProperty)
+
+        then:
+        persistentCache.entries.isEmpty()
+    }
+
+    @TestType
+    @SuppressWarnings("GroovyUnusedDeclaration")
+    private static class TypeWithPersistedMetadata extends BaseTypeWithPersistedMetadata {
+        @Small
+        private String fieldAnnotated
+
+        String getFieldAnnotated() { fieldAnnotated }
+
+        @Large
+        String getDeclared() { "declared" }
+
+        @Override
+        String getInherited() { "inherited" }
+    }
+
+    @SuppressWarnings("GroovyUnusedDeclaration")
+    private static class BaseTypeWithPersistedMetadata {
+        @Color(declaredBy = "base")
+        String getInherited() { "base" }
+    }
+
+    private static DefaultTypeAnnotationMetadataStore storeWith(GeneratedClassBytecodeCache persistentCache) {
+        new DefaultTypeAnnotationMetadataStore(
+            [TestType],
+            [(Large): TYPE, (Small): TYPE, (Color): COLOR],
+            ["java", "groovy"],
+            [Object],
+            [Object, GroovyObject],
+            [MutableType, MutableSubType],
+            [Ignored, Ignored2],
+            { Method method -> method.isAnnotationPresent(Generated) },
+            new TestCrossBuildInMemoryCacheFactory(),
+            persistentCache)
+    }
+
+    private static class InMemoryPersistentCache implements GeneratedClassBytecodeCache {
+        final Map<String, byte[]> entries = [:]
+        int hits
+
+        @Override
+        byte[] get(Class<?> type, String key) {
+            def bytes = entries[type.name + key]
+            if (bytes != null) {
+                hits++
+            }
+            return bytes
+        }
+
+        @Override
+        void put(Class<?> type, String key, byte[] bytecode) {
+            entries[type.name + key] = bytecode
+        }
+    }
+
     void assertProperties(Class<?> type, Map<String, Map<AnnotationCategory, ?>> expectedProperties, List<String> expectedErrors = []) {
         def metadata = store.getTypeAnnotationMetadata(type)
         def actualPropertyNames = metadata.propertiesAnnotationMetadata*.propertyName.sort()
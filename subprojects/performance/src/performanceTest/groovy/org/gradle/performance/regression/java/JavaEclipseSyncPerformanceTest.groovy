@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.regression.java
+
+import org.gradle.performance.AbstractCrossVersionPerformanceTest
+import org.gradle.performance.annotations.RunFor
+import org.gradle.performance.annotations.Scenario
+import org.gradle.tooling.BuildAction
+import org.gradle.tooling.BuildController
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.gradle.GradleBuild
+
+import static org.gradle.performance.annotations.ScenarioType.PER_DAY
+import static org.gradle.performance.results.OperatingSystem.LINUX
+
+@RunFor(
+    @Scenario(type = PER_DAY, operatingSystems = [LINUX], testProjects = ["largeJavaMultiProject"])
+)
+class JavaEclipseSyncPerformanceTest extends AbstractCrossVersionPerformanceTest {
+
+    def setup() {
+        runner.targetVersions = ["7.2-20210524220037+0000"]
+        runner.minimumBaseVersion = "4.4"
+    }
+
+    def "get Eclipse model for each project"() {
+        given:
+        runner.warmUpRuns = 20
+        runner.runs = 20
+
+        runner.toolingApi("Eclipse sync") {
+            it.action(new GetEclipseProjects())
+        }.run { executer ->
+            def projects = executer.run()
+            assert projects.size() > 1
+        }
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+    }
+
+    /**
+     * Requests the model of each project separately, as IDEs do when they synchronize.
+     */
+    static class GetEclipseProjects implements BuildAction<List<String>> {
+        @Override
+        List<String> execute(BuildController controller) {
+            def build = controller.getModel(GradleBuild)
+            return build.projects.collect { project ->
+                def eclipseProject = controller.getModel(project, EclipseProject)
+                eclipseProject.classpath.size()
+                eclipseProject.name
+            }
+        }
+    }
+}
@@ -16,6 +16,11 @@
 
 package org.gradle.jvm.internal.services;
 
+import org.gradle.api.internal.file.temp.TemporaryFileProvider;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.jvm.inspection.DefaultJvmMetadataDetector;
+import org.gradle.internal.jvm.inspection.JvmMetadataDetector;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.jvm.toolchain.install.internal.AdoptOpenJdkDownloader;
@@ -33,12 +38,19 @@
 import org.gradle.jvm.toolchain.internal.LinuxInstallationSupplier;
 import org.gradle.jvm.toolchain.internal.LocationListInstallationSupplier;
 import org.gradle.jvm.toolchain.internal.OsXInstallationSupplier;
+import org.gradle.jvm.toolchain.internal.PersistentJvmMetadataDetector;
 import org.gradle.jvm.toolchain.internal.SdkmanInstallationSupplier;
 import org.gradle.jvm.toolchain.internal.JavaInstallationRegistry;
 import org.gradle.jvm.toolchain.internal.WindowsInstallationSupplier;
+import org.gradle.process.internal.ExecHandleFactory;
 
 public class PlatformJvmServices extends AbstractPluginServiceRegistry {
 
+    @Override
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
     @Override
     public void registerBuildServices(ServiceRegistration registration) {
         registration.add(JdkCacheDirectory.class);
@@ -69,4 +81,10 @@ public void registerProjectServices(ServiceRegistration registration) {
         registration.add(DefaultJavaToolchainService.class);
     }
 
+    private static class GradleUserHomeServices {
+        JvmMetadataDetector createJvmMetadataDetector(ExecHandleFactory execHandleFactory, TemporaryFileProvider temporaryFileProvider, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+            // Decorate a detector that probes the installation, as the global detector keeps the metadata in memory and does not notice when an installation changes
+            return new PersistentJvmMetadataDetector(new DefaultJvmMetadataDetector(execHandleFactory, temporaryFileProvider), cacheRepository, inMemoryCacheDecoratorFactory);
+        }
+    }
 }
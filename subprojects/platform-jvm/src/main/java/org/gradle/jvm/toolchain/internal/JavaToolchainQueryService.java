@@ -22,15 +22,23 @@
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
 import org.gradle.internal.jvm.Jvm;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.jvm.toolchain.JavaToolchainSpec;
 import org.gradle.jvm.toolchain.install.internal.DefaultJavaToolchainProvisioningService;
 import org.gradle.jvm.toolchain.install.internal.JavaToolchainProvisioningService;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
 
 public class JavaToolchainQueryService {
@@ -38,15 +46,17 @@ public class JavaToolchainQueryService {
     private final JavaInstallationRegistry registry;
     private final JavaToolchainFactory toolchainFactory;
     private final JavaToolchainProvisioningService installService;
+    private final BuildOperationExecutor buildOperationExecutor;
     private final Provider<Boolean> detectEnabled;
     private final Provider<Boolean> downloadEnabled;
     private final Map<JavaToolchainSpec, JavaToolchain> matchingToolchains;
 
     @Inject
-    public JavaToolchainQueryService(JavaInstallationRegistry registry, JavaToolchainFactory toolchainFactory, JavaToolchainProvisioningService provisioningService, ProviderFactory factory) {
+    public JavaToolchainQueryService(JavaInstallationRegistry registry, JavaToolchainFactory toolchainFactory, JavaToolchainProvisioningService provisioningService, ProviderFactory factory, BuildOperationExecutor buildOperationExecutor) {
         this.registry = registry;
         this.toolchainFactory = toolchainFactory;
         this.installService = provisioningService;
+        this.buildOperationExecutor = buildOperationExecutor;
         this.detectEnabled = factory.gradleProperty(AutoDetectingInstallationSupplier.AUTO_DETECT).forUseAtConfigurationTime().map(Boolean::parseBoolean);
         this.downloadEnabled = factory.gradleProperty(DefaultJavaToolchainProvisioningService.AUTO_DOWNLOAD).forUseAtConfigurationTime().map(Boolean::parseBoolean);
         this.matchingToolchains = new ConcurrentHashMap<>();
@@ -73,17 +83,26 @@ private JavaToolchain query(JavaToolchainSpec filter) {
         if (filter instanceof SpecificInstallationToolchainSpec) {
             return asToolchain(((SpecificInstallationToolchainSpec) filter).getJavaHome(), filter).get();
         }
-        return registry.listInstallations().stream()
-            .map(InstallationLocation::getLocation)
-            .map(javaHome -> asToolchain(javaHome, filter))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
+        return probeInstallations(filter).stream()
             .filter(new ToolchainMatcher(filter))
             .sorted(new JavaToolchainComparator())
             .findFirst()
             .orElseGet(() -> downloadToolchain(filter));
     }
 
+    /**
+     * Probes the installations in parallel, as probing an installation that is not known yet launches its JVM.
+     */
+    private List<JavaToolchain> probeInstallations(JavaToolchainSpec filter) {
+        Queue<JavaToolchain> toolchains = new ConcurrentLinkedQueue<>();
+        buildOperationExecutor.runAll(queue -> {
+            for (InstallationLocation installation : registry.listInstallations()) {
+                queue.add(new ProbeInstallationBuildOperation(installation, () -> asToolchain(installation.getLocation(), filter).ifPresent(toolchains::add)));
+            }
+        });
+        return new ArrayList<>(toolchains);
+    }
+
     private JavaToolchain downloadToolchain(JavaToolchainSpec spec) {
         final Optional<File> installation = installService.tryInstall(spec);
         final Optional<JavaToolchain> toolchain = installation
@@ -103,4 +122,26 @@ private Supplier<GradleException> provisionedToolchainIsInvalid(Supplier<File> j
     private Optional<JavaToolchain> asToolchain(File javaHome, JavaToolchainSpec spec) {
         return toolchainFactory.newInstance(javaHome, new JavaToolchainInput(spec));
     }
+
+    private static class ProbeInstallationBuildOperation implements RunnableBuildOperation {
+        private final InstallationLocation installation;
+        private final Runnable probe;
+
+        ProbeInstallationBuildOperation(InstallationLocation installation, Runnable probe) {
+            this.installation = installation;
+            this.probe = probe;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            probe.run();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor
+                .displayName("Probe Java installation " + installation.getDisplayName())
+                .progressDisplayName("Probing " + installation.getDisplayName());
+        }
+    }
 }
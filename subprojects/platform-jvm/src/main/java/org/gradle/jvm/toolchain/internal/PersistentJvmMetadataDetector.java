@@ -0,0 +1,202 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.jvm.toolchain.internal;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.jvm.inspection.JvmInstallationMetadata;
+import org.gradle.internal.jvm.inspection.JvmMetadataDetector;
+import org.gradle.internal.os.OperatingSystem;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Keeps the metadata of Java installations in the Gradle user home, so that an installation is not probed again by each new daemon.
+ *
+ * <p>The metadata of an installation is reused as long as its {@code release} file and {@code java} executable have the same size and timestamp
+ * as when it was probed. Only the metadata of valid installations is kept on disk, as a failed probe may not fail again in another process.
+ * Failed probes are kept in memory under the same conditions, so that an invalid installation is not probed again by each lookup.</p>
+ */
+public class PersistentJvmMetadataDetector implements JvmMetadataDetector, Closeable {
+    private final JvmMetadataDetector delegate;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<String, CachedMetadata> metadataCache;
+    private final ConcurrentMap<String, FailedProbe> failedProbes = new ConcurrentHashMap<>();
+
+    public PersistentJvmMetadataDetector(JvmMetadataDetector delegate, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.delegate = delegate;
+        this.cache = cacheRepository
+            .cache("jvmMetadata")
+            .withDisplayName("JVM metadata cache")
+            .withLockOptions(mode(FileLockManager.LockMode.OnDemand))
+            .open();
+        PersistentIndexedCacheParameters<String, CachedMetadata> parameters = PersistentIndexedCacheParameters.of(
+            "installations",
+            BaseSerializerFactory.STRING_SERIALIZER,
+            new CachedMetadataSerializer()
+        ).withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(100, true));
+        this.metadataCache = cache.createCache(parameters);
+    }
+
+    @Override
+    public JvmInstallationMetadata getMetadata(File javaHome) {
+        File canonicalHome = canonicalize(javaHome);
+        String key = canonicalHome.getAbsolutePath();
+        InstallationFingerprint fingerprint = InstallationFingerprint.of(canonicalHome);
+        CachedMetadata cached = metadataCache.getIfPresent(key);
+        if (cached != null && cached.fingerprint.equals(fingerprint)) {
+            return cached.toMetadata(javaHome);
+        }
+        FailedProbe failedProbe = failedProbes.get(key);
+        if (failedProbe != null && failedProbe.fingerprint.equals(fingerprint)) {
+            return failedProbe.metadata;
+        }
+        JvmInstallationMetadata metadata = delegate.getMetadata(javaHome);
+        if (metadata.isValidInstallation()) {
+            metadataCache.put(key, CachedMetadata.of(fingerprint, metadata));
+            failedProbes.remove(key);
+        } else {
+            failedProbes.put(key, new FailedProbe(fingerprint, metadata));
+        }
+        return metadata;
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    private static File canonicalize(File javaHome) {
+        try {
+            return javaHome.getCanonicalFile();
+        } catch (IOException e) {
+            return javaHome;
+        }
+    }
+
+    private static class InstallationFingerprint {
+        private final long releaseLength;
+        private final long releaseLastModified;
+        private final long executableLength;
+        private final long executableLastModified;
+
+        InstallationFingerprint(long releaseLength, long releaseLastModified, long executableLength, long executableLastModified) {
+            this.releaseLength = releaseLength;
+            this.releaseLastModified = releaseLastModified;
+            this.executableLength = executableLength;
+            this.executableLastModified = executableLastModified;
+        }
+
+        static InstallationFingerprint of(File javaHome) {
+            // Missing files have a length and timestamp of 0
+            File release = new File(javaHome, "release");
+            File executable = new File(new File(javaHome, "bin"), OperatingSystem.current().getExecutableName("java"));
+            return new InstallationFingerprint(release.length(), release.lastModified(), executable.length(), executable.lastModified());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            InstallationFingerprint that = (InstallationFingerprint) o;
+            return releaseLength == that.releaseLength
+                && releaseLastModified == that.releaseLastModified
+                && executableLength == that.executableLength
+                && executableLastModified == that.executableLastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(releaseLastModified) ^ Long.hashCode(executableLastModified);
+        }
+    }
+
+    private static class FailedProbe {
+        private final InstallationFingerprint fingerprint;
+        private final JvmInstallationMetadata metadata;
+
+        FailedProbe(InstallationFingerprint fingerprint, JvmInstallationMetadata metadata) {
+            this.fingerprint = fingerprint;
+            this.metadata = metadata;
+        }
+    }
+
+    private static class CachedMetadata {
+        private final InstallationFingerprint fingerprint;
+        private final String implementationVersion;
+        private final String runtimeVersion;
+        private final String jvmVersion;
+        private final String vendor;
+        private final String implementationName;
+
+        CachedMetadata(InstallationFingerprint fingerprint, String implementationVersion, String runtimeVersion, String jvmVersion, String vendor, String implementationName) {
+            this.fingerprint = fingerprint;
+            this.implementationVersion = implementationVersion;
+            this.runtimeVersion = runtimeVersion;
+            this.jvmVersion = jvmVersion;
+            this.vendor = vendor;
+            this.implementationName = implementationName;
+        }
+
+        static CachedMetadata of(InstallationFingerprint fingerprint, JvmInstallationMetadata metadata) {
+            return new CachedMetadata(fingerprint, metadata.getImplementationVersion(), metadata.getRuntimeVersion(), metadata.getJvmVersion(), metadata.getVendor().getRawVendor(), metadata.getImplementationName());
+        }
+
+        JvmInstallationMetadata toMetadata(File javaHome) {
+            return JvmInstallationMetadata.from(javaHome, implementationVersion, runtimeVersion, jvmVersion, vendor, implementationName);
+        }
+    }
+
+    private static class CachedMetadataSerializer extends AbstractSerializer<CachedMetadata> {
+        @Override
+        public CachedMetadata read(Decoder decoder) throws Exception {
+            InstallationFingerprint fingerprint = new InstallationFingerprint(decoder.readLong(), decoder.readLong(), decoder.readLong(), decoder.readLong());
+            return new CachedMetadata(fingerprint, decoder.readString(), decoder.readNullableString(), decoder.readNullableString(), decoder.readNullableString(), decoder.readNullableString());
+        }
+
+        @Override
+        public void write(Encoder encoder, CachedMetadata value) throws Exception {
+            encoder.writeLong(value.fingerprint.releaseLength);
+            encoder.writeLong(value.fingerprint.releaseLastModified);
+            encoder.writeLong(value.fingerprint.executableLength);
+            encoder.writeLong(value.fingerprint.executableLastModified);
+            encoder.writeString(value.implementationVersion);
+            encoder.writeNullableString(value.runtimeVersion);
+            encoder.writeNullableString(value.jvmVersion);
+            encoder.writeNullableString(value.vendor);
+            encoder.writeNullableString(value.implementationName);
+        }
+    }
+}
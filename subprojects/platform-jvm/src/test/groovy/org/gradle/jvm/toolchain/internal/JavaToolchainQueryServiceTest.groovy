@@ -46,7 +46,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createInstallationRegistry()
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -68,7 +68,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createInstallationRegistry(["8.0", "8.0.242.hs-adpt", "7.9", "7.7", "14.0.2+12", "8.0.zzz.foo"])
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -91,7 +91,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createDeterministicInstallationRegistry(["1.8.0_282", "1.8.0_292"])
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
         def versionToFind = JavaLanguageVersion.of(8)
 
         when:
@@ -108,7 +108,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createInstallationRegistry(["8.0", "8.0.242.hs-adpt", "7.9", "7.7", "14.0.2+12", "8.0.1.j9"])
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -125,7 +125,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createInstallationRegistry(["8.0.2.j9", "8.0.1.hs"])
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -141,7 +141,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createInstallationRegistry(["8.0", "8.0.242.hs-adpt", "8.0.broken"])
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -159,7 +159,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         def toolchainFactory = newToolchainFactory()
         def provisioningService = Mock(JavaToolchainProvisioningService)
         provisioningService.tryInstall(_ as JavaToolchainSpec) >> Optional.empty()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisioningService, createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisioningService, createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -176,7 +176,7 @@ class JavaToolchainQueryServiceTest extends Specification {
         given:
         def registry = createInstallationRegistry(["8", "9", "10"])
         def toolchainFactory = newToolchainFactory()
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -199,7 +199,7 @@ class JavaToolchainQueryServiceTest extends Specification {
                 return Optional.of(new JavaToolchain(metadata, compilerFactory, toolFactory, TestFiles.fileFactory(), input))
             }
         }
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, Mock(JavaToolchainProvisioningService), createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -224,7 +224,7 @@ class JavaToolchainQueryServiceTest extends Specification {
                 Optional.of(new File("/path/12"))
             }
         }
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisionService, createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisionService, createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -247,7 +247,7 @@ class JavaToolchainQueryServiceTest extends Specification {
                 Optional.of(new File("/path/12.broken"))
             }
         }
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisionService, createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisionService, createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -271,7 +271,7 @@ class JavaToolchainQueryServiceTest extends Specification {
                 Optional.of(new File("/path/12"))
             }
         }
-        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisionService, createProviderFactory())
+        def queryService = new JavaToolchainQueryService(registry, toolchainFactory, provisionService, createProviderFactory(), new TestBuildOperationExecutor())
 
         when:
         def filter = new DefaultToolchainSpec(TestUtil.objectFactory())
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.jvm.toolchain.internal
+
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultCacheScopeMapping
+import org.gradle.cache.internal.DefaultInMemoryCacheDecoratorFactory
+import org.gradle.cache.internal.TestCrossBuildInMemoryCacheFactory
+import org.gradle.internal.jvm.inspection.CachingJvmMetadataDetector
+import org.gradle.internal.jvm.inspection.JvmInstallationMetadata
+import org.gradle.internal.jvm.inspection.JvmMetadataDetector
+import org.gradle.internal.os.OperatingSystem
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.TestInMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+class PersistentJvmMetadataDetectorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+
+    def cacheRepository = new DefaultCacheRepository(new DefaultCacheScopeMapping(tmpDir.file("user-home"), tmpDir.file("build-dir"), GradleVersion.current()), new TestInMemoryCacheFactory())
+    def inMemoryCacheDecoratorFactory = new DefaultInMemoryCacheDecoratorFactory(false, new TestCrossBuildInMemoryCacheFactory())
+    def delegate = Mock(JvmMetadataDetector)
+    def javaHome = tmpDir.createDir("jdk")
+    def executable = javaHome.createFile("bin/" + OperatingSystem.current().getExecutableName("java"))
+
+    def setup() {
+        javaHome.file("release") << 'JAVA_VERSION="11.0.1"'
+    }
+
+    def "reuses metadata probed by an earlier detector"() {
+        when:
+        def metadata = newDetector().getMetadata(javaHome)
+
+        then:
+        1 * delegate.getMetadata(javaHome) >> validMetadata()
+        metadata.implementationVersion == "11.0.1"
+
+        when:
+        metadata = newDetector().getMetadata(javaHome)
+
+        then:
+        0 * delegate._
+        metadata.implementationVersion == "11.0.1"
+        metadata.runtimeVersion == "11.0.1+13"
+        metadata.jvmVersion == "11.0.1+13-LTS"
+        metadata.vendor.rawVendor == "Oracle Corporation"
+        metadata.implementationName == "OpenJDK 64-Bit Server VM"
+        metadata.javaHome == javaHome.toPath()
+    }
+
+    def "probes installation again when it has changed"() {
+        given:
+        def detector = newDetector()
+
+        when:
+        detector.getMetadata(javaHome)
+        executable << "changed"
+        detector.getMetadata(javaHome)
+
+        then:
+        2 * delegate.getMetadata(javaHome) >> validMetadata()
+    }
+
+    def "probes a changed installation again although the global detector keeps its metadata in memory"() {
+        given:
+        def globalDetector = new CachingJvmMetadataDetector(delegate)
+        def detector = newDetector()
+
+        when:
+        globalDetector.getMetadata(javaHome)
+        detector.getMetadata(javaHome)
+
+        then:
+        2 * delegate.getMetadata(_) >> validMetadata()
+
+        when:
+        executable << "changed"
+        def metadata = detector.getMetadata(javaHome)
+
+        then:
+        1 * delegate.getMetadata(javaHome) >> JvmInstallationMetadata.from(javaHome, "11.0.2", "11.0.2+9", "11.0.2+9-LTS", "Oracle Corporation", "OpenJDK 64-Bit Server VM")
+        metadata.implementationVersion == "11.0.2"
+
+        when:
+        metadata = globalDetector.getMetadata(javaHome)
+
+        then:
+        0 * delegate._
+        metadata.implementationVersion == "11.0.1"
+    }
+
+    def "does not keep metadata of invalid installations on disk"() {
+        when:
+        newDetector().getMetadata(javaHome)
+        def metadata = newDetector().getMetadata(javaHome)
+
+        then:
+        2 * delegate.getMetadata(javaHome) >> JvmInstallationMetadata.failure(javaHome, "broken")
+        !metadata.validInstallation
+    }
+
+    def "keeps failed probes in memory until the installation changes"() {
+        given:
+        def detector = newDetector()
+
+        when:
+        detector.getMetadata(javaHome)
+        def metadata = detector.getMetadata(javaHome)
+
+        then:
+        1 * delegate.getMetadata(javaHome) >> JvmInstallationMetadata.failure(javaHome, "broken")
+        !metadata.validInstallation
+
+        when:
+        executable << "fixed"
+        metadata = detector.getMetadata(javaHome)
+
+        then:
+        1 * delegate.getMetadata(javaHome) >> validMetadata()
+        metadata.validInstallation
+    }
+
+    private PersistentJvmMetadataDetector newDetector() {
+        return new PersistentJvmMetadataDetector(delegate, cacheRepository, inMemoryCacheDecoratorFactory)
+    }
+
+    private JvmInstallationMetadata validMetadata() {
+        return JvmInstallationMetadata.from(javaHome, "11.0.1", "11.0.1+13", "11.0.1+13-LTS", "Oracle Corporation", "OpenJDK 64-Bit Server VM")
+    }
+}
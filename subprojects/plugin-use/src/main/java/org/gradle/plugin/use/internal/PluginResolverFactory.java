@@ -41,6 +41,7 @@ public class PluginResolverFactory implements Factory<PluginResolver> {
     private final DependencyResolutionServices dependencyResolutionServices;
     private final List<PluginResolverContributor> pluginResolverContributors;
     private final VersionSelectorScheme versionSelectorScheme;
+    private ArtifactRepositoriesPluginResolver artifactRepositoriesPluginResolver;
 
     public PluginResolverFactory(
         PluginRegistry pluginRegistry,
@@ -93,6 +94,16 @@ private void addDefaultResolvers(List<PluginResolver> resolvers) {
         injectedClasspathPluginResolver.collectResolversInto(resolvers);
 
         pluginResolverContributors.forEach(contributor -> contributor.collectResolversInto(resolvers));
-        resolvers.add(ArtifactRepositoriesPluginResolver.createWithDefaults(dependencyResolutionServices, versionSelectorScheme));
+        resolvers.add(getArtifactRepositoriesPluginResolver());
+    }
+
+    /**
+     * The resolver is shared by the scripts of the build, so that it remembers the plugin markers found in the plugin repositories.
+     */
+    private synchronized ArtifactRepositoriesPluginResolver getArtifactRepositoriesPluginResolver() {
+        if (artifactRepositoriesPluginResolver == null) {
+            artifactRepositoriesPluginResolver = ArtifactRepositoriesPluginResolver.createWithDefaults(dependencyResolutionServices, versionSelectorScheme);
+        }
+        return artifactRepositoriesPluginResolver;
     }
 }
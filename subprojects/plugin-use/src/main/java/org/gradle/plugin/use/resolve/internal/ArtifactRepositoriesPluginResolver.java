@@ -35,9 +35,17 @@
 
 import javax.annotation.Nonnull;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+/**
+ * Resolves plugin requests to plugin marker artifacts in the plugin repositories of the build.
+ *
+ * <p>Whether a marker exists is remembered for the lifetime of the resolver, so a plugin requested by the scripts of many projects is only looked up once.
+ * This is consistent with dependency resolution, which only checks dynamic and changing versions once per build.</p>
+ */
 public class ArtifactRepositoriesPluginResolver implements PluginResolver {
 
     public static final String PLUGIN_MARKER_SUFFIX = ".gradle.plugin";
@@ -55,6 +63,7 @@ public static ArtifactRepositoriesPluginResolver createWithDefaults(DependencyRe
 
     private final DependencyResolutionServices resolution;
     private final VersionSelectorScheme versionSelectorScheme;
+    private final Map<String, Boolean> markerExistence = new ConcurrentHashMap<>();
 
     public ArtifactRepositoriesPluginResolver(DependencyResolutionServices dependencyResolutionServices, VersionSelectorScheme versionSelectorScheme) {
         this.resolution = dependencyResolutionServices;
@@ -71,7 +80,7 @@ public void resolve(PluginRequestInternal pluginRequest, PluginResolutionResult
             return;
         }
 
-        if (exists(markerDependency)) {
+        if (isKnownToExist(markerDependency)) {
             handleFound(result, pluginRequest, markerDependency);
         } else {
             handleNotFound(result, "could not resolve plugin artifact '" + getNotation(markerDependency) + "'");
@@ -103,6 +112,16 @@ private void handleNotFound(PluginResolutionResult result, String message) {
         result.notFound(SOURCE_NAME, message, detail.toString());
     }
 
+    private boolean isKnownToExist(ModuleDependency dependency) {
+        String notation = getNotation(dependency);
+        Boolean exists = markerExistence.get(notation);
+        if (exists == null) {
+            exists = exists(dependency);
+            markerExistence.put(notation, exists);
+        }
+        return exists;
+    }
+
     /*
      * Checks whether the plugin marker artifact exists in the backing artifacts repositories.
      */
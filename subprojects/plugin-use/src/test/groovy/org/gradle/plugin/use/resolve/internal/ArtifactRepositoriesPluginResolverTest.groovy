@@ -91,4 +91,30 @@ class ArtifactRepositoriesPluginResolverTest extends Specification {
         then:
         1 * result.found(SOURCE_NAME, _)
     }
+
+    def "looks up each plugin marker once"() {
+        when:
+        resolver.resolve(request("plugin", "1.0"), result)
+        resolver.resolve(request("plugin", "1.0"), result)
+        resolver.resolve(request("other", "1.0"), result)
+        resolver.resolve(request("plugin", "2.0"), result)
+
+        then:
+        3 * configurations.detachedConfiguration(_) >> configuration
+        4 * result.found(SOURCE_NAME, _)
+    }
+
+    def "remembers plugin markers that were not found"() {
+        when:
+        resolver.resolve(request("plugin", "1.0"), result)
+        resolver.resolve(request("plugin", "1.0"), result)
+
+        then:
+        1 * configurations.detachedConfiguration(_) >> Mock(Configuration) {
+            getResolvedConfiguration() >> Mock(ResolvedConfiguration) {
+                hasError() >> true
+            }
+        }
+        2 * result.notFound(SOURCE_NAME, "could not resolve plugin artifact 'plugin:plugin.gradle.plugin:1.0'", _)
+    }
 }
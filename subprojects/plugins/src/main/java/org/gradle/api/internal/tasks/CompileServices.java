@@ -64,9 +64,10 @@ CachingClassDependenciesAnalyzer createClassAnalyzer(StringInterner interner, Ge
         }
 
         CachingClassSetAnalyzer createClassSetAnalyzer(FileHasher fileHasher, StreamHasher streamHasher, ClassDependenciesAnalyzer classAnalyzer,
-                                                       FileOperations fileOperations, FileSystemAccess fileSystemAccess, GeneralCompileCaches cache) {
+                                                       FileOperations fileOperations, FileSystemAccess fileSystemAccess, GeneralCompileCaches cache,
+                                                       BuildOperationExecutor buildOperationExecutor) {
             return new CachingClassSetAnalyzer(
-                new DefaultClassSetAnalyzer(fileHasher, streamHasher, classAnalyzer, fileOperations),
+                new DefaultClassSetAnalyzer(fileHasher, streamHasher, classAnalyzer, fileOperations, buildOperationExecutor),
                 fileSystemAccess,
                 cache.getClassSetAnalysisCache()
             );
@@ -34,6 +34,9 @@ dependencies {
     testImplementation(project(":resources"))
     testImplementation(libs.slf4jApi)
     testImplementation(libs.commonsIo)
+    testImplementation("org.scala-sbt:zinc_2.12:1.3.5") {
+        because("The tests of the Zinc compiler pool and analysis store use the Zinc API.")
+    }
     testImplementation(testFixtures(project(":core")))
     testImplementation(testFixtures(project(":plugins")))
     testImplementation(testFixtures(project(":language-jvm")))
@@ -16,19 +16,135 @@
 
 package org.gradle.api.internal.tasks.scala;
 
-import org.gradle.cache.Cache;
-import org.gradle.cache.internal.MapBackedCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.internal.UncheckedException;
+import xsbti.compile.AnalysisContents;
 import xsbti.compile.AnalysisStore;
 import xsbti.compile.FileAnalysisStore;
 
+import javax.annotation.Nullable;
 import java.io.File;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Provides the analysis stores for analysis files. The contents of the analysis files are kept in memory, and reused for as long as the length and the modification time
+ * of the file do not change, so that the analyses of upstream compilations are not deserialized again by each compilation. The contents are softly referenced, as analyses can be large.
+ */
 public class AnalysisStoreProvider {
 
-    private final Cache<File, AnalysisStore> cache = new MapBackedCache<>(new ConcurrentHashMap<>());
+    private final Cache<File, CachedAnalysisContents> contents = CacheBuilder.newBuilder().softValues().build();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
 
     AnalysisStore get(final File analysisFile) {
-        return AnalysisStore.getCachedStore(cache.get(analysisFile, () -> AnalysisStore.getThreadSafeStore(FileAnalysisStore.getDefault(analysisFile))));
+        return get(analysisFile, AnalysisStore.getThreadSafeStore(FileAnalysisStore.getDefault(analysisFile)));
+    }
+
+    AnalysisStore get(File analysisFile, AnalysisStore delegate) {
+        return new CachingAnalysisStore(analysisFile, delegate);
+    }
+
+    String getStatistics() {
+        return String.format("Analysis reused for %s of %s loads.", reused.get(), requests.get());
+    }
+
+    @Nullable
+    private static FileMetadata metadata(File analysisFile) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(analysisFile.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return attributes.isRegularFile() ? new FileMetadata(attributes.size(), attributes.lastModifiedTime()) : null;
+    }
+
+    private class CachingAnalysisStore implements AnalysisStore {
+        private final File analysisFile;
+        private final AnalysisStore delegate;
+
+        CachingAnalysisStore(File analysisFile, AnalysisStore delegate) {
+            this.analysisFile = analysisFile;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Optional<AnalysisContents> get() {
+            FileMetadata metadata = metadata(analysisFile);
+            if (metadata == null) {
+                contents.invalidate(analysisFile);
+                return delegate.get();
+            }
+            requests.incrementAndGet();
+            CachedAnalysisContents cached = contents.getIfPresent(analysisFile);
+            if (cached != null && cached.metadata.equals(metadata)) {
+                reused.incrementAndGet();
+                return Optional.of(cached.contents);
+            }
+            // The metadata is read before the file, so when the file changes while it is read, the contents are read again next time
+            Optional<AnalysisContents> result = delegate.get();
+            if (result.isPresent()) {
+                contents.put(analysisFile, new CachedAnalysisContents(metadata, result.get()));
+            } else {
+                contents.invalidate(analysisFile);
+            }
+            return result;
+        }
+
+        @Override
+        public void set(AnalysisContents analysisContents) {
+            contents.invalidate(analysisFile);
+            delegate.set(analysisContents);
+            FileMetadata metadata = metadata(analysisFile);
+            if (metadata != null) {
+                contents.put(analysisFile, new CachedAnalysisContents(metadata, analysisContents));
+            }
+        }
+    }
+
+    private static class FileMetadata {
+        private final long length;
+        private final FileTime lastModified;
+
+        FileMetadata(long length, FileTime lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileMetadata that = (FileMetadata) o;
+            return length == that.length && lastModified.equals(that.lastModified);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(length) + lastModified.hashCode();
+        }
+    }
+
+    private static class CachedAnalysisContents {
+        private final FileMetadata metadata;
+        private final AnalysisContents contents;
+
+        CachedAnalysisContents(FileMetadata metadata, AnalysisContents contents) {
+            this.metadata = metadata;
+            this.contents = contents;
+        }
     }
 }
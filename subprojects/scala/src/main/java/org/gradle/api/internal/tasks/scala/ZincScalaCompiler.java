@@ -81,8 +81,6 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec> {
     private final ScalaCompiler scalaCompiler;
     private final AnalysisStoreProvider analysisStoreProvider;
 
-    private final ClearableMapBackedCache<File, DefinesClass> definesClassCache = new ClearableMapBackedCache<>(new ConcurrentHashMap<>());
-
     @Inject
     public ZincScalaCompiler(ScalaInstance scalaInstance, ScalaCompiler scalaCompiler, AnalysisStoreProvider analysisStoreProvider) {
         this.scalaInstance = scalaInstance;
@@ -175,6 +173,8 @@ private static T2<String, String>[] getExtra() {
 
     private class EntryLookup implements PerClasspathEntryLookup {
         private final Map<File, File> analysisMap;
+        // Per compilation, as this compiler is reused for other compilations, with classpath entries that may have changed
+        private final ClearableMapBackedCache<File, DefinesClass> definesClassCache = new ClearableMapBackedCache<>(new ConcurrentHashMap<>());
 
         public EntryLookup(ScalaJavaJointCompileSpec spec) {
             this.analysisMap = new HashMap<>();
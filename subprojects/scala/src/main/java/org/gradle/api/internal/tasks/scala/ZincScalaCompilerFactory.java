@@ -16,12 +16,19 @@
 
 package org.gradle.api.internal.tasks.scala;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.hash.HashCode;
@@ -52,14 +59,22 @@
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
+/**
+ * Creates Zinc compilers, and keeps them warm for the lifetime of the compiler daemon.
+ *
+ * <p>Compilers are pooled by the hash of the Scala classpath, which contains the Scala compiler and the sources of the compiler bridge, so a pooled compiler
+ * is for the same Scala version and compiler bridge. The compilers share an {@link AnalysisStoreProvider}, which keeps analyses in memory across compilations.</p>
+ */
 public class ZincScalaCompilerFactory {
     private static final Logger LOGGER = Logging.getLogger(ZincScalaCompilerFactory.class);
-    private static final int CLASSLOADER_CACHE_SIZE = 4;
+    private static final int COMPILER_CACHE_SIZE = 4;
     private static final int COMPILER_CLASSLOADER_CACHE_SIZE = 4;
-    private static final GuavaBackedClassLoaderCache<HashCode> CLASSLOADER_CACHE = new GuavaBackedClassLoaderCache<HashCode>(CLASSLOADER_CACHE_SIZE);
+    private static final Cache<HashCode, PooledCompiler> COMPILER_CACHE = createCompilerCache(COMPILER_CACHE_SIZE);
+    private static final AnalysisStoreProvider ANALYSIS_STORE_PROVIDER = new AnalysisStoreProvider();
     private static final ClassLoaderCache COMPILER_CLASSLOADER_CACHE;
 
     static {
@@ -88,7 +103,34 @@ public class ZincScalaCompilerFactory {
     }
 
     static ZincScalaCompiler getCompiler(CacheRepository cacheRepository, HashedClasspath hashedScalaClasspath) {
-        ScalaInstance scalaInstance = getScalaInstance(hashedScalaClasspath);
+        PooledCompiler compiler = getPooledCompiler(COMPILER_CACHE, hashedScalaClasspath.getHash(), () -> createCompiler(cacheRepository, hashedScalaClasspath));
+        CacheStats stats = COMPILER_CACHE.stats();
+        LOGGER.info("Zinc compiler for Scala {} reused for {} of {} compilations in this process. {}", compiler.scalaVersion, stats.hitCount(), stats.requestCount(), ANALYSIS_STORE_PROVIDER.getStatistics());
+        return compiler.compiler;
+    }
+
+    /**
+     * Creates a pool of compilers, which closes the compilers it evicts.
+     */
+    static Cache<HashCode, PooledCompiler> createCompilerCache(int maximumSize) {
+        return CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .removalListener((RemovalListener<HashCode, PooledCompiler>) notification -> notification.getValue().close())
+            .build();
+    }
+
+    static PooledCompiler getPooledCompiler(Cache<HashCode, PooledCompiler> compilerCache, HashCode scalaClasspathHash, Callable<PooledCompiler> compilerFactory) {
+        try {
+            return compilerCache.get(scalaClasspathHash, compilerFactory);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    private static PooledCompiler createCompiler(CacheRepository cacheRepository, HashedClasspath hashedScalaClasspath) {
+        List<URLClassLoader> classLoaders = new ArrayList<URLClassLoader>();
+        ScalaInstance scalaInstance = getScalaInstance(hashedScalaClasspath, classLoaders);
         String zincVersion = ZincCompilerUtil.class.getPackage().getImplementationVersion();
         String scalaVersion = scalaInstance.actualVersion();
         String javaVersion = Jvm.current().getJavaVersion().getMajorVersion();
@@ -110,10 +152,10 @@ static ZincScalaCompiler getCompiler(CacheRepository cacheRepository, HashedClas
             Option.apply(COMPILER_CLASSLOADER_CACHE)
         );
 
-        return new ZincScalaCompiler(scalaInstance, scalaCompiler, new AnalysisStoreProvider());
+        return new PooledCompiler(scalaVersion, new ZincScalaCompiler(scalaInstance, scalaCompiler, ANALYSIS_STORE_PROVIDER), classLoaders);
     }
 
-    private static ClassLoader getClassLoader(ClassPath classpath) {
+    private static URLClassLoader getClassLoader(ClassPath classpath) {
         try {
             List<URL> urls = new ArrayList<URL>();
             for (File file : classpath.getAsFiles()) {
@@ -125,31 +167,21 @@ private static ClassLoader getClassLoader(ClassPath classpath) {
         }
     }
 
-    private static ClassLoader getCachedClassLoader(HashedClasspath classpath) {
-        try {
-            return CLASSLOADER_CACHE.get(classpath.getHash(), new Callable<ClassLoader>() {
-                @Override
-                public ClassLoader call() throws Exception {
-                    return getClassLoader(classpath.getClasspath());
-                }
-            });
-        } catch (Exception ee) {
-            throw new RuntimeException(ee);
-        }
-    }
-
-    private static ScalaInstance getScalaInstance(HashedClasspath hashedScalaClasspath) {
-        ClassLoader scalaClassLoader = getCachedClassLoader(hashedScalaClasspath);
-        String scalaVersion = getScalaVersion(scalaClassLoader);
+    private static ScalaInstance getScalaInstance(HashedClasspath hashedScalaClasspath, List<URLClassLoader> classLoaders) {
         ClassPath scalaClasspath = hashedScalaClasspath.getClasspath();
+        URLClassLoader scalaClassLoader = getClassLoader(scalaClasspath);
+        classLoaders.add(scalaClassLoader);
+        String scalaVersion = getScalaVersion(scalaClassLoader);
 
         File libraryJar = findFile(ArtifactInfo.ScalaLibraryID, scalaClasspath);
         File compilerJar = findFile(ArtifactInfo.ScalaCompilerID, scalaClasspath);
+        URLClassLoader libraryClassLoader = getClassLoader(DefaultClassPath.of(libraryJar));
+        classLoaders.add(libraryClassLoader);
 
         return new ScalaInstance(
             scalaVersion,
             scalaClassLoader,
-            getClassLoader(DefaultClassPath.of(libraryJar)),
+            libraryClassLoader,
             libraryJar,
             compilerJar,
             Iterables.toArray(scalaClasspath.getAsFiles(), File.class),
@@ -202,5 +234,25 @@ private static String getScalaVersion(ClassLoader scalaClassLoader) {
         }
     }
 
+    static class PooledCompiler {
+        private final String scalaVersion;
+        private final ZincScalaCompiler compiler;
+        private final List<URLClassLoader> classLoaders;
 
+        PooledCompiler(String scalaVersion, ZincScalaCompiler compiler, List<URLClassLoader> classLoaders) {
+            this.scalaVersion = scalaVersion;
+            this.compiler = compiler;
+            this.classLoaders = classLoaders;
+        }
+
+        void close() {
+            for (URLClassLoader classLoader : classLoaders) {
+                try {
+                    classLoader.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Could not close class loader of Zinc compiler for Scala {}.", scalaVersion, e);
+                }
+            }
+        }
+    }
 }
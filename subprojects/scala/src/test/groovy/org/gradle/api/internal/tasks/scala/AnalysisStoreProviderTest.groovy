@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import xsbti.compile.AnalysisContents
+import xsbti.compile.AnalysisStore
+
+class AnalysisStoreProviderTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider(getClass())
+    def analysisFile = tmpDir.file("analysis.bin")
+    def delegate = Mock(AnalysisStore)
+    def provider = new AnalysisStoreProvider()
+    def store = provider.get(analysisFile, delegate)
+
+    def "reuses the contents while the analysis file does not change"() {
+        def contents = Stub(AnalysisContents)
+        analysisFile.text = "analysis"
+
+        when:
+        def result = store.get()
+
+        then:
+        result.get() == contents
+        1 * delegate.get() >> Optional.of(contents)
+
+        when:
+        result = provider.get(analysisFile, delegate).get()
+
+        then:
+        result.get().is(contents)
+        0 * delegate._
+    }
+
+    def "reads the contents again when the length of the analysis file changes"() {
+        def contents = Stub(AnalysisContents)
+        def changedContents = Stub(AnalysisContents)
+        analysisFile.text = "analysis"
+
+        when:
+        store.get()
+
+        then:
+        1 * delegate.get() >> Optional.of(contents)
+
+        when:
+        analysisFile.text = "changed analysis"
+        def result = store.get()
+
+        then:
+        result.get().is(changedContents)
+        1 * delegate.get() >> Optional.of(changedContents)
+    }
+
+    def "reads the contents again when the modification time of the analysis file changes"() {
+        def contents = Stub(AnalysisContents)
+        def changedContents = Stub(AnalysisContents)
+        analysisFile.text = "analysis"
+
+        when:
+        store.get()
+
+        then:
+        1 * delegate.get() >> Optional.of(contents)
+
+        when:
+        analysisFile.text = "sisylana"
+        analysisFile.lastModified = analysisFile.lastModified() - 10000
+        def result = store.get()
+
+        then:
+        result.get().is(changedContents)
+        1 * delegate.get() >> Optional.of(changedContents)
+    }
+
+    def "reuses the contents written through the store without reading the analysis file"() {
+        def contents = Stub(AnalysisContents)
+
+        when:
+        store.set(contents)
+
+        then:
+        1 * delegate.set(contents) >> { analysisFile.text = "analysis" }
+
+        when:
+        def result = store.get()
+
+        then:
+        result.get().is(contents)
+        0 * delegate._
+    }
+
+    def "does not keep the contents when the analysis file does not exist"() {
+        def contents = Stub(AnalysisContents)
+
+        when:
+        store.get()
+        store.get()
+
+        then:
+        2 * delegate.get() >> Optional.of(contents)
+        provider.statistics == "Analysis reused for 0 of 0 loads."
+    }
+}
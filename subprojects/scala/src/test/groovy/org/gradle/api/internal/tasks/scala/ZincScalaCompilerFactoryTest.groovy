@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.internal.hash.HashCode
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+
+class ZincScalaCompilerFactoryTest extends Specification {
+    def compilerCache = ZincScalaCompilerFactory.createCompilerCache(4)
+    def factory = Mock(Callable)
+
+    def "reuses the compiler for the same Scala classpath"() {
+        def compiler = pooledCompiler(new TrackingClassLoader())
+
+        when:
+        def first = ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(1), factory)
+        def second = ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(1), factory)
+
+        then:
+        first.is(compiler)
+        second.is(compiler)
+        1 * factory.call() >> compiler
+        compilerCache.stats().hitCount() == 1
+    }
+
+    def "creates a compiler for each Scala classpath"() {
+        def compiler = pooledCompiler(new TrackingClassLoader())
+        def otherCompiler = pooledCompiler(new TrackingClassLoader())
+
+        when:
+        def first = ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(1), factory)
+        def second = ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(2), factory)
+
+        then:
+        first.is(compiler)
+        second.is(otherCompiler)
+        2 * factory.call() >>> [compiler, otherCompiler]
+    }
+
+    def "closes the class loaders of evicted compilers"() {
+        def classLoaders = (1..6).collect { new TrackingClassLoader() }
+
+        when:
+        classLoaders.eachWithIndex { classLoader, i ->
+            ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(i), { pooledCompiler(classLoader) })
+        }
+
+        then:
+        compilerCache.size() <= 4
+        classLoaders.findAll { it.closed }.size() == 6 - compilerCache.size()
+        classLoaders.eachWithIndex { classLoader, i ->
+            assert classLoader.closed == (compilerCache.getIfPresent(HashCode.fromInt(i)) == null)
+        }
+    }
+
+    def "closes the class loaders of a compiler when it is discarded"() {
+        def classLoader = new TrackingClassLoader()
+        def otherClassLoader = new TrackingClassLoader()
+
+        given:
+        ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(1), { pooledCompiler(classLoader, otherClassLoader) })
+
+        when:
+        compilerCache.invalidateAll()
+
+        then:
+        classLoader.closed
+        otherClassLoader.closed
+    }
+
+    def "rethrows the failure to create a compiler"() {
+        def failure = new IllegalStateException("broken")
+
+        when:
+        ZincScalaCompilerFactory.getPooledCompiler(compilerCache, HashCode.fromInt(1), factory)
+
+        then:
+        1 * factory.call() >> { throw failure }
+        def e = thrown(IllegalStateException)
+        e.is(failure)
+        compilerCache.size() == 0
+    }
+
+    private static ZincScalaCompilerFactory.PooledCompiler pooledCompiler(URLClassLoader... classLoaders) {
+        return new ZincScalaCompilerFactory.PooledCompiler("2.13.1", null, classLoaders as List)
+    }
+
+    private static class TrackingClassLoader extends URLClassLoader {
+        boolean closed
+
+        TrackingClassLoader() {
+            super(new URL[0])
+        }
+
+        @Override
+        void close() throws IOException {
+            closed = true
+            super.close()
+        }
+    }
+}
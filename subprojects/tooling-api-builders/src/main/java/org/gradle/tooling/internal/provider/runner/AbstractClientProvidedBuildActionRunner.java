@@ -83,6 +83,8 @@ protected interface ClientAction {
 
         boolean isRunTasks();
 
+        boolean isStreamValues();
+
         Object getResult();
     }
 
@@ -112,7 +114,7 @@ private void runAction(GradleInternal gradle, @Nullable Object action, PhasedAct
             if (action == null || actionFailure != null) {
                 return;
             }
-            DefaultBuildController internalBuildController = buildControllerFactory.controllerFor(gradle);
+            DefaultBuildController internalBuildController = buildControllerFactory.controllerFor(gradle, clientAction.isStreamValues());
             try {
                 Object result;
                 if (action instanceof InternalBuildActionVersion2<?>) {
@@ -18,11 +18,13 @@
 
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.BuildEventConsumer;
 import org.gradle.internal.build.BuildStateRegistry;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.resources.ProjectLeaseRegistry;
 import org.gradle.internal.service.scopes.Scopes;
 import org.gradle.internal.service.scopes.ServiceScope;
+import org.gradle.tooling.internal.provider.serialization.PayloadSerializer;
 
 @ServiceScope(Scopes.BuildTree.class)
 public class BuildControllerFactory {
@@ -30,15 +32,27 @@ public class BuildControllerFactory {
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectLeaseRegistry projectLeaseRegistry;
     private final BuildStateRegistry buildStateRegistry;
+    private final PayloadSerializer payloadSerializer;
+    private final BuildEventConsumer buildEventConsumer;
 
-    public BuildControllerFactory(BuildCancellationToken buildCancellationToken, BuildOperationExecutor buildOperationExecutor, ProjectLeaseRegistry projectLeaseRegistry, BuildStateRegistry buildStateRegistry) {
+    public BuildControllerFactory(BuildCancellationToken buildCancellationToken,
+                                  BuildOperationExecutor buildOperationExecutor,
+                                  ProjectLeaseRegistry projectLeaseRegistry,
+                                  BuildStateRegistry buildStateRegistry,
+                                  PayloadSerializer payloadSerializer,
+                                  BuildEventConsumer buildEventConsumer) {
         this.buildCancellationToken = buildCancellationToken;
         this.buildOperationExecutor = buildOperationExecutor;
         this.projectLeaseRegistry = projectLeaseRegistry;
         this.buildStateRegistry = buildStateRegistry;
+        this.payloadSerializer = payloadSerializer;
+        this.buildEventConsumer = buildEventConsumer;
     }
 
-    public DefaultBuildController controllerFor(GradleInternal gradle) {
-        return new DefaultBuildController(gradle, buildCancellationToken, buildOperationExecutor, projectLeaseRegistry, buildStateRegistry);
+    /**
+     * @param streamValues whether the values sent by the action should be dispatched to the client. When false, the values are discarded without being serialized.
+     */
+    public DefaultBuildController controllerFor(GradleInternal gradle, boolean streamValues) {
+        return new DefaultBuildController(gradle, buildCancellationToken, buildOperationExecutor, projectLeaseRegistry, buildStateRegistry, payloadSerializer, buildEventConsumer, streamValues);
     }
 }
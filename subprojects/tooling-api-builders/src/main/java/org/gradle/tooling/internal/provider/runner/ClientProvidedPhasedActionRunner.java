@@ -48,14 +48,14 @@ public Result run(BuildAction action, BuildTreeLifecycleController buildControll
         ClientProvidedPhasedAction clientProvidedPhasedAction = (ClientProvidedPhasedAction) action;
         InternalPhasedAction phasedAction = (InternalPhasedAction) payloadSerializer.deserialize(clientProvidedPhasedAction.getPhasedAction());
 
-        return runClientAction(new ClientActionImpl(phasedAction, action), buildController);
+        return runClientAction(new ClientActionImpl(phasedAction, clientProvidedPhasedAction), buildController);
     }
 
     private class ClientActionImpl implements ClientAction {
         private final InternalPhasedAction phasedAction;
-        private final BuildAction action;
+        private final ClientProvidedPhasedAction action;
 
-        public ClientActionImpl(InternalPhasedAction phasedAction, BuildAction action) {
+        public ClientActionImpl(InternalPhasedAction phasedAction, ClientProvidedPhasedAction action) {
             this.phasedAction = phasedAction;
             this.action = action;
         }
@@ -82,6 +82,11 @@ public boolean isRunTasks() {
             return action.isRunTasks();
         }
 
+        @Override
+        public boolean isStreamValues() {
+            return action.isStreamValues();
+        }
+
         @Override
         public Object getResult() {
             return null;
@@ -20,6 +20,7 @@
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.BuildEventConsumer;
 import org.gradle.internal.Try;
 import org.gradle.internal.build.BuildStateRegistry;
 import org.gradle.internal.concurrent.GradleThread;
@@ -37,9 +38,12 @@
 import org.gradle.tooling.internal.protocol.BuildResult;
 import org.gradle.tooling.internal.protocol.InternalActionAwareBuildController;
 import org.gradle.tooling.internal.protocol.InternalBuildControllerVersion2;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueRelay;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
+import org.gradle.tooling.internal.provider.StreamedValue;
 import org.gradle.tooling.internal.provider.connection.ProviderBuildResult;
+import org.gradle.tooling.internal.provider.serialization.PayloadSerializer;
 import org.gradle.tooling.provider.model.UnknownModelException;
 import org.gradle.tooling.provider.model.internal.ToolingModelBuilderLookup;
 
@@ -49,24 +53,33 @@
 import java.util.function.Supplier;
 
 @SuppressWarnings("deprecation")
-class DefaultBuildController implements org.gradle.tooling.internal.protocol.InternalBuildController, InternalBuildControllerVersion2, InternalActionAwareBuildController {
+class DefaultBuildController implements org.gradle.tooling.internal.protocol.InternalBuildController, InternalBuildControllerVersion2, InternalActionAwareBuildController, InternalStreamedValueRelay {
     private final GradleInternal gradle;
     private final BuildCancellationToken cancellationToken;
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectLeaseRegistry projectLeaseRegistry;
     private final BuildStateRegistry buildStateRegistry;
+    private final PayloadSerializer payloadSerializer;
+    private final BuildEventConsumer buildEventConsumer;
+    private final boolean streamValues;
     private final boolean parallelActions = !"false".equalsIgnoreCase(System.getProperty("org.gradle.internal.tooling.parallel"));
 
     public DefaultBuildController(GradleInternal gradle,
                                   BuildCancellationToken cancellationToken,
                                   BuildOperationExecutor buildOperationExecutor,
                                   ProjectLeaseRegistry projectLeaseRegistry,
-                                  BuildStateRegistry buildStateRegistry) {
+                                  BuildStateRegistry buildStateRegistry,
+                                  PayloadSerializer payloadSerializer,
+                                  BuildEventConsumer buildEventConsumer,
+                                  boolean streamValues) {
         this.gradle = gradle;
         this.cancellationToken = cancellationToken;
         this.buildOperationExecutor = buildOperationExecutor;
         this.projectLeaseRegistry = projectLeaseRegistry;
         this.buildStateRegistry = buildStateRegistry;
+        this.payloadSerializer = payloadSerializer;
+        this.buildEventConsumer = buildEventConsumer;
+        this.streamValues = streamValues;
     }
 
     /**
@@ -151,6 +164,16 @@ public <T> List<T> run(List<Supplier<T>> actions) {
         return results;
     }
 
+    @Override
+    public void dispatch(Object value) {
+        assertCanQuery();
+        if (!streamValues) {
+            // The client has no listener for the values, so do not serialize and send them
+            return;
+        }
+        buildEventConsumer.dispatch(new StreamedValue(payloadSerializer.serialize(value)));
+    }
+
     private Object getParameterizedModel(ToolingModelBuilderLookup.Builder builder, Object parameter)
         throws InternalUnsupportedModelException {
         Class<?> expectedParameterType = builder.getParameterType();
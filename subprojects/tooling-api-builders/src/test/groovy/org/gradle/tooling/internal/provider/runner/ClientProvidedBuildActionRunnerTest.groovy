@@ -40,7 +40,7 @@ class ClientProvidedBuildActionRunnerTest extends Specification {
     def buildController = Mock(BuildTreeLifecycleController) {
         getGradle() >> this.gradle
     }
-    def clientProvidedBuildAction = new ClientProvidedBuildAction(startParameter, action, false /* isRunTasks */, clientSubscriptions)
+    def clientProvidedBuildAction = new ClientProvidedBuildAction(startParameter, action, false /* isRunTasks */, false, clientSubscriptions)
     def runner = new ClientProvidedBuildActionRunner(Stub(BuildControllerFactory), payloadSerializer)
 
     def "can run action and returns result when completed"() {
@@ -104,7 +104,7 @@ class ClientProvidedBuildActionRunnerTest extends Specification {
 
     def "can run tasks before run action"() {
         given:
-        def clientProvidedBuildActionRunTasks = new ClientProvidedBuildAction(startParameter, action, true /* isRunTasks */, clientSubscriptions)
+        def clientProvidedBuildActionRunTasks = new ClientProvidedBuildAction(startParameter, action, true /* isRunTasks */, false, clientSubscriptions)
 
         when:
         runner.run(clientProvidedBuildActionRunTasks, buildController)
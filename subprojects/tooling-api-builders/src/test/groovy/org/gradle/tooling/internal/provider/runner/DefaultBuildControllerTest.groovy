@@ -20,6 +20,7 @@ import org.gradle.api.BuildCancelledException
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.initialization.BuildEventConsumer
 import org.gradle.internal.build.BuildState
 import org.gradle.internal.build.BuildStateRegistry
 import org.gradle.internal.concurrent.GradleThread
@@ -31,6 +32,9 @@ import org.gradle.tooling.internal.gradle.GradleBuildIdentity
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException
 import org.gradle.tooling.internal.protocol.ModelIdentifier
+import org.gradle.tooling.internal.provider.StreamedValue
+import org.gradle.tooling.internal.provider.serialization.PayloadSerializer
+import org.gradle.tooling.internal.provider.serialization.SerializedPayload
 import org.gradle.tooling.provider.model.UnknownModelException
 import org.gradle.tooling.provider.model.internal.ToolingModelBuilderLookup
 import spock.lang.Specification
@@ -58,7 +62,9 @@ class DefaultBuildControllerTest extends Specification {
     def projectLeaseRegistry = Stub(ProjectLeaseRegistry)
     def buildOperationExecutor = new TestBuildOperationExecutor()
     def buildStateRegistry = Stub(BuildStateRegistry)
-    def controller = new DefaultBuildController(gradle, cancellationToken, buildOperationExecutor, projectLeaseRegistry, buildStateRegistry)
+    def payloadSerializer = Mock(PayloadSerializer)
+    def buildEventConsumer = Mock(BuildEventConsumer)
+    def controller = new DefaultBuildController(gradle, cancellationToken, buildOperationExecutor, projectLeaseRegistry, buildStateRegistry, payloadSerializer, buildEventConsumer, true)
 
     def setup() {
         GradleThread.setManaged()
@@ -278,6 +284,41 @@ class DefaultBuildControllerTest extends Specification {
         e.message == "A build controller cannot be used from a thread that is not managed by Gradle."
     }
 
+    def "dispatches streamed values to the client"() {
+        def serializedValue = Stub(SerializedPayload)
+
+        when:
+        controller.dispatch("value")
+
+        then:
+        1 * payloadSerializer.serialize("value") >> serializedValue
+        1 * buildEventConsumer.dispatch({ it instanceof StreamedValue && it.value == serializedValue })
+        0 * _
+    }
+
+    def "discards streamed values without serializing them when the client has no listener"() {
+        def controller = new DefaultBuildController(gradle, cancellationToken, buildOperationExecutor, projectLeaseRegistry, buildStateRegistry, payloadSerializer, buildEventConsumer, false)
+
+        when:
+        controller.dispatch("value")
+
+        then:
+        0 * payloadSerializer.serialize(_)
+        0 * buildEventConsumer.dispatch(_)
+    }
+
+    def "cannot stream values from unmanaged thread"() {
+        given:
+        GradleThread.setUnmanaged()
+
+        when:
+        controller.dispatch("value")
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "A build controller cannot be used from a thread that is not managed by Gradle."
+    }
+
     interface CustomParameter {
         String getValue()
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r72;
+
+import org.gradle.tooling.GradleConnectionException;
+import org.gradle.tooling.ResultHandler;
+import org.gradle.tooling.StreamedValueListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the streamed values and the result of a build action, in the order they are received.
+ */
+public class StreamedValueCollector implements StreamedValueListener, ResultHandler<Object> {
+    private final List<Object> received = new ArrayList<Object>();
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private GradleConnectionException failure;
+
+    @Override
+    public synchronized void onValue(Object value) {
+        received.add("value: " + value);
+    }
+
+    @Override
+    public void onComplete(Object result) {
+        synchronized (this) {
+            received.add("result: " + result);
+        }
+        completed.countDown();
+    }
+
+    @Override
+    public void onFailure(GradleConnectionException failure) {
+        synchronized (this) {
+            this.failure = failure;
+        }
+        completed.countDown();
+    }
+
+    public List<Object> waitForResult() throws InterruptedException {
+        if (!completed.await(2, TimeUnit.MINUTES)) {
+            throw new AssertionError("Timeout waiting for the build action to complete.");
+        }
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+            return new ArrayList<Object>(received);
+        }
+    }
+
+    public synchronized List<Object> getValues() {
+        List<Object> values = new ArrayList<Object>();
+        for (Object event : received) {
+            if (event.toString().startsWith("value: ")) {
+                values.add(event.toString().substring("value: ".length()));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r72
+
+import org.gradle.integtests.tooling.fixture.TargetGradleVersion
+import org.gradle.integtests.tooling.fixture.ToolingApiSpecification
+import org.gradle.integtests.tooling.fixture.ToolingApiVersion
+import org.gradle.tooling.BuildActionFailureException
+import org.gradle.tooling.UnsupportedVersionException
+
+@ToolingApiVersion(">=7.2")
+class StreamedValueCrossVersionSpec extends ToolingApiSpecification {
+    def setup() {
+        settingsFile << """
+            rootProject.name = 'root'
+            include 'a', 'b'
+        """
+    }
+
+    @TargetGradleVersion(">=7.2")
+    def "build action can stream values to the client before the result"() {
+        def collector = new StreamedValueCollector()
+
+        when:
+        def received = withConnection {
+            def action = action(new ActionSendsValues())
+            action.setStreamedValueListener(collector)
+            action.run(collector)
+            collector.waitForResult()
+        }
+
+        then:
+        received == ["value: one", "value: two", "value: three", "result: done"]
+    }
+
+    @TargetGradleVersion(">=7.2")
+    def "phased build action can stream values to the client"() {
+        def collector = new StreamedValueCollector()
+
+        when:
+        withConnection {
+            def action = action()
+                .buildFinished(new ActionSendsValues(), { result -> collector.onValue("phase result " + result) })
+                .build()
+            action.setStreamedValueListener(collector)
+            action.run()
+        }
+
+        then:
+        collector.values == ["one", "two", "three", "phase result done"]
+    }
+
+    @TargetGradleVersion(">=7.2")
+    def "nested actions run in parallel can stream values to the client"() {
+        def collector = new StreamedValueCollector()
+
+        when:
+        def result = withConnection {
+            def action = action(new NestedActionsSendValues())
+            action.addArguments("--parallel")
+            action.setStreamedValueListener(collector)
+            action.run()
+        }
+
+        then:
+        result == [':', ':a', ':b']
+        collector.values.sort() == [':', ':a', ':b']
+    }
+
+    @TargetGradleVersion(">=7.2")
+    def "streamed values are discarded when no listener is registered"() {
+        when:
+        def result = withConnection {
+            action(new ActionSendsValues()).run()
+        }
+
+        then:
+        result == "done"
+    }
+
+    @TargetGradleVersion("<7.2")
+    def "build action cannot stream values when the target Gradle version does not support it"() {
+        def collector = new StreamedValueCollector()
+
+        when:
+        withConnection {
+            def action = action(new ActionSendsValues())
+            action.setStreamedValueListener(collector)
+            action.run()
+        }
+
+        then:
+        def e = thrown(BuildActionFailureException)
+        e.cause instanceof UnsupportedVersionException
+        e.cause.message == "The version of Gradle used by the build does not support streaming values from a build action."
+        collector.values.empty
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.gradle.tooling;
 
+import org.gradle.api.Incubating;
+
 /**
  * Used to execute a {@link BuildAction} in the build process.
  *
@@ -97,6 +99,18 @@ interface Builder {
      */
     BuildActionExecuter<T> forTasks(Iterable<String> tasks);
 
+    /**
+     * Specifies a listener for the values streamed by the build action using {@link BuildController#send(Object)}.
+     *
+     * <p>The listener is called from a thread managed by the Tooling API, while the action is running.</p>
+     *
+     * @param listener The listener.
+     * @return this
+     * @since 7.2
+     */
+    @Incubating
+    BuildActionExecuter<T> setStreamedValueListener(StreamedValueListener listener);
+
     /**
      * Runs the action, blocking until its result is available.
      *
@@ -212,4 +212,18 @@ public interface BuildController {
      */
     @Incubating
     boolean getCanQueryProjectModelInParallel(Class<?> modelType);
+
+    /**
+     * Streams the given value to the client, while the build action is running. The value is serialized and sent to the client immediately,
+     * where it is received by the {@link StreamedValueListener} registered using {@link BuildActionExecuter#setStreamedValueListener(StreamedValueListener)}.
+     *
+     * <p>This allows an action to make partial results, such as the models of each project, available to the client before the action completes.
+     * This method may be called from actions run in parallel using {@link #run(Collection)}. The value is discarded without being serialized when no listener is registered.</p>
+     *
+     * @param value The value to send.
+     * @throws UnsupportedVersionException When the target Gradle version does not support streaming values.
+     * @since 7.2
+     */
+    @Incubating
+    void send(Object value) throws UnsupportedVersionException;
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling;
+
+import org.gradle.api.Incubating;
+
+/**
+ * A listener for the values streamed by a {@link BuildAction} using {@link BuildController#send(Object)}.
+ *
+ * @since 7.2
+ */
+@Incubating
+public interface StreamedValueListener {
+    /**
+     * Handles a value streamed by the build action. Values are received in the order they are sent, and before the result of the build action.
+     *
+     * @param value The value, deserialized into the client.
+     */
+    void onValue(Object value);
+}
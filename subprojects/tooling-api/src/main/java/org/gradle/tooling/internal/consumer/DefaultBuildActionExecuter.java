@@ -23,6 +23,7 @@
 import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.IntermediateResultHandler;
 import org.gradle.tooling.ResultHandler;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.internal.consumer.async.AsyncConsumerActionExecutor;
 import org.gradle.tooling.internal.consumer.connection.ConsumerAction;
 import org.gradle.tooling.internal.consumer.connection.ConsumerConnection;
@@ -60,6 +61,12 @@ public BuildActionExecuter<T> forTasks(Iterable<String> tasks) {
         return getThis();
     }
 
+    @Override
+    public BuildActionExecuter<T> setStreamedValueListener(StreamedValueListener listener) {
+        operationParamsBuilder.setStreamedValueListener(listener);
+        return getThis();
+    }
+
     @Override
     public T run() throws GradleConnectionException {
         BlockingResultHandler<Object> handler = new BlockingResultHandler<Object>(Object.class);
@@ -20,6 +20,7 @@
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.ResultHandler;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.internal.consumer.async.AsyncConsumerActionExecutor;
 import org.gradle.tooling.internal.consumer.connection.ConsumerAction;
 import org.gradle.tooling.internal.consumer.connection.ConsumerConnection;
@@ -56,6 +57,12 @@ public BuildActionExecuter<Void> forTasks(Iterable<String> tasks) {
         return getThis();
     }
 
+    @Override
+    public BuildActionExecuter<Void> setStreamedValueListener(StreamedValueListener listener) {
+        operationParamsBuilder.setStreamedValueListener(listener);
+        return getThis();
+    }
+
     @Override
     public Void run() throws GradleConnectionException, IllegalStateException {
         BlockingResultHandler<Void> handler = new BlockingResultHandler<Void>(Void.class);
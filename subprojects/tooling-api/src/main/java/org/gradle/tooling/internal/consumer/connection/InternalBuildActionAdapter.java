@@ -25,6 +25,7 @@
 import org.gradle.tooling.internal.protocol.InternalActionAwareBuildController;
 import org.gradle.tooling.internal.protocol.InternalBuildActionVersion2;
 import org.gradle.tooling.internal.protocol.InternalBuildControllerVersion2;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueRelay;
 
 import java.io.File;
 
@@ -66,7 +67,9 @@ public T execute(final InternalBuildControllerVersion2 buildController) {
 
     private BuildController wrapBuildController(final InternalBuildControllerVersion2 buildController) {
         ProtocolToModelAdapter protocolToModelAdapter = new ProtocolToModelAdapter(new ConsumerTargetTypeProvider());
-        if (buildController instanceof InternalActionAwareBuildController) {
+        if (buildController instanceof InternalStreamedValueRelay) {
+            return new StreamingAwareBuildControllerAdapter(buildController, protocolToModelAdapter, new ModelMapping(), rootDir);
+        } else if (buildController instanceof InternalActionAwareBuildController) {
             return new NestedActionAwareBuildControllerAdapter(buildController, protocolToModelAdapter, new ModelMapping(), rootDir);
         } else {
             return new ParameterAwareBuildControllerAdapter(buildController, protocolToModelAdapter, new ModelMapping(), rootDir);
@@ -157,6 +157,11 @@ public boolean getCanQueryProjectModelInParallel(Class<?> modelType) {
         return false;
     }
 
+    @Override
+    public void send(Object value) throws UnsupportedVersionException {
+        throw new UnsupportedVersionException("The version of Gradle used by the build does not support streaming values from a build action.");
+    }
+
     @Override
     public <T> List<T> run(Collection<? extends BuildAction<? extends T>> actions) {
         List<T> results = new ArrayList<T>(actions.size());
@@ -20,6 +20,7 @@
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.events.OperationType;
 import org.gradle.tooling.events.ProgressListener;
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter;
@@ -28,6 +29,7 @@
 import org.gradle.tooling.internal.gradle.TaskListingLaunchable;
 import org.gradle.tooling.internal.protocol.BuildParameters;
 import org.gradle.tooling.internal.protocol.InternalLaunchable;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
 import org.gradle.tooling.internal.protocol.ProgressListenerVersion1;
 import org.gradle.tooling.model.Launchable;
 import org.gradle.tooling.model.Task;
@@ -71,6 +73,7 @@ public static class Builder {
         private List<String> tasks;
         private List<InternalLaunchable> launchables;
         private ClassPath injectedPluginClasspath = ClassPath.EMPTY;
+        private StreamedValueListener streamedValueListener;
 
         private Builder() {
         }
@@ -202,13 +205,17 @@ public void setCancellationToken(CancellationToken cancellationToken) {
             this.cancellationToken = cancellationToken;
         }
 
+        public void setStreamedValueListener(StreamedValueListener streamedValueListener) {
+            this.streamedValueListener = streamedValueListener;
+        }
+
         public ConsumerOperationParameters build() {
             if (entryPoint == null) {
                 throw new IllegalStateException("No entry point specified.");
             }
 
             return new ConsumerOperationParameters(entryPoint, parameters, stdout, stderr, colorOutput, stdin, javaHome, jvmArguments, envVariables, arguments, tasks, launchables, injectedPluginClasspath,
-                legacyProgressListeners, progressListeners, cancellationToken);
+                legacyProgressListeners, progressListeners, cancellationToken, streamedValueListener);
         }
 
         public void copyFrom(ConsumerOperationParameters operationParameters) {
@@ -226,6 +233,7 @@ public void copyFrom(ConsumerOperationParameters operationParameters) {
             colorOutput = operationParameters.colorOutput;
             javaHome = operationParameters.javaHome;
             injectedPluginClasspath = operationParameters.injectedPluginClasspath;
+            streamedValueListener = operationParameters.streamedValueListener;
         }
     }
 
@@ -251,10 +259,12 @@ public void copyFrom(ConsumerOperationParameters operationParameters) {
 
     private final List<org.gradle.tooling.ProgressListener> legacyProgressListeners;
     private final Map<OperationType, List<ProgressListener>> progressListeners;
+    private final StreamedValueListener streamedValueListener;
 
     private ConsumerOperationParameters(String entryPointName, ConnectionParameters parameters, OutputStream stdout, OutputStream stderr, Boolean colorOutput, InputStream stdin,
                                         File javaHome, List<String> jvmArguments,  Map<String, String> envVariables, List<String> arguments, List<String> tasks, List<InternalLaunchable> launchables, ClassPath injectedPluginClasspath,
-                                        List<org.gradle.tooling.ProgressListener> legacyProgressListeners, Map<OperationType, List<ProgressListener>> progressListeners, CancellationToken cancellationToken) {
+                                        List<org.gradle.tooling.ProgressListener> legacyProgressListeners, Map<OperationType, List<ProgressListener>> progressListeners, CancellationToken cancellationToken,
+                                        StreamedValueListener streamedValueListener) {
         this.entryPointName = entryPointName;
         this.parameters = parameters;
         this.stdout = stdout;
@@ -271,6 +281,7 @@ private ConsumerOperationParameters(String entryPointName, ConnectionParameters
         this.cancellationToken = cancellationToken;
         this.legacyProgressListeners = legacyProgressListeners;
         this.progressListeners = progressListeners;
+        this.streamedValueListener = streamedValueListener;
 
         // create the listener adapters right when the ConsumerOperationParameters are instantiated but no earlier,
         // this ensures that when multiple requests are issued that are built from the same builder, such requests do not share any state kept in the listener adapters
@@ -438,6 +449,21 @@ public FailsafeBuildProgressListenerAdapter getBuildProgressListener() {
         return buildProgressListener;
     }
 
+    /**
+     * @since 7.2
+     */
+    public InternalStreamedValueListener getStreamedValueListener() {
+        if (streamedValueListener == null) {
+            return null;
+        }
+        return new InternalStreamedValueListener() {
+            @Override
+            public void onValue(Object value) {
+                streamedValueListener.onValue(value);
+            }
+        };
+    }
+
     public BuildCancellationToken getCancellationToken() {
         return ((CancellationTokenInternal) cancellationToken).getToken();
     }
@@ -99,6 +99,10 @@ public Void call() throws Exception {
 
         // Read server address and start connecting
         MultiChoiceAddress serverAddress = new MultiChoiceAddressSerializer().read(decoder);
+        String domainSocketPath = decoder.readNullableString();
+        if (domainSocketPath != null) {
+            serverAddress = serverAddress.withDomainSocket(new File(domainSocketPath));
+        }
         NativeServices.initialize(gradleUserHomeDir, false);
         DefaultServiceRegistry basicWorkerServices = new DefaultServiceRegistry(NativeServices.getInstance(), loggingServiceRegistry);
         basicWorkerServices.add(ExecutorFactory.class, new DefaultExecutorFactory());
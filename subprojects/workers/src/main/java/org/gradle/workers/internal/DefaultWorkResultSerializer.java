@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Message;
+import org.gradle.internal.serialize.Serializer;
+
+public class DefaultWorkResultSerializer implements Serializer<DefaultWorkResult> {
+    @Override
+    public void write(Encoder encoder, DefaultWorkResult value) throws Exception {
+        encoder.writeBoolean(value.getDidWork());
+        if (value.getException() == null) {
+            encoder.writeBoolean(false);
+        } else {
+            encoder.writeBoolean(true);
+            Message.send(value.getException(), encoder.getOutputStream());
+        }
+    }
+
+    @Override
+    public DefaultWorkResult read(Decoder decoder) throws Exception {
+        boolean didWork = decoder.readBoolean();
+        Throwable exception = decoder.readBoolean() ? (Throwable) Message.receive(decoder.getInputStream(), getClass().getClassLoader()) : null;
+        if (didWork && exception == null) {
+            return DefaultWorkResult.SUCCESS;
+        }
+        return new DefaultWorkResult(didWork, exception);
+    }
+}
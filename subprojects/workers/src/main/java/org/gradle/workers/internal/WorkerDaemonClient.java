@@ -22,6 +22,10 @@
 import org.gradle.process.internal.worker.MultiRequestClient;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.Set;
+
 class WorkerDaemonClient implements Stoppable {
     public static final String DISABLE_EXPIRATION_PROPERTY_KEY = "org.gradle.workers.internal.disable-daemons-expiration";
     private final DaemonForkOptions forkOptions;
@@ -29,6 +33,7 @@ class WorkerDaemonClient implements Stoppable {
     private final WorkerProcess workerProcess;
     private final LogLevel logLevel;
     private final ActionExecutionSpecFactory actionExecutionSpecFactory;
+    private final Set<String> executedActions = new HashSet<>();
     private int uses;
     private boolean failed;
     private boolean cannotBeExpired = Boolean.getBoolean(DISABLE_EXPIRATION_PROPERTY_KEY);
@@ -43,6 +48,7 @@ public WorkerDaemonClient(DaemonForkOptions forkOptions, MultiRequestClient<Tran
 
     public DefaultWorkResult execute(IsolatedParametersActionExecutionSpec<?> spec) {
         uses++;
+        executedActions.add(spec.getActionImplementationClassName());
         return workerClient.run(actionExecutionSpecFactory.newTransportableSpec(spec));
     }
 
@@ -50,6 +56,13 @@ public boolean isCompatibleWith(DaemonForkOptions required) {
         return forkOptions.isCompatibleWith(required);
     }
 
+    /**
+     * Returns true when this worker has already executed the given action, and so has its classes loaded and possibly JIT compiled.
+     */
+    public boolean hasExecuted(@Nullable String actionImplementationClassName) {
+        return actionImplementationClassName != null && executedActions.contains(actionImplementationClassName);
+    }
+
     JvmMemoryStatus getJvmMemoryStatus() {
         return workerProcess.getJvmMemoryStatus();
     }
@@ -24,6 +24,9 @@
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.session.BuildSessionLifecycleListener;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.exceptions.DefaultMultiCauseException;
@@ -31,11 +34,14 @@
 import org.gradle.internal.logging.events.LogLevelChangeEvent;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.process.internal.health.memory.MaximumHeapHelper;
+import org.gradle.process.internal.health.memory.MemoryAmount;
 import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.health.memory.OsMemoryInfo;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.util.internal.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -44,11 +50,17 @@
 
 public class WorkerDaemonClientsManager implements Stoppable {
 
+    /**
+     * When set, session scoped worker daemons that were used by the previous build session are started again in the background when the next session starts.
+     */
+    public static final String PREWARM_PROPERTY_KEY = "org.gradle.workers.internal.prewarm-session-daemons";
+
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final List<DaemonForkOptions> prewarmCandidates = new ArrayList<DaemonForkOptions>();
     private final Action<WorkerProcess> workerProcessCleanupAction = new WorkerProcessCleanupAction();
 
     private final WorkerDaemonStarter workerDaemonStarter;
@@ -59,14 +71,22 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private final OutputEventListener logLevelChangeEventListener;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
+    @Nullable
+    private final ManagedExecutor prewarmExecutor;
     private volatile LogLevel currentLogLevel;
+    private boolean stopped;
+    // Incremented when a session completes, so that workers pre-started for a session that has completed are not kept
+    private int session;
+    private int poolHits;
+    private int affinityHits;
+    private int poolMisses;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo, ExecutorFactory executorFactory) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
         this.memoryInfo = memoryInfo;
-        this.stopSessionScopeWorkers = new StopSessionScopedWorkers();
+        this.stopSessionScopeWorkers = new SessionScopedWorkersLifecycle();
         listenerManager.addListener(stopSessionScopeWorkers);
         this.logLevelChangeEventListener = new LogLevelChangeEventListener();
         loggingManager.addOutputEventListener(logLevelChangeEventListener);
@@ -74,30 +94,53 @@ public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, Liste
         this.memoryManager = memoryManager;
         this.workerDaemonExpiration = new WorkerDaemonExpiration(this, getTotalPhysicalMemory());
         memoryManager.addMemoryHolder(workerDaemonExpiration);
+        this.prewarmExecutor = Boolean.getBoolean(PREWARM_PROPERTY_KEY) ? executorFactory.create("Worker daemon pre-warming", 1) : null;
     }
 
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+        return reserveIdleClient(forkOptions, (String) null);
+    }
+
+    /**
+     * Reserves an idle client compatible with the given fork options, preferring one that has already executed the given action.
+     */
+    public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, @Nullable String actionImplementationClassName) {
+        return reserveIdleClient(forkOptions, actionImplementationClassName, idleClients);
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+        return reserveIdleClient(forkOptions, null, clients);
+    }
+
+    private WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, @Nullable String actionImplementationClassName, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
+            WorkerDaemonClient firstCompatible = null;
             Iterator<WorkerDaemonClient> it = clients.iterator();
             while (it.hasNext()) {
                 WorkerDaemonClient candidate = it.next();
                 if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
                     if (candidate.getLogLevel() != currentLogLevel) {
+                        it.remove();
                         // TODO: Send a message to workers to change their log level rather than stopping
                         LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
                         candidate.stop();
-                    } else {
+                    } else if (candidate.hasExecuted(actionImplementationClassName)) {
+                        // A worker that already ran this action has its classes loaded and JIT compiled
+                        it.remove();
+                        poolHits++;
+                        affinityHits++;
                         return candidate;
+                    } else if (firstCompatible == null) {
+                        firstCompatible = candidate;
                     }
                 }
             }
-            return null;
+            if (firstCompatible != null) {
+                clients.remove(firstCompatible);
+                poolHits++;
+            }
+            return firstCompatible;
         }
     }
 
@@ -106,10 +149,38 @@ public WorkerDaemonClient reserveNewClient(DaemonForkOptions forkOptions) {
         WorkerDaemonClient client = workerDaemonStarter.startDaemon(forkOptions, workerProcessCleanupAction);
         synchronized (lock) {
             allClients.add(client);
+            poolMisses++;
         }
         return client;
     }
 
+    /**
+     * The number of reservations served by an idle worker daemon since the start of the current session.
+     */
+    public int getPoolHits() {
+        synchronized (lock) {
+            return poolHits;
+        }
+    }
+
+    /**
+     * The number of reservations served by an idle worker daemon that had already executed the same action, since the start of the current session.
+     */
+    public int getAffinityHits() {
+        synchronized (lock) {
+            return affinityHits;
+        }
+    }
+
+    /**
+     * The number of worker daemons started on demand since the start of the current session.
+     */
+    public int getPoolMisses() {
+        synchronized (lock) {
+            return poolMisses;
+        }
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             if (!client.isFailed()) {
@@ -120,6 +191,11 @@ public void release(WorkerDaemonClient client) {
 
     @Override
     public void stop() {
+        synchronized (lock) {
+            stopped = true;
+        }
+        // Do not hold lock while waiting for pre-warming to finish, as it needs the lock to register the workers it starts
+        CompositeStoppable.stoppable(prewarmExecutor).stop();
         synchronized (lock) {
             stopWorkers(allClients);
             allClients.clear();
@@ -131,6 +207,55 @@ public void stop() {
         loggingManager.removeOutputEventListener(logLevelChangeEventListener);
     }
 
+    private void prewarm(List<DaemonForkOptions> candidates, int forSession) {
+        int started = 0;
+        for (DaemonForkOptions forkOptions : candidates) {
+            synchronized (lock) {
+                if (stopped || session != forSession) {
+                    return;
+                }
+            }
+            if (!hasFreeMemoryFor(forkOptions)) {
+                LOGGER.debug("Not enough free system memory to pre-start worker daemon with fork options {}.", forkOptions);
+                break;
+            }
+            WorkerDaemonClient client;
+            try {
+                client = workerDaemonStarter.startDaemon(forkOptions, workerProcessCleanupAction);
+            } catch (Exception e) {
+                // The worker will be started on demand instead, which reports the failure properly
+                LOGGER.debug("Could not pre-start worker daemon with fork options {}.", forkOptions, e);
+                break;
+            }
+            synchronized (lock) {
+                if (stopped || session != forSession) {
+                    client.stop();
+                    return;
+                }
+                allClients.add(client);
+                idleClients.add(client);
+            }
+            started++;
+        }
+        LOGGER.info("Pre-started {} worker daemon(s).", started);
+    }
+
+    private boolean hasFreeMemoryFor(DaemonForkOptions forkOptions) {
+        long freeMemory;
+        try {
+            freeMemory = memoryInfo.getOsSnapshot().getFreePhysicalMemory();
+        } catch (UnsupportedOperationException e) {
+            // Cannot tell, so do not start speculatively
+            return false;
+        }
+        long required = MemoryAmount.parseNotation(forkOptions.getJavaForkOptions().getMaxHeapSize());
+        if (required == -1) {
+            long totalMemory = getTotalPhysicalMemory();
+            required = totalMemory == -1 ? 0 : new MaximumHeapHelper().getDefaultMaximumHeapSize(totalMemory);
+        }
+        return freeMemory >= required;
+    }
+
     private long getTotalPhysicalMemory() {
         try {
             return memoryInfo.getOsSnapshot().getTotalPhysicalMemory();
@@ -180,11 +305,42 @@ private void stopWorkers(List<WorkerDaemonClient> clientsToStop) {
         }
     }
 
-    private class StopSessionScopedWorkers implements BuildSessionLifecycleListener {
+    private class SessionScopedWorkersLifecycle implements BuildSessionLifecycleListener {
+        @Override
+        public void afterStart() {
+            if (prewarmExecutor == null) {
+                return;
+            }
+            List<DaemonForkOptions> candidates;
+            int forSession;
+            synchronized (lock) {
+                if (prewarmCandidates.isEmpty()) {
+                    return;
+                }
+                candidates = new ArrayList<>(prewarmCandidates);
+                prewarmCandidates.clear();
+                forSession = session;
+            }
+            prewarmExecutor.execute(() -> prewarm(candidates, forSession));
+        }
+
         @Override
         public void beforeComplete() {
             synchronized (lock) {
+                session++;
+                LOGGER.debug("Worker daemon pool statistics for this session: {} reused ({} for the same action), {} started on demand.", poolHits, affinityHits, poolMisses);
+                poolHits = 0;
+                affinityHits = 0;
+                poolMisses = 0;
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, client -> client.getKeepAliveMode() == KeepAliveMode.SESSION);
+                if (prewarmExecutor != null) {
+                    // Only remember workers that did some work, so that pre-started workers that stay unused are not started again
+                    for (WorkerDaemonClient client : sessionScopedClients) {
+                        if (client.getUses() > 0 && !client.isFailed()) {
+                            prewarmCandidates.add(client.getForkOptions());
+                        }
+                    }
+                }
                 stopWorkers(sessionScopedClients);
             }
         }
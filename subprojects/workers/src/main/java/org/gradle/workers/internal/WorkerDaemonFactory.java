@@ -39,7 +39,7 @@ public BuildOperationAwareWorker getWorker(WorkerRequirement workerRequirement)
         return new AbstractWorker(buildOperationExecutor) {
             @Override
             public DefaultWorkResult execute(IsolatedParametersActionExecutionSpec<?> spec, BuildOperationRef parentBuildOperation) {
-                final WorkerDaemonClient client = reserveClient();
+                final WorkerDaemonClient client = reserveClient(spec.getActionImplementationClassName());
                 try {
                     return executeWrappedInBuildOperation(spec, parentBuildOperation, client::execute);
                 } finally {
@@ -47,9 +47,9 @@ public DefaultWorkResult execute(IsolatedParametersActionExecutionSpec<?> spec,
                 }
             }
 
-            private WorkerDaemonClient reserveClient() {
+            private WorkerDaemonClient reserveClient(String actionImplementationClassName) {
                 DaemonForkOptions forkOptions = ((ForkedWorkerRequirement) workerRequirement).getForkOptions();
-                WorkerDaemonClient client = clientsManager.reserveIdleClient(forkOptions);
+                WorkerDaemonClient client = clientsManager.reserveIdleClient(forkOptions, actionImplementationClassName);
                 if (client == null) {
                     client = clientsManager.reserveNewClient(forkOptions);
                 }
@@ -66,6 +66,7 @@ public WorkerDaemonServer(ServiceRegistry parentServices, RequestArgumentSeriali
         this.actionExecutionSpecFactory = internalServices.get(ActionExecutionSpecFactory.class);
         this.instantiatorFactory = internalServices.get(InstantiatorFactory.class);
         argumentSerializers.register(TransportableActionExecutionSpec.class, new TransportableActionExecutionSpecSerializer());
+        argumentSerializers.register(DefaultWorkResult.class, new DefaultWorkResultSerializer());
     }
 
     static ServiceRegistry createWorkerDaemonServices(ServiceRegistry parent) {
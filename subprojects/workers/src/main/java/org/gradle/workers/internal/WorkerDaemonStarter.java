@@ -68,6 +68,7 @@ public WorkerDaemonClient startDaemon(DaemonForkOptions forkOptions, Action<Work
         JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
         forkOptions.getJavaForkOptions().copyTo(javaCommand);
         builder.registerArgumentSerializer(TransportableActionExecutionSpec.class, new TransportableActionExecutionSpecSerializer());
+        builder.registerArgumentSerializer(DefaultWorkResult.class, new DefaultWorkResultSerializer());
         MultiRequestClient<TransportableActionExecutionSpec, DefaultWorkResult> workerDaemonProcess = builder.build();
         WorkerProcess workerProcess = workerDaemonProcess.start();
 
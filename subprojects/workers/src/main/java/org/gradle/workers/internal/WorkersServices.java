@@ -82,9 +82,10 @@ WorkerDaemonClientsManager createWorkerDaemonClientsManager(WorkerProcessFactory
                                                                     ListenerManager listenerManager,
                                                                     MemoryManager memoryManager,
                                                                     OsMemoryInfo memoryInfo,
+                                                                    ExecutorFactory executorFactory,
                                                                     ClassPathRegistry classPathRegistry,
                                                                     ActionExecutionSpecFactory actionExecutionSpecFactory) {
-            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager, classPathRegistry, actionExecutionSpecFactory), listenerManager, loggingManager, memoryManager, memoryInfo);
+            return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager, classPathRegistry, actionExecutionSpecFactory), listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory);
         }
 
         ClassLoaderStructureProvider createClassLoaderStructureProvider(ClassLoaderRegistry classLoaderRegistry) {
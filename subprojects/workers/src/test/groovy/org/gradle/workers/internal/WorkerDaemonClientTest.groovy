@@ -48,6 +48,20 @@ class WorkerDaemonClientTest extends Specification {
         client.uses == 5
     }
 
+    def "remembers which actions have been executed"() {
+        given:
+        def client = client()
+        assert !client.hasExecuted("impl")
+
+        when:
+        client.execute(spec())
+
+        then:
+        client.hasExecuted("impl")
+        !client.hasExecuted("other")
+        !client.hasExecuted(null)
+    }
+
     WorkerDaemonClient client() {
         return client(Mock(MultiRequestClient))
     }
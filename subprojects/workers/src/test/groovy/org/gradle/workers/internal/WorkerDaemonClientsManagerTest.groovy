@@ -19,6 +19,8 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.internal.session.BuildSessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.exceptions.DefaultMultiCauseException
@@ -26,11 +28,15 @@ import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.events.LogLevelChangeEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.internal.service.scopes.Scopes
+import org.gradle.process.JavaForkOptions
 import org.gradle.process.internal.ExecException
 import org.gradle.process.internal.health.memory.MBeanOsMemoryInfo
 import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryInfo
+import org.gradle.process.internal.health.memory.OsMemoryStatusSnapshot
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
+import spock.util.environment.RestoreSystemProperties
 
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def options = Stub(DaemonForkOptions)
@@ -38,9 +44,10 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
     def memoryManager = Mock(MemoryManager)
+    def executorFactory = Stub(ExecutorFactory)
 
     @Subject
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -149,7 +156,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager(Scopes.BuildSession)
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(options, _) >>> [client1, client2]
@@ -168,7 +175,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager(Scopes.BuildSession)
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(options, _) >>> [client1, client2]
@@ -205,6 +212,188 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         manager.reserveIdleClient(options) == client
     }
 
+    def "prefers idle client that has already executed the same action"() {
+        def other = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+            hasExecuted("Action") >> false
+        }
+        def warm = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+            hasExecuted("Action") >> true
+        }
+        starter.startDaemon(options, _) >>> [other, warm]
+
+        when:
+        2.times { manager.reserveNewClient(options) }
+        manager.release(other)
+        manager.release(warm)
+
+        then:
+        manager.reserveIdleClient(options, "Action") == warm
+        manager.reserveIdleClient(options, "Action") == other
+        manager.reserveIdleClient(options, "Action") == null
+    }
+
+    def "tracks pool hits and misses"() {
+        def client = Stub(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+            hasExecuted("Action") >> true
+        }
+        starter.startDaemon(options, _) >> client
+
+        when:
+        manager.reserveNewClient(options)
+        manager.release(client)
+        manager.reserveIdleClient(options, "Action")
+        manager.release(client)
+        manager.reserveIdleClient(options, "Other")
+
+        then:
+        manager.poolMisses == 1
+        manager.poolHits == 2
+        manager.affinityHits == 1
+    }
+
+    @RestoreSystemProperties
+    def "pre-starts session-scoped workers used in the previous session when enabled"() {
+        System.setProperty(WorkerDaemonClientsManager.PREWARM_PROPERTY_KEY, "true")
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory = Stub(ExecutorFactory) {
+            create(_, _) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> action.run() }
+            }
+        }
+        def memoryInfo = Stub(OsMemoryInfo) {
+            getOsSnapshot() >> new OsMemoryStatusSnapshot(8L * 1024 * 1024 * 1024, 4L * 1024 * 1024 * 1024)
+        }
+        def javaForkOptions = Stub(JavaForkOptions) { getMaxHeapSize() >> "512m" }
+        options = Stub(DaemonForkOptions) { getJavaForkOptions() >> javaForkOptions }
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory)
+        def used = Mock(WorkerDaemonClient) {
+            _ * getKeepAliveMode() >> KeepAliveMode.SESSION
+            _ * getUses() >> 3
+            _ * getForkOptions() >> options
+        }
+        def unused = Mock(WorkerDaemonClient) {
+            _ * getKeepAliveMode() >> KeepAliveMode.SESSION
+            _ * getUses() >> 0
+        }
+        def prestarted = Mock(WorkerDaemonClient) {
+            _ * isCompatibleWith(options) >> true
+            _ * getLogLevel() >> LogLevel.DEBUG
+        }
+        def sessionListener = listenerManager.getBroadcaster(BuildSessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(options)
+        manager.reserveNewClient(options)
+        sessionListener.beforeComplete()
+
+        then:
+        2 * starter.startDaemon(options, _) >>> [used, unused]
+        1 * used.stop()
+        1 * unused.stop()
+
+        when:
+        sessionListener.afterStart()
+
+        then:
+        1 * starter.startDaemon(options, _) >> prestarted
+
+        and:
+        manager.reserveIdleClient(options) == prestarted
+        manager.poolHits == 1
+        manager.poolMisses == 0
+    }
+
+    @RestoreSystemProperties
+    def "stops pre-started worker when the session completes while the worker starts"() {
+        System.setProperty(WorkerDaemonClientsManager.PREWARM_PROPERTY_KEY, "true")
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory = Stub(ExecutorFactory) {
+            create(_, _) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> action.run() }
+            }
+        }
+        def memoryInfo = Stub(OsMemoryInfo) {
+            getOsSnapshot() >> new OsMemoryStatusSnapshot(8L * 1024 * 1024 * 1024, 4L * 1024 * 1024 * 1024)
+        }
+        def javaForkOptions = Stub(JavaForkOptions) { getMaxHeapSize() >> "512m" }
+        options = Stub(DaemonForkOptions) { getJavaForkOptions() >> javaForkOptions }
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory)
+        def used = Mock(WorkerDaemonClient) {
+            _ * getKeepAliveMode() >> KeepAliveMode.SESSION
+            _ * getUses() >> 3
+            _ * getForkOptions() >> options
+        }
+        def prestarted = Mock(WorkerDaemonClient) {
+            _ * getKeepAliveMode() >> KeepAliveMode.SESSION
+            _ * isCompatibleWith(options) >> true
+            _ * getLogLevel() >> LogLevel.DEBUG
+        }
+        def sessionListener = listenerManager.getBroadcaster(BuildSessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(options)
+        sessionListener.beforeComplete()
+
+        then:
+        1 * starter.startDaemon(options, _) >> used
+        1 * used.stop()
+
+        when:
+        sessionListener.afterStart()
+
+        then:
+        1 * starter.startDaemon(options, _) >> {
+            sessionListener.beforeComplete()
+            prestarted
+        }
+        1 * prestarted.stop()
+
+        and:
+        manager.reserveIdleClient(options) == null
+    }
+
+    @RestoreSystemProperties
+    def "does not pre-start workers when there is not enough free memory"() {
+        System.setProperty(WorkerDaemonClientsManager.PREWARM_PROPERTY_KEY, "true")
+        listenerManager = new DefaultListenerManager(Scopes.BuildSession)
+        executorFactory = Stub(ExecutorFactory) {
+            create(_, _) >> Stub(ManagedExecutor) {
+                execute(_) >> { Runnable action -> action.run() }
+            }
+        }
+        def memoryInfo = Stub(OsMemoryInfo) {
+            getOsSnapshot() >> new OsMemoryStatusSnapshot(8L * 1024 * 1024 * 1024, 256L * 1024 * 1024)
+        }
+        def javaForkOptions = Stub(JavaForkOptions) { getMaxHeapSize() >> "512m" }
+        options = Stub(DaemonForkOptions) { getJavaForkOptions() >> javaForkOptions }
+        starter = Mock(WorkerDaemonStarter)
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, memoryInfo, executorFactory)
+        def used = Mock(WorkerDaemonClient) {
+            _ * getKeepAliveMode() >> KeepAliveMode.SESSION
+            _ * getUses() >> 3
+            _ * getForkOptions() >> options
+        }
+        def sessionListener = listenerManager.getBroadcaster(BuildSessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(options)
+        sessionListener.beforeComplete()
+        sessionListener.afterStart()
+
+        then:
+        1 * starter.startDaemon(options, _) >> used
+        1 * used.stop()
+        0 * starter.startDaemon(_, _)
+    }
+
     def "clients are discarded when log level changes"() {
         OutputEventListener listener
         def client = Mock(WorkerDaemonClient) {
@@ -216,7 +405,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
         then:
         listener != null
@@ -293,7 +482,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         WorkerDaemonExpiration workerDaemonExpiration
 
         when:
-        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
         then:
         1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
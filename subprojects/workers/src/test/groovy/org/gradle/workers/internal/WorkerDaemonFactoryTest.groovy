@@ -53,7 +53,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> null
+        1 * clientsManager.reserveIdleClient(options, _ as String) >> null
 
         then:
         1 * clientsManager.reserveNewClient(options) >> client
@@ -71,7 +71,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _ as String) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call(Stub(BuildOperationContext)) }
@@ -86,7 +86,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _ as String) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -102,7 +102,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _ as String) >> client
         1 * buildOperationExecutor.call(_)
     }
 
@@ -111,7 +111,7 @@ class WorkerDaemonFactoryTest extends Specification {
         factory.getWorker(requirement).execute(spec)
 
         then:
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveIdleClient(options, _ as String) >> client
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 